@@ -15,7 +15,9 @@ import org.springframework.context.annotation.Import;
 @EnableConfigurationProperties(WxCpProperties.class)
 @Import({
   WxCpStorageAutoConfiguration.class,
-  WxCpServiceAutoConfiguration.class
+  WxCpServiceAutoConfiguration.class,
+  WxCpMetricsAutoConfiguration.class,
+  WxCpMessageDuplicateCheckerAutoConfiguration.class
 })
 public class WxCpAutoConfiguration {
 }
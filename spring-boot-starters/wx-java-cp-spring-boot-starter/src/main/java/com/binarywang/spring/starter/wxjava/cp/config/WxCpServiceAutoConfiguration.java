@@ -2,9 +2,11 @@ package com.binarywang.spring.starter.wxjava.cp.config;
 
 import com.binarywang.spring.starter.wxjava.cp.properties.WxCpProperties;
 import lombok.RequiredArgsConstructor;
+import me.chanjar.weixin.common.metrics.WxApiCallListener;
 import me.chanjar.weixin.cp.api.WxCpService;
 import me.chanjar.weixin.cp.api.impl.WxCpServiceImpl;
 import me.chanjar.weixin.cp.config.WxCpConfigStorage;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
@@ -24,7 +26,8 @@ public class WxCpServiceAutoConfiguration {
   @Bean
   @ConditionalOnMissingBean
   @ConditionalOnBean(WxCpConfigStorage.class)
-  public WxCpService wxCpService(WxCpConfigStorage wxCpConfigStorage) {
+  public WxCpService wxCpService(WxCpConfigStorage wxCpConfigStorage,
+                                 ObjectProvider<WxApiCallListener> apiCallListener) {
     WxCpService wxCpService = new WxCpServiceImpl();
     wxCpService.setWxCpConfigStorage(wxCpConfigStorage);
 
@@ -39,6 +42,7 @@ public class WxCpServiceAutoConfiguration {
     }
     wxCpService.setRetrySleepMillis(retrySleepMillis);
     wxCpService.setMaxRetryTimes(maxRetryTimes);
+    apiCallListener.ifAvailable(wxCpService::setApiCallListener);
     return wxCpService;
   }
 }
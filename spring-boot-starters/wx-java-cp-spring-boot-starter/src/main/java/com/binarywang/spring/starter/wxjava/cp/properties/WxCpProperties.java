@@ -1,5 +1,6 @@
 package com.binarywang.spring.starter.wxjava.cp.properties;
 
+import com.binarywang.spring.starter.wxjava.cp.enums.MessageDuplicateCheckerType;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -44,6 +45,11 @@ public class WxCpProperties {
    */
   private ConfigStorage configStorage = new ConfigStorage();
 
+  /**
+   * 消息排重配置，指定type后自动注册 WxMessageDuplicateChecker，可通过 MessageRouter 的 setMessageDuplicateChecker 使用.
+   */
+  private final MessageDuplicateChecker messageDuplicateChecker = new MessageDuplicateChecker();
+
   @Data
   @NoArgsConstructor
   public static class ConfigStorage implements Serializable {
@@ -92,10 +98,29 @@ public class WxCpProperties {
     private int retrySleepMillis = 1000;
   }
 
+  @Data
+  public static class MessageDuplicateChecker implements Serializable {
+    private static final long serialVersionUID = -1398722469358452281L;
+
+    /**
+     * 排重方式.
+     */
+    private MessageDuplicateCheckerType type;
+
+    /**
+     * 一个消息ID的过期时间：秒.
+     */
+    private int timeToLive = 15;
+
+    /**
+     * redis key前缀，为空时使用 "wx:msg_dup".
+     */
+    private String keyPrefix;
+  }
+
   public enum StorageType {
     /**
      * 内存
      */
     memory
-  }
-}
+  }}
@@ -15,7 +15,9 @@ import org.springframework.context.annotation.Import;
 @EnableConfigurationProperties(WxMaProperties.class)
 @Import({
   WxMaStorageAutoConfiguration.class,
-  WxMaServiceAutoConfiguration.class
+  WxMaServiceAutoConfiguration.class,
+  WxMaMetricsAutoConfiguration.class,
+  WxMaMessageDuplicateCheckerAutoConfiguration.class
 })
 public class WxMaAutoConfiguration {
 }
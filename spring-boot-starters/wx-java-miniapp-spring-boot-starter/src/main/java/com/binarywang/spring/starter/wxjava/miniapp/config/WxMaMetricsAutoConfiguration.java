@@ -0,0 +1,28 @@
+package com.binarywang.spring.starter.wxjava.miniapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import me.chanjar.weixin.common.metrics.MicrometerWxApiCallListener;
+import me.chanjar.weixin.common.metrics.WxApiCallListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 微信小程序接口调用指标自动注册，classpath 中存在 Micrometer 时生效.
+ * 未注册 {@link MeterRegistry} 时使用 {@link Metrics#globalRegistry}.
+ *
+ * @author someone
+ */
+@Configuration
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class WxMaMetricsAutoConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean(WxApiCallListener.class)
+  public WxApiCallListener wxApiCallListener(ObjectProvider<MeterRegistry> meterRegistry) {
+    return new MicrometerWxApiCallListener(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+}
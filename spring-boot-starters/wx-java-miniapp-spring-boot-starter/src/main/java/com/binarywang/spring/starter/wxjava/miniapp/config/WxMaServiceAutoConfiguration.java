@@ -9,6 +9,8 @@ import cn.binarywang.wx.miniapp.config.WxMaConfig;
 import com.binarywang.spring.starter.wxjava.miniapp.enums.HttpClientType;
 import com.binarywang.spring.starter.wxjava.miniapp.properties.WxMaProperties;
 import lombok.AllArgsConstructor;
+import me.chanjar.weixin.common.metrics.WxApiCallListener;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
@@ -33,7 +35,7 @@ public class WxMaServiceAutoConfiguration {
   @Bean
   @ConditionalOnMissingBean(WxMaService.class)
   @ConditionalOnBean(WxMaConfig.class)
-  public WxMaService wxMaService(WxMaConfig wxMaConfig) {
+  public WxMaService wxMaService(WxMaConfig wxMaConfig, ObjectProvider<WxApiCallListener> apiCallListener) {
     HttpClientType httpClientType = wxMaProperties.getConfigStorage().getHttpClientType();
     WxMaService wxMaService;
     switch (httpClientType) {
@@ -51,6 +53,7 @@ public class WxMaServiceAutoConfiguration {
         break;
     }
     wxMaService.setWxMaConfig(wxMaConfig);
+    apiCallListener.ifAvailable(wxMaService::setApiCallListener);
     return wxMaService;
   }
 }
@@ -1,6 +1,7 @@
 package com.binarywang.spring.starter.wxjava.miniapp.properties;
 
 import com.binarywang.spring.starter.wxjava.miniapp.enums.HttpClientType;
+import com.binarywang.spring.starter.wxjava.miniapp.enums.MessageDuplicateCheckerType;
 import com.binarywang.spring.starter.wxjava.miniapp.enums.StorageType;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -49,6 +50,11 @@ public class WxMaProperties {
    */
   private final ConfigStorage configStorage = new ConfigStorage();
 
+  /**
+   * 消息排重配置，指定type后自动注册 WxMessageDuplicateChecker，可通过 MessageRouter 的 setMessageDuplicateChecker 使用.
+   */
+  private final MessageDuplicateChecker messageDuplicateChecker = new MessageDuplicateChecker();
+
   @Data
   public static class ConfigStorage {
 
@@ -109,4 +115,22 @@ public class WxMaProperties {
     private int maxRetryTimes = 5;
   }
 
+  @Data
+  public static class MessageDuplicateChecker {
+    /**
+     * 排重方式.
+     */
+    private MessageDuplicateCheckerType type;
+
+    /**
+     * 一个消息ID的过期时间：秒.
+     */
+    private int timeToLive = 15;
+
+    /**
+     * redis key前缀，为空时使用 config-storage.key-prefix 加 ":msg_dup".
+     */
+    private String keyPrefix;
+  }
+
 }
@@ -2,12 +2,14 @@ package com.binarywang.spring.starter.wxjava.mp.config;
 
 import com.binarywang.spring.starter.wxjava.mp.enums.HttpClientType;
 import com.binarywang.spring.starter.wxjava.mp.properties.WxMpProperties;
+import me.chanjar.weixin.common.metrics.WxApiCallListener;
 import me.chanjar.weixin.mp.api.WxMpService;
 import me.chanjar.weixin.mp.api.impl.WxMpServiceHttpClientImpl;
 import me.chanjar.weixin.mp.api.impl.WxMpServiceImpl;
 import me.chanjar.weixin.mp.api.impl.WxMpServiceJoddHttpImpl;
 import me.chanjar.weixin.mp.api.impl.WxMpServiceOkHttpImpl;
 import me.chanjar.weixin.mp.config.WxMpConfigStorage;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -22,7 +24,8 @@ public class WxMpServiceAutoConfiguration {
 
   @Bean
   @ConditionalOnMissingBean
-  public WxMpService wxMpService(WxMpConfigStorage configStorage, WxMpProperties wxMpProperties) {
+  public WxMpService wxMpService(WxMpConfigStorage configStorage, WxMpProperties wxMpProperties,
+                                 ObjectProvider<WxApiCallListener> apiCallListener) {
     HttpClientType httpClientType = wxMpProperties.getConfigStorage().getHttpClientType();
     WxMpService wxMpService;
     switch (httpClientType) {
@@ -41,6 +44,7 @@ public class WxMpServiceAutoConfiguration {
     }
 
     wxMpService.setWxMpConfigStorage(configStorage);
+    apiCallListener.ifAvailable(wxMpService::setApiCallListener);
     return wxMpService;
   }
 
@@ -7,6 +7,7 @@ import com.google.common.collect.Sets;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import me.chanjar.weixin.common.redis.JedisWxRedisOps;
+import me.chanjar.weixin.common.redis.NearCacheWxRedisOps;
 import me.chanjar.weixin.common.redis.RedisTemplateWxRedisOps;
 import me.chanjar.weixin.common.redis.WxRedisOps;
 import me.chanjar.weixin.mp.config.WxMpHostConfig;
@@ -81,7 +82,7 @@ public class WxMpStorageAutoConfiguration {
     } else {
       jedisPool = applicationContext.getBean(JedisPool.class);
     }
-    WxRedisOps redisOps = new JedisWxRedisOps(jedisPool);
+    WxRedisOps redisOps = this.wrapNearCache(new JedisWxRedisOps(jedisPool));
     WxMpRedisConfigImpl wxMpRedisConfig = new WxMpRedisConfigImpl(redisOps,
       wxMpProperties.getConfigStorage().getKeyPrefix());
     setWxMpInfo(wxMpRedisConfig);
@@ -107,7 +108,7 @@ public class WxMpStorageAutoConfiguration {
       redisTemplate = (StringRedisTemplate) applicationContext.getBean("redisTemplate");
     }
 
-    WxRedisOps redisOps = new RedisTemplateWxRedisOps(redisTemplate);
+    WxRedisOps redisOps = this.wrapNearCache(new RedisTemplateWxRedisOps(redisTemplate));
     WxMpRedisConfigImpl wxMpRedisConfig = new WxMpRedisConfigImpl(redisOps,
       wxMpProperties.getConfigStorage().getKeyPrefix());
 
@@ -115,6 +116,14 @@ public class WxMpStorageAutoConfiguration {
     return wxMpRedisConfig;
   }
 
+  private WxRedisOps wrapNearCache(WxRedisOps redisOps) {
+    WxMpProperties.ConfigStorage storage = wxMpProperties.getConfigStorage();
+    if (!storage.isNearCache()) {
+      return redisOps;
+    }
+    return new NearCacheWxRedisOps(redisOps, storage.getKeyPrefix() + ":near_cache:version");
+  }
+
   private void setWxMpInfo(WxMpDefaultConfigImpl config) {
     WxMpProperties properties = wxMpProperties;
     WxMpProperties.ConfigStorage configStorageProperties = properties.getConfigStorage();
@@ -1,6 +1,7 @@
 package com.binarywang.spring.starter.wxjava.mp.properties;
 
 import com.binarywang.spring.starter.wxjava.mp.enums.HttpClientType;
+import com.binarywang.spring.starter.wxjava.mp.enums.MessageDuplicateCheckerType;
 import com.binarywang.spring.starter.wxjava.mp.enums.StorageType;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -51,6 +52,11 @@ public class WxMpProperties {
    */
   private final ConfigStorage configStorage = new ConfigStorage();
 
+  /**
+   * 消息排重配置，指定type后自动注册 WxMessageDuplicateChecker，可通过 MessageRouter 的 setMessageDuplicateChecker 使用.
+   */
+  private final MessageDuplicateChecker messageDuplicateChecker = new MessageDuplicateChecker();
+
   @Data
   public static class ConfigStorage implements Serializable {
     private static final long serialVersionUID = 4815731027000065434L;
@@ -65,6 +71,12 @@ public class WxMpProperties {
      */
     private String keyPrefix = "wx";
 
+    /**
+     * 是否在redis存储前启用本地近端缓存，以减少每次接口调用读取access_token时的redis往返.
+     * 仅对Jedis和RedisTemplate存储类型有效.
+     */
+    private boolean nearCache = false;
+
     /**
      * redis连接配置.
      */
@@ -98,4 +110,24 @@ public class WxMpProperties {
 
   }
 
+  @Data
+  public static class MessageDuplicateChecker implements Serializable {
+    private static final long serialVersionUID = -1398722469358452281L;
+
+    /**
+     * 排重方式.
+     */
+    private MessageDuplicateCheckerType type;
+
+    /**
+     * 一个消息ID的过期时间：秒.
+     */
+    private int timeToLive = 15;
+
+    /**
+     * redis key前缀，为空时使用 config-storage.key-prefix 加 ":msg_dup".
+     */
+    private String keyPrefix;
+  }
+
 }
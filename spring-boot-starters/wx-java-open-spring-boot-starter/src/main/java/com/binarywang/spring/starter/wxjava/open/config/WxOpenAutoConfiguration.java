@@ -14,7 +14,8 @@ import org.springframework.context.annotation.Import;
 @EnableConfigurationProperties(WxOpenProperties.class)
 @Import({
   WxOpenStorageAutoConfiguration.class,
-  WxOpenServiceAutoConfiguration.class
+  WxOpenServiceAutoConfiguration.class,
+  WxOpenMessageDuplicateCheckerAutoConfiguration.class
 })
 public class WxOpenAutoConfiguration {
 }
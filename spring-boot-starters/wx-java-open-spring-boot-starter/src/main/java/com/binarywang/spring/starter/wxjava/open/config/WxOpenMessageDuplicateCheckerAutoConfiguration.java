@@ -0,0 +1,84 @@
+package com.binarywang.spring.starter.wxjava.open.config;
+
+import com.binarywang.spring.starter.wxjava.open.properties.WxOpenProperties;
+import lombok.RequiredArgsConstructor;
+import me.chanjar.weixin.common.api.WxMessageDuplicateChecker;
+import me.chanjar.weixin.common.api.WxMessageInMemoryDuplicateChecker;
+import me.chanjar.weixin.common.api.WxMessageRedisDuplicateChecker;
+import me.chanjar.weixin.common.api.WxMessageTimeWheelDuplicateChecker;
+import me.chanjar.weixin.common.redis.JedisWxRedisOps;
+import me.chanjar.weixin.common.redis.RedisTemplateWxRedisOps;
+import me.chanjar.weixin.common.redis.RedissonWxRedisOps;
+import me.chanjar.weixin.common.redis.WxRedisOps;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.ClassUtils;
+import redis.clients.jedis.JedisPool;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 微信开放平台消息排重自动配置，指定 wx.open.message-duplicate-checker.type 后生效.
+ * redis方式依次使用容器中的 WxRedisOps、StringRedisTemplate、JedisPool、RedissonClient.
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = WxOpenProperties.PREFIX + ".message-duplicate-checker", name = "type")
+@RequiredArgsConstructor
+public class WxOpenMessageDuplicateCheckerAutoConfiguration {
+  private final WxOpenProperties wxOpenProperties;
+  private final ApplicationContext applicationContext;
+
+  @Bean
+  @ConditionalOnMissingBean(WxMessageDuplicateChecker.class)
+  public WxMessageDuplicateChecker wxOpenMessageDuplicateChecker() {
+    WxOpenProperties.MessageDuplicateChecker properties = this.wxOpenProperties.getMessageDuplicateChecker();
+    long timeToLiveMillis = TimeUnit.SECONDS.toMillis(properties.getTimeToLive());
+    switch (properties.getType()) {
+      case Redis:
+        String keyPrefix = properties.getKeyPrefix() != null ? properties.getKeyPrefix()
+          : this.wxOpenProperties.getConfigStorage().getKeyPrefix() + ":msg_dup";
+        return new WxMessageRedisDuplicateChecker(this.redisOps(), keyPrefix, properties.getTimeToLive());
+      case TimeWheel:
+        return new WxMessageTimeWheelDuplicateChecker(timeToLiveMillis, 1000L, 1_000_000, true);
+      default:
+        return new WxMessageInMemoryDuplicateChecker(timeToLiveMillis, timeToLiveMillis);
+    }
+  }
+
+  private WxRedisOps redisOps() {
+    WxRedisOps redisOps = this.applicationContext.getBeanProvider(WxRedisOps.class).getIfUnique();
+    if (redisOps != null) {
+      return redisOps;
+    }
+
+    if (ClassUtils.isPresent("org.springframework.data.redis.core.StringRedisTemplate", null)) {
+      StringRedisTemplate redisTemplate = this.applicationContext.getBeanProvider(StringRedisTemplate.class).getIfUnique();
+      if (redisTemplate != null) {
+        return new RedisTemplateWxRedisOps(redisTemplate);
+      }
+    }
+
+    if (ClassUtils.isPresent("redis.clients.jedis.JedisPool", null)) {
+      JedisPool jedisPool = this.applicationContext.getBeanProvider(JedisPool.class).getIfUnique();
+      if (jedisPool != null) {
+        return new JedisWxRedisOps(jedisPool);
+      }
+    }
+
+    if (ClassUtils.isPresent("org.redisson.api.RedissonClient", null)) {
+      RedissonClient redissonClient = this.applicationContext.getBeanProvider(RedissonClient.class).getIfUnique();
+      if (redissonClient != null) {
+        return new RedissonWxRedisOps(redissonClient);
+      }
+    }
+
+    throw new IllegalStateException("消息排重使用redis时，容器中须有以下任一bean：WxRedisOps、StringRedisTemplate、JedisPool、RedissonClient");
+  }
+}
@@ -1,10 +1,12 @@
 package com.binarywang.spring.starter.wxjava.open.config;
 
+import me.chanjar.weixin.common.api.WxMessageDuplicateChecker;
 import me.chanjar.weixin.open.api.WxOpenComponentService;
 import me.chanjar.weixin.open.api.WxOpenConfigStorage;
 import me.chanjar.weixin.open.api.WxOpenService;
 import me.chanjar.weixin.open.api.impl.WxOpenMessageRouter;
 import me.chanjar.weixin.open.api.impl.WxOpenServiceImpl;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
@@ -28,8 +30,11 @@ public class WxOpenServiceAutoConfiguration {
   }
 
   @Bean
-  public WxOpenMessageRouter wxOpenMessageRouter(WxOpenService wxOpenService) {
-    return new WxOpenMessageRouter(wxOpenService);
+  public WxOpenMessageRouter wxOpenMessageRouter(WxOpenService wxOpenService,
+                                                 ObjectProvider<WxMessageDuplicateChecker> messageDuplicateChecker) {
+    WxOpenMessageRouter router = new WxOpenMessageRouter(wxOpenService);
+    messageDuplicateChecker.ifAvailable(router::setMessageDuplicateChecker);
+    return router;
   }
 
   @Bean
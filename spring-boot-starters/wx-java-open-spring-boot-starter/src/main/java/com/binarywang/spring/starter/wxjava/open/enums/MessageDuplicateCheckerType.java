@@ -0,0 +1,21 @@
+package com.binarywang.spring.starter.wxjava.open.enums;
+
+/**
+ * 消息排重方式.
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public enum MessageDuplicateCheckerType {
+  /**
+   * 内存（{@link me.chanjar.weixin.common.api.WxMessageInMemoryDuplicateChecker}）.
+   */
+  Memory,
+  /**
+   * 时间轮（{@link me.chanjar.weixin.common.api.WxMessageTimeWheelDuplicateChecker}），内存占用有上限.
+   */
+  TimeWheel,
+  /**
+   * redis（{@link me.chanjar.weixin.common.api.WxMessageRedisDuplicateChecker}），适用于多节点部署.
+   */
+  Redis
+}
@@ -1,5 +1,6 @@
 package com.binarywang.spring.starter.wxjava.open.properties;
 
+import com.binarywang.spring.starter.wxjava.open.enums.MessageDuplicateCheckerType;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
@@ -45,6 +46,11 @@ public class WxOpenProperties {
    */
   private ConfigStorage configStorage = new ConfigStorage();
 
+  /**
+   * 消息排重配置，指定type后自动注册 WxMessageDuplicateChecker，可通过 MessageRouter 的 setMessageDuplicateChecker 使用.
+   */
+  private final MessageDuplicateChecker messageDuplicateChecker = new MessageDuplicateChecker();
+
 
   @Data
   public static class ConfigStorage implements Serializable {
@@ -110,6 +116,26 @@ public class WxOpenProperties {
 
   }
 
+  @Data
+  public static class MessageDuplicateChecker implements Serializable {
+    private static final long serialVersionUID = -1398722469358452281L;
+
+    /**
+     * 排重方式.
+     */
+    private MessageDuplicateCheckerType type;
+
+    /**
+     * 一个消息ID的过期时间：秒.
+     */
+    private int timeToLive = 15;
+
+    /**
+     * redis key前缀，为空时使用 config-storage.key-prefix 加 ":msg_dup".
+     */
+    private String keyPrefix;
+  }
+
   public enum StorageType {
     /**
      * 内存.
@@ -134,5 +160,4 @@ public class WxOpenProperties {
      * HttpClient.
      */
     httpclient
-  }
-}
+  }}
@@ -4,7 +4,10 @@ import com.binarywang.spring.starter.wxjava.pay.properties.WxPayProperties;
 import com.github.binarywang.wxpay.config.WxPayConfig;
 import com.github.binarywang.wxpay.service.WxPayService;
 import com.github.binarywang.wxpay.service.impl.WxPayServiceImpl;
+import com.github.binarywang.wxpay.v3.auth.WxPayCertificateRefresher;
+import me.chanjar.weixin.common.metrics.WxApiCallListener;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -12,6 +15,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
 /**
  * <pre>
@@ -25,6 +29,7 @@ import org.springframework.context.annotation.Configuration;
 @EnableConfigurationProperties(WxPayProperties.class)
 @ConditionalOnClass(WxPayService.class)
 @ConditionalOnProperty(prefix = "wx.pay", value = "enabled", matchIfMissing = true)
+@Import(WxPayMetricsAutoConfiguration.class)
 public class WxPayAutoConfiguration {
   private WxPayProperties properties;
 
@@ -40,7 +45,8 @@ public class WxPayAutoConfiguration {
    */
   @Bean
   @ConditionalOnMissingBean(WxPayService.class)
-  public WxPayService wxPayService() {
+  public WxPayService wxPayService(ObjectProvider<WxApiCallListener> apiCallListener,
+                                   ObjectProvider<WxPayCertificateRefresher> certificateRefresher) {
     final WxPayServiceImpl wxPayService = new WxPayServiceImpl();
     WxPayConfig payConfig = new WxPayConfig();
     payConfig.setAppId(StringUtils.trimToNull(this.properties.getAppId()));
@@ -56,9 +62,24 @@ public class WxPayAutoConfiguration {
     payConfig.setPrivateCertPath(StringUtils.trimToNull(this.properties.getPrivateCertPath()));
     payConfig.setCertSerialNo(StringUtils.trimToNull(this.properties.getCertSerialNo()));
     payConfig.setApiV3Key(StringUtils.trimToNull(this.properties.getApiv3Key()));
+    if (this.properties.isCertBackgroundRefresh()) {
+      certificateRefresher.ifAvailable(payConfig::setCertificateRefresher);
+    }
 
     wxPayService.setConfig(payConfig);
+    apiCallListener.ifAvailable(wxPayService::setApiCallListener);
     return wxPayService;
   }
 
+  /**
+   * 平台证书后台刷新器，多商户配置时可共用.
+   *
+   * @return 平台证书后台刷新器
+   */
+  @Bean(destroyMethod = "shutdown")
+  @ConditionalOnMissingBean(WxPayCertificateRefresher.class)
+  public WxPayCertificateRefresher wxPayCertificateRefresher() {
+    return new WxPayCertificateRefresher();
+  }
+
 }
@@ -0,0 +1,51 @@
+package com.binarywang.spring.starter.wxjava.pay.config;
+
+import com.github.binarywang.wxpay.v3.auth.WxPayCertificateRefresher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import me.chanjar.weixin.common.metrics.MicrometerWxApiCallListener;
+import me.chanjar.weixin.common.metrics.WxApiCallListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 微信支付接口调用及平台证书刷新指标自动注册，classpath 中存在 Micrometer 时生效.
+ * 未注册 {@link MeterRegistry} 时使用 {@link Metrics#globalRegistry}.
+ *
+ * @author someone
+ */
+@Configuration
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class WxPayMetricsAutoConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean(WxApiCallListener.class)
+  public WxApiCallListener wxApiCallListener(ObjectProvider<MeterRegistry> meterRegistry) {
+    return new MicrometerWxApiCallListener(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  /**
+   * 平台证书后台刷新指标：wx.pay.cert.refresh（按result区分成功/失败）、wx.pay.cert.rotation 及 wx.pay.cert.verifiers.
+   */
+  @Bean
+  public SmartInitializingSingleton wxPayCertificateRefresherMetrics(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                     ObjectProvider<WxPayCertificateRefresher> refresher) {
+    return () -> refresher.ifAvailable(r -> {
+      MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+      FunctionCounter.builder("wx.pay.cert.refresh", r, WxPayCertificateRefresher::getSuccessCount)
+        .tag("result", "success").description("微信支付平台证书后台刷新次数").register(registry);
+      FunctionCounter.builder("wx.pay.cert.refresh", r, WxPayCertificateRefresher::getFailureCount)
+        .tag("result", "failure").description("微信支付平台证书后台刷新次数").register(registry);
+      FunctionCounter.builder("wx.pay.cert.rotation", r, WxPayCertificateRefresher::getRotationCount)
+        .description("微信支付平台证书轮换次数").register(registry);
+      Gauge.builder("wx.pay.cert.verifiers", r, WxPayCertificateRefresher::getRegisteredCount)
+        .description("后台刷新中的平台证书验签器数量").register(registry);
+    });
+  }
+}
@@ -74,4 +74,9 @@ public class WxPayProperties {
    */
   private String privateCertPath;
 
+  /**
+   * apiv3 是否在后台定时刷新平台证书，默认开启，关闭后在验签时检查并更新
+   */
+  private boolean certBackgroundRefresh = true;
+
 }
@@ -0,0 +1,687 @@
+package com.github.binarywang.wx.graal;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <pre>
+ * 根据XStream注解，为消息bean（类上有 @XStreamAlias("xml") 的顶层类）生成基于StAX的xml转换器.
+ * 生成的类与bean同包，类名为bean类名加 XmlBinder 后缀，实现 WxXmlBinder 接口，各模块的 XStreamTransformer 会优先使用.
+ *
+ * 支持的字段：String、数字和布尔（含基本类型）、嵌套bean、List（含 @XStreamImplicit），
+ * 以及 XStreamCDataConverter、XStreamMediaIdConverter、XStreamReplaceNameConverter 三种转换器；
+ * 带有其他XStream注解或转换器的bean不生成转换器，继续使用XStream.
+ * 没有XStream注解且类型不支持的字段（如 allFieldsMap）解析时忽略，此时生成xml仍使用XStream.
+ *
+ * 需要通过 maven-compiler-plugin 的 annotationProcessors 显式启用，见各模块的pom.
+ * </pre>
+ */
+@SupportedAnnotationTypes(XmlBinderProcessor.XSTREAM_ALIAS)
+@SupportedSourceVersion(SourceVersion.RELEASE_8)
+public class XmlBinderProcessor extends AbstractProcessor {
+  static final String XSTREAM_ALIAS = "com.thoughtworks.xstream.annotations.XStreamAlias";
+  private static final String XSTREAM_ANNOTATION_PREFIX = "com.thoughtworks.xstream.annotations.";
+  private static final String XSTREAM_CONVERTER = XSTREAM_ANNOTATION_PREFIX + "XStreamConverter";
+  private static final String XSTREAM_IMPLICIT = XSTREAM_ANNOTATION_PREFIX + "XStreamImplicit";
+  private static final String XSTREAM_OMIT_FIELD = XSTREAM_ANNOTATION_PREFIX + "XStreamOmitField";
+
+  private static final String XML_PACKAGE = "me.chanjar.weixin.common.util.xml.";
+  private static final String CDATA_CONVERTER = XML_PACKAGE + "XStreamCDataConverter";
+  private static final String MEDIA_ID_CONVERTER = XML_PACKAGE + "XStreamMediaIdConverter";
+  private static final String REPLACE_NAME_CONVERTER = XML_PACKAGE + "XStreamReplaceNameConverter";
+
+  private static final String ROOT_ALIAS = "xml";
+  private static final String BINDER_SUFFIX = "XmlBinder";
+
+  /**
+   * 微信推送的部分消息中 MsgId 写作 MsgID，XStreamTransformer 也为此设置了额外的别名.
+   */
+  private static final Map<String, String> EXTRA_READ_ALIASES = Collections.singletonMap("MsgId", "MsgID");
+
+  private static final Map<String, String> SCALAR_TYPES = new HashMap<>();
+
+  static {
+    SCALAR_TYPES.put("java.lang.String", "Text");
+    SCALAR_TYPES.put("java.lang.Integer", "Integer");
+    SCALAR_TYPES.put("java.lang.Long", "Long");
+    SCALAR_TYPES.put("java.lang.Short", "Short");
+    SCALAR_TYPES.put("java.lang.Byte", "Byte");
+    SCALAR_TYPES.put("java.lang.Double", "Double");
+    SCALAR_TYPES.put("java.lang.Float", "Float");
+    SCALAR_TYPES.put("java.lang.Boolean", "Boolean");
+    SCALAR_TYPES.put("int", "Integer");
+    SCALAR_TYPES.put("long", "Long");
+    SCALAR_TYPES.put("short", "Short");
+    SCALAR_TYPES.put("byte", "Byte");
+    SCALAR_TYPES.put("double", "Double");
+    SCALAR_TYPES.put("float", "Float");
+    SCALAR_TYPES.put("boolean", "Boolean");
+  }
+
+  private final Set<String> generated = new HashSet<>();
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement aliasType = processingEnv.getElementUtils().getTypeElement(XSTREAM_ALIAS);
+    if (aliasType == null) {
+      return false;
+    }
+
+    for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(aliasType))) {
+      if (type.getKind() != ElementKind.CLASS || type.getNestingKind() != NestingKind.TOP_LEVEL
+        || type.getModifiers().contains(Modifier.ABSTRACT)
+        || !ROOT_ALIAS.equals(annotationValue(type, XSTREAM_ALIAS, "value"))) {
+        continue;
+      }
+
+      String name = type.getQualifiedName().toString();
+      if (!generated.add(name)) {
+        continue;
+      }
+
+      try {
+        writeBinder(type, new BinderModel(type).build());
+      } catch (UnsupportedTypeException e) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+          "未生成" + BINDER_SUFFIX + "，将使用XStream: " + name + ", " + e.getMessage());
+      }
+    }
+
+    // 不独占注解，以便其他processor继续处理
+    return false;
+  }
+
+  private void writeBinder(TypeElement root, String source) {
+    String binderName = root.getQualifiedName() + BINDER_SUFFIX;
+    try (Writer writer = processingEnv.getFiler().createSourceFile(binderName, root).openWriter()) {
+      writer.write(source);
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "生成" + binderName + "失败: " + e, root);
+    }
+  }
+
+  private AnnotationMirror annotation(Element element, String annotationType) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      if (mirror.getAnnotationType().toString().equals(annotationType)) {
+        return mirror;
+      }
+    }
+    return null;
+  }
+
+  private boolean hasAnnotation(Element element, String annotationType) {
+    return annotation(element, annotationType) != null;
+  }
+
+  private Object annotationValue(Element element, String annotationType, String name) {
+    AnnotationMirror mirror = annotation(element, annotationType);
+    if (mirror == null) {
+      return null;
+    }
+
+    Elements elements = processingEnv.getElementUtils();
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+      : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+      if (entry.getKey().getSimpleName().contentEquals(name)) {
+        Object value = entry.getValue().getValue();
+        return value instanceof TypeMirror ? value.toString() : value;
+      }
+    }
+    return null;
+  }
+
+  private static String capitalize(String name) {
+    return Character.toTitleCase(name.charAt(0)) + name.substring(1);
+  }
+
+  private static String quote(String value) {
+    return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+  }
+
+  private static class UnsupportedTypeException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    UnsupportedTypeException(String message) {
+      super(message);
+    }
+  }
+
+  private enum Kind {
+    SCALAR, BEAN, LIST, IGNORED
+  }
+
+  /**
+   * 一个字段的映射方式.
+   */
+  private static class Property {
+    private String fieldName;
+    private String typeName;
+    private Kind kind;
+    private String elementName;
+    private final List<String> readNames = new ArrayList<>();
+    private boolean primitive;
+    private String scalar;
+    private boolean cdata;
+    private String wrapper;
+    private TypeElement bean;
+    private boolean implicit;
+    private String itemName;
+    private String itemScalar;
+    private TypeElement itemBean;
+    private String itemTypeName;
+    private String getter;
+    private String setter;
+  }
+
+  /**
+   * 一个bean及其引用到的所有bean的映射，生成对应的读写方法.
+   */
+  private class BinderModel {
+    private final TypeElement root;
+    private final String packageName;
+    private final Map<String, Integer> indexes = new LinkedHashMap<>();
+    private final Map<Integer, List<Property>> properties = new HashMap<>();
+    private final Deque<TypeElement> pending = new ArrayDeque<>();
+    /**
+     * 每个类中已被占用的方法名（小写），lombok遇到忽略大小写后同名的方法时不会生成.
+     */
+    private final Map<String, Set<String>> methodNames = new HashMap<>();
+    private boolean writable = true;
+
+    BinderModel(TypeElement root) {
+      this.root = root;
+      this.packageName = processingEnv.getElementUtils().getPackageOf(root).getQualifiedName().toString();
+    }
+
+    String build() throws UnsupportedTypeException {
+      index(root);
+      while (!pending.isEmpty()) {
+        TypeElement type = pending.poll();
+        properties.put(indexes.get(type.getQualifiedName().toString()), analyze(type));
+      }
+      return generate();
+    }
+
+    private int index(TypeElement type) throws UnsupportedTypeException {
+      String name = type.getQualifiedName().toString();
+      Integer index = indexes.get(name);
+      if (index == null) {
+        checkInstantiable(type);
+        index = indexes.size();
+        indexes.put(name, index);
+        pending.add(type);
+      }
+      return index;
+    }
+
+    private void checkInstantiable(TypeElement type) throws UnsupportedTypeException {
+      Set<Modifier> modifiers = type.getModifiers();
+      if (type.getKind() != ElementKind.CLASS || modifiers.contains(Modifier.ABSTRACT)
+        || (type.getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC))
+        || type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS
+        || !accessible(type)) {
+        throw new UnsupportedTypeException(type + " 无法实例化");
+      }
+
+      for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+        if (constructor.getParameters().isEmpty() && accessible(constructor)) {
+          return;
+        }
+      }
+      throw new UnsupportedTypeException(type + " 没有可访问的无参构造方法");
+    }
+
+    private boolean accessible(Element element) {
+      Set<Modifier> modifiers = element.getModifiers();
+      if (modifiers.contains(Modifier.PUBLIC)) {
+        return true;
+      }
+      return !modifiers.contains(Modifier.PRIVATE)
+        && processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().contentEquals(packageName);
+    }
+
+    private List<Property> analyze(TypeElement type) throws UnsupportedTypeException {
+      // 与XStream一致，父类的字段在前
+      List<TypeElement> hierarchy = new ArrayList<>();
+      for (TypeElement current = type; current != null; current = superclass(current)) {
+        hierarchy.add(0, current);
+      }
+
+      List<Property> result = new ArrayList<>();
+      Set<String> readNames = new HashSet<>();
+      for (TypeElement owner : hierarchy) {
+        for (VariableElement field : ElementFilter.fieldsIn(owner.getEnclosedElements())) {
+          Set<Modifier> modifiers = field.getModifiers();
+          if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)
+            || hasAnnotation(field, XSTREAM_OMIT_FIELD)) {
+            continue;
+          }
+
+          Property property = property(owner, field);
+          if (property.kind == Kind.IGNORED || property.getter == null) {
+            writable = false;
+          }
+          for (String name : property.readNames) {
+            if (!readNames.add(name)) {
+              throw new UnsupportedTypeException(type + " 中有重复的节点名 " + name);
+            }
+          }
+          result.add(property);
+        }
+      }
+      return result;
+    }
+
+    private TypeElement superclass(TypeElement type) {
+      TypeMirror superclass = type.getSuperclass();
+      if (superclass.getKind() != TypeKind.DECLARED) {
+        return null;
+      }
+      TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+      String name = element.getQualifiedName().toString();
+      return name.startsWith("java.") || name.startsWith("javax.") ? null : element;
+    }
+
+    private Property property(TypeElement owner, VariableElement field) throws UnsupportedTypeException {
+      Property property = new Property();
+      property.fieldName = field.getSimpleName().toString();
+      property.typeName = field.asType().toString();
+      boolean annotated = false;
+      for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+        if (mirror.getAnnotationType().toString().startsWith(XSTREAM_ANNOTATION_PREFIX)) {
+          annotated = true;
+        }
+      }
+      String location = owner.getQualifiedName() + "." + property.fieldName;
+
+      Object alias = annotationValue(field, XSTREAM_ALIAS, "value");
+      property.elementName = alias == null ? property.fieldName : alias.toString();
+
+      TypeMirror type = field.asType();
+      String erasure = processingEnv.getTypeUtils().erasure(type).toString();
+      if (SCALAR_TYPES.containsKey(erasure)) {
+        property.kind = Kind.SCALAR;
+        property.scalar = SCALAR_TYPES.get(erasure);
+        property.primitive = type.getKind().isPrimitive();
+      } else if ("java.util.List".equals(erasure) || "java.util.Collection".equals(erasure)
+        || "java.util.ArrayList".equals(erasure)) {
+        property.kind = Kind.LIST;
+        listItem(property, (DeclaredType) type, location);
+      } else if (type.getKind() == TypeKind.DECLARED && !erasure.startsWith("java.") && !erasure.startsWith("javax.")
+        && ((DeclaredType) type).asElement().getKind() == ElementKind.CLASS) {
+        property.kind = Kind.BEAN;
+        property.bean = (TypeElement) ((DeclaredType) type).asElement();
+      } else if (annotated) {
+        throw new UnsupportedTypeException(location + " 的类型不支持: " + type);
+      } else {
+        // 没有XStream注解的其他类型，如 allFieldsMap
+        property.kind = Kind.IGNORED;
+        return property;
+      }
+
+      converter(property, field, location);
+      if (hasAnnotation(field, XSTREAM_IMPLICIT)) {
+        if (property.kind != Kind.LIST) {
+          throw new UnsupportedTypeException(location + " 不是List，不支持@XStreamImplicit");
+        }
+        property.implicit = true;
+        Object itemFieldName = annotationValue(field, XSTREAM_IMPLICIT, "itemFieldName");
+        if (itemFieldName != null && !itemFieldName.toString().isEmpty()) {
+          property.itemName = itemFieldName.toString();
+        }
+      }
+      if (property.kind == Kind.LIST && property.itemName == null) {
+        property.itemName = itemAlias(property, location);
+      }
+
+      accessors(property, owner, field);
+      if (property.setter == null && !(property.kind == Kind.LIST && property.getter != null)) {
+        throw new UnsupportedTypeException(location + " 没有setter");
+      }
+
+      if (property.kind == Kind.BEAN) {
+        index(property.bean);
+      } else if (property.itemBean != null) {
+        index(property.itemBean);
+      }
+
+      if (property.implicit) {
+        property.readNames.add(property.itemName);
+      } else {
+        property.readNames.add(property.elementName);
+        String extra = EXTRA_READ_ALIASES.get(property.elementName);
+        if (extra != null) {
+          property.readNames.add(extra);
+        }
+      }
+      return property;
+    }
+
+    private void listItem(Property property, DeclaredType type, String location) throws UnsupportedTypeException {
+      if (type.getTypeArguments().size() != 1) {
+        throw new UnsupportedTypeException(location + " 的List缺少元素类型");
+      }
+
+      TypeMirror item = type.getTypeArguments().get(0);
+      if (item.getKind() != TypeKind.DECLARED) {
+        throw new UnsupportedTypeException(location + " 的List元素类型不支持: " + item);
+      }
+      String itemName = processingEnv.getTypeUtils().erasure(item).toString();
+      property.itemTypeName = itemName;
+      if ("java.lang.String".equals(itemName)) {
+        property.itemScalar = "Text";
+      } else if (!itemName.startsWith("java.") && !itemName.startsWith("javax.")
+        && ((DeclaredType) item).asElement().getKind() == ElementKind.CLASS) {
+        property.itemBean = (TypeElement) ((DeclaredType) item).asElement();
+      } else {
+        throw new UnsupportedTypeException(location + " 的List元素类型不支持: " + item);
+      }
+    }
+
+    private String itemAlias(Property property, String location) throws UnsupportedTypeException {
+      if (property.itemScalar != null) {
+        return "string";
+      }
+
+      Object alias = annotationValue(property.itemBean, XSTREAM_ALIAS, "value");
+      if (alias == null) {
+        throw new UnsupportedTypeException(location + " 的List元素类型没有@XStreamAlias");
+      }
+      return alias.toString();
+    }
+
+    private void converter(Property property, VariableElement field, String location) throws UnsupportedTypeException {
+      Object converter = annotationValue(field, XSTREAM_CONVERTER, "value");
+      if (converter == null) {
+        return;
+      }
+
+      if (property.kind != Kind.SCALAR || !"Text".equals(property.scalar)) {
+        throw new UnsupportedTypeException(location + " 的转换器只支持String字段");
+      }
+      switch (converter.toString()) {
+        case CDATA_CONVERTER:
+          property.cdata = true;
+          break;
+        case MEDIA_ID_CONVERTER:
+          property.cdata = true;
+          property.wrapper = "MediaId";
+          break;
+        case REPLACE_NAME_CONVERTER:
+          property.cdata = true;
+          property.wrapper = "ReplaceName";
+          break;
+        default:
+          throw new UnsupportedTypeException(location + " 的转换器不支持: " + converter);
+      }
+    }
+
+    /**
+     * 按lombok的命名规则或已有的方法确定getter和setter.
+     */
+    private void accessors(Property property, TypeElement owner, VariableElement field) {
+      String name = property.fieldName;
+      boolean primitiveBoolean = field.asType().getKind() == TypeKind.BOOLEAN;
+      boolean isPrefixed = primitiveBoolean && name.length() > 2 && name.startsWith("is")
+        && Character.isUpperCase(name.charAt(2));
+      String getter = primitiveBoolean ? (isPrefixed ? name : "is" + capitalize(name)) : "get" + capitalize(name);
+      String setter = "set" + (isPrefixed ? name.substring(2) : capitalize(name));
+
+      boolean fluent = hasAnnotation(owner, "lombok.experimental.Accessors")
+        || hasAnnotation(field, "lombok.experimental.Accessors");
+      boolean lombokGetter = !fluent && (hasAnnotation(owner, "lombok.Data") || hasAnnotation(owner, "lombok.Getter")
+        || hasAnnotation(owner, "lombok.Value") || hasAnnotation(field, "lombok.Getter"));
+      boolean lombokSetter = !fluent && !field.getModifiers().contains(Modifier.FINAL)
+        && (hasAnnotation(owner, "lombok.Data") || hasAnnotation(owner, "lombok.Setter")
+        || hasAnnotation(field, "lombok.Setter"));
+
+      Set<String> claimed = methodNames.get(owner.getQualifiedName().toString());
+      if (claimed == null) {
+        claimed = new HashSet<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(owner.getEnclosedElements())) {
+          claimed.add(method.getSimpleName().toString().toLowerCase());
+        }
+        methodNames.put(owner.getQualifiedName().toString(), claimed);
+      }
+
+      property.getter = accessor(owner, claimed, getter, 0, lombokGetter);
+      property.setter = accessor(owner, claimed, setter, 1, lombokSetter);
+    }
+
+    private String accessor(TypeElement owner, Set<String> claimed, String name, int parameters, boolean lombok) {
+      if (hasMethod(owner, name, parameters)) {
+        return name;
+      }
+      // 同一类中已有忽略大小写后同名的方法时，lombok不会再生成
+      return lombok && claimed.add(name.toLowerCase()) ? name : null;
+    }
+
+    private boolean hasMethod(TypeElement owner, String name, int parameters) {
+      for (ExecutableElement method : ElementFilter.methodsIn(owner.getEnclosedElements())) {
+        if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == parameters
+          && !method.getModifiers().contains(Modifier.STATIC) && accessible(method)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private String generate() {
+      String rootName = root.getQualifiedName().toString();
+      String binderName = root.getSimpleName() + BINDER_SUFFIX;
+
+      StringBuilder code = new StringBuilder();
+      code.append("package ").append(packageName).append(";\n\n")
+        .append("import javax.xml.stream.XMLStreamException;\n")
+        .append("import javax.xml.stream.XMLStreamReader;\n")
+        .append("import javax.xml.stream.XMLStreamWriter;\n\n")
+        .append("import me.chanjar.weixin.common.util.xml.WxXmlBinder;\n")
+        .append("import me.chanjar.weixin.common.util.xml.WxXmlBinders;\n\n")
+        .append("/**\n")
+        .append(" * 由 ").append(XmlBinderProcessor.class.getName()).append(" 根据 {@link ").append(rootName)
+        .append("} 的XStream注解生成，请勿修改.\n")
+        .append(" */\n")
+        .append("public final class ").append(binderName).append(" implements WxXmlBinder<").append(rootName)
+        .append("> {\n\n");
+
+      code.append("  @Override\n")
+        .append("  public ").append(rootName).append(" fromXml(XMLStreamReader reader) throws XMLStreamException {\n")
+        .append("    return read0(reader);\n")
+        .append("  }\n\n");
+
+      code.append("  @Override\n")
+        .append("  public void toXml(").append(rootName).append(" object, XMLStreamWriter writer) throws XMLStreamException {\n");
+      if (writable) {
+        code.append("    writer.writeStartElement(").append(quote(ROOT_ALIAS)).append(");\n")
+          .append("    write0(object, writer);\n")
+          .append("    writer.writeEndElement();\n");
+      } else {
+        code.append("    throw new UnsupportedOperationException();\n");
+      }
+      code.append("  }\n\n");
+
+      if (!writable) {
+        code.append("  @Override\n")
+          .append("  public boolean isWritable() {\n")
+          .append("    return false;\n")
+          .append("  }\n\n");
+      }
+
+      for (Map.Entry<String, Integer> entry : indexes.entrySet()) {
+        generateRead(code, entry.getKey(), entry.getValue());
+        if (writable) {
+          generateWrite(code, entry.getKey(), entry.getValue());
+        }
+      }
+      code.setLength(code.length() - 1);
+      code.append("}\n");
+      return code.toString();
+    }
+
+    private String readExpression(String scalar, TypeElement bean) {
+      if (scalar != null) {
+        return "WxXmlBinders.read" + scalar + "(reader)";
+      }
+      return "read" + indexes.get(bean.getQualifiedName().toString()) + "(reader)";
+    }
+
+    private void generateRead(StringBuilder code, String typeName, int index) {
+      List<Property> props = properties.get(index);
+      code.append("  private static ").append(typeName).append(" read").append(index)
+        .append("(XMLStreamReader reader) throws XMLStreamException {\n")
+        .append("    ").append(typeName).append(" object = new ").append(typeName).append("();\n");
+      for (int i = 0; i < props.size(); i++) {
+        Property property = props.get(i);
+        if (property.kind == Kind.LIST) {
+          code.append("    java.util.List<").append(property.itemTypeName).append("> list").append(i)
+            .append(" = null;\n");
+        }
+      }
+
+      code.append("    while (WxXmlBinders.nextElement(reader)) {\n")
+        .append("      switch (reader.getLocalName()) {\n");
+      for (int i = 0; i < props.size(); i++) {
+        Property property = props.get(i);
+        if (property.kind == Kind.IGNORED) {
+          continue;
+        }
+        for (String name : property.readNames) {
+          code.append("        case ").append(quote(name)).append(":\n");
+        }
+        if (property.kind == Kind.LIST) {
+          String item = readExpression(property.itemScalar, property.itemBean);
+          if (property.implicit) {
+            code.append("          if (list").append(i).append(" == null) {\n")
+              .append("            list").append(i).append(" = new java.util.ArrayList<>();\n")
+              .append("          }\n")
+              .append("          list").append(i).append(".add(").append(item).append(");\n");
+          } else {
+            code.append("          list").append(i).append(" = new java.util.ArrayList<>();\n")
+              .append("          while (WxXmlBinders.nextElement(reader)) {\n")
+              .append("            list").append(i).append(".add(").append(item).append(");\n")
+              .append("          }\n");
+          }
+        } else {
+          code.append("          object.").append(property.setter).append("(")
+            .append(readExpression(property.kind == Kind.SCALAR ? property.scalar : null, property.bean))
+            .append(");\n");
+        }
+        code.append("          break;\n");
+      }
+      code.append("        default:\n")
+        .append("          WxXmlBinders.skipElement(reader);\n")
+        .append("          break;\n")
+        .append("      }\n")
+        .append("    }\n");
+
+      for (int i = 0; i < props.size(); i++) {
+        Property property = props.get(i);
+        if (property.kind != Kind.LIST) {
+          continue;
+        }
+        code.append("    if (list").append(i).append(" != null) {\n");
+        if (property.setter != null) {
+          code.append("      object.").append(property.setter).append("(list").append(i).append(");\n");
+        } else {
+          code.append("      object.").append(property.getter).append("().clear();\n")
+            .append("      object.").append(property.getter).append("().addAll(list").append(i).append(");\n");
+        }
+        code.append("    }\n");
+      }
+      code.append("    return object;\n")
+        .append("  }\n\n");
+    }
+
+    private void generateWrite(StringBuilder code, String typeName, int index) {
+      List<Property> props = properties.get(index);
+      code.append("  private static void write").append(index).append("(").append(typeName)
+        .append(" object, XMLStreamWriter writer) throws XMLStreamException {\n");
+      for (int i = 0; i < props.size(); i++) {
+        Property property = props.get(i);
+        String value = "value" + i;
+        String indent = "    ";
+        code.append(indent).append(property.typeName).append(' ').append(value).append(" = object.")
+          .append(property.getter).append("();\n");
+        if (!property.primitive) {
+          code.append(indent).append("if (").append(value).append(" != null) {\n");
+          indent = "      ";
+        }
+
+        if (property.kind == Kind.SCALAR) {
+          code.append(indent).append(writeScalar(property, value)).append('\n');
+        } else if (property.kind == Kind.BEAN) {
+          code.append(indent).append("writer.writeStartElement(").append(quote(property.elementName)).append(");\n")
+            .append(indent).append("write").append(indexes.get(property.bean.getQualifiedName().toString()))
+            .append("(").append(value).append(", writer);\n")
+            .append(indent).append("writer.writeEndElement();\n");
+        } else {
+          if (!property.implicit) {
+            code.append(indent).append("writer.writeStartElement(").append(quote(property.elementName)).append(");\n");
+          }
+          code.append(indent).append("for (").append(property.itemTypeName).append(" item : ").append(value)
+            .append(") {\n")
+            .append(indent).append("  if (item != null) {\n")
+            .append(indent).append("    writer.writeStartElement(").append(quote(property.itemName)).append(");\n");
+          if (property.itemBean != null) {
+            code.append(indent).append("    write").append(indexes.get(property.itemBean.getQualifiedName().toString()))
+              .append("(item, writer);\n");
+          } else {
+            code.append(indent).append("    writer.writeCharacters(item);\n");
+          }
+          code.append(indent).append("    writer.writeEndElement();\n")
+            .append(indent).append("  }\n")
+            .append(indent).append("}\n");
+          if (!property.implicit) {
+            code.append(indent).append("writer.writeEndElement();\n");
+          }
+        }
+
+        if (!property.primitive) {
+          code.append("    }\n");
+        }
+      }
+      code.append("  }\n\n");
+    }
+
+    private String writeScalar(Property property, String value) {
+      String name = quote(property.elementName);
+      if (property.wrapper != null) {
+        return "WxXmlBinders.writeWrappedCData(writer, " + name + ", " + quote(property.wrapper) + ", " + value + ");";
+      }
+      if (property.cdata) {
+        return "WxXmlBinders.writeCData(writer, " + name + ", " + value + ");";
+      }
+      return "WxXmlBinders.writeText(writer, " + name + ", " + value + ");";
+    }
+  }
+}
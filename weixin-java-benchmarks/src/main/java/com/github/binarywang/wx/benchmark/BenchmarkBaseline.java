@@ -0,0 +1,122 @@
+package com.github.binarywang.wx.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JSON格式的JMH结果，用于与基线逐项对比.
+ * 每项以“基准方法+参数”为键，吞吐量模式下分数越低越差，其他模式（平均时间等）下分数越高越差.
+ */
+class BenchmarkBaseline {
+  private final Map<String, Score> scores;
+
+  private BenchmarkBaseline(Map<String, Score> scores) {
+    this.scores = scores;
+  }
+
+  static BenchmarkBaseline load(File file) throws IOException {
+    Map<String, Score> scores = new LinkedHashMap<>();
+    try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      JsonArray results = new JsonParser().parse(reader).getAsJsonArray();
+      for (JsonElement element : results) {
+        JsonObject result = element.getAsJsonObject();
+        JsonObject primaryMetric = result.getAsJsonObject("primaryMetric");
+        String mode = result.get("mode").getAsString();
+        scores.put(key(result), new Score(mode, primaryMetric.get("score").getAsDouble(),
+          primaryMetric.get("scoreUnit").getAsString()));
+      }
+    }
+    return new BenchmarkBaseline(scores);
+  }
+
+  private static String key(JsonObject result) {
+    StringBuilder key = new StringBuilder(result.get("benchmark").getAsString())
+      .append(':').append(result.get("mode").getAsString());
+    if (result.has("params")) {
+      Map<String, String> params = new TreeMap<>();
+      for (Map.Entry<String, JsonElement> param : result.getAsJsonObject("params").entrySet()) {
+        params.put(param.getKey(), param.getValue().getAsString());
+      }
+      key.append(params);
+    }
+    return key.toString();
+  }
+
+  /**
+   * 将当前结果与本基线对比，输出每一项的变化，返回变差超过阈值的项.
+   * 单位不同或基线中不存在的项只输出，不参与判断.
+   *
+   * @param current   当前结果
+   * @param threshold 允许变差的比例，比如0.1表示10%
+   * @param out       对比明细的输出
+   * @return 变差超过阈值的项
+   */
+  List<Regression> compare(BenchmarkBaseline current, double threshold, PrintStream out) {
+    List<Regression> regressions = new ArrayList<>();
+    for (Map.Entry<String, Score> entry : current.scores.entrySet()) {
+      Score now = entry.getValue();
+      Score before = this.scores.get(entry.getKey());
+      if (before == null || !before.unit.equals(now.unit) || before.value == 0) {
+        out.printf("[new]        %s %.3f %s%n", entry.getKey(), now.value, now.unit);
+        continue;
+      }
+
+      double change = (now.value - before.value) / before.value;
+      double worse = now.isHigherBetter() ? -change : change;
+      boolean regressed = worse > threshold;
+      out.printf("%-12s %s %.3f -> %.3f %s (%+.1f%%)%n", regressed ? "[regression]" : "[ok]",
+        entry.getKey(), before.value, now.value, now.unit, change * 100);
+      if (regressed) {
+        regressions.add(new Regression(entry.getKey(), before.value, now.value, worse));
+      }
+    }
+    return regressions;
+  }
+
+  private static class Score {
+    private final String mode;
+    private final double value;
+    private final String unit;
+
+    Score(String mode, double value, String unit) {
+      this.mode = mode;
+      this.value = value;
+      this.unit = unit;
+    }
+
+    boolean isHigherBetter() {
+      return "thrpt".equals(this.mode);
+    }
+  }
+
+  static class Regression {
+    final String benchmark;
+    final double baseline;
+    final double current;
+    /**
+     * 变差的比例.
+     */
+    final double ratio;
+
+    Regression(String benchmark, double baseline, double current, double ratio) {
+      this.benchmark = benchmark;
+      this.baseline = baseline;
+      this.current = current;
+      this.ratio = ratio;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.github.binarywang.wx.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * <pre>
+ * 基准测试入口，即 benchmarks.jar 的 Main-Class.
+ *
+ * 命令行参数与JMH自带的入口一致（比如 -f、-wi、-i 以及用于筛选的正则），在此基础上：
+ * 1. 未指定 -rf/-rff 时，结果固定以JSON格式写入 wx.benchmark.result（默认 target/jmh-result.json）；
+ * 2. 指定了 wx.benchmark.baseline 时，运行结束后与该基线文件（同样是JSON格式的JMH结果）逐项对比，
+ *    任一项变差超过 wx.benchmark.threshold（默认0.1，即10%）时以非零状态退出，供CI判断性能回退.
+ *
+ * 示例：
+ *   mvn -P benchmark -pl weixin-java-benchmarks -am package -DskipTests
+ *   java -Dwx.benchmark.baseline=baseline.json -jar weixin-java-benchmarks/target/benchmarks.jar
+ * </pre>
+ */
+public class BenchmarkRunner {
+  private static final String RESULT_PROPERTY = "wx.benchmark.result";
+  private static final String BASELINE_PROPERTY = "wx.benchmark.baseline";
+  private static final String THRESHOLD_PROPERTY = "wx.benchmark.threshold";
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList()) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+    File resultFile;
+    if (commandLineOptions.getResult().hasValue()) {
+      resultFile = new File(commandLineOptions.getResult().get());
+    } else {
+      resultFile = new File(System.getProperty(RESULT_PROPERTY, "target/jmh-result.json"));
+      File parent = resultFile.getAbsoluteFile().getParentFile();
+      if (!parent.isDirectory() && !parent.mkdirs()) {
+        throw new IllegalStateException("无法创建目录：" + parent);
+      }
+      options.resultFormat(ResultFormatType.JSON).result(resultFile.getPath());
+    }
+
+    new Runner(options.build()).run();
+
+    String baseline = System.getProperty(BASELINE_PROPERTY);
+    if (baseline == null) {
+      return;
+    }
+
+    double threshold = Double.parseDouble(System.getProperty(THRESHOLD_PROPERTY, "0.1"));
+    List<BenchmarkBaseline.Regression> regressions = BenchmarkBaseline.load(new File(baseline))
+      .compare(BenchmarkBaseline.load(resultFile), threshold, System.out);
+    if (!regressions.isEmpty()) {
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.github.binarywang.wx.benchmark;
+
+import me.chanjar.weixin.common.util.crypto.WxCryptUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 回调消息加解密：{@link WxCryptUtil} 的加密、字符串解密及流式解密.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptBenchmark {
+  private static final String TOKEN = "QDG6eK";
+  private static final String ENCODING_AES_KEY = "jWmYm7qr5nMoAUwZRjGtBxmz3KA1tkAj3ykkR6q2B2C";
+  private static final String APP_ID = "wx5823bf96d3bd56c7";
+
+  /**
+   * 明文消息中Content的长度，覆盖普通文本消息和较大的事件推送.
+   */
+  @Param({"64", "4096"})
+  public int contentLength;
+
+  private WxCryptUtil cryptUtil;
+  private String plainXml;
+  private String encryptedXml;
+  private byte[] encryptedXmlBytes;
+  private WxCryptUtil.EncryptContext context;
+
+  @Setup
+  public void setUp() {
+    this.cryptUtil = new WxCryptUtil(TOKEN, ENCODING_AES_KEY, APP_ID);
+    this.plainXml = Samples.mpTextMessage(this.contentLength);
+    this.context = this.cryptUtil.encryptContext(this.plainXml);
+    this.encryptedXml = "<xml><ToUserName><![CDATA[" + APP_ID + "]]></ToUserName><Encrypt><![CDATA["
+      + this.context.getEncrypt() + "]]></Encrypt></xml>";
+    this.encryptedXmlBytes = this.encryptedXml.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public String encrypt() {
+    return this.cryptUtil.encrypt(this.plainXml);
+  }
+
+  @Benchmark
+  public String decryptXml() {
+    return this.cryptUtil.decryptXml(this.context.getSignature(), this.context.getTimeStamp(),
+      this.context.getNonce(), this.encryptedXml);
+  }
+
+  @Benchmark
+  public String decryptXmlStream() {
+    return this.cryptUtil.decryptXml(this.context.getSignature(), this.context.getTimeStamp(),
+      this.context.getNonce(), new ByteArrayInputStream(this.encryptedXmlBytes));
+  }
+
+}
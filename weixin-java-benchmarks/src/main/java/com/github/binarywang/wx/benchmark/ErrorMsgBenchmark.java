@@ -0,0 +1,87 @@
+package com.github.binarywang.wx.benchmark;
+
+import me.chanjar.weixin.common.enums.WxType;
+import me.chanjar.weixin.common.error.WxCpErrorMsgEnum;
+import me.chanjar.weixin.common.error.WxError;
+import me.chanjar.weixin.common.error.WxMaErrorMsgEnum;
+import me.chanjar.weixin.common.error.WxMpErrorMsgEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 错误码中文描述的查找：索引查找与原先遍历values()的线性查找对照，以及完整的 {@link WxError#fromJson(String, WxType)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorMsgBenchmark {
+  /**
+   * 40001位于各枚举的开头，45009位于中部，1为不存在的错误码.
+   */
+  @Param({"40001", "45009", "1"})
+  public int code;
+
+  @Benchmark
+  public String mpIndexed() {
+    return WxMpErrorMsgEnum.findMsgByCode(this.code);
+  }
+
+  @Benchmark
+  public String mpLinearScan() {
+    for (WxMpErrorMsgEnum value : WxMpErrorMsgEnum.values()) {
+      if (value.getCode() == this.code) {
+        return value.getMsg();
+      }
+    }
+    return null;
+  }
+
+  @Benchmark
+  public String cpIndexed() {
+    return WxCpErrorMsgEnum.findMsgByCode(this.code);
+  }
+
+  @Benchmark
+  public String cpLinearScan() {
+    for (WxCpErrorMsgEnum value : WxCpErrorMsgEnum.values()) {
+      if (value.getCode() == this.code) {
+        return value.getMsg();
+      }
+    }
+    return null;
+  }
+
+  @Benchmark
+  public String maIndexed() {
+    return WxMaErrorMsgEnum.findMsgByCode(this.code);
+  }
+
+  @Benchmark
+  public String maLinearScan() {
+    for (WxMaErrorMsgEnum value : WxMaErrorMsgEnum.values()) {
+      if (value.getCode() == this.code) {
+        return value.getMsg();
+      }
+    }
+    return null;
+  }
+
+  @Benchmark
+  public WxError mpErrorFromJson() {
+    return WxError.fromJson("{\"errcode\":" + this.code + ",\"errmsg\":\"error\"}", WxType.MP);
+  }
+
+}
@@ -0,0 +1,106 @@
+package com.github.binarywang.wx.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+import me.chanjar.weixin.common.error.WxError;
+import me.chanjar.weixin.common.util.json.GsonParser;
+import me.chanjar.weixin.common.util.json.WxGsonBuilder;
+import me.chanjar.weixin.cp.bean.WxCpUser;
+import me.chanjar.weixin.cp.util.json.WxCpGsonBuilder;
+import me.chanjar.weixin.mp.bean.result.WxMpUserList;
+import me.chanjar.weixin.mp.util.json.WxMpGsonBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * JSON转换：大结果的反序列化与序列化往返.
+ * <pre>
+ * shared=true 使用各GsonBuilder共享的Gson实例；
+ * shared=false 每次调用都从同一个GsonBuilder重新create()，即共享实例引入之前的行为，作为对照.
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GsonBenchmark {
+  private static final Type CP_USER_LIST_TYPE = new TypeToken<List<WxCpUser>>() {
+  }.getType();
+
+  @Param({"true", "false"})
+  public boolean shared;
+
+  /**
+   * 用户数量，10000为公众号获取用户列表接口的单次上限.
+   */
+  @Param({"100", "10000"})
+  public int userCount;
+
+  private Supplier<Gson> commonGson;
+  private Supplier<Gson> mpGson;
+  private Supplier<Gson> cpGson;
+
+  private String mpUserListJson;
+  private String cpUserListJson;
+  private String errorJson;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    this.commonGson = this.gson(WxGsonBuilder.class, WxGsonBuilder::create);
+    this.mpGson = this.gson(WxMpGsonBuilder.class, WxMpGsonBuilder::create);
+    this.cpGson = this.gson(WxCpGsonBuilder.class, WxCpGsonBuilder::create);
+
+    this.mpUserListJson = Samples.mpUserListJson(this.userCount);
+    this.cpUserListJson = Samples.cpUserListJson(this.userCount);
+    this.errorJson = "{\"errcode\":45009,\"errmsg\":\"reach max api daily quota limit\"}";
+  }
+
+  private Supplier<Gson> gson(Class<?> builderClass, Supplier<Gson> sharedGson) throws ReflectiveOperationException {
+    if (this.shared) {
+      return sharedGson;
+    }
+
+    Field field = builderClass.getDeclaredField("INSTANCE");
+    field.setAccessible(true);
+    GsonBuilder builder = (GsonBuilder) field.get(null);
+    return builder::create;
+  }
+
+  @Benchmark
+  public String mpUserListRoundTrip() {
+    WxMpUserList userList = this.mpGson.get().fromJson(this.mpUserListJson, WxMpUserList.class);
+    return this.mpGson.get().toJson(userList);
+  }
+
+  @Benchmark
+  public String cpUserListRoundTrip() {
+    JsonObject jsonObject = GsonParser.parse(this.cpUserListJson);
+    List<WxCpUser> users = this.cpGson.get().fromJson(jsonObject.get("userlist"), CP_USER_LIST_TYPE);
+    return this.cpGson.get().toJson(users, CP_USER_LIST_TYPE);
+  }
+
+  @Benchmark
+  public WxError errorFromJson() {
+    return this.commonGson.get().fromJson(this.errorJson, WxError.class);
+  }
+
+}
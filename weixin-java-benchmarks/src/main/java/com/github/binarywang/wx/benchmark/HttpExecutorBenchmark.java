@@ -0,0 +1,89 @@
+package com.github.binarywang.wx.benchmark;
+
+import me.chanjar.weixin.common.error.WxErrorException;
+import me.chanjar.weixin.cp.api.WxCpService;
+import me.chanjar.weixin.cp.api.impl.WxCpServiceImpl;
+import me.chanjar.weixin.cp.bean.WxCpUser;
+import me.chanjar.weixin.cp.config.impl.WxCpDefaultConfigImpl;
+import me.chanjar.weixin.mp.api.WxMpService;
+import me.chanjar.weixin.mp.api.impl.WxMpServiceImpl;
+import me.chanjar.weixin.mp.bean.result.WxMpUserList;
+import me.chanjar.weixin.mp.config.WxMpHostConfig;
+import me.chanjar.weixin.mp.config.impl.WxMpDefaultConfigImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接口调用的完整路径：请求执行器、http客户端、响应解析及json转换，服务端为本地桩服务.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class HttpExecutorBenchmark {
+  @Param({"100", "10000"})
+  public int userCount;
+
+  private StubHttpServer server;
+  private WxMpService mpService;
+  private WxCpService cpService;
+
+  @Setup
+  public void setUp() throws IOException {
+    this.server = new StubHttpServer()
+      .respond("/cgi-bin/user/get", Samples.mpUserListJson(this.userCount))
+      .respond("/cgi-bin/user/list", Samples.cpUserListJson(this.userCount))
+      .start();
+
+    WxMpDefaultConfigImpl mpConfig = new WxMpDefaultConfigImpl();
+    mpConfig.setAppId("appid");
+    mpConfig.setSecret("secret");
+    mpConfig.updateAccessToken("access_token", 7200);
+    mpConfig.setHostConfig(WxMpHostConfig.builder().apiHost(this.server.baseUrl()).build());
+    this.mpService = new WxMpServiceImpl();
+    this.mpService.setWxMpConfigStorage(mpConfig);
+
+    WxCpDefaultConfigImpl cpConfig = new WxCpDefaultConfigImpl();
+    cpConfig.setCorpId("corpid");
+    cpConfig.setCorpSecret("secret");
+    cpConfig.setAgentId(1);
+    cpConfig.updateAccessToken("access_token", 7200);
+    cpConfig.setBaseApiUrl(this.server.baseUrl());
+    this.cpService = new WxCpServiceImpl();
+    this.cpService.setWxCpConfigStorage(cpConfig);
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.server.close();
+  }
+
+  @Benchmark
+  public WxMpUserList mpUserList() throws WxErrorException {
+    return this.mpService.getUserService().userList(null);
+  }
+
+  @Benchmark
+  public List<WxCpUser> cpUserListByDepartment() throws WxErrorException {
+    return this.cpService.getUserService().listByDepartment(1L, true, 0);
+  }
+
+}
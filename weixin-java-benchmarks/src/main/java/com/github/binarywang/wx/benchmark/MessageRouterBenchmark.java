@@ -0,0 +1,86 @@
+package com.github.binarywang.wx.benchmark;
+
+import me.chanjar.weixin.common.api.WxConsts;
+import me.chanjar.weixin.mp.api.WxMpMessageHandler;
+import me.chanjar.weixin.mp.api.WxMpMessageRouter;
+import me.chanjar.weixin.mp.api.impl.WxMpServiceImpl;
+import me.chanjar.weixin.mp.bean.message.WxMpXmlMessage;
+import me.chanjar.weixin.mp.bean.message.WxMpXmlOutMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消息路由：{@link WxMpMessageRouter#route(WxMpXmlMessage)} 在大量规则下的分发开销.
+ * <pre>
+ * 每10条规则中有1条使用eventKeyRegex，其余为精确匹配的菜单点击规则；
+ * 待路由的消息命中最后一条精确规则，另有一条消息不命中任何规则.
+ * 排重使用始终返回false的实现，只度量规则匹配及同步处理器的调用.
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageRouterBenchmark {
+  @Param({"10", "100", "1000"})
+  public int ruleCount;
+
+  private WxMpMessageRouter router;
+  private WxMpXmlMessage matchedMessage;
+  private WxMpXmlMessage unmatchedMessage;
+
+  @Setup
+  public void setUp() {
+    final WxMpXmlOutMessage reply = WxMpXmlOutMessage.TEXT().content("ok").fromUser("to").toUser("from").build();
+    final WxMpMessageHandler handler = (message, context, service, sessionManager) -> reply;
+
+    this.router = new WxMpMessageRouter(new WxMpServiceImpl());
+    this.router.setMessageDuplicateChecker(messageId -> false);
+    int lastExact = -1;
+    for (int i = 0; i < this.ruleCount; i++) {
+      if (i % 10 == 9) {
+        this.router.rule().async(false).msgType(WxConsts.XmlMsgType.EVENT).event(WxConsts.EventType.CLICK)
+          .eventKeyRegex("regex_" + i + "_\\d+").handler(handler).end();
+      } else {
+        this.router.rule().async(false).msgType(WxConsts.XmlMsgType.EVENT).event(WxConsts.EventType.CLICK)
+          .eventKey("key_" + i).handler(handler).end();
+        lastExact = i;
+      }
+    }
+
+    this.matchedMessage = WxMpXmlMessage.fromXml(
+      Samples.mpEventMessage("fromUser", WxConsts.EventType.CLICK, "key_" + lastExact));
+    this.unmatchedMessage = WxMpXmlMessage.fromXml(
+      Samples.mpEventMessage("fromUser", WxConsts.EventType.CLICK, "missing"));
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.router.shutDownExecutorService();
+  }
+
+  @Benchmark
+  public WxMpXmlOutMessage routeMatched() {
+    return this.router.route(this.matchedMessage);
+  }
+
+  @Benchmark
+  public WxMpXmlOutMessage routeUnmatched() {
+    return this.router.route(this.unmatchedMessage);
+  }
+
+}
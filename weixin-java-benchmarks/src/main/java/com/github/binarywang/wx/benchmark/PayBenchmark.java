@@ -0,0 +1,156 @@
+package com.github.binarywang.wx.benchmark;
+
+import com.github.binarywang.wxpay.bean.request.WxPayUnifiedOrderRequest;
+import com.github.binarywang.wxpay.bean.result.BaseWxPayResult;
+import com.github.binarywang.wxpay.bean.result.WxPayRedpackQueryResult;
+import com.github.binarywang.wxpay.constant.WxPayConstants;
+import com.github.binarywang.wxpay.util.SignUtils;
+import com.github.binarywang.wxpay.util.XmlConfig;
+import com.github.binarywang.wxpay.v3.auth.CertificatesVerifier;
+import com.thoughtworks.xstream.XStream;
+import me.chanjar.weixin.common.util.xml.XStreamInitializer;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 微信支付：签名生成、结果xml解析及v3平台证书验签.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayBenchmark {
+  private static final String SIGN_KEY = "192006250b4c09247ec02edce69f6a2d";
+
+  /**
+   * 是否开启 {@link XmlConfig#fastMode}，影响签名参数的提取及结果xml的解析.
+   */
+  @Param({"false", "true"})
+  public boolean fastMode;
+
+  private boolean originalFastMode;
+
+  private WxPayUnifiedOrderRequest request;
+  private Map<String, String> signParams;
+  private String resultXml;
+
+  private CertificatesVerifier verifier;
+  private String serialNumber;
+  private byte[] message;
+  private String signature;
+
+  @Setup
+  public void setUp() throws Exception {
+    this.originalFastMode = XmlConfig.fastMode;
+    XmlConfig.fastMode = this.fastMode;
+
+    this.request = WxPayUnifiedOrderRequest.newBuilder()
+      .body("腾讯充值中心-QQ会员充值")
+      .outTradeNo("20150806125346")
+      .totalFee(88)
+      .spbillCreateIp("123.12.12.123")
+      .notifyUrl("http://www.weixin.qq.com/wxpay/pay.php")
+      .tradeType(WxPayConstants.TradeType.JSAPI)
+      .openid("oUpF8uMuAJO_M2pxb1Q9zNjWeS6o")
+      .build();
+    this.request.setAppid("wxd930ea5d5a258f4f");
+    this.request.setMchId("10000100");
+    this.request.setNonceStr("ibuaiVcKdpRxkhJA");
+    this.signParams = SignUtils.xmlBean2Map(this.request);
+
+    this.resultXml = Samples.payRedpackQueryResult();
+
+    this.setUpVerifier();
+  }
+
+  private void setUpVerifier() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    KeyPair keyPair = generator.generateKeyPair();
+
+    X500Name name = new X500Name("CN=WxJava Benchmark");
+    Date notBefore = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1));
+    Date notAfter = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365));
+    X509Certificate certificate = new JcaX509CertificateConverter().getCertificate(
+      new JcaX509v3CertificateBuilder(name, new BigInteger(64, new SecureRandom()), notBefore, notAfter,
+        name, keyPair.getPublic())
+        .build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+
+    this.verifier = new CertificatesVerifier(Collections.singletonList(certificate));
+    this.serialNumber = certificate.getSerialNumber().toString(16).toUpperCase();
+    this.message = ("1554208460\n593BEC0C930BF1AFEB40B4A08C8FB242\n"
+      + "{\"data\":[{\"serial_no\":\"5157F09EFDC096DE15EBE81A47057A7232F1B8E1\"}]}\n").getBytes(StandardCharsets.UTF_8);
+
+    Signature sign = Signature.getInstance("SHA256withRSA");
+    sign.initSign(keyPair.getPrivate());
+    sign.update(this.message);
+    this.signature = Base64.getEncoder().encodeToString(sign.sign());
+  }
+
+  @TearDown
+  public void tearDown() {
+    XmlConfig.fastMode = this.originalFastMode;
+  }
+
+  @Benchmark
+  public String createSignFromBean() {
+    return SignUtils.createSign(this.request, WxPayConstants.SignType.MD5, SIGN_KEY, null);
+  }
+
+  @Benchmark
+  public String createSignFromMap() {
+    return SignUtils.createSign(this.signParams, WxPayConstants.SignType.HMAC_SHA256, SIGN_KEY, null);
+  }
+
+  @Benchmark
+  public WxPayRedpackQueryResult fromXml() {
+    return BaseWxPayResult.fromXML(this.resultXml, WxPayRedpackQueryResult.class);
+  }
+
+  /**
+   * 每次解析都重新初始化XStream，即引入 XmlStreamCache 之前的行为，作为 {@link #fromXml()} 的对照.
+   */
+  @Benchmark
+  public WxPayRedpackQueryResult fromXmlUncached() {
+    XStream xstream = XStreamInitializer.getInstance();
+    xstream.processAnnotations(WxPayRedpackQueryResult.class);
+    WxPayRedpackQueryResult result = (WxPayRedpackQueryResult) xstream.fromXML(this.resultXml);
+    result.setXmlString(this.resultXml);
+    return result;
+  }
+
+  @Benchmark
+  public boolean verifyCertificate() {
+    return this.verifier.verify(this.serialNumber, this.message, this.signature);
+  }
+
+}
@@ -0,0 +1,127 @@
+package com.github.binarywang.wx.benchmark;
+
+import com.google.common.base.Strings;
+
+/**
+ * 基准测试共用的消息及接口返回样例.
+ */
+final class Samples {
+  private Samples() {
+  }
+
+  static String mpTextMessage(int contentLength) {
+    return "<xml>"
+      + "<ToUserName><![CDATA[toUser]]></ToUserName>"
+      + "<FromUserName><![CDATA[fromUser]]></FromUserName>"
+      + "<CreateTime>1348831860</CreateTime>"
+      + "<MsgType><![CDATA[text]]></MsgType>"
+      + "<Content><![CDATA[" + Strings.repeat("a", contentLength) + "]]></Content>"
+      + "<MsgId>1234567890123456</MsgId>"
+      + "</xml>";
+  }
+
+  static String mpEventMessage(String fromUser, String event, String eventKey) {
+    return "<xml>"
+      + "<ToUserName><![CDATA[toUser]]></ToUserName>"
+      + "<FromUserName><![CDATA[" + fromUser + "]]></FromUserName>"
+      + "<CreateTime>1348831860</CreateTime>"
+      + "<MsgType><![CDATA[event]]></MsgType>"
+      + "<Event><![CDATA[" + event + "]]></Event>"
+      + "<EventKey><![CDATA[" + eventKey + "]]></EventKey>"
+      + "<Latitude>23.137466</Latitude>"
+      + "<Longitude>113.352425</Longitude>"
+      + "<Precision>119.385040</Precision>"
+      + "<ScanCodeInfo>"
+      + "<ScanType><![CDATA[qrcode]]></ScanType>"
+      + "<ScanResult><![CDATA[1]]></ScanResult>"
+      + "</ScanCodeInfo>"
+      + "</xml>";
+  }
+
+  static String cpTextMessage() {
+    return "<xml>"
+      + "<ToUserName><![CDATA[toUser]]></ToUserName>"
+      + "<FromUserName><![CDATA[fromUser]]></FromUserName>"
+      + "<CreateTime>1348831860</CreateTime>"
+      + "<MsgType><![CDATA[text]]></MsgType>"
+      + "<Content><![CDATA[this is a test]]></Content>"
+      + "<MsgId>1234567890123456</MsgId>"
+      + "<AgentID>1</AgentID>"
+      + "</xml>";
+  }
+
+  static String maTextMessage() {
+    return "<xml>"
+      + "<ToUserName><![CDATA[toUser]]></ToUserName>"
+      + "<FromUserName><![CDATA[fromUser]]></FromUserName>"
+      + "<CreateTime>1482048670</CreateTime>"
+      + "<MsgType><![CDATA[text]]></MsgType>"
+      + "<Content><![CDATA[this is a test]]></Content>"
+      + "<MsgId>1234567890123456</MsgId>"
+      + "</xml>";
+  }
+
+  static String payRedpackQueryResult() {
+    return "<xml>"
+      + "<return_code><![CDATA[SUCCESS]]></return_code>"
+      + "<return_msg><![CDATA[OK]]></return_msg>"
+      + "<result_code><![CDATA[SUCCESS]]></result_code>"
+      + "<err_code><![CDATA[SUCCESS]]></err_code>"
+      + "<err_code_des><![CDATA[OK]]></err_code_des>"
+      + "<mch_billno><![CDATA[1473919402201801230145075410]]></mch_billno>"
+      + "<mch_id><![CDATA[1497236182]]></mch_id>"
+      + "<detail_id><![CDATA[1000041701201801233000139830103]]></detail_id>"
+      + "<status><![CDATA[RECEIVED]]></status>"
+      + "<send_type><![CDATA[API]]></send_type>"
+      + "<hb_type><![CDATA[NORMAL]]></hb_type>"
+      + "<total_num>1</total_num>"
+      + "<total_amount>100</total_amount>"
+      + "<send_time><![CDATA[2018-01-23 13:45:08]]></send_time>"
+      + "<hblist>"
+      + "<hbinfo>"
+      + "<openid><![CDATA[o3yHF0uHuckI3yE6lwWiFQBQdVDI]]></openid>"
+      + "<amount>100</amount>"
+      + "<rcv_time><![CDATA[2018-01-23 13:45:31]]></rcv_time>"
+      + "</hbinfo>"
+      + "</hblist>"
+      + "</xml>";
+  }
+
+  /**
+   * 公众号获取用户列表接口的返回，openid数量与接口单次上限相同.
+   */
+  static String mpUserListJson(int count) {
+    StringBuilder json = new StringBuilder("{\"total\":").append(count * 3)
+      .append(",\"count\":").append(count)
+      .append(",\"data\":{\"openid\":[");
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("\"o6_bmjrPTlm6_2sgVt7hMZOPfL2M").append(i).append('"');
+    }
+    return json.append("]},\"next_openid\":\"o6_bmjrPTlm6_2sgVt7hMZOPfL2M").append(count - 1).append("\"}").toString();
+  }
+
+  /**
+   * 企业微信获取部门成员详情接口的返回.
+   */
+  static String cpUserListJson(int count) {
+    StringBuilder json = new StringBuilder("{\"errcode\":0,\"errmsg\":\"ok\",\"userlist\":[");
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"userid\":\"zhangsan").append(i).append('"')
+        .append(",\"name\":\"张三").append(i).append('"')
+        .append(",\"department\":[1,2],\"order\":[1,2],\"position\":\"后台工程师\"")
+        .append(",\"mobile\":\"13800000000\",\"gender\":\"1\",\"email\":\"zhangsan@gzdev.com\"")
+        .append(",\"is_leader_in_dept\":[1,0],\"avatar\":\"http://wx.qlogo.cn/mmopen/ajNVdqHZLLA3WJ6DSZUfiakYe37PKnQhBIeOQBO4czqrnZDS79FH5Wm5m4X69TBicnHFlhiafvDwklOpZeXYQQ2icg/0\"")
+        .append(",\"telephone\":\"020-123456\",\"enable\":1,\"alias\":\"jackzhang\",\"status\":1")
+        .append(",\"extattr\":{\"attrs\":[{\"type\":0,\"name\":\"文本名称\",\"text\":{\"value\":\"文本\"}}]}")
+        .append(",\"qr_code\":\"https://open.work.weixin.qq.com/wwopen/userQRCode?vcode=xxx\"")
+        .append(",\"external_position\":\"高级产品经理\",\"address\":\"广州市海珠区新港中路\"}");
+    }
+    return json.append("]}").toString();
+  }
+}
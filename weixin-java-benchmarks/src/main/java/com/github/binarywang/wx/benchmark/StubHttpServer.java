@@ -0,0 +1,61 @@
+package com.github.binarywang.wx.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 本地桩服务，按路径返回固定的json，使接口调用的基准测试不依赖微信服务器及网络.
+ */
+final class StubHttpServer implements AutoCloseable {
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  StubHttpServer() throws IOException {
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    this.server.setExecutor(this.executor);
+  }
+
+  /**
+   * 对指定路径（含前缀匹配）的请求返回固定的json.
+   */
+  StubHttpServer respond(String path, String json) {
+    final byte[] body = json.getBytes(StandardCharsets.UTF_8);
+    this.server.createContext(path, exchange -> {
+      try (InputStream in = exchange.getRequestBody()) {
+        while (in.read() != -1) {
+          // 读完请求体以便连接复用
+        }
+      }
+      exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    return this;
+  }
+
+  StubHttpServer start() {
+    this.server.start();
+    return this;
+  }
+
+  String baseUrl() {
+    return "http://127.0.0.1:" + this.server.getAddress().getPort();
+  }
+
+  @Override
+  public void close() {
+    this.server.stop(0);
+    this.executor.shutdownNow();
+  }
+}
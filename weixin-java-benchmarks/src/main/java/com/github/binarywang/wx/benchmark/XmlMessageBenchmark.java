@@ -0,0 +1,66 @@
+package com.github.binarywang.wx.benchmark;
+
+import cn.binarywang.wx.miniapp.bean.WxMaMessage;
+import com.thoughtworks.xstream.XStream;
+import me.chanjar.weixin.common.util.xml.XStreamInitializer;
+import me.chanjar.weixin.cp.bean.message.WxCpXmlMessage;
+import me.chanjar.weixin.mp.bean.message.WxMpXmlMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 回调消息解析：各模块 XStreamTransformer.fromXml，以及同一消息直接使用XStream解析作为对照.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XmlMessageBenchmark {
+  private String mpXml;
+  private String cpXml;
+  private String maXml;
+  private XStream mpXStream;
+
+  @Setup
+  public void setUp() {
+    this.mpXml = Samples.mpEventMessage("fromUser", "scancode_push", "EventKey");
+    this.cpXml = Samples.cpTextMessage();
+    this.maXml = Samples.maTextMessage();
+
+    this.mpXStream = XStreamInitializer.getInstance();
+    this.mpXStream.processAnnotations(WxMpXmlMessage.class);
+  }
+
+  @Benchmark
+  public WxMpXmlMessage mpFromXml() {
+    return me.chanjar.weixin.mp.util.xml.XStreamTransformer.fromXml(WxMpXmlMessage.class, this.mpXml);
+  }
+
+  @Benchmark
+  public WxMpXmlMessage mpFromXmlByXStream() {
+    return (WxMpXmlMessage) this.mpXStream.fromXML(this.mpXml);
+  }
+
+  @Benchmark
+  public WxCpXmlMessage cpFromXml() {
+    return me.chanjar.weixin.cp.util.xml.XStreamTransformer.fromXml(WxCpXmlMessage.class, this.cpXml);
+  }
+
+  @Benchmark
+  public WxMaMessage maFromXml() {
+    return cn.binarywang.wx.miniapp.util.xml.XStreamTransformer.fromXml(WxMaMessage.class, this.maXml);
+  }
+
+}
@@ -0,0 +1,142 @@
+package me.chanjar.weixin.common.api;
+
+import com.google.common.collect.ImmutableSet;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import me.chanjar.weixin.common.error.WxError;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ * 指数退避重试策略.
+ * 第n次（从0开始）重试前等待 baseDelayMillis * 2^n 毫秒（不超过maxDelayMillis），
+ * 开启fullJitter时实际等待时间在 0 ~ 该值 之间随机，以免大量请求在微信故障恢复时同时重试.
+ *
+ * 此外还可以限制：
+ * 1. 每个账号在retryBudgetWindowMillis内的重试总次数（retryBudget），避免故障期间重试流量放大；
+ * 2. 请求的截止时间（见{@link WxRequestDeadline}），等待后会超过截止时间时不再重试.
+ *
+ * 默认只重试-1（系统繁忙），如需重试接口频率限制等错误，可通过setRetryableCodes添加，比如45009、45011.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+@Getter
+@Setter
+public class WxBackoffRetryPolicy implements WxRetryPolicy {
+  /**
+   * 可以重试的错误码.
+   */
+  private Set<Integer> retryableCodes = ImmutableSet.of(-1);
+
+  /**
+   * 首次重试的等待时间（毫秒）.
+   */
+  private long baseDelayMillis = 1000L;
+
+  /**
+   * 单次等待时间的上限（毫秒），小于等于0表示不限制.
+   */
+  private long maxDelayMillis = 30 * 1000L;
+
+  /**
+   * 单次请求最多重试的次数.
+   */
+  private int maxRetryTimes = 5;
+
+  /**
+   * 是否在 0 ~ 退避时间 之间随机选取实际等待时间.
+   */
+  private boolean fullJitter = true;
+
+  /**
+   * 每个账号在retryBudgetWindowMillis内最多重试的次数，小于等于0表示不限制.
+   */
+  private int retryBudget = 0;
+
+  /**
+   * 重试预算的统计窗口（毫秒）.
+   */
+  private long retryBudgetWindowMillis = 60 * 1000L;
+
+  @Getter(AccessLevel.NONE)
+  private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+
+  /**
+   * 与原先固定退避方式一致的策略：只重试-1，等待 retrySleepMillis * 2^n 毫秒，无随机、无预算限制.
+   *
+   * @param retrySleepMillis 首次重试的等待时间（毫秒）
+   * @param maxRetryTimes    最多重试的次数
+   * @return 重试策略
+   */
+  public static WxBackoffRetryPolicy of(int retrySleepMillis, int maxRetryTimes) {
+    WxBackoffRetryPolicy policy = new WxBackoffRetryPolicy();
+    policy.setBaseDelayMillis(retrySleepMillis);
+    policy.setMaxDelayMillis(0);
+    policy.setMaxRetryTimes(maxRetryTimes);
+    policy.setFullJitter(false);
+    return policy;
+  }
+
+  @Override
+  public boolean isRetryable(WxError error) {
+    return error != null && this.retryableCodes.contains(error.getErrorCode());
+  }
+
+  @Override
+  public long nextRetryDelay(String accountKey, int retryTimes, long deadline) {
+    if (retryTimes >= this.maxRetryTimes) {
+      return -1;
+    }
+
+    long delay = this.backoff(retryTimes);
+    if (this.fullJitter && delay > 0) {
+      delay = ThreadLocalRandom.current().nextLong(delay + 1);
+    }
+
+    if (deadline > 0 && System.currentTimeMillis() + delay >= deadline) {
+      return -1;
+    }
+
+    if (this.retryBudget > 0 && !this.budgets.computeIfAbsent(String.valueOf(accountKey), k -> new RetryBudget())
+      .tryAcquire(this.retryBudget, this.retryBudgetWindowMillis)) {
+      return -1;
+    }
+
+    return delay;
+  }
+
+  private long backoff(int retryTimes) {
+    long delay = this.baseDelayMillis;
+    for (int i = 0; i < retryTimes && delay < Long.MAX_VALUE / 2; i++) {
+      delay <<= 1;
+    }
+
+    return this.maxDelayMillis > 0 ? Math.min(delay, this.maxDelayMillis) : delay;
+  }
+
+  private static class RetryBudget {
+    private final AtomicInteger used = new AtomicInteger();
+    private volatile long windowStart = System.currentTimeMillis();
+
+    private boolean tryAcquire(int budget, long windowMillis) {
+      long now = System.currentTimeMillis();
+      if (now - this.windowStart >= windowMillis) {
+        synchronized (this) {
+          if (now - this.windowStart >= windowMillis) {
+            this.used.set(0);
+            this.windowStart = now;
+          }
+        }
+      }
+
+      return this.used.incrementAndGet() <= budget;
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package me.chanjar.weixin.common.api;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * <pre>
+ * 多账号配置的注册表，按账号标识（appId、mchId等）保存配置以及绑定到该配置的服务视图.
+ *
+ * 内部是一个不可变的快照，写操作（添加、删除、替换）加锁后复制出新快照再整体替换，
+ * 读操作只读取一次volatile引用，不加锁，适用于账号数量多、读远多于写的场景.
+ * 配置被替换或删除后，之前为其创建的视图不再从注册表返回，已经拿到旧视图的调用方仍然使用旧配置.
+ * 快照保留账号的添加顺序.
+ * </pre>
+ *
+ * @param <C> 配置类型
+ * @param <V> 视图类型
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class WxConfigRegistry<C, V> {
+  private volatile Snapshot<C, V> snapshot = new Snapshot<>(Collections.emptyMap());
+
+  /**
+   * @param id 账号标识
+   * @return 对应的配置，不存在时返回null
+   */
+  public C get(String id) {
+    Entry<C, V> entry = this.snapshot.entries.get(id);
+    return entry == null ? null : entry.config;
+  }
+
+  /**
+   * @return 只有一个账号时返回其配置，否则返回null
+   */
+  public C getSingle() {
+    return this.snapshot.single;
+  }
+
+  public boolean contains(String id) {
+    return this.snapshot.entries.containsKey(id);
+  }
+
+  public int size() {
+    return this.snapshot.entries.size();
+  }
+
+  public boolean isEmpty() {
+    return this.snapshot.entries.isEmpty();
+  }
+
+  /**
+   * @return 当前所有账号标识（不可修改），按添加顺序排列
+   */
+  public Set<String> ids() {
+    return this.snapshot.entries.keySet();
+  }
+
+  /**
+   * @return 最早添加的账号标识，没有账号时返回null
+   */
+  public String firstId() {
+    Map<String, Entry<C, V>> entries = this.snapshot.entries;
+    return entries.isEmpty() ? null : entries.keySet().iterator().next();
+  }
+
+  /**
+   * 获取绑定到指定账号配置的视图，同一配置只会创建一次.
+   *
+   * @param id          账号标识
+   * @param viewFactory 视图创建方法，参数为该账号的配置
+   * @return 视图，账号不存在时返回null
+   */
+  public V getView(String id, Function<? super C, ? extends V> viewFactory) {
+    Entry<C, V> entry = this.snapshot.entries.get(id);
+    if (entry == null) {
+      return null;
+    }
+
+    V view = entry.view;
+    if (view == null) {
+      synchronized (entry) {
+        view = entry.view;
+        if (view == null) {
+          view = viewFactory.apply(entry.config);
+          entry.view = view;
+        }
+      }
+    }
+    return view;
+  }
+
+  /**
+   * 添加或替换账号配置.
+   *
+   * @return 被替换的配置，原先不存在时返回null
+   */
+  public synchronized C put(String id, C config) {
+    Map<String, Entry<C, V>> entries = new LinkedHashMap<>(this.snapshot.entries);
+    Entry<C, V> old = entries.put(id, new Entry<>(config));
+    this.snapshot = new Snapshot<>(entries);
+    return old == null ? null : old.config;
+  }
+
+  /**
+   * 删除账号配置.
+   *
+   * @return 被删除的配置，原先不存在时返回null
+   */
+  public synchronized C remove(String id) {
+    if (!this.snapshot.entries.containsKey(id)) {
+      return null;
+    }
+
+    Map<String, Entry<C, V>> entries = new LinkedHashMap<>(this.snapshot.entries);
+    Entry<C, V> old = entries.remove(id);
+    this.snapshot = new Snapshot<>(entries);
+    return old.config;
+  }
+
+  /**
+   * 以新的配置整体替换当前所有账号.
+   *
+   * @return 替换前的所有配置
+   */
+  public synchronized Map<String, C> replaceAll(Map<String, ? extends C> configs) {
+    Map<String, C> old = this.toMap();
+    Map<String, Entry<C, V>> entries = new LinkedHashMap<>(configs.size() * 2);
+    configs.forEach((id, config) -> entries.put(id, new Entry<>(config)));
+    this.snapshot = new Snapshot<>(entries);
+    return old;
+  }
+
+  /**
+   * @return 当前所有配置的副本
+   */
+  public Map<String, C> toMap() {
+    Map<String, Entry<C, V>> entries = this.snapshot.entries;
+    Map<String, C> result = new LinkedHashMap<>(entries.size() * 2);
+    entries.forEach((id, entry) -> result.put(id, entry.config));
+    return result;
+  }
+
+  private static class Snapshot<C, V> {
+    private final Map<String, Entry<C, V>> entries;
+    private final C single;
+
+    private Snapshot(Map<String, Entry<C, V>> entries) {
+      this.entries = Collections.unmodifiableMap(entries);
+      this.single = entries.size() == 1 ? entries.values().iterator().next().config : null;
+    }
+  }
+
+  private static class Entry<C, V> {
+    private final C config;
+    private volatile V view;
+
+    private Entry(C config) {
+      this.config = config;
+    }
+  }
+}
@@ -26,4 +26,59 @@ public interface WxMessageDuplicateChecker {
    */
   boolean isDuplicate(String messageId);
 
+  /**
+   * 是否支持以64位哈希作为消息标识.
+   * 返回true时，各 MessageRouter 直接对消息的各个字段计算 {@link #hashKey(Object...)}
+   * 并调用 {@link #isDuplicate(long)}，不再拼接字符串形式的messageId.
+   *
+   * @return 默认false
+   */
+  default boolean isHashedKeySupported() {
+    return false;
+  }
+
+  /**
+   * 以64位哈希作为消息标识判断消息是否重复，默认转为字符串后调用 {@link #isDuplicate(String)}.
+   *
+   * @param messageKey {@link #hashKey(Object...)} 计算出的消息标识
+   * @return 如果是重复消息，返回true，否则返回false
+   */
+  default boolean isDuplicate(long messageKey) {
+    return this.isDuplicate(Long.toHexString(messageKey));
+  }
+
+  /**
+   * 计算消息各字段的64位哈希（FNV-1a 加 murmur3 的混淆步骤），null 按空字符串处理，整数字段直接按数值计算.
+   *
+   * @param parts 构成消息标识的字段，与拼接messageId时使用的字段相同
+   * @return 消息标识
+   */
+  static long hashKey(Object... parts) {
+    long hash = 0xcbf29ce484222325L;
+    for (Object part : parts) {
+      if (part instanceof Long || part instanceof Integer) {
+        long value = ((Number) part).longValue();
+        for (int i = 0; i < Long.BYTES; i++) {
+          hash = (hash ^ ((value >>> (i * 8)) & 0xff)) * 0x100000001b3L;
+        }
+      } else if (part != null) {
+        String value = part.toString();
+        for (int i = 0; i < value.length(); i++) {
+          char c = value.charAt(i);
+          hash = (hash ^ (c & 0xff)) * 0x100000001b3L;
+          hash = (hash ^ (c >>> 8)) * 0x100000001b3L;
+        }
+      }
+      // 字段分隔，避免 "ab"+"c" 与 "a"+"bc" 相同
+      hash = (hash ^ 0x1f) * 0x100000001b3L;
+    }
+
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
 }
@@ -0,0 +1,140 @@
+package me.chanjar.weixin.common.api;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * MessageRouter 异步规则使用的执行器.
+ * 1. {@link #newBoundedExecutor}：固定线程数、有界队列的线程池，队列满时按指定策略处理（默认由调用线程执行，形成反压）；
+ * 2. {@link #newOrderedExecutor}：同一个用户的消息按顺序串行处理的执行器，见 {@link WxOrderedExecutor}；
+ * 3. {@link #newVirtualThreadExecutor}：JDK 21及以上版本可用的虚拟线程执行器，可作为 {@link WxOrderedExecutor} 的工作线程池.
+ *
+ * 使用示例：router.setExecutorService(WxMessageExecutors.newOrderedExecutor("WxMpMessageRouter-pool-%d", 100, 10000))
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class WxMessageExecutors {
+  private WxMessageExecutors() {
+  }
+
+  /**
+   * 创建固定线程数、有界队列的线程池，队列满时由调用线程执行.
+   *
+   * @param nameFormat    线程名格式，如 WxMpMessageRouter-pool-%d
+   * @param threads       线程数
+   * @param queueCapacity 队列容量
+   * @return 线程池
+   */
+  public static ExecutorService newBoundedExecutor(String nameFormat, int threads, int queueCapacity) {
+    return newBoundedExecutor(nameFormat, threads, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+  }
+
+  /**
+   * 创建固定线程数、有界队列的线程池.
+   *
+   * @param nameFormat      线程名格式，如 WxMpMessageRouter-pool-%d
+   * @param threads         线程数
+   * @param queueCapacity   队列容量
+   * @param rejectedHandler 队列满时的处理方式
+   * @return 线程池
+   */
+  public static ExecutorService newBoundedExecutor(String nameFormat, int threads, int queueCapacity,
+                                                   RejectedExecutionHandler rejectedHandler) {
+    ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat(nameFormat).build();
+    return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(queueCapacity), threadFactory, rejectedHandler);
+  }
+
+  /**
+   * 创建按key串行的执行器，超过上限时由调用线程执行.
+   *
+   * @param nameFormat 线程名格式，如 WxMpMessageRouter-pool-%d
+   * @param threads    工作线程数
+   * @param maxPending 等待执行的任务总数上限
+   * @return 执行器
+   */
+  public static WxOrderedExecutor newOrderedExecutor(String nameFormat, int threads, int maxPending) {
+    ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat(nameFormat).build();
+    // 工作线程池的队列长度不超过有任务的key的数量，已由maxPending限制
+    ExecutorService workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+      new LinkedBlockingQueue<>(), threadFactory);
+    return new WxOrderedExecutor(workers, maxPending, WxOrderedExecutor.RejectPolicy.CALLER_RUNS);
+  }
+
+  /**
+   * 创建按key串行的执行器.
+   *
+   * @param workers      工作线程池，如 {@link #newVirtualThreadExecutor(String)}
+   * @param maxPending   等待执行的任务总数上限
+   * @param rejectPolicy 超过上限时的处理方式
+   * @return 执行器
+   */
+  public static WxOrderedExecutor newOrderedExecutor(ExecutorService workers, int maxPending,
+                                                     WxOrderedExecutor.RejectPolicy rejectPolicy) {
+    return new WxOrderedExecutor(workers, maxPending, rejectPolicy);
+  }
+
+  /**
+   * @return 当前JDK是否支持虚拟线程（JDK 21及以上）
+   */
+  public static boolean isVirtualThreadSupported() {
+    try {
+      Thread.class.getMethod("ofVirtual");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * 创建每个任务一个虚拟线程的执行器，仅JDK 21及以上版本可用.
+   * 该执行器本身不限制任务数，通常应作为 {@link #newOrderedExecutor(ExecutorService, int, WxOrderedExecutor.RejectPolicy)} 的工作线程池使用.
+   *
+   * @param namePrefix 线程名前缀，如 WxMpMessageRouter-virtual-
+   * @return 执行器
+   * @throws UnsupportedOperationException 当前JDK不支持虚拟线程
+   */
+  public static ExecutorService newVirtualThreadExecutor(String namePrefix) {
+    if (!isVirtualThreadSupported()) {
+      throw new UnsupportedOperationException("虚拟线程需要JDK 21及以上版本");
+    }
+    try {
+      // 以反射调用，保持JDK 8的编译兼容
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+      ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+      Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      return (ExecutorService) newExecutor.invoke(null, threadFactory);
+    } catch (ReflectiveOperationException e) {
+      throw new UnsupportedOperationException("创建虚拟线程执行器失败", e);
+    }
+  }
+
+  /**
+   * 提交MessageRouter的异步任务，执行器为 {@link WxOrderedExecutor} 时同一个key的任务按顺序执行.
+   *
+   * @param executorService 执行器
+   * @param key             串行执行的key，一般为消息的fromUser
+   * @param task            任务
+   * @return 任务的Future
+   */
+  public static Future<?> submit(ExecutorService executorService, Object key, Runnable task) {
+    if (executorService instanceof WxOrderedExecutor) {
+      return ((WxOrderedExecutor) executorService).submit(key, task);
+    }
+    return executorService.submit(task);
+  }
+}
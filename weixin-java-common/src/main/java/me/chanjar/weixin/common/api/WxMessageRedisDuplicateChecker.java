@@ -0,0 +1,130 @@
+package me.chanjar.weixin.common.api;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import me.chanjar.weixin.common.redis.WxRedisOps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * 基于redis的消息重复检查器，适用于多节点部署：微信超时重试的消息可能落到另一个节点上.
+ * 消息标识按64位哈希写入redis（SET NX 并设置过期时间），写入失败即为重复消息.
+ * 本地另有一层时间轮（{@link WxMessageTimeWheelDuplicateChecker}）作为一级过滤，
+ * 本节点已见过的消息不再访问redis，未见过的消息只需一次redis往返.
+ * redis不可用时按非重复处理，避免消息被丢弃.
+ *
+ * 使用示例：router.setMessageDuplicateChecker(new WxMessageRedisDuplicateChecker(new JedisWxRedisOps(jedisPool)))
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+@Slf4j
+public class WxMessageRedisDuplicateChecker implements WxMessageDuplicateChecker {
+  private static final String VALUE = "1";
+
+  private final WxRedisOps redisOps;
+  private final String keyPrefix;
+  private final int timeToLive;
+  private final WxMessageTimeWheelDuplicateChecker localChecker;
+
+  public WxMessageRedisDuplicateChecker(@NonNull WxRedisOps redisOps) {
+    this(redisOps, "wx:msg_dup", 15);
+  }
+
+  /**
+   * @param redisOps   redis操作
+   * @param keyPrefix  key前缀
+   * @param timeToLive 一个消息ID的过期时间：秒
+   */
+  public WxMessageRedisDuplicateChecker(@NonNull WxRedisOps redisOps, @NonNull String keyPrefix, int timeToLive) {
+    this(redisOps, keyPrefix, timeToLive, 100_000);
+  }
+
+  /**
+   * @param redisOps        redis操作
+   * @param keyPrefix       key前缀
+   * @param timeToLive      一个消息ID的过期时间：秒
+   * @param localMaxEntries 本地一级过滤最多保存的消息ID数，小于等于0时不启用
+   */
+  public WxMessageRedisDuplicateChecker(@NonNull WxRedisOps redisOps, @NonNull String keyPrefix, int timeToLive,
+                                        int localMaxEntries) {
+    if (timeToLive <= 0) {
+      throw new IllegalArgumentException("timeToLive必须大于0");
+    }
+    this.redisOps = redisOps;
+    this.keyPrefix = keyPrefix;
+    this.timeToLive = timeToLive;
+    this.localChecker = localMaxEntries <= 0 ? null
+      : new WxMessageTimeWheelDuplicateChecker(TimeUnit.SECONDS.toMillis(timeToLive), 1000L, localMaxEntries, true);
+  }
+
+  @Override
+  public boolean isDuplicate(String messageId) {
+    if (messageId == null) {
+      return false;
+    }
+    return this.isDuplicate(WxMessageDuplicateChecker.hashKey(messageId));
+  }
+
+  @Override
+  public boolean isHashedKeySupported() {
+    return true;
+  }
+
+  @Override
+  public boolean isDuplicate(long messageKey) {
+    if (this.localChecker != null && this.localChecker.isDuplicate(messageKey)) {
+      return true;
+    }
+
+    try {
+      return !this.redisOps.setIfAbsent(this.keyOf(messageKey), VALUE, this.timeToLive, TimeUnit.SECONDS);
+    } catch (RuntimeException e) {
+      log.warn("redis消息排重失败，按非重复消息处理", e);
+      return false;
+    }
+  }
+
+  /**
+   * 批量检查消息是否重复，本地未命中的消息在一次redis往返（pipeline）中完成检查.
+   *
+   * @param messageIds 消息id列表
+   * @return 与messageIds一一对应的检查结果
+   */
+  public List<Boolean> isDuplicate(List<String> messageIds) {
+    List<Boolean> result = new ArrayList<>(messageIds.size());
+    List<Integer> positions = new ArrayList<>();
+    List<String> keys = new ArrayList<>();
+    for (String messageId : messageIds) {
+      long messageKey = messageId == null ? 0 : WxMessageDuplicateChecker.hashKey(messageId);
+      if (messageId == null || (this.localChecker != null && this.localChecker.isDuplicate(messageKey))) {
+        result.add(messageId != null);
+        continue;
+      }
+      positions.add(result.size());
+      keys.add(this.keyOf(messageKey));
+      result.add(false);
+    }
+
+    if (keys.isEmpty()) {
+      return result;
+    }
+
+    try {
+      List<Boolean> written = this.redisOps.setIfAbsent(keys, VALUE, this.timeToLive, TimeUnit.SECONDS);
+      for (int i = 0; i < positions.size(); i++) {
+        result.set(positions.get(i), !Boolean.TRUE.equals(written.get(i)));
+      }
+    } catch (RuntimeException e) {
+      log.warn("redis消息排重失败，按非重复消息处理", e);
+    }
+    return result;
+  }
+
+  private String keyOf(long messageKey) {
+    return this.keyPrefix + ":" + Long.toHexString(messageKey);
+  }
+}
@@ -0,0 +1,192 @@
+package me.chanjar.weixin.common.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * <pre>
+ * 消息路由规则索引，供各模块的 MessageRouter 使用.
+ * 每条规则按其最具区分度的精确条件（content、eventKey、event、msgType，依次优先）归入一个分组，
+ * 没有这些条件的规则（只有 fromUser、正则或自定义 matcher 等）归入兜底分组.
+ * 路由时只取出与消息对应的分组，按规则的添加顺序合并成候选列表，再由规则自身的 test 方法做完整匹配，
+ * 因此匹配顺序和 reEnter 语义与逐条遍历全部规则完全一致.
+ * msgType、event、eventKey 按不区分大小写比较，content 按原值比较.
+ * 索引在创建后不可变，规则发生变化时由 router 重新创建.
+ * </pre>
+ *
+ * @param <R> 规则类型
+ */
+public class WxMessageRuleIndex<R> {
+  private static final int[] EMPTY = new int[0];
+
+  private final Object[] rules;
+  private final Map<String, int[]> byContent;
+  private final Map<String, int[]> byEventKey;
+  private final Map<String, int[]> byEvent;
+  private final Map<String, int[]> byMsgType;
+  private final int[] unindexed;
+
+  /**
+   * 创建索引，不参与匹配的条件传null.
+   *
+   * @param rules      按添加顺序排列的规则
+   * @param msgTypeOf  取规则的msgType条件
+   * @param eventOf    取规则的event条件
+   * @param eventKeyOf 取规则的eventKey条件
+   * @param contentOf  取规则的content条件
+   */
+  public WxMessageRuleIndex(List<R> rules, Function<R, String> msgTypeOf, Function<R, String> eventOf,
+                            Function<R, String> eventKeyOf, Function<R, String> contentOf) {
+    this.rules = rules.toArray();
+    Map<String, List<Integer>> content = new HashMap<>();
+    Map<String, List<Integer>> eventKey = new HashMap<>();
+    Map<String, List<Integer>> event = new HashMap<>();
+    Map<String, List<Integer>> msgType = new HashMap<>();
+    List<Integer> others = new ArrayList<>();
+
+    for (int i = 0; i < this.rules.length; i++) {
+      @SuppressWarnings("unchecked")
+      R rule = (R) this.rules[i];
+      String key;
+      if ((key = keyOf(contentOf, rule, false)) != null) {
+        content.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+      } else if ((key = keyOf(eventKeyOf, rule, true)) != null) {
+        eventKey.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+      } else if ((key = keyOf(eventOf, rule, true)) != null) {
+        event.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+      } else if ((key = keyOf(msgTypeOf, rule, true)) != null) {
+        msgType.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+      } else {
+        others.add(i);
+      }
+    }
+
+    this.byContent = toArrays(content);
+    this.byEventKey = toArrays(eventKey);
+    this.byEvent = toArrays(event);
+    this.byMsgType = toArrays(msgType);
+    this.unindexed = toArray(others);
+  }
+
+  /**
+   * 索引是否仍对应当前的规则列表.
+   * 规则只会通过 router 追加，因此比较数量和最后一条规则即可.
+   *
+   * @param currentRules router当前的规则列表
+   * @return 是否可以继续使用
+   */
+  public boolean isBuiltFrom(List<R> currentRules) {
+    int size = currentRules.size();
+    return size == this.rules.length && (size == 0 || currentRules.get(size - 1) == this.rules[size - 1]);
+  }
+
+  /**
+   * 取出可能匹配消息的规则，按添加顺序排列.
+   * 返回的规则仍需调用其 test 方法做完整匹配.
+   *
+   * @param msgType  消息的msgType
+   * @param event    消息的event
+   * @param eventKey 消息的eventKey
+   * @param content  消息的content，须先按规则的比较方式处理（如去掉首尾空白）
+   * @return 候选规则
+   */
+  @SuppressWarnings("unchecked")
+  public List<R> candidates(String msgType, String event, String eventKey, String content) {
+    int[][] groups = {
+      this.unindexed,
+      lookup(this.byMsgType, foldCase(msgType)),
+      lookup(this.byEvent, foldCase(event)),
+      lookup(this.byEventKey, foldCase(eventKey)),
+      lookup(this.byContent, content)
+    };
+
+    int total = 0;
+    for (int[] group : groups) {
+      total += group.length;
+    }
+    if (total == 0) {
+      return Collections.emptyList();
+    }
+
+    // 每条规则只属于一个分组，各分组内已按添加顺序排列，归并即可
+    List<R> result = new ArrayList<>(total);
+    int[] positions = new int[groups.length];
+    for (int n = 0; n < total; n++) {
+      int next = -1;
+      for (int g = 0; g < groups.length; g++) {
+        if (positions[g] < groups[g].length
+          && (next < 0 || groups[g][positions[g]] < groups[next][positions[next]])) {
+          next = g;
+        }
+      }
+      result.add((R) this.rules[groups[next][positions[next]++]]);
+    }
+    return result;
+  }
+
+  private static int[] lookup(Map<String, int[]> index, String key) {
+    if (key == null || index.isEmpty()) {
+      return EMPTY;
+    }
+    int[] group = index.get(key);
+    return group == null ? EMPTY : group;
+  }
+
+  private static <R> String keyOf(Function<R, String> extractor, R rule, boolean ignoreCase) {
+    if (extractor == null) {
+      return null;
+    }
+    String value = extractor.apply(rule);
+    if (value == null || !ignoreCase) {
+      return value;
+    }
+    // 非ASCII的条件在不同的大小写比较方式下结果可能不同，不参与索引，交给规则自己判断
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) >= 0x80) {
+        return null;
+      }
+    }
+    return foldCase(value);
+  }
+
+  /**
+   * 逐字符折叠大小写，与 {@link String#equalsIgnoreCase(String)} 的比较方式一致.
+   */
+  static String foldCase(String s) {
+    if (s == null) {
+      return null;
+    }
+    char[] chars = null;
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      char folded = Character.toLowerCase(Character.toUpperCase(c));
+      if (folded != c) {
+        if (chars == null) {
+          chars = s.toCharArray();
+        }
+        chars[i] = folded;
+      }
+    }
+    return chars == null ? s : new String(chars);
+  }
+
+  private static Map<String, int[]> toArrays(Map<String, List<Integer>> groups) {
+    Map<String, int[]> result = new HashMap<>(groups.size() * 2);
+    for (Map.Entry<String, List<Integer>> entry : groups.entrySet()) {
+      result.put(entry.getKey(), toArray(entry.getValue()));
+    }
+    return result;
+  }
+
+  private static int[] toArray(List<Integer> list) {
+    int[] result = new int[list.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = list.get(i);
+    }
+    return result;
+  }
+}
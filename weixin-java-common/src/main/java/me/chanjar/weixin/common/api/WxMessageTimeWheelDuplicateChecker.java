@@ -0,0 +1,178 @@
+package me.chanjar.weixin.common.api;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <pre>
+ * 基于时间轮的消息重复检查器.
+ * 消息id按到达时间落入环形数组中的某一代（默认每秒一代），过期时整代丢弃，不需要后台线程逐条扫描清理.
+ * 总条数超过上限时提前丢弃最老的一代，保证内存占用有界（代价是被丢弃的消息重试时无法识别为重复）.
+ * 默认以64位哈希保存消息标识，MessageRouter 也会直接计算哈希而不再拼接字符串.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+@Slf4j
+public class WxMessageTimeWheelDuplicateChecker implements WxMessageDuplicateChecker {
+  private final long bucketMillis;
+  private final int bucketCount;
+  private final int maxEntries;
+  private final boolean hashedKey;
+  private final AtomicReferenceArray<Generation> ring;
+
+  /**
+   * 无参构造方法.
+   * <pre>
+   * 一个消息ID在内存的过期时间：15秒
+   * 每一代的时长：1秒
+   * 最多保存的消息ID数：1000000
+   * 以64位哈希保存消息标识
+   * </pre>
+   */
+  public WxMessageTimeWheelDuplicateChecker() {
+    this(15 * 1000L, 1000L, 1_000_000, true);
+  }
+
+  /**
+   * 构造方法.
+   *
+   * @param timeToLive   一个消息ID在内存的过期时间：毫秒，实际保留时间在此基础上最多多出一代
+   * @param bucketMillis 每一代的时长：毫秒
+   * @param maxEntries   最多保存的消息ID数
+   * @param hashedKey    是否以64位哈希保存消息标识
+   */
+  public WxMessageTimeWheelDuplicateChecker(long timeToLive, long bucketMillis, int maxEntries, boolean hashedKey) {
+    if (timeToLive <= 0 || bucketMillis <= 0 || maxEntries <= 0) {
+      throw new IllegalArgumentException("timeToLive、bucketMillis和maxEntries必须大于0");
+    }
+    this.bucketMillis = bucketMillis;
+    this.bucketCount = (int) ((timeToLive + bucketMillis - 1) / bucketMillis) + 1;
+    this.maxEntries = maxEntries;
+    this.hashedKey = hashedKey;
+    this.ring = new AtomicReferenceArray<>(this.bucketCount);
+  }
+
+  @Override
+  public boolean isDuplicate(String messageId) {
+    if (messageId == null) {
+      return false;
+    }
+    return this.check(this.hashedKey ? WxMessageDuplicateChecker.hashKey(messageId) : messageId);
+  }
+
+  @Override
+  public boolean isHashedKeySupported() {
+    return this.hashedKey;
+  }
+
+  @Override
+  public boolean isDuplicate(long messageKey) {
+    return this.check(messageKey);
+  }
+
+  /**
+   * @return 当前保存的消息ID数
+   */
+  public int size() {
+    long epoch = this.currentTimeMillis() / this.bucketMillis;
+    int size = 0;
+    for (int i = 0; i < this.bucketCount; i++) {
+      Generation generation = this.ring.get(i);
+      if (this.isLive(generation, epoch)) {
+        size += generation.size.get();
+      }
+    }
+    return size;
+  }
+
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  private boolean check(Object key) {
+    long epoch = this.currentTimeMillis() / this.bucketMillis;
+    Generation current = this.currentGeneration(epoch);
+    int otherSize = 0;
+    for (int i = 0; i < this.bucketCount; i++) {
+      Generation generation = this.ring.get(i);
+      if (generation != current && this.isLive(generation, epoch)) {
+        if (generation.keys.contains(key)) {
+          return true;
+        }
+        otherSize += generation.size.get();
+      }
+    }
+
+    if (!current.keys.add(key)) {
+      return true;
+    }
+    if (current.size.incrementAndGet() + otherSize > this.maxEntries) {
+      this.evictOldest(current, epoch);
+    }
+    return false;
+  }
+
+  private Generation currentGeneration(long epoch) {
+    int slot = (int) Math.floorMod(epoch, (long) this.bucketCount);
+    while (true) {
+      Generation generation = this.ring.get(slot);
+      // 时钟回拨时继续使用较新的一代
+      if (generation != null && generation.epoch >= epoch) {
+        return generation;
+      }
+      Generation created = new Generation(epoch);
+      if (this.ring.compareAndSet(slot, generation, created)) {
+        return created;
+      }
+    }
+  }
+
+  private boolean isLive(Generation generation, long epoch) {
+    return generation != null && epoch - generation.epoch < this.bucketCount;
+  }
+
+  /**
+   * 超过上限时丢弃最老的一代（顺带释放已过期的代），只剩当前一代时将其清空.
+   */
+  private void evictOldest(Generation current, long epoch) {
+    int oldestSlot = -1;
+    Generation oldest = null;
+    for (int i = 0; i < this.bucketCount; i++) {
+      Generation generation = this.ring.get(i);
+      if (generation == null || generation == current) {
+        continue;
+      }
+      if (!this.isLive(generation, epoch)) {
+        this.ring.compareAndSet(i, generation, null);
+      } else if (oldest == null || generation.epoch < oldest.epoch) {
+        oldest = generation;
+        oldestSlot = i;
+      }
+    }
+
+    if (oldest != null) {
+      log.debug("消息ID数超过上限{}，提前丢弃{}条", this.maxEntries, oldest.size.get());
+      this.ring.compareAndSet(oldestSlot, oldest, null);
+      return;
+    }
+
+    log.warn("当前一代的消息ID数超过上限{}，已全部丢弃", this.maxEntries);
+    this.ring.compareAndSet((int) Math.floorMod(current.epoch, (long) this.bucketCount), current,
+      new Generation(current.epoch));
+  }
+
+  private static final class Generation {
+    private final long epoch;
+    private final Set<Object> keys = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private Generation(long epoch) {
+      this.epoch = epoch;
+    }
+  }
+}
@@ -0,0 +1,256 @@
+package me.chanjar.weixin.common.api;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ * 按key串行、总量有界的执行器，供 MessageRouter 执行异步规则.
+ * 同一个key（如消息的fromUser）的任务按提交顺序逐个执行，不同key的任务在工作线程池中并行执行，不需要全局锁.
+ * 等待执行的任务总数超过maxPending时按 {@link RejectPolicy} 处理，保证突发流量下内存占用有界.
+ * 某个key没有待执行的任务时会立即释放其占用的内存.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ * @see WxMessageExecutors
+ */
+@Slf4j
+public class WxOrderedExecutor extends AbstractExecutorService {
+  /**
+   * 每个key连续执行的任务数上限，之后让出工作线程，避免某个key长期占用线程.
+   */
+  private static final int MAX_BATCH = 16;
+
+  private final ExecutorService workers;
+  private final int maxPending;
+  private final RejectPolicy rejectPolicy;
+  private final ConcurrentHashMap<Object, Lane> lanes = new ConcurrentHashMap<>();
+  private final AtomicInteger pending = new AtomicInteger();
+
+  /**
+   * 超过等待任务数上限时的处理方式.
+   */
+  public enum RejectPolicy {
+    /**
+     * 由提交任务的线程直接执行，对调用方形成反压；该任务不再与同一key的其他任务保证顺序.
+     */
+    CALLER_RUNS,
+    /**
+     * 抛出 {@link RejectedExecutionException}.
+     */
+    ABORT,
+    /**
+     * 直接丢弃.
+     */
+    DISCARD
+  }
+
+  /**
+   * @param workers      执行任务的工作线程池，关闭本执行器时一并关闭
+   * @param maxPending   等待执行的任务总数上限
+   * @param rejectPolicy 超过上限时的处理方式
+   */
+  public WxOrderedExecutor(@NonNull ExecutorService workers, int maxPending, @NonNull RejectPolicy rejectPolicy) {
+    if (maxPending <= 0) {
+      throw new IllegalArgumentException("maxPending必须大于0");
+    }
+    this.workers = workers;
+    this.maxPending = maxPending;
+    this.rejectPolicy = rejectPolicy;
+  }
+
+  /**
+   * 提交任务，同一个key的任务按提交顺序执行.
+   *
+   * @param key  串行执行的key，为null时不保证顺序
+   * @param task 任务
+   */
+  public void execute(Object key, @NonNull Runnable task) {
+    if (this.isShutdown()) {
+      throw new RejectedExecutionException("执行器已关闭");
+    }
+    if (this.pending.incrementAndGet() > this.maxPending) {
+      this.pending.decrementAndGet();
+      this.reject(task);
+      return;
+    }
+
+    if (key == null) {
+      try {
+        this.workers.execute(() -> {
+          try {
+            task.run();
+          } finally {
+            this.pending.decrementAndGet();
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        this.pending.decrementAndGet();
+        throw e;
+      }
+      return;
+    }
+
+    Lane[] scheduled = new Lane[1];
+    this.lanes.compute(key, (k, lane) -> {
+      if (lane == null) {
+        lane = new Lane(k);
+      }
+      lane.tasks.add(task);
+      if (!lane.running) {
+        lane.running = true;
+        scheduled[0] = lane;
+      }
+      return lane;
+    });
+    if (scheduled[0] != null && !this.schedule(scheduled[0])) {
+      scheduled[0].run();
+    }
+  }
+
+  /**
+   * 提交任务，同一个key的任务按提交顺序执行.
+   *
+   * @param key  串行执行的key，为null时不保证顺序
+   * @param task 任务
+   * @return 任务的Future
+   */
+  public Future<?> submit(Object key, @NonNull Runnable task) {
+    RunnableFuture<Void> future = this.newTaskFor(task, null);
+    this.execute(key, future);
+    return future;
+  }
+
+  @Override
+  public void execute(@NonNull Runnable task) {
+    this.execute(null, task);
+  }
+
+  /**
+   * @return 等待执行（含正在执行）的任务数
+   */
+  public int getPendingCount() {
+    return this.pending.get();
+  }
+
+  /**
+   * @return 当前有待执行任务的key的数量
+   */
+  public int getActiveKeyCount() {
+    return this.lanes.size();
+  }
+
+  @Override
+  public void shutdown() {
+    this.workers.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    return this.workers.shutdownNow();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return this.workers.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return this.workers.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+    return this.workers.awaitTermination(timeout, unit);
+  }
+
+  /**
+   * 把key交给工作线程执行，工作线程池已关闭时返回false，由当前线程执行完已提交的任务.
+   */
+  private boolean schedule(Lane lane) {
+    if (this.workers.isShutdown()) {
+      return false;
+    }
+    try {
+      this.workers.execute(lane);
+      return true;
+    } catch (RejectedExecutionException e) {
+      return false;
+    }
+  }
+
+  private void reject(Runnable task) {
+    switch (this.rejectPolicy) {
+      case CALLER_RUNS:
+        task.run();
+        break;
+      case DISCARD:
+        break;
+      default:
+        throw new RejectedExecutionException("等待执行的任务数超过上限" + this.maxPending);
+    }
+  }
+
+  private class Lane implements Runnable {
+    private final Object key;
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    /**
+     * 是否已交给工作线程，只在 lanes.compute 中读写.
+     */
+    private boolean running;
+
+    private Lane(Object key) {
+      this.key = key;
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        for (int i = 0; i < MAX_BATCH; i++) {
+          Runnable task = this.poll();
+          if (task == null) {
+            return;
+          }
+          try {
+            task.run();
+          } catch (RuntimeException e) {
+            // 不能让异常中断同一key后续任务的执行
+            log.error("Error happened when run task, key={}", this.key, e);
+          } finally {
+            WxOrderedExecutor.this.pending.decrementAndGet();
+          }
+        }
+
+        if (WxOrderedExecutor.this.schedule(this)) {
+          return;
+        }
+      }
+    }
+
+    private Runnable poll() {
+      Runnable[] next = new Runnable[1];
+      WxOrderedExecutor.this.lanes.compute(this.key, (k, lane) -> {
+        next[0] = lane.tasks.poll();
+        if (next[0] == null) {
+          lane.running = false;
+          return null;
+        }
+        return lane;
+      });
+      return next[0];
+    }
+  }
+}
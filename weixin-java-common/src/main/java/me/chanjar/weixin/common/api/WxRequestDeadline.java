@@ -0,0 +1,53 @@
+package me.chanjar.weixin.common.api;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * 当前线程发起的微信接口请求的截止时间.
+ * 设置后，execute（及executeAsync）在遇到可重试的错误时，若等待后会超过截止时间则不再重试，直接返回失败.
+ * 使用示例：
+ *   WxRequestDeadline.set(3, TimeUnit.SECONDS);
+ *   try {
+ *     wxMpService.getTemplateMsgService().sendTemplateMsg(message);
+ *   } finally {
+ *     WxRequestDeadline.remove();
+ *   }
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class WxRequestDeadline {
+  private static final ThreadLocal<Long> THREAD_LOCAL = new ThreadLocal<>();
+
+  /**
+   * 设置从现在开始的超时时间.
+   *
+   * @param timeout 超时时间
+   * @param unit    时间单位
+   */
+  public static void set(long timeout, TimeUnit unit) {
+    THREAD_LOCAL.set(System.currentTimeMillis() + unit.toMillis(timeout));
+  }
+
+  /**
+   * 设置截止时间戳.
+   *
+   * @param deadline 截止时间戳（毫秒）
+   */
+  public static void setDeadline(long deadline) {
+    THREAD_LOCAL.set(deadline);
+  }
+
+  /**
+   * @return 截止时间戳（毫秒），未设置时返回0
+   */
+  public static long get() {
+    Long deadline = THREAD_LOCAL.get();
+    return deadline == null ? 0 : deadline;
+  }
+
+  public static void remove() {
+    THREAD_LOCAL.remove();
+  }
+}
@@ -0,0 +1,35 @@
+package me.chanjar.weixin.common.api;
+
+import me.chanjar.weixin.common.error.WxError;
+
+/**
+ * <pre>
+ * 微信接口调用失败时的重试策略.
+ * 各Service的execute方法在请求失败时先通过{@link #isRetryable(WxError)}判断该错误是否可以重试，
+ * 再通过{@link #nextRetryDelay(String, int, long)}获取需要等待的时间，返回负数时不再重试.
+ * 默认实现见{@link WxBackoffRetryPolicy}.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public interface WxRetryPolicy {
+
+  /**
+   * 该错误是否可以重试，比如-1（系统繁忙）.
+   *
+   * @param error 微信返回的错误
+   * @return 是否可以重试
+   */
+  boolean isRetryable(WxError error);
+
+  /**
+   * 计算下一次重试前需要等待的毫秒数.
+   *
+   * @param accountKey 账号标识，比如公众号的appid，用于按账号限制重试预算
+   * @param retryTimes 已经重试的次数，首次重试时为0
+   * @param deadline   本次请求的截止时间戳（毫秒），0表示不限制，参考{@link WxRequestDeadline}
+   * @return 需要等待的毫秒数，负数表示不再重试（超出重试次数、重试预算或截止时间）
+   */
+  long nextRetryDelay(String accountKey, int retryTimes, long deadline);
+
+}
@@ -0,0 +1,301 @@
+package me.chanjar.weixin.common.api;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import me.chanjar.weixin.common.redis.WxRedisOps;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <pre>
+ * access_token / ticket 后台刷新调度器.
+ *
+ * 默认情况下凭证是在请求线程中发现过期后才去刷新的，过期瞬间所有请求线程都会阻塞在刷新锁上.
+ * 将凭证注册（{@link #register(WxTokenRefreshTask)}）到本调度器后，会在其过期前 refreshAheadMillis（再随机提前 0~jitterMillis，
+ * 以错开大量账号同时刷新）于后台线程中刷新，稳定状态下请求线程不会再遇到过期的凭证.
+ *
+ * 同一个JVM内，同名凭证同一时刻只会有一个刷新在执行；
+ * 集群环境下可通过 {@link #WxTokenRefreshScheduler(WxRedisOps)} 使用redis锁作为刷新租约，拿到租约的节点刷新后，
+ * 其他节点会发现凭证已更新而跳过刷新.
+ *
+ * 对于无法获知过期时间的凭证（{@link WxTokenRefreshTask#getExpiresTime()}返回0），
+ * 以本节点上次刷新的时间加上 defaultLifetimeMillis 作为过期时间，否则每隔 checkIntervalMillis 检查一次是否已过期.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+@Slf4j
+public class WxTokenRefreshScheduler {
+  private static final String LEASE_KEY_PREFIX = "wx:token_refresh_lease:";
+
+  private final Map<String, TaskHolder> tasks = new ConcurrentHashMap<>();
+  private final Map<String, Lock> localLeases = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService executor;
+  private final WxRedisOps redisOps;
+
+  /**
+   * 在凭证过期前多久开始刷新（毫秒）.
+   */
+  @Getter
+  @Setter
+  private long refreshAheadMillis = 5 * 60 * 1000L;
+
+  /**
+   * 在refreshAheadMillis基础上随机提前的最大毫秒数.
+   */
+  @Getter
+  @Setter
+  private long jitterMillis = 60 * 1000L;
+
+  /**
+   * 无法获知过期时间时，检查凭证是否过期的间隔（毫秒）.
+   */
+  @Getter
+  @Setter
+  private long checkIntervalMillis = 60 * 1000L;
+
+  /**
+   * 刷新失败或租约被其他节点持有时，再次尝试的间隔（毫秒）.
+   */
+  @Getter
+  @Setter
+  private long retryIntervalMillis = 10 * 1000L;
+
+  /**
+   * 无法获知过期时间时，凭证的默认有效期（毫秒），微信的access_token和ticket有效期均为7200秒.
+   */
+  @Getter
+  @Setter
+  private long defaultLifetimeMillis = (7200 - 200) * 1000L;
+
+  private final LongAdder successCount = new LongAdder();
+  private final LongAdder failureCount = new LongAdder();
+
+  /**
+   * 仅在本JVM内协调刷新的调度器.
+   */
+  public WxTokenRefreshScheduler() {
+    this(null);
+  }
+
+  /**
+   * 使用redis锁作为集群刷新租约的调度器.
+   *
+   * @param redisOps redis操作对象，为null时只在本JVM内协调
+   */
+  public WxTokenRefreshScheduler(WxRedisOps redisOps) {
+    this(redisOps, 2);
+  }
+
+  /**
+   * @param redisOps redis操作对象，为null时只在本JVM内协调
+   * @param poolSize 执行刷新的后台线程数
+   */
+  public WxTokenRefreshScheduler(WxRedisOps redisOps, int poolSize) {
+    this.redisOps = redisOps;
+    this.executor = Executors.newScheduledThreadPool(poolSize,
+      new ThreadFactoryBuilder().setNameFormat("WxTokenRefreshScheduler-pool-%d").setDaemon(true).build());
+  }
+
+  /**
+   * 注册需要后台刷新的凭证，同名凭证只会注册一次.
+   *
+   * @param task 凭证
+   * @return 是否注册成功，已存在同名凭证时返回false
+   */
+  public boolean register(WxTokenRefreshTask task) {
+    TaskHolder holder = new TaskHolder(task);
+    if (this.tasks.putIfAbsent(task.getName(), holder) != null) {
+      return false;
+    }
+
+    this.schedule(holder, 0);
+    return true;
+  }
+
+  /**
+   * 取消凭证的后台刷新.
+   *
+   * @param name 凭证名称
+   */
+  public void unregister(String name) {
+    TaskHolder holder = this.tasks.remove(name);
+    if (holder != null) {
+      holder.cancel();
+    }
+  }
+
+  /**
+   * 立即在后台检查并刷新指定凭证.
+   *
+   * @param name 凭证名称
+   */
+  public void refreshNow(String name) {
+    TaskHolder holder = this.tasks.get(name);
+    if (holder != null) {
+      this.schedule(holder, 0);
+    }
+  }
+
+  /**
+   * 停止调度器.
+   */
+  public void shutdown() {
+    this.tasks.values().forEach(TaskHolder::cancel);
+    this.tasks.clear();
+    this.executor.shutdownNow();
+  }
+
+  /**
+   * @return 已成功刷新的次数
+   */
+  public long getSuccessCount() {
+    return this.successCount.sum();
+  }
+
+  /**
+   * @return 刷新失败的次数
+   */
+  public long getFailureCount() {
+    return this.failureCount.sum();
+  }
+
+  private void schedule(TaskHolder holder, long delayMillis) {
+    if (holder.cancelled || this.executor.isShutdown()) {
+      return;
+    }
+
+    synchronized (holder) {
+      if (holder.future != null) {
+        holder.future.cancel(false);
+      }
+      holder.future = this.executor.schedule(() -> this.run(holder), Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void run(TaskHolder holder) {
+    if (holder.cancelled) {
+      return;
+    }
+
+    long delay;
+    try {
+      delay = this.check(holder);
+    } catch (Throwable e) {
+      this.failureCount.increment();
+      log.warn("后台刷新【{}】失败，{} ms 后重试", holder.task.getName(), this.retryIntervalMillis, e);
+      delay = this.retryIntervalMillis;
+    }
+
+    this.schedule(holder, delay);
+  }
+
+  /**
+   * 检查凭证，需要时刷新.
+   *
+   * @return 距下次检查的毫秒数
+   */
+  private long check(TaskHolder holder) throws Exception {
+    long delay = this.delayUntilRefresh(holder);
+    if (delay > 0) {
+      return delay;
+    }
+
+    // 同一JVM内的单飞：已有线程在刷新时不再重复刷新
+    if (!holder.refreshing.compareAndSet(false, true)) {
+      return this.retryIntervalMillis;
+    }
+
+    try {
+      Lock lease = this.getLease(holder.task.getName());
+      if (!lease.tryLock()) {
+        // 其他节点正在刷新
+        return this.retryIntervalMillis;
+      }
+
+      try {
+        // 拿到租约后再检查一次，其他节点可能刚刚刷新过
+        delay = this.delayUntilRefresh(holder);
+        if (delay > 0) {
+          return delay;
+        }
+
+        holder.task.refresh();
+        holder.refreshTime = System.currentTimeMillis();
+        holder.jitter = this.nextJitter();
+        this.successCount.increment();
+        log.debug("后台刷新【{}】成功", holder.task.getName());
+      } finally {
+        lease.unlock();
+      }
+    } finally {
+      holder.refreshing.set(false);
+    }
+
+    return Math.max(this.delayUntilRefresh(holder), this.retryIntervalMillis);
+  }
+
+  private long delayUntilRefresh(TaskHolder holder) {
+    if (holder.task.isExpired()) {
+      return 0;
+    }
+
+    long now = System.currentTimeMillis();
+    long expiresTime = holder.task.getExpiresTime();
+    if (expiresTime <= now && holder.refreshTime > 0) {
+      expiresTime = holder.refreshTime + this.defaultLifetimeMillis;
+    }
+
+    if (expiresTime <= now) {
+      // 无法获知过期时间，只能定期检查是否已过期
+      return this.checkIntervalMillis;
+    }
+
+    return expiresTime - this.refreshAheadMillis - holder.jitter - now;
+  }
+
+  private Lock getLease(String name) {
+    if (this.redisOps != null) {
+      return this.redisOps.getLock(LEASE_KEY_PREFIX + name);
+    }
+
+    return this.localLeases.computeIfAbsent(name, k -> new ReentrantLock());
+  }
+
+  private long nextJitter() {
+    return this.jitterMillis <= 0 ? 0 : ThreadLocalRandom.current().nextLong(this.jitterMillis);
+  }
+
+  private class TaskHolder {
+    private final WxTokenRefreshTask task;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile long refreshTime;
+    private volatile long jitter;
+    private volatile boolean cancelled;
+    private ScheduledFuture<?> future;
+
+    private TaskHolder(WxTokenRefreshTask task) {
+      this.task = task;
+      this.jitter = WxTokenRefreshScheduler.this.nextJitter();
+    }
+
+    private synchronized void cancel() {
+      this.cancelled = true;
+      if (this.future != null) {
+        this.future.cancel(false);
+      }
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package me.chanjar.weixin.common.api;
+
+import me.chanjar.weixin.common.error.WxErrorException;
+
+/**
+ * <pre>
+ * 可由{@link WxTokenRefreshScheduler}在后台提前刷新的凭证，比如某个公众号的access_token或jsapi_ticket.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public interface WxTokenRefreshTask {
+
+  /**
+   * 凭证的唯一名称，同一名称在集群内共用一个刷新租约，比如 mp:appid:access_token.
+   *
+   * @return 名称
+   */
+  String getName();
+
+  /**
+   * 凭证是否已过期.
+   *
+   * @return 已过期（或不存在）时返回true
+   */
+  boolean isExpired();
+
+  /**
+   * 凭证的过期时间戳（毫秒）.
+   *
+   * @return 过期时间戳，无法获知时返回0
+   */
+  long getExpiresTime();
+
+  /**
+   * 强制刷新凭证并保存到配置存储中.
+   *
+   * @throws WxErrorException 刷新失败
+   */
+  void refresh() throws WxErrorException;
+
+}
@@ -1114,6 +1114,8 @@ public enum WxCpErrorMsgEnum {
    */
   CODE_2000002(2000002, "CorpId参数无效；指定的CorpId不存在");
 
+  private static final WxErrorMsgIndex INDEX = WxErrorMsgIndex.of(values(), WxCpErrorMsgEnum::getCode, WxCpErrorMsgEnum::getMsg);
+
   private int code;
   private String msg;
 
@@ -1126,12 +1128,6 @@ public enum WxCpErrorMsgEnum {
    * 通过错误代码查找其中文含义..
    */
   public static String findMsgByCode(int code) {
-    for (WxCpErrorMsgEnum value : WxCpErrorMsgEnum.values()) {
-      if (value.code == code) {
-        return value.msg;
-      }
-    }
-
-    return null;
+    return INDEX.get(code);
   }
 }
@@ -0,0 +1,83 @@
+package me.chanjar.weixin.common.error;
+
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * <pre>
+ * 错误码到中文含义的只读索引.
+ * 以int为键的开放寻址哈希表，每个错误码枚举只在类加载时构建一次，查找时无需遍历values()，也不会产生装箱或数组拷贝.
+ * 同一错误码出现多次时，与原先的线性查找保持一致，以先出现的为准.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+final class WxErrorMsgIndex {
+  private final int[] codes;
+  private final String[] msgs;
+  private final int mask;
+
+  private WxErrorMsgIndex(int capacity) {
+    this.codes = new int[capacity];
+    this.msgs = new String[capacity];
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * 根据枚举常量构建索引.
+   *
+   * @param values 枚举的所有常量
+   * @param code   获取错误码的方法
+   * @param msg    获取中文含义的方法
+   * @param <E>    枚举类型
+   * @return 索引
+   */
+  static <E extends Enum<E>> WxErrorMsgIndex of(E[] values, ToIntFunction<E> code, Function<E, String> msg) {
+    // 保持装载因子不超过0.5，使冲突链足够短
+    int capacity = Integer.highestOneBit(Math.max(values.length, 1) * 2 - 1) << 1;
+    WxErrorMsgIndex index = new WxErrorMsgIndex(capacity);
+    for (E value : values) {
+      index.putIfAbsent(code.applyAsInt(value), msg.apply(value));
+    }
+
+    return index;
+  }
+
+  /**
+   * 通过错误代码查找其中文含义.
+   *
+   * @param code 错误代码
+   * @return 中文含义，找不到时返回null
+   */
+  String get(int code) {
+    for (int i = slot(code); ; i = (i + 1) & this.mask) {
+      String msg = this.msgs[i];
+      if (msg == null || this.codes[i] == code) {
+        return msg;
+      }
+    }
+  }
+
+  private void putIfAbsent(int code, String msg) {
+    if (msg == null) {
+      return;
+    }
+
+    for (int i = slot(code); ; i = (i + 1) & this.mask) {
+      if (this.msgs[i] == null) {
+        this.codes[i] = code;
+        this.msgs[i] = msg;
+        return;
+      }
+
+      if (this.codes[i] == code) {
+        return;
+      }
+    }
+  }
+
+  private int slot(int code) {
+    int h = code * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & this.mask;
+  }
+}
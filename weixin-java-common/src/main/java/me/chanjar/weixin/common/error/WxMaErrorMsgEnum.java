@@ -656,6 +656,8 @@ public enum WxMaErrorMsgEnum {
 //  CODE_504002(-504002, "云函数未找到 Function not found"),
   ;
 
+  private static final WxErrorMsgIndex INDEX = WxErrorMsgIndex.of(values(), WxMaErrorMsgEnum::getCode, WxMaErrorMsgEnum::getMsg);
+
   private final int code;
   private final String msg;
 
@@ -668,12 +670,6 @@ public enum WxMaErrorMsgEnum {
    * 通过错误代码查找其中文含义.
    */
   public static String findMsgByCode(int code) {
-    for (WxMaErrorMsgEnum value : WxMaErrorMsgEnum.values()) {
-      if (value.code == code) {
-        return value.msg;
-      }
-    }
-
-    return null;
+    return INDEX.get(code);
   }
 }
@@ -648,6 +648,8 @@ public enum WxMpErrorMsgEnum {
    */
   CODE_45084(45084, "没有设置 speed 参数");
 
+  private static final WxErrorMsgIndex INDEX = WxErrorMsgIndex.of(values(), WxMpErrorMsgEnum::getCode, WxMpErrorMsgEnum::getMsg);
+
   private int code;
   private String msg;
 
@@ -660,12 +662,6 @@ public enum WxMpErrorMsgEnum {
    * 通过错误代码查找其中文含义..
    */
   public static String findMsgByCode(int code) {
-    for (WxMpErrorMsgEnum value : WxMpErrorMsgEnum.values()) {
-      if (value.code == code) {
-        return value.msg;
-      }
-    }
-
-    return null;
+    return INDEX.get(code);
   }
 }
@@ -0,0 +1,114 @@
+package me.chanjar.weixin.common.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.Setter;
+import me.chanjar.weixin.common.enums.WxType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * 基于 Micrometer 的接口调用监听器，注册以下指标：
+ * wx.api.calls             接口调用耗时（Timer），标签 type、account、endpoint、outcome、errcode
+ * wx.api.retries           接口重试次数（Counter），标签 type、account、endpoint
+ * wx.api.request.bytes     请求报文大小（DistributionSummary），标签 type、endpoint
+ * wx.api.response.bytes    响应报文大小（DistributionSummary），标签 type、endpoint
+ * wx.access_token.refresh  access token 刷新次数（Counter），标签 type、account
+ * wx.access_token.invalid  access token 被接口判定失效的次数（Counter），标签 type、account、errcode
+ * 账号较多时可通过 {@link #setAccountTagEnabled(boolean)} 关闭 account 标签以控制指标基数.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class MicrometerWxApiCallListener implements WxApiCallListener {
+  private static final String UNKNOWN = "unknown";
+
+  private final MeterRegistry registry;
+
+  /**
+   * 是否记录 account 标签.
+   */
+  @Getter
+  @Setter
+  private volatile boolean accountTagEnabled = true;
+
+  public MicrometerWxApiCallListener(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public void onApiCall(WxApiCallEvent event) {
+    String type = typeOf(event.getWxType());
+    Tags tags = Tags.of("type", type, "endpoint", event.getEndpoint());
+    Tags accountTags = tags.and("account", this.accountOf(event.getAccountKey()));
+
+    Timer.builder("wx.api.calls")
+      .description("微信接口调用耗时")
+      .tags(accountTags)
+      .tag("outcome", event.isSuccess() ? "SUCCESS" : "ERROR")
+      .tag("errcode", event.getErrorCode())
+      .register(this.registry)
+      .record(event.getDurationNanos(), TimeUnit.NANOSECONDS);
+
+    if (event.getRetryTimes() > 0) {
+      Counter.builder("wx.api.retries")
+        .description("微信接口重试次数")
+        .tags(accountTags)
+        .register(this.registry)
+        .increment(event.getRetryTimes());
+    }
+
+    if (event.getBytesOut() >= 0) {
+      DistributionSummary.builder("wx.api.request.bytes")
+        .baseUnit("bytes")
+        .tags(tags)
+        .register(this.registry)
+        .record(event.getBytesOut());
+    }
+
+    if (event.getBytesIn() >= 0) {
+      DistributionSummary.builder("wx.api.response.bytes")
+        .baseUnit("bytes")
+        .tags(tags)
+        .register(this.registry)
+        .record(event.getBytesIn());
+    }
+  }
+
+  @Override
+  public void onAccessTokenRefreshed(WxType wxType, String accountKey) {
+    Counter.builder("wx.access_token.refresh")
+      .description("access token 刷新次数")
+      .tag("type", typeOf(wxType))
+      .tag("account", this.accountOf(accountKey))
+      .register(this.registry)
+      .increment();
+  }
+
+  @Override
+  public void onAccessTokenInvalid(WxType wxType, String accountKey, int errorCode) {
+    Counter.builder("wx.access_token.invalid")
+      .description("access token 被接口判定失效的次数")
+      .tag("type", typeOf(wxType))
+      .tag("account", this.accountOf(accountKey))
+      .tag("errcode", String.valueOf(errorCode))
+      .register(this.registry)
+      .increment();
+  }
+
+  private String accountOf(String accountKey) {
+    if (!this.accountTagEnabled) {
+      return UNKNOWN;
+    }
+    return accountKey == null ? UNKNOWN : accountKey;
+  }
+
+  private static String typeOf(WxType wxType) {
+    return wxType == null ? UNKNOWN : wxType.name();
+  }
+}
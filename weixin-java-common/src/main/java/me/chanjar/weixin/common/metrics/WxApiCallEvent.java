@@ -0,0 +1,201 @@
+package me.chanjar.weixin.common.metrics;
+
+import lombok.Getter;
+import lombok.ToString;
+import me.chanjar.weixin.common.enums.WxType;
+import me.chanjar.weixin.common.error.WxErrorException;
+import me.chanjar.weixin.common.ratelimit.BaseWxRateLimiter;
+
+import java.io.File;
+
+/**
+ * <pre>
+ * 一次接口调用的事件.
+ * 由 service 在调用开始时通过 {@link #start} 创建，调用结束时通过 {@link #succeed} 或 {@link #fail} 补全结果.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+@Getter
+@ToString(exclude = "exception")
+public class WxApiCallEvent {
+  /**
+   * 调用成功时的错误码.
+   */
+  public static final String SUCCESS_CODE = "0";
+  /**
+   * 非微信业务错误（如网络异常）时的错误码.
+   */
+  public static final String UNKNOWN_ERROR_CODE = "-1";
+  private static final int ID_MIN_LENGTH = 8;
+
+  private final WxType wxType;
+  private final String accountKey;
+  /**
+   * 接口路径，不含域名和查询参数（因此也不含 access_token），路径中的订单号等标识替换为 {id}.
+   */
+  private final String endpoint;
+  private final long startNanos;
+  /**
+   * 请求报文字节数，无法确定时为 -1.
+   */
+  private final long bytesOut;
+  private long durationNanos;
+  /**
+   * 响应报文字节数，无法确定时为 -1.
+   */
+  private long bytesIn = -1;
+  private boolean success;
+  private String errorCode;
+  private int retryTimes;
+  private Throwable exception;
+
+  private WxApiCallEvent(WxType wxType, String accountKey, String endpoint, long bytesOut) {
+    this.wxType = wxType;
+    this.accountKey = accountKey;
+    this.endpoint = endpoint;
+    this.bytesOut = bytesOut;
+    this.startNanos = System.nanoTime();
+  }
+
+  /**
+   * 记录调用开始.
+   *
+   * @param wxType     微信类型
+   * @param accountKey 账号标识
+   * @param uri        接口地址
+   * @param request    请求数据
+   * @return 事件
+   */
+  public static WxApiCallEvent start(WxType wxType, String accountKey, String uri, Object request) {
+    return new WxApiCallEvent(wxType, accountKey, endpointOf(uri), sizeOf(request));
+  }
+
+  /**
+   * 取接口路径，并将路径中的标识（如支付v3接口中的订单号）替换为 {id}，以免指标标签无限增长.
+   * 长度不小于8且包含数字的路径段视为标识.
+   */
+  static String endpointOf(String uri) {
+    String path = BaseWxRateLimiter.endpointOf(uri);
+    StringBuilder sb = null;
+    int segmentStart = 0;
+    for (int i = 0, len = path.length(); i <= len; i++) {
+      if (i < len && path.charAt(i) != '/') {
+        continue;
+      }
+
+      boolean isId = i - segmentStart >= ID_MIN_LENGTH && containsDigit(path, segmentStart, i);
+      if (isId && sb == null) {
+        sb = new StringBuilder(path.length()).append(path, 0, segmentStart);
+      }
+      if (sb != null) {
+        if (isId) {
+          sb.append("{id}");
+        } else {
+          sb.append(path, segmentStart, i);
+        }
+        if (i < len) {
+          sb.append('/');
+        }
+      }
+      segmentStart = i + 1;
+    }
+    return sb == null ? path : sb.toString();
+  }
+
+  private static boolean containsDigit(String s, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (Character.isDigit(s.charAt(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 记录发生了一次重试.
+   */
+  public void retried() {
+    this.retryTimes++;
+  }
+
+  /**
+   * 调用成功.
+   *
+   * @param response 响应数据
+   * @return 当前事件
+   */
+  public WxApiCallEvent succeed(Object response) {
+    this.durationNanos = System.nanoTime() - this.startNanos;
+    this.bytesIn = sizeOf(response);
+    this.success = true;
+    this.errorCode = SUCCESS_CODE;
+    return this;
+  }
+
+  /**
+   * 调用失败，异常（或其 cause）为微信业务异常时取其错误码.
+   *
+   * @param e 异常
+   * @return 当前事件
+   */
+  public WxApiCallEvent fail(Throwable e) {
+    String code = UNKNOWN_ERROR_CODE;
+    for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+      if (t instanceof WxErrorException && ((WxErrorException) t).getError() != null) {
+        code = String.valueOf(((WxErrorException) t).getError().getErrorCode());
+        break;
+      }
+    }
+    return this.fail(e, code);
+  }
+
+  /**
+   * 调用失败.
+   *
+   * @param e         异常
+   * @param errorCode 错误码，为空时记为 {@link #UNKNOWN_ERROR_CODE}
+   * @return 当前事件
+   */
+  public WxApiCallEvent fail(Throwable e, String errorCode) {
+    this.durationNanos = System.nanoTime() - this.startNanos;
+    this.success = false;
+    this.exception = e;
+    this.errorCode = errorCode == null || errorCode.isEmpty() ? UNKNOWN_ERROR_CODE : errorCode;
+    return this;
+  }
+
+  /**
+   * 估算报文字节数，字符串按 UTF-8 编码计算且不产生中间对象.
+   */
+  static long sizeOf(Object data) {
+    if (data instanceof CharSequence) {
+      return utf8Length((CharSequence) data);
+    }
+    if (data instanceof byte[]) {
+      return ((byte[]) data).length;
+    }
+    if (data instanceof File) {
+      return ((File) data).length();
+    }
+    return -1;
+  }
+
+  private static long utf8Length(CharSequence s) {
+    long count = 0;
+    for (int i = 0, len = s.length(); i < len; i++) {
+      char ch = s.charAt(i);
+      if (ch < 0x80) {
+        count++;
+      } else if (ch < 0x800) {
+        count += 2;
+      } else if (Character.isHighSurrogate(ch) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+        count += 4;
+        i++;
+      } else {
+        count += 3;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,42 @@
+package me.chanjar.weixin.common.metrics;
+
+import me.chanjar.weixin.common.enums.WxType;
+
+/**
+ * <pre>
+ * 接口调用监听器，用于采集耗时、错误码、重试次数、报文大小等指标.
+ * 未设置监听器时各 service 不会创建任何事件对象，因此不会带来额外开销.
+ * 回调在发起请求的线程（或异步请求的完成线程）上同步执行，实现应尽量轻量且不要抛出异常.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ * @see MicrometerWxApiCallListener
+ */
+public interface WxApiCallListener {
+
+  /**
+   * 一次接口调用结束（包含其间所有重试）.
+   *
+   * @param event 调用事件
+   */
+  void onApiCall(WxApiCallEvent event);
+
+  /**
+   * access token 刷新成功.
+   *
+   * @param wxType     微信类型
+   * @param accountKey 账号标识，如 appId
+   */
+  default void onAccessTokenRefreshed(WxType wxType, String accountKey) {
+  }
+
+  /**
+   * 接口返回 access token 失效类错误码（40001、42001、40014），本地 token 被强制过期.
+   *
+   * @param wxType     微信类型
+   * @param accountKey 账号标识，如 appId
+   * @param errorCode  错误码
+   */
+  default void onAccessTokenInvalid(WxType wxType, String accountKey, int errorCode) {
+  }
+}
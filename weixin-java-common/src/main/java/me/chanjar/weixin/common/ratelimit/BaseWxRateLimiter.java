@@ -0,0 +1,197 @@
+package me.chanjar.weixin.common.ratelimit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * 限流器的公共实现，负责按接口配置限流规则以及统计配额使用情况.
+ * 接口以路径区分（如 /cgi-bin/message/custom/send），不含域名及查询参数；
+ * 没有单独配置规则的接口使用默认规则，默认规则未设置时不限流.
+ * 计数桶最多保存 maxBuckets 个，超过 idleMillis 未被使用的桶会被清理（其统计数据随之清零），
+ * 因此账号数不固定时内存占用依然有界；idleMillis 应不小于最长的限流周期，否则空闲后重新创建的桶会提前恢复配额.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public abstract class BaseWxRateLimiter implements WxRateLimiter {
+  /**
+   * 默认最多保存的计数桶数.
+   */
+  public static final long DEFAULT_MAX_BUCKETS = 100_000;
+  /**
+   * 默认计数桶的空闲清理时间（毫秒），覆盖按天计算的接口配额.
+   */
+  public static final long DEFAULT_IDLE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+  private final Map<String, Rule> rules = new ConcurrentHashMap<>();
+  private final Cache<String, Bucket> buckets;
+  private volatile Rule defaultRule;
+
+  protected BaseWxRateLimiter() {
+    this(DEFAULT_MAX_BUCKETS, DEFAULT_IDLE_MILLIS);
+  }
+
+  /**
+   * @param maxBuckets 最多保存的计数桶数，超过时按最近使用淘汰
+   * @param idleMillis 计数桶超过多久未被使用即清理（毫秒）
+   */
+  protected BaseWxRateLimiter(long maxBuckets, long idleMillis) {
+    this.buckets = CacheBuilder.newBuilder()
+      .maximumSize(maxBuckets)
+      .expireAfterAccess(idleMillis, TimeUnit.MILLISECONDS)
+      .build();
+  }
+
+  /**
+   * 设置默认限流规则.
+   *
+   * @param permits 每个周期允许的调用次数
+   * @param period  周期
+   * @param unit    周期的时间单位
+   */
+  public void setDefaultLimit(int permits, long period, TimeUnit unit) {
+    this.defaultRule = new Rule(permits, unit.toMillis(period));
+    this.buckets.invalidateAll();
+  }
+
+  /**
+   * 设置某个接口的限流规则.
+   *
+   * @param endpoint 接口路径或完整地址，如 /cgi-bin/message/custom/send
+   * @param permits  每个周期允许的调用次数
+   * @param period   周期
+   * @param unit     周期的时间单位
+   */
+  public void setLimit(String endpoint, int permits, long period, TimeUnit unit) {
+    String path = endpointOf(endpoint);
+    this.rules.put(path, new Rule(permits, unit.toMillis(period)));
+    this.buckets.asMap().values().removeIf(bucket -> bucket.endpoint.equals(path));
+  }
+
+  /**
+   * 删除某个接口的限流规则，之后该接口使用默认规则.
+   *
+   * @param endpoint 接口路径或完整地址
+   */
+  public void removeLimit(String endpoint) {
+    String path = endpointOf(endpoint);
+    this.rules.remove(path);
+    this.buckets.asMap().values().removeIf(bucket -> bucket.endpoint.equals(path));
+  }
+
+  @Override
+  public boolean tryAcquire(String accountKey, String uri) {
+    String endpoint = endpointOf(uri);
+    Rule rule = this.rules.getOrDefault(endpoint, this.defaultRule);
+    if (rule == null) {
+      return true;
+    }
+
+    Bucket bucket;
+    try {
+      bucket = this.buckets.get(accountKey + ' ' + endpoint, () -> this.createBucket(accountKey, endpoint, rule));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      // createBucket不会抛出受检异常
+      throw (RuntimeException) e.getCause();
+    }
+    if (bucket.tryAcquire()) {
+      bucket.acquired.increment();
+      return true;
+    }
+
+    bucket.rejected.increment();
+    return false;
+  }
+
+  @Override
+  public List<WxRateLimitStats> getStats() {
+    Collection<Bucket> current = this.buckets.asMap().values();
+    List<WxRateLimitStats> stats = new ArrayList<>(current.size());
+    for (Bucket bucket : current) {
+      stats.add(new WxRateLimitStats(bucket.accountKey, bucket.endpoint, bucket.rule.permits,
+        bucket.rule.periodMillis, bucket.acquired.sum(), bucket.rejected.sum(), bucket.available()));
+    }
+    return stats;
+  }
+
+  /**
+   * 为（账号, 接口）创建计数桶.
+   */
+  protected abstract Bucket createBucket(String accountKey, String endpoint, Rule rule);
+
+  /**
+   * 取接口地址的路径部分，去掉域名和查询参数.
+   *
+   * @param uri 接口地址
+   * @return 路径
+   */
+  public static String endpointOf(String uri) {
+    int start = 0;
+    int scheme = uri.indexOf("://");
+    if (scheme >= 0) {
+      start = uri.indexOf('/', scheme + 3);
+      if (start < 0) {
+        return "/";
+      }
+    }
+
+    int end = uri.indexOf('?', start);
+    return end < 0 ? uri.substring(start) : uri.substring(start, end);
+  }
+
+  /**
+   * 限流规则.
+   */
+  @Getter
+  public static class Rule {
+    private final int permits;
+    private final long periodMillis;
+
+    public Rule(int permits, long periodMillis) {
+      if (permits <= 0 || periodMillis <= 0) {
+        throw new IllegalArgumentException("permits和period必须大于0");
+      }
+      this.permits = permits;
+      this.periodMillis = periodMillis;
+    }
+  }
+
+  /**
+   * 某个（账号, 接口）的计数桶.
+   */
+  protected abstract static class Bucket {
+    protected final String accountKey;
+    protected final String endpoint;
+    protected final Rule rule;
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    protected Bucket(String accountKey, String endpoint, Rule rule) {
+      this.accountKey = accountKey;
+      this.endpoint = endpoint;
+      this.rule = rule;
+    }
+
+    /**
+     * @return 是否获得许可
+     */
+    protected abstract boolean tryAcquire();
+
+    /**
+     * @return 当前还可以立即获得的许可数
+     */
+    protected abstract long available();
+  }
+}
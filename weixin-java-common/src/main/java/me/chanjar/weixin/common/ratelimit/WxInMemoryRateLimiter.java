@@ -0,0 +1,71 @@
+package me.chanjar.weixin.common.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ * 基于本地内存的限流器，只限制本JVM内的调用频率.
+ * 每个（账号, 接口）是一个容量为permits、每 period/permits 补充一个许可的令牌桶，
+ * 以GCRA算法实现：只保存一个“理论到达时间”，通过CAS更新，无锁且不产生额外对象.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class WxInMemoryRateLimiter extends BaseWxRateLimiter {
+
+  public WxInMemoryRateLimiter() {
+    super();
+  }
+
+  /**
+   * @param maxBuckets 最多保存的（账号, 接口）计数桶数
+   * @param idleMillis 计数桶超过多久未被使用即清理（毫秒），应不小于最长的限流周期
+   */
+  public WxInMemoryRateLimiter(long maxBuckets, long idleMillis) {
+    super(maxBuckets, idleMillis);
+  }
+
+  @Override
+  protected Bucket createBucket(String accountKey, String endpoint, Rule rule) {
+    return new TokenBucket(accountKey, endpoint, rule);
+  }
+
+  private static class TokenBucket extends Bucket {
+    private final long periodNanos;
+    private final long intervalNanos;
+    /**
+     * 理论到达时间：桶被补满的时间点.
+     */
+    private final AtomicLong tat = new AtomicLong(System.nanoTime());
+
+    private TokenBucket(String accountKey, String endpoint, Rule rule) {
+      super(accountKey, endpoint, rule);
+      this.periodNanos = TimeUnit.MILLISECONDS.toNanos(rule.getPeriodMillis());
+      this.intervalNanos = Math.max(1, this.periodNanos / rule.getPermits());
+    }
+
+    @Override
+    protected boolean tryAcquire() {
+      while (true) {
+        long now = System.nanoTime();
+        long current = this.tat.get();
+        long next = Math.max(current, now) + this.intervalNanos;
+        if (next - now > this.periodNanos) {
+          return false;
+        }
+
+        if (this.tat.compareAndSet(current, next)) {
+          return true;
+        }
+      }
+    }
+
+    @Override
+    protected long available() {
+      long now = System.nanoTime();
+      long used = Math.max(this.tat.get(), now) - now;
+      return Math.max(0, (this.periodNanos - used) / this.intervalNanos);
+    }
+  }
+}
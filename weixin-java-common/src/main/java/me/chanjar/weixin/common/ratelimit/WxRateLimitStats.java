@@ -0,0 +1,54 @@
+package me.chanjar.weixin.common.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 某个（账号, 接口）的配额使用情况.
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WxRateLimitStats implements Serializable {
+  private static final long serialVersionUID = 4716932451328459710L;
+
+  /**
+   * 账号标识.
+   */
+  private String accountKey;
+
+  /**
+   * 接口路径.
+   */
+  private String endpoint;
+
+  /**
+   * 每个周期允许的调用次数.
+   */
+  private int permits;
+
+  /**
+   * 周期（毫秒）.
+   */
+  private long periodMillis;
+
+  /**
+   * 本节点累计获得许可的次数.
+   */
+  private long acquired;
+
+  /**
+   * 本节点累计被限流的次数.
+   */
+  private long rejected;
+
+  /**
+   * 当前还可以立即获得的许可数.
+   */
+  private long available;
+}
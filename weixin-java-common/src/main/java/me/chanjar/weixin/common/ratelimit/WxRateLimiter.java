@@ -0,0 +1,35 @@
+package me.chanjar.weixin.common.ratelimit;
+
+import java.util.List;
+
+/**
+ * <pre>
+ * 客户端限流器，按（账号, 接口）限制调用频率.
+ * 各Service在发起请求前调用{@link #tryAcquire(String, String)}，未获得许可时不会发出请求，
+ * 而是立即以错误码{@link #RATE_LIMITED_ERROR_CODE}失败，避免消耗微信的接口配额.
+ * 如需在被限流后自动重试，可将该错误码加入重试策略的可重试错误码中.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public interface WxRateLimiter {
+  /**
+   * 被客户端限流时返回的错误码，为本地错误码，以便与微信返回的频率限制错误（如45011）区分.
+   */
+  int RATE_LIMITED_ERROR_CODE = -98;
+
+  /**
+   * 尝试获取一次调用许可，不会阻塞.
+   *
+   * @param accountKey 账号标识，比如公众号的appid
+   * @param uri        接口地址，可带查询参数
+   * @return 是否获得许可
+   */
+  boolean tryAcquire(String accountKey, String uri);
+
+  /**
+   * @return 各（账号, 接口）当前的配额使用情况
+   */
+  List<WxRateLimitStats> getStats();
+
+}
@@ -0,0 +1,66 @@
+package me.chanjar.weixin.common.ratelimit;
+
+import lombok.NonNull;
+import me.chanjar.weixin.common.redis.WxRedisOps;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * 基于redis的分布式限流器，集群内所有节点共享配额.
+ * 每个（账号, 接口）按周期划分固定窗口，窗口内的调用次数保存在redis中，过期时间即为窗口长度.
+ * 计数通过{@link WxRedisOps#increment(String, int, TimeUnit)}原子递增，每次获取许可只需一次redis往返，无需加锁；
+ * 窗口内计数超过配额后的调用直接失败，不会超发.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class WxRedisRateLimiter extends BaseWxRateLimiter {
+  private final WxRedisOps redisOps;
+  private final String keyPrefix;
+
+  public WxRedisRateLimiter(@NonNull WxRedisOps redisOps) {
+    this(redisOps, "wx:rate_limit");
+  }
+
+  /**
+   * @param redisOps  redis操作对象
+   * @param keyPrefix 计数key的前缀
+   */
+  public WxRedisRateLimiter(@NonNull WxRedisOps redisOps, @NonNull String keyPrefix) {
+    this.redisOps = redisOps;
+    this.keyPrefix = keyPrefix;
+  }
+
+  @Override
+  protected Bucket createBucket(String accountKey, String endpoint, Rule rule) {
+    return new WindowBucket(accountKey, endpoint, rule);
+  }
+
+  private class WindowBucket extends Bucket {
+    private final String key;
+
+    private WindowBucket(String accountKey, String endpoint, Rule rule) {
+      super(accountKey, endpoint, rule);
+      this.key = WxRedisRateLimiter.this.keyPrefix + ":" + accountKey + ":" + endpoint;
+    }
+
+    private String windowKey() {
+      return this.key + ":" + System.currentTimeMillis() / this.rule.getPeriodMillis();
+    }
+
+    @Override
+    protected boolean tryAcquire() {
+      long count = WxRedisRateLimiter.this.redisOps.increment(this.windowKey(),
+        (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(this.rule.getPeriodMillis()) + 1), TimeUnit.SECONDS);
+      return count <= this.rule.getPermits();
+    }
+
+    @Override
+    protected long available() {
+      int count = NumberUtils.toInt(WxRedisRateLimiter.this.redisOps.getValue(this.windowKey()));
+      return Math.max(0, this.rule.getPermits() - count);
+    }
+  }
+}
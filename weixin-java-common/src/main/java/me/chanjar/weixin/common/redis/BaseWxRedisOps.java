@@ -30,6 +30,11 @@ public abstract class BaseWxRedisOps implements WxRedisOps {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public boolean setIfAbsent(String key, String value, int expire, TimeUnit timeUnit) {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public Lock getLock(String key) {
     throw new UnsupportedOperationException();
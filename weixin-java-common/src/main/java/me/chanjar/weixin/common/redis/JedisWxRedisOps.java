@@ -3,8 +3,14 @@ package me.chanjar.weixin.common.redis;
 import lombok.RequiredArgsConstructor;
 import me.chanjar.weixin.common.util.locks.JedisDistributedLock;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.params.SetParams;
 import redis.clients.jedis.util.Pool;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
@@ -44,8 +50,48 @@ public class JedisWxRedisOps implements WxRedisOps {
     }
   }
 
+  @Override
+  public boolean setIfAbsent(String key, String value, int expire, TimeUnit timeUnit) {
+    try (Jedis jedis = this.jedisPool.getResource()) {
+      return jedis.set(key, value, setIfAbsentParams(expire, timeUnit)) != null;
+    }
+  }
+
+  @Override
+  public List<Boolean> setIfAbsent(List<String> keys, String value, int expire, TimeUnit timeUnit) {
+    SetParams params = setIfAbsentParams(expire, timeUnit);
+    List<Response<String>> responses = new ArrayList<>(keys.size());
+    try (Jedis jedis = this.jedisPool.getResource()) {
+      Pipeline pipeline = jedis.pipelined();
+      for (String key : keys) {
+        responses.add(pipeline.set(key, value, params));
+      }
+      pipeline.sync();
+    }
+
+    List<Boolean> result = new ArrayList<>(responses.size());
+    for (Response<String> response : responses) {
+      result.add(response.get() != null);
+    }
+    return result;
+  }
+
+  @Override
+  public long increment(String key, int expire, TimeUnit timeUnit) {
+    try (Jedis jedis = this.jedisPool.getResource()) {
+      Object count = jedis.eval(RedisScripts.INCREMENT, Collections.singletonList(key),
+        Collections.singletonList(String.valueOf(timeUnit.toMillis(expire))));
+      return ((Number) count).longValue();
+    }
+  }
+
   @Override
   public Lock getLock(String key) {
     return new JedisDistributedLock(jedisPool, key);
   }
+
+  private static SetParams setIfAbsentParams(int expire, TimeUnit timeUnit) {
+    SetParams params = SetParams.setParams().nx();
+    return expire <= 0 ? params : params.px(timeUnit.toMillis(expire));
+  }
 }
@@ -0,0 +1,245 @@
+package me.chanjar.weixin.common.redis;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * <pre>
+ * 带本地近端缓存（L1）的redis操作装饰器.
+ *
+ * 基于redis的配置存储（如WxMpRedisConfigImpl、WxMaRedisBetterConfigImpl、WxOpenInRedisConfigStorage）
+ * 在每次接口调用前都会读取access_token并检查其过期时间，即每次调用都需要两次redis往返.
+ * 用本类包装原有的{@link WxRedisOps}后，值及其绝对过期时间会被保存在进程内存中，
+ * 在临近过期之前的读取都直接由本地返回；写入（setValue）和使失效（expire）会同步更新本地缓存.
+ *
+ * 集群环境下，可通过以下方式让各节点的本地缓存收敛：
+ * 1. 指定versionKey：每次写入时更新该key的版本号，各节点至多每隔versionCheckIntervalMillis检查一次，版本变化时清空本地缓存；
+ * 2. 自行订阅redis的pub/sub等通知，在收到通知时调用{@link #invalidate(String)}或{@link #invalidateAll()}.
+ * 此外每个本地缓存项最长只保留maxLocalTtlMillis，以限制未接入通知时的不一致时间.
+ *
+ * 使用示例：new WxMpRedisConfigImpl(new NearCacheWxRedisOps(new JedisWxRedisOps(jedisPool), "wx:near-cache:version"), "wx")
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class NearCacheWxRedisOps extends BaseWxRedisOps {
+  private static final long NO_EXPIRE = Long.MAX_VALUE;
+
+  private final WxRedisOps delegate;
+  private final String versionKey;
+  private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+  /**
+   * 每次写入或使失效时递增，避免并发回源时把写入之前读到的旧值放回本地缓存.
+   */
+  private final AtomicLong generation = new AtomicLong();
+
+  /**
+   * 本地缓存在redis中的实际过期时间之前提前失效的毫秒数，之后的读取将回源到redis.
+   */
+  @Getter
+  @Setter
+  private long expireAheadMillis = 10 * 1000L;
+
+  /**
+   * 每个本地缓存项的最长保留毫秒数.
+   */
+  @Getter
+  @Setter
+  private long maxLocalTtlMillis = 60 * 1000L;
+
+  /**
+   * 检查集群版本号的最小间隔毫秒数，仅在指定了versionKey时有效.
+   */
+  @Getter
+  @Setter
+  private long versionCheckIntervalMillis = 1000L;
+
+  private volatile String knownVersion;
+  private volatile long nextVersionCheckTime;
+
+  public NearCacheWxRedisOps(@NonNull WxRedisOps delegate) {
+    this(delegate, null);
+  }
+
+  /**
+   * @param delegate   实际执行redis操作的对象
+   * @param versionKey 集群内用于通知缓存失效的版本号key，为null时不启用
+   */
+  public NearCacheWxRedisOps(@NonNull WxRedisOps delegate, String versionKey) {
+    this.delegate = delegate;
+    this.versionKey = versionKey;
+  }
+
+  @Override
+  public String getValue(String key) {
+    Entry entry = this.getEntry(key);
+    return entry == null ? null : entry.value;
+  }
+
+  @Override
+  public void setValue(String key, String value, int expire, TimeUnit timeUnit) {
+    this.delegate.setValue(key, value, expire, timeUnit);
+    this.generation.incrementAndGet();
+    long now = System.currentTimeMillis();
+    this.cache.put(key, new Entry(value, expire <= 0 ? NO_EXPIRE : now + timeUnit.toMillis(expire), now));
+    this.publishVersion();
+  }
+
+  @Override
+  public Long getExpire(String key) {
+    Entry entry = this.getEntry(key);
+    if (entry == null) {
+      return -2L;
+    }
+
+    if (entry.expireAt == NO_EXPIRE) {
+      return -1L;
+    }
+
+    return Math.max(0, TimeUnit.MILLISECONDS.toSeconds(entry.expireAt - System.currentTimeMillis()));
+  }
+
+  @Override
+  public void expire(String key, int expire, TimeUnit timeUnit) {
+    this.delegate.expire(key, expire, timeUnit);
+    this.invalidate(key);
+    this.publishVersion();
+  }
+
+  @Override
+  public boolean setIfAbsent(String key, String value, int expire, TimeUnit timeUnit) {
+    boolean result = this.delegate.setIfAbsent(key, value, expire, timeUnit);
+    if (result) {
+      this.invalidate(key);
+    }
+    return result;
+  }
+
+  @Override
+  public List<Boolean> setIfAbsent(List<String> keys, String value, int expire, TimeUnit timeUnit) {
+    List<Boolean> result = this.delegate.setIfAbsent(keys, value, expire, timeUnit);
+    for (int i = 0; i < keys.size(); i++) {
+      if (Boolean.TRUE.equals(result.get(i))) {
+        this.invalidate(keys.get(i));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public long increment(String key, int expire, TimeUnit timeUnit) {
+    long count = this.delegate.increment(key, expire, timeUnit);
+    this.invalidate(key);
+    return count;
+  }
+
+  @Override
+  public Lock getLock(String key) {
+    return this.delegate.getLock(key);
+  }
+
+  /**
+   * 使本地缓存中指定key失效，可用于接入redis pub/sub等集群通知.
+   *
+   * @param key redis key
+   */
+  public void invalidate(String key) {
+    this.generation.incrementAndGet();
+    this.cache.remove(key);
+  }
+
+  /**
+   * 清空本地缓存，可用于接入redis pub/sub等集群通知.
+   */
+  public void invalidateAll() {
+    this.generation.incrementAndGet();
+    this.cache.clear();
+  }
+
+  private Entry getEntry(String key) {
+    this.checkVersion();
+    long now = System.currentTimeMillis();
+    Entry entry = this.cache.get(key);
+    if (entry != null && entry.isFresh(now, this.expireAheadMillis, this.maxLocalTtlMillis)) {
+      return entry;
+    }
+
+    long loadGeneration = this.generation.get();
+    String value = this.delegate.getValue(key);
+    if (value == null) {
+      this.cache.remove(key);
+      return null;
+    }
+
+    Long ttl = this.delegate.getExpire(key);
+    if (ttl == null || ttl < -1) {
+      // 两次读取之间key已过期或被删除
+      this.cache.remove(key);
+      return null;
+    }
+
+    entry = new Entry(value, ttl == -1 ? NO_EXPIRE : now + TimeUnit.SECONDS.toMillis(ttl), now);
+    if (loadGeneration == this.generation.get()) {
+      this.cache.put(key, entry);
+    }
+    return entry;
+  }
+
+  private void checkVersion() {
+    if (this.versionKey == null) {
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    if (now < this.nextVersionCheckTime) {
+      return;
+    }
+
+    this.nextVersionCheckTime = now + this.versionCheckIntervalMillis;
+    String version = this.delegate.getValue(this.versionKey);
+    if (!Objects.equals(version, this.knownVersion)) {
+      this.knownVersion = version;
+      this.invalidateAll();
+    }
+  }
+
+  private void publishVersion() {
+    if (this.versionKey == null) {
+      return;
+    }
+
+    String version = UUID.randomUUID().toString();
+    this.delegate.setValue(this.versionKey, version, 0, TimeUnit.SECONDS);
+    this.knownVersion = version;
+  }
+
+  private static class Entry {
+    private final String value;
+    private final long expireAt;
+    private final long loadTime;
+
+    private Entry(String value, long expireAt, long loadTime) {
+      this.value = value;
+      this.expireAt = expireAt;
+      this.loadTime = loadTime;
+    }
+
+    private boolean isFresh(long now, long expireAheadMillis, long maxLocalTtlMillis) {
+      if (now - this.loadTime >= maxLocalTtlMillis) {
+        return false;
+      }
+
+      return this.expireAt == NO_EXPIRE || now < this.expireAt - expireAheadMillis;
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package me.chanjar.weixin.common.redis;
+
+/**
+ * 内置实现共用的lua脚本.
+ */
+final class RedisScripts {
+  /**
+   * 计数加1，首次创建时设置过期时间（毫秒，ARGV[1]小于等于0时不设置）.
+   */
+  static final String INCREMENT = "local count = redis.call('incr', KEYS[1]) "
+    + "if count == 1 and tonumber(ARGV[1]) > 0 then redis.call('pexpire', KEYS[1], ARGV[1]) end "
+    + "return count";
+
+  private RedisScripts() {
+  }
+}
@@ -3,14 +3,25 @@ package me.chanjar.weixin.common.redis;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import me.chanjar.weixin.common.util.locks.RedisTemplateSimpleDistributedLock;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
 @RequiredArgsConstructor
 public class RedisTemplateWxRedisOps implements WxRedisOps {
 
+  private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(RedisScripts.INCREMENT, Long.class);
+
   private final StringRedisTemplate redisTemplate;
 
   @Override
@@ -37,6 +48,39 @@ public class RedisTemplateWxRedisOps implements WxRedisOps {
     redisTemplate.expire(key, expire, timeUnit);
   }
 
+  @Override
+  public boolean setIfAbsent(String key, String value, int expire, TimeUnit timeUnit) {
+    if (expire <= 0) {
+      return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value));
+    }
+    return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, expire, timeUnit));
+  }
+
+  @Override
+  public List<Boolean> setIfAbsent(List<String> keys, String value, int expire, TimeUnit timeUnit) {
+    Expiration expiration = expire <= 0 ? Expiration.persistent() : Expiration.from(expire, timeUnit);
+    List<Object> responses = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      StringRedisConnection stringConnection = (StringRedisConnection) connection;
+      for (String key : keys) {
+        stringConnection.set(key, value, expiration, RedisStringCommands.SetOption.ifAbsent());
+      }
+      return null;
+    });
+
+    List<Boolean> result = new ArrayList<>(responses.size());
+    for (Object response : responses) {
+      result.add(Boolean.TRUE.equals(response));
+    }
+    return result;
+  }
+
+  @Override
+  public long increment(String key, int expire, TimeUnit timeUnit) {
+    Long count = redisTemplate.execute(INCREMENT_SCRIPT, Collections.singletonList(key),
+      String.valueOf(timeUnit.toMillis(expire)));
+    return count == null ? 0 : count;
+  }
+
   @Override
   public Lock getLock(@NonNull String key) {
     return new RedisTemplateSimpleDistributedLock(redisTemplate, key, 60 * 1000);
@@ -1,8 +1,16 @@
 package me.chanjar.weixin.common.redis;
 
 import lombok.RequiredArgsConstructor;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucketAsync;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
@@ -40,6 +48,38 @@ public class RedissonWxRedisOps implements WxRedisOps {
     redissonClient.getBucket(key).expire(expire, timeUnit);
   }
 
+  @Override
+  public boolean setIfAbsent(String key, String value, int expire, TimeUnit timeUnit) {
+    if (expire <= 0) {
+      return redissonClient.getBucket(key).trySet(value);
+    }
+    return redissonClient.getBucket(key).trySet(value, expire, timeUnit);
+  }
+
+  @Override
+  public List<Boolean> setIfAbsent(List<String> keys, String value, int expire, TimeUnit timeUnit) {
+    RBatch batch = redissonClient.createBatch();
+    List<RFuture<Boolean>> futures = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      RBucketAsync<Object> bucket = batch.getBucket(key);
+      futures.add(expire <= 0 ? bucket.trySetAsync(value) : bucket.trySetAsync(value, expire, timeUnit));
+    }
+    batch.execute();
+
+    List<Boolean> result = new ArrayList<>(futures.size());
+    for (RFuture<Boolean> future : futures) {
+      result.add(Boolean.TRUE.equals(future.getNow()));
+    }
+    return result;
+  }
+
+  @Override
+  public long increment(String key, int expire, TimeUnit timeUnit) {
+    Long count = redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE, RedisScripts.INCREMENT,
+      RScript.ReturnType.INTEGER, Collections.singletonList(key), String.valueOf(timeUnit.toMillis(expire)));
+    return count;
+  }
+
   @Override
   public Lock getLock(String key) {
     return redissonClient.getLock(key);
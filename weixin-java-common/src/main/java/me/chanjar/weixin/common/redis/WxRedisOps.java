@@ -1,5 +1,7 @@
 package me.chanjar.weixin.common.redis;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
@@ -23,5 +25,59 @@ public interface WxRedisOps {
 
   void expire(String key, int expire, TimeUnit timeUnit);
 
+  /**
+   * key不存在时才写入（SET NX），expire小于等于0时不设置过期时间.
+   * 内置实现为原子的SET NX；默认实现在 {@link #getLock(String)} 获取的锁内读写，仅为兼容外部实现.
+   *
+   * @return 是否写入成功
+   */
+  default boolean setIfAbsent(String key, String value, int expire, TimeUnit timeUnit) {
+    Lock lock = this.getLock(key + ":lock");
+    lock.lock();
+    try {
+      if (this.getValue(key) != null) {
+        return false;
+      }
+      this.setValue(key, value, expire, timeUnit);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 批量执行 {@link #setIfAbsent(String, String, int, TimeUnit)}，内置实现会在一次往返（pipeline）中完成.
+   *
+   * @return 与keys一一对应的写入结果
+   */
+  default List<Boolean> setIfAbsent(List<String> keys, String value, int expire, TimeUnit timeUnit) {
+    List<Boolean> result = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      result.add(this.setIfAbsent(key, value, expire, timeUnit));
+    }
+    return result;
+  }
+
+  /**
+   * 计数加1，key不存在时从0开始并设置过期时间（INCR，首次时EXPIRE），用于分布式计数、限流等.
+   * 内置实现在一次往返中原子完成；默认实现在 {@link #getLock(String)} 获取的锁内读写，仅为兼容外部实现.
+   *
+   * @return 加1后的值
+   */
+  default long increment(String key, int expire, TimeUnit timeUnit) {
+    Lock lock = this.getLock(key + ":lock");
+    lock.lock();
+    try {
+      String value = this.getValue(key);
+      long count = (value == null ? 0 : Long.parseLong(value)) + 1;
+      Long ttl = count == 1 ? null : this.getExpire(key);
+      this.setValue(key, String.valueOf(count), ttl == null || ttl <= 0 ? expire : ttl.intValue(),
+        ttl == null || ttl <= 0 ? timeUnit : TimeUnit.SECONDS);
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
   Lock getLock(String key);
 }
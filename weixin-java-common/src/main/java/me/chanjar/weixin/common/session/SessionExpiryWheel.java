@@ -0,0 +1,102 @@
+package me.chanjar.weixin.common.session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <pre>
+ * 分层时间轮，用于 {@link ShardedSessionManager} 的session过期检查.
+ * 共三层，每层64个槽，第一层每槽一个tick，之后每层每槽是上一层一圈的时长；
+ * 到期时间超出最高层范围的任务先放在最高层，逐层下放时再按实际到期时间放置.
+ * 添加和到期处理都是O(1)（下放的开销分摊到每个任务上）.
+ * </pre>
+ */
+class SessionExpiryWheel {
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int LEVELS = 3;
+
+  private final long tickMillis;
+  private final long startTime;
+  private final List<List<Timeout>> slots = new ArrayList<>(LEVELS * SLOTS);
+  /**
+   * 已处理到的tick.
+   */
+  private long currentTick;
+
+  SessionExpiryWheel(long tickMillis, long startTime) {
+    this.tickMillis = tickMillis;
+    this.startTime = startTime;
+    for (int i = 0; i < LEVELS * SLOTS; i++) {
+      this.slots.add(new ArrayList<>());
+    }
+  }
+
+  synchronized void schedule(Timeout timeout) {
+    this.place(timeout, this.currentTick + 1);
+  }
+
+  /**
+   * 推进到指定时间，返回到期的任务.
+   */
+  synchronized List<Timeout> advance(long now) {
+    long targetTick = (now - this.startTime) / this.tickMillis;
+    List<Timeout> expired = null;
+    while (this.currentTick < targetTick) {
+      this.currentTick++;
+      // 从高层往低层下放本轮到期的槽
+      for (int level = LEVELS - 1; level > 0; level--) {
+        if ((this.currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+          List<Timeout> slot = this.slot(level, this.currentTick);
+          List<Timeout> cascaded = new ArrayList<>(slot);
+          slot.clear();
+          for (Timeout timeout : cascaded) {
+            this.place(timeout, this.currentTick);
+          }
+        }
+      }
+
+      List<Timeout> slot = this.slot(0, this.currentTick);
+      if (!slot.isEmpty()) {
+        if (expired == null) {
+          expired = new ArrayList<>();
+        }
+        expired.addAll(slot);
+        slot.clear();
+      }
+    }
+    return expired == null ? Collections.emptyList() : expired;
+  }
+
+  private void place(Timeout timeout, long minTick) {
+    long tick = Math.max((timeout.deadline - this.startTime + this.tickMillis - 1) / this.tickMillis, minTick);
+    long delta = tick - this.currentTick;
+    int level = 0;
+    while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+      level++;
+    }
+    long range = 1L << (SLOT_BITS * LEVELS);
+    if (delta >= range) {
+      // 超出时间轮范围，先放在最远的槽里，下放时再重新计算
+      tick = this.currentTick + range - 1;
+    }
+    this.slot(level, tick).add(timeout);
+  }
+
+  private List<Timeout> slot(int level, long tick) {
+    return this.slots.get(level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1)));
+  }
+
+  static final class Timeout {
+    final ShardedSessionManager.ShardedSession session;
+    final long version;
+    final long deadline;
+
+    Timeout(ShardedSessionManager.ShardedSession session, long version, long deadline) {
+      this.session = session;
+      this.version = version;
+      this.deadline = deadline;
+    }
+  }
+}
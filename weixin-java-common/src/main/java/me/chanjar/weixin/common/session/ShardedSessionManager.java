@@ -0,0 +1,469 @@
+package me.chanjar.weixin.common.session;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import me.chanjar.weixin.common.util.res.StringManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * 分段存储、按时间轮清理过期session的session manager，可选外部存储以支持集群.
+ * 1. session按id分散在多个分段中，每个分段各自加锁，互不影响；
+ * 2. 过期检查由分层时间轮（{@link SessionExpiryWheel}）按到期时间触发，不需要定时遍历全部session；
+ * 3. 统计数据使用 {@link LongAdder} 等原子类型；
+ * 4. 指定 {@link WxSessionStore}（如 {@link WxRedisSessionStore}）后，属性变化时同步写入外部存储，
+ *    本地没有的session会从外部存储加载，节点重启或切换后会话状态仍然可用；读取本地已有的session不访问外部存储.
+ *    集群中同一个用户的消息应尽量由同一个节点处理，各节点的本地session不会互相同步.
+ *
+ * 使用示例：router.setSessionManager(new ShardedSessionManager(new WxRedisSessionStore(new JedisWxRedisOps(jedisPool))))
+ * </pre>
+ */
+public class ShardedSessionManager implements WxSessionManager, InternalSessionManager {
+  protected static final StringManager SM = StringManager.getManager(Constants.PACKAGE);
+
+  protected final Logger log = LoggerFactory.getLogger(ShardedSessionManager.class);
+
+  private final Shard[] shards;
+  private final WxSessionStore store;
+  private final long tickMillis;
+  private final SessionExpiryWheel wheel;
+
+  private final AtomicInteger activeSessions = new AtomicInteger();
+  private final AtomicInteger maxActive = new AtomicInteger();
+  private final LongAdder sessionCounter = new LongAdder();
+  private final LongAdder rejectedSessions = new LongAdder();
+  private final LongAdder expiredSessions = new LongAdder();
+  private final LongAdder loadedSessions = new LongAdder();
+
+  /**
+   * 每个manager各自的过期检查线程，首次放入session时创建，外部存储的读写不会影响其他manager.
+   */
+  private volatile ScheduledExecutorService backgroundExecutor;
+  private volatile int maxActiveSessions = -1;
+  private volatile int maxInactiveInterval = 30 * 60;
+
+  public ShardedSessionManager() {
+    this(null);
+  }
+
+  /**
+   * @param store 外部存储，为null时只保存在本地
+   */
+  public ShardedSessionManager(WxSessionStore store) {
+    this(store, 16, 100L);
+  }
+
+  /**
+   * @param store      外部存储，为null时只保存在本地
+   * @param shardCount 分段数，会向上取整为2的幂
+   * @param tickMillis 时间轮每格的时长：毫秒，即过期检查的精度
+   */
+  public ShardedSessionManager(WxSessionStore store, int shardCount, long tickMillis) {
+    if (shardCount <= 0 || tickMillis <= 0) {
+      throw new IllegalArgumentException("shardCount和tickMillis必须大于0");
+    }
+    int size = Integer.highestOneBit(shardCount);
+    this.shards = new Shard[size < shardCount ? size << 1 : size];
+    for (int i = 0; i < this.shards.length; i++) {
+      this.shards[i] = new Shard();
+    }
+    this.store = store;
+    this.tickMillis = tickMillis;
+    this.wheel = new SessionExpiryWheel(tickMillis, System.currentTimeMillis());
+  }
+
+  @Override
+  public WxSession getSession(String sessionId) {
+    return this.getSession(sessionId, true);
+  }
+
+  @Override
+  public WxSession getSession(String sessionId, boolean create) {
+    if (sessionId == null) {
+      throw new IllegalStateException(SM.getString("sessionManagerImpl.getSession.ise"));
+    }
+
+    InternalSession session = this.findSession(sessionId);
+    if (session != null && !session.isValid()) {
+      session = null;
+    }
+    if (session == null) {
+      if (!create) {
+        return null;
+      }
+      session = this.createSession(sessionId);
+    }
+
+    session.access();
+    return session.getSession();
+  }
+
+  @Override
+  public InternalSession findSession(String id) {
+    if (id == null) {
+      return null;
+    }
+
+    Shard shard = this.shardOf(id);
+    ShardedSession session;
+    synchronized (shard) {
+      session = shard.sessions.get(id);
+    }
+    if (session != null || this.store == null) {
+      return session;
+    }
+    return this.loadFromStore(id);
+  }
+
+  @Override
+  public InternalSession createSession(String sessionId) {
+    if (sessionId == null) {
+      throw new IllegalStateException(SM.getString("sessionManagerImpl.createSession.ise"));
+    }
+
+    if (this.maxActiveSessions >= 0 && this.getActiveSessions() >= this.maxActiveSessions) {
+      this.rejectedSessions.increment();
+      throw new TooManyActiveSessionsException(SM.getString("sessionManagerImpl.createSession.tmase"),
+        this.maxActiveSessions);
+    }
+
+    InternalSession session = this.createEmptySession();
+    session.setValid(true);
+    session.setCreationTime(System.currentTimeMillis());
+    session.setMaxInactiveInterval(this.maxInactiveInterval);
+    // setId 会调用 add 把session放入分段
+    session.setId(sessionId);
+    this.sessionCounter.increment();
+    return session;
+  }
+
+  @Override
+  public void remove(InternalSession session) {
+    this.remove(session, false);
+  }
+
+  @Override
+  public void remove(InternalSession session, boolean update) {
+    String id = session.getIdInternal();
+    if (id == null) {
+      return;
+    }
+
+    Shard shard = this.shardOf(id);
+    boolean removed;
+    synchronized (shard) {
+      // 同一个id可能已经对应了新的session，只移除自己
+      removed = shard.sessions.remove(id, session);
+    }
+    if (!removed) {
+      return;
+    }
+
+    this.activeSessions.decrementAndGet();
+    if (update) {
+      this.expiredSessions.increment();
+      if (this.store != null) {
+        try {
+          this.store.delete(id);
+        } catch (RuntimeException e) {
+          this.log.warn("删除外部存储中的session失败，sessionId={}", id, e);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void add(InternalSession session) {
+    this.put((ShardedSession) session, false);
+  }
+
+  @Override
+  public int getActiveSessions() {
+    return this.activeSessions.get();
+  }
+
+  @Override
+  public InternalSession createEmptySession() {
+    return new ShardedSession(this);
+  }
+
+  @Override
+  public InternalSession[] findSessions() {
+    List<InternalSession> result = new ArrayList<>(this.getActiveSessions());
+    for (Shard shard : this.shards) {
+      synchronized (shard) {
+        result.addAll(shard.sessions.values());
+      }
+    }
+    return result.toArray(new InternalSession[0]);
+  }
+
+  /**
+   * 处理时间轮中已到期的过期检查，一般由后台线程调用.
+   */
+  @Override
+  public void backgroundProcess() {
+    for (SessionExpiryWheel.Timeout timeout : this.wheel.advance(System.currentTimeMillis())) {
+      this.checkExpiry(timeout);
+    }
+  }
+
+  @Override
+  public void setMaxInactiveInterval(int interval) {
+    this.maxInactiveInterval = interval;
+  }
+
+  /**
+   * 过期检查由时间轮按每个session的到期时间触发，该设置无效.
+   */
+  @Override
+  public void setProcessExpiresFrequency(int processExpiresFrequency) {
+  }
+
+  /**
+   * 过期检查的精度由构造方法中的tickMillis决定，该设置无效.
+   */
+  @Override
+  public void setBackgroundProcessorDelay(int backgroundProcessorDelay) {
+  }
+
+  @Override
+  public void setMaxActiveSessions(int max) {
+    this.maxActiveSessions = max;
+  }
+
+  /**
+   * 停止后台的过期检查并结束其线程，本地session不再自动清理.
+   * 未调用本方法的manager不再被引用后，其后台线程同样会自行结束.
+   */
+  public void shutdown() {
+    ScheduledExecutorService executor = this.backgroundExecutor;
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * @return 创建过的session数
+   */
+  public long getSessionCounter() {
+    return this.sessionCounter.sum();
+  }
+
+  /**
+   * @return 因超过最大活跃session数而创建失败的次数
+   */
+  public long getRejectedSessions() {
+    return this.rejectedSessions.sum();
+  }
+
+  /**
+   * @return 已过期（含主动失效）的session数
+   */
+  public long getExpiredSessions() {
+    return this.expiredSessions.sum();
+  }
+
+  /**
+   * @return 从外部存储加载的session数
+   */
+  public long getLoadedSessions() {
+    return this.loadedSessions.sum();
+  }
+
+  /**
+   * @return 同时活跃的session数的最大值
+   */
+  public int getMaxActive() {
+    return this.maxActive.get();
+  }
+
+  private ShardedSession put(ShardedSession session, boolean ifAbsent) {
+    Shard shard = this.shardOf(session.getIdInternal());
+    ShardedSession existing;
+    synchronized (shard) {
+      existing = shard.sessions.get(session.getIdInternal());
+      if (existing != null && ifAbsent) {
+        return existing;
+      }
+      shard.sessions.put(session.getIdInternal(), session);
+    }
+
+    if (existing == null) {
+      int size = this.activeSessions.incrementAndGet();
+      this.maxActive.accumulateAndGet(size, Math::max);
+    }
+    this.startBackgroundProcess();
+    this.scheduleExpiry(session);
+    return session;
+  }
+
+  private InternalSession loadFromStore(String id) {
+    Map<String, Object> attributes;
+    try {
+      attributes = this.store.load(id);
+    } catch (RuntimeException e) {
+      this.log.warn("从外部存储加载session失败，sessionId={}", id, e);
+      return null;
+    }
+    if (attributes == null) {
+      return null;
+    }
+
+    ShardedSession session = new ShardedSession(this);
+    session.attributes.putAll(attributes);
+    session.stored = true;
+    session.setValid(true);
+    session.setCreationTime(System.currentTimeMillis());
+    session.setMaxInactiveInterval(this.maxInactiveInterval);
+    // 直接设置id，避免 setId 无条件覆盖其他线程刚放入的session
+    session.id = id;
+    ShardedSession result = this.put(session, true);
+    if (result == session) {
+      this.loadedSessions.increment();
+    }
+    return result;
+  }
+
+  void saveToStore(ShardedSession session) {
+    if (this.store == null || session.getIdInternal() == null || !session.isValidInternal()) {
+      return;
+    }
+
+    try {
+      this.store.save(session.getIdInternal(), new HashMap<>(session.attributes), session.maxInactiveInterval);
+      session.stored = true;
+    } catch (RuntimeException e) {
+      this.log.warn("保存session到外部存储失败，sessionId={}", session.getIdInternal(), e);
+    }
+  }
+
+  /**
+   * 安排下一次过期检查：最迟在最大不活跃时间到达时，且至少每半个最大不活跃时间检查一次，以便及时延长外部存储中的过期时间.
+   */
+  void scheduleExpiry(ShardedSession session) {
+    long version = session.expiryVersion.incrementAndGet();
+    int interval = session.maxInactiveInterval;
+    if (interval <= 0) {
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    long intervalMillis = TimeUnit.SECONDS.toMillis(interval);
+    // 正在使用中的session可能已超过最大不活跃时间，至少间隔一格再检查
+    long deadline = Math.max(Math.min(session.thisAccessedTime + intervalMillis, now + intervalMillis / 2),
+      now + this.tickMillis);
+    this.wheel.schedule(new SessionExpiryWheel.Timeout(session, version, deadline));
+  }
+
+  private void checkExpiry(SessionExpiryWheel.Timeout timeout) {
+    ShardedSession session = timeout.session;
+    if (timeout.version != session.expiryVersion.get()) {
+      // 之后已重新安排过检查
+      return;
+    }
+
+    // isValid 会让已超过最大不活跃时间的session过期
+    if (!session.isValid()) {
+      return;
+    }
+
+    this.scheduleExpiry(session);
+    if (this.store != null && session.stored) {
+      try {
+        this.store.touch(session.getIdInternal(), session.maxInactiveInterval);
+      } catch (RuntimeException e) {
+        this.log.warn("延长外部存储中session的过期时间失败，sessionId={}", session.getIdInternal(), e);
+      }
+    }
+  }
+
+  private void startBackgroundProcess() {
+    if (this.backgroundExecutor != null) {
+      return;
+    }
+
+    synchronized (this) {
+      if (this.backgroundExecutor == null) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setNameFormat("WxSessionExpiry-%d").setDaemon(true).build());
+        // 后台任务只弱引用manager，manager不再被使用后线程随之结束，不会因此无法回收
+        WeakReference<ShardedSessionManager> managerRef = new WeakReference<>(this);
+        Logger logger = this.log;
+        executor.scheduleWithFixedDelay(() -> {
+          ShardedSessionManager manager = managerRef.get();
+          if (manager == null) {
+            executor.shutdown();
+            return;
+          }
+          try {
+            manager.backgroundProcess();
+          } catch (RuntimeException e) {
+            logger.error("ShardedSessionManager.backgroundProcess error", e);
+          }
+        }, this.tickMillis, this.tickMillis, TimeUnit.MILLISECONDS);
+        this.backgroundExecutor = executor;
+      }
+    }
+  }
+
+  private Shard shardOf(String id) {
+    int hash = id.hashCode();
+    return this.shards[(hash ^ (hash >>> 16)) & (this.shards.length - 1)];
+  }
+
+  private static final class Shard {
+    private final Map<String, ShardedSession> sessions = new HashMap<>();
+  }
+
+  static class ShardedSession extends StandardSession {
+    private final ShardedSessionManager manager;
+    /**
+     * 过期检查的版本，重新安排检查后之前的检查作废.
+     */
+    private final AtomicLong expiryVersion = new AtomicLong();
+    /**
+     * 是否已写入外部存储.
+     */
+    private volatile boolean stored;
+
+    ShardedSession(ShardedSessionManager manager) {
+      super(manager);
+      this.manager = manager;
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+      super.setAttribute(name, value);
+      if (value != null) {
+        this.manager.saveToStore(this);
+      }
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+      super.removeAttribute(name);
+      this.manager.saveToStore(this);
+    }
+
+    @Override
+    public void setMaxInactiveInterval(int interval) {
+      super.setMaxInactiveInterval(interval);
+      if (this.id != null) {
+        this.manager.scheduleExpiry(this);
+      }
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package me.chanjar.weixin.common.session;
+
+import lombok.NonNull;
+import me.chanjar.weixin.common.redis.WxRedisOps;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * 基于 {@link WxRedisOps} 的session存储.
+ * 属性以Java序列化后Base64编码的形式保存，因此属性值须实现 {@link java.io.Serializable}.
+ * 反序列化时只接受白名单内的类：默认为字符串、基本类型包装类、日期及常用集合，
+ * 其他属性类型需通过构造方法的 allowedClassPrefixes 显式放行（如 "com.example.session."）.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class WxRedisSessionStore implements WxSessionStore {
+  private static final Set<String> DEFAULT_ALLOWED_CLASSES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+    "java.lang.String", "java.lang.Boolean", "java.lang.Character", "java.lang.Number", "java.lang.Byte",
+    "java.lang.Short", "java.lang.Integer", "java.lang.Long", "java.lang.Float", "java.lang.Double",
+    "java.lang.Enum", "java.math.BigInteger", "java.math.BigDecimal", "java.util.Date",
+    "java.util.HashMap", "java.util.LinkedHashMap", "java.util.ArrayList", "java.util.LinkedList",
+    "java.util.HashSet", "java.util.LinkedHashSet")));
+
+  private final WxRedisOps redisOps;
+  private final String keyPrefix;
+  private final String[] allowedClassPrefixes;
+
+  public WxRedisSessionStore(@NonNull WxRedisOps redisOps) {
+    this(redisOps, "wx:session");
+  }
+
+  /**
+   * @param allowedClassPrefixes 额外允许反序列化的类名或包名前缀
+   */
+  public WxRedisSessionStore(@NonNull WxRedisOps redisOps, @NonNull String keyPrefix, String... allowedClassPrefixes) {
+    this.redisOps = redisOps;
+    this.keyPrefix = keyPrefix;
+    this.allowedClassPrefixes = allowedClassPrefixes.clone();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Map<String, Object> load(String sessionId) {
+    String value = this.redisOps.getValue(this.keyOf(sessionId));
+    if (value == null) {
+      return null;
+    }
+
+    try (ObjectInputStream in = new AllowlistObjectInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(value)))) {
+      return (Map<String, Object>) in.readObject();
+    } catch (IOException | ClassNotFoundException e) {
+      throw new IllegalStateException("session属性反序列化失败，sessionId=" + sessionId, e);
+    }
+  }
+
+  @Override
+  public void save(String sessionId, Map<String, Object> attributes, int maxInactiveInterval) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(new HashMap<>(attributes));
+    } catch (IOException e) {
+      throw new IllegalStateException("session属性序列化失败，sessionId=" + sessionId, e);
+    }
+    this.redisOps.setValue(this.keyOf(sessionId), Base64.getEncoder().encodeToString(bytes.toByteArray()),
+      maxInactiveInterval, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void touch(String sessionId, int maxInactiveInterval) {
+    this.redisOps.expire(this.keyOf(sessionId), maxInactiveInterval, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void delete(String sessionId) {
+    // 过期时间为0时redis会直接删除该key
+    this.redisOps.expire(this.keyOf(sessionId), 0, TimeUnit.SECONDS);
+  }
+
+  private String keyOf(String sessionId) {
+    return this.keyPrefix + ":" + sessionId;
+  }
+
+  private boolean isAllowed(String className) {
+    // 数组按元素类型判断，如 [Ljava.lang.String; 、[I
+    String name = className.replaceFirst("^\\[+", "");
+    if (name.length() == 1) {
+      return true;
+    }
+    if (name.startsWith("L") && name.endsWith(";")) {
+      name = name.substring(1, name.length() - 1);
+    }
+    if (DEFAULT_ALLOWED_CLASSES.contains(name)) {
+      return true;
+    }
+    for (String prefix : this.allowedClassPrefixes) {
+      if (name.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 只解析白名单内类的 {@link ObjectInputStream}，避免redis中被篡改的数据触发反序列化漏洞.
+   */
+  private class AllowlistObjectInputStream extends ObjectInputStream {
+    AllowlistObjectInputStream(InputStream in) throws IOException {
+      super(in);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      if (!isAllowed(desc.getName())) {
+        throw new InvalidClassException(desc.getName(), "不在session属性反序列化白名单内");
+      }
+      return super.resolveClass(desc);
+    }
+  }
+}
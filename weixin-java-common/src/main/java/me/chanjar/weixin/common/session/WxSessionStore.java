@@ -0,0 +1,47 @@
+package me.chanjar.weixin.common.session;
+
+import java.util.Map;
+
+/**
+ * <pre>
+ * session的外部存储，供 {@link ShardedSessionManager} 使用，使会话状态在节点重启或切换后仍然可用.
+ * 读取session时优先使用本地缓存，只有本地没有时才会访问外部存储；属性变化时同步写入.
+ * 实现应自行处理超时等异常，抛出的异常只会被记录，不影响本地session的使用.
+ * </pre>
+ *
+ * @see WxRedisSessionStore
+ */
+public interface WxSessionStore {
+
+  /**
+   * 读取session的属性.
+   *
+   * @param sessionId session id
+   * @return 属性，session不存在时返回null
+   */
+  Map<String, Object> load(String sessionId);
+
+  /**
+   * 保存session的属性.
+   *
+   * @param sessionId           session id
+   * @param attributes          属性
+   * @param maxInactiveInterval 最大不活跃时间：秒，小于等于0时不过期
+   */
+  void save(String sessionId, Map<String, Object> attributes, int maxInactiveInterval);
+
+  /**
+   * session仍在使用，延长其过期时间.
+   *
+   * @param sessionId           session id
+   * @param maxInactiveInterval 最大不活跃时间：秒
+   */
+  void touch(String sessionId, int maxInactiveInterval);
+
+  /**
+   * 删除session.
+   *
+   * @param sessionId session id
+   */
+  void delete(String sessionId);
+}
@@ -1,8 +1,11 @@
 package me.chanjar.weixin.common.util.crypto;
 
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Arrays;
 
 /**
@@ -11,6 +14,7 @@ import java.util.Arrays;
  * @date 14/10/19
  */
 public class SHA1 {
+  private static final ThreadLocal<MessageDigest> DIGEST_LOCAL = ThreadLocal.withInitial(DigestUtils::getSha1Digest);
 
   /**
    * 串接arr参数，生成sha1 digest.
@@ -21,11 +25,13 @@ public class SHA1 {
     }
 
     Arrays.sort(arr);
-    StringBuilder sb = new StringBuilder();
+    // 逐段计算摘要，不再拼接成一个大字符串
+    MessageDigest digest = DIGEST_LOCAL.get();
+    digest.reset();
     for (String a : arr) {
-      sb.append(a);
+      digest.update(a.getBytes(StandardCharsets.UTF_8));
     }
-    return DigestUtils.sha1Hex(sb.toString());
+    return Hex.encodeHexString(digest.digest());
   }
 
   /**
@@ -1,16 +1,20 @@
 package me.chanjar.weixin.common.util.crypto;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.security.GeneralSecurityException;
 import java.util.Random;
+import java.util.function.Function;
 import javax.crypto.Cipher;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import com.google.common.base.CharMatcher;
 import com.google.common.io.BaseEncoding;
@@ -18,9 +22,6 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import me.chanjar.weixin.common.error.WxRuntimeException;
 import org.apache.commons.codec.binary.Base64;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.xml.sax.InputSource;
 
 /**
  * <pre>
@@ -38,21 +39,35 @@ public class WxCryptUtil {
   private static final Base64 BASE64 = new Base64();
   private static final Charset CHARSET = StandardCharsets.UTF_8;
 
-  private static final ThreadLocal<DocumentBuilder> BUILDER_LOCAL = ThreadLocal.withInitial(() -> {
+  /**
+   * 缓存的解密结果缓冲区最大长度，超过的不再缓存，避免长期占用内存.
+   */
+  private static final int MAX_CACHED_BUFFER_SIZE = 64 * 1024;
+
+  private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+  /**
+   * 每个线程复用一个Cipher，相同密钥再次init时不会重新计算密钥扩展.
+   */
+  private static final ThreadLocal<Cipher> CIPHER_LOCAL = ThreadLocal.withInitial(() -> {
     try {
-      final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-      factory.setExpandEntityReferences(false);
-      factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-      return factory.newDocumentBuilder();
-    } catch (ParserConfigurationException exc) {
-      throw new IllegalArgumentException(exc);
+      return Cipher.getInstance("AES/CBC/NoPadding");
+    } catch (GeneralSecurityException e) {
+      throw new WxRuntimeException(e);
     }
   });
 
+  /**
+   * 每个线程复用的解密结果缓冲区，使用中时为null.
+   */
+  private static final ThreadLocal<byte[]> BUFFER_LOCAL = new ThreadLocal<>();
+
   protected byte[] aesKey;
   protected String token;
   protected String appidOrCorpid;
 
+  private volatile KeySpec keySpec;
+
   public WxCryptUtil() {
   }
 
@@ -69,18 +84,45 @@ public class WxCryptUtil {
     this.aesKey = Base64.decodeBase64(CharMatcher.whitespace().removeFrom(encodingAesKey));
   }
 
+  private static XMLInputFactory createXmlInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  }
+
   private static String extractEncryptPart(String xml) {
     try {
-      DocumentBuilder db = BUILDER_LOCAL.get();
-      Document document = db.parse(new InputSource(new StringReader(xml)));
+      return extractEncryptPart(XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml)));
+    } catch (XMLStreamException e) {
+      throw new WxRuntimeException(e);
+    }
+  }
 
-      Element root = document.getDocumentElement();
-      return root.getElementsByTagName("Encrypt").item(0).getTextContent();
-    } catch (Exception e) {
+  private static String extractEncryptPart(InputStream xml) {
+    try {
+      return extractEncryptPart(XML_INPUT_FACTORY.createXMLStreamReader(xml));
+    } catch (XMLStreamException e) {
       throw new WxRuntimeException(e);
     }
   }
 
+  /**
+   * 顺序读取到Encrypt节点即返回，不构建完整的DOM.
+   */
+  private static String extractEncryptPart(XMLStreamReader reader) throws XMLStreamException {
+    try {
+      while (reader.hasNext()) {
+        if (reader.next() == XMLStreamConstants.START_ELEMENT && "Encrypt".equals(reader.getLocalName())) {
+          return reader.getElementText();
+        }
+      }
+    } finally {
+      reader.close();
+    }
+    throw new WxRuntimeException("消息中未找到Encrypt节点");
+  }
+
   /**
    * 将一个数字转换成生成4个字节的网络字节序bytes数组.
    */
@@ -96,11 +138,11 @@ public class WxCryptUtil {
   /**
    * 4个字节的网络字节序bytes数组还原成一个数字.
    */
-  private static int bytesNetworkOrder2Number(byte[] bytesInNetworkOrder) {
+  private static int bytesNetworkOrder2Number(byte[] bytesInNetworkOrder, int offset) {
     int sourceNumber = 0;
     for (int i = 0; i < 4; i++) {
       sourceNumber <<= 8;
-      sourceNumber |= bytesInNetworkOrder[i] & 0xff;
+      sourceNumber |= bytesInNetworkOrder[offset + i] & 0xff;
     }
     return sourceNumber;
   }
@@ -210,10 +252,9 @@ public class WxCryptUtil {
 
     try {
       // 设置加密模式为AES的CBC模式
-      Cipher cipher = Cipher.getInstance("AES/CBC/NoPadding");
-      SecretKeySpec keySpec = new SecretKeySpec(this.aesKey, "AES");
-      IvParameterSpec iv = new IvParameterSpec(this.aesKey, 0, 16);
-      cipher.init(Cipher.ENCRYPT_MODE, keySpec, iv);
+      KeySpec spec = this.keySpec();
+      Cipher cipher = CIPHER_LOCAL.get();
+      cipher.init(Cipher.ENCRYPT_MODE, spec.key, spec.iv);
 
       // 加密
       byte[] encrypted = cipher.doFinal(unencrypted);
@@ -246,6 +287,40 @@ public class WxCryptUtil {
     return decryptContent(msgSignature, timeStamp, nonce, cipherText);
   }
 
+  /**
+   * 检验消息的真实性，并且获取解密后的明文.
+   * 从输入流中读到Encrypt节点即停止，不需要先把请求体读成字符串.
+   *
+   * @param msgSignature 签名串，对应URL参数的msg_signature
+   * @param timeStamp    时间戳，对应URL参数的timestamp
+   * @param nonce        随机串，对应URL参数的nonce
+   * @param encryptedXml 包含 Encrypt 密文的 xml 输入流，对应POST请求的数据
+   * @return 解密后的原文
+   */
+  public String decryptXml(String msgSignature, String timeStamp, String nonce, InputStream encryptedXml) {
+    String cipherText = extractEncryptPart(encryptedXml);
+    return decryptContent(msgSignature, timeStamp, nonce, cipherText);
+  }
+
+  /**
+   * 检验消息的真实性，解密后直接把明文字节交给解析器.
+   * 从输入流中读到Encrypt节点即停止，不需要先把请求体读成字符串；
+   * 明文在当前线程复用的缓冲区中，解析器返回后即失效，不能在解析器之外保留该输入流.
+   *
+   * @param msgSignature 签名串，对应URL参数的msg_signature
+   * @param timeStamp    时间戳，对应URL参数的timestamp
+   * @param nonce        随机串，对应URL参数的nonce
+   * @param encryptedXml 包含 Encrypt 密文的 xml 输入流，对应POST请求的数据
+   * @param parser       明文xml的解析器
+   * @return 解析结果
+   */
+  public <T> T decryptXml(String msgSignature, String timeStamp, String nonce, InputStream encryptedXml,
+                          Function<InputStream, T> parser) {
+    String cipherText = extractEncryptPart(encryptedXml);
+    this.checkSignature(msgSignature, timeStamp, nonce, cipherText);
+    return this.decrypt(cipherText, (bytes, offset, length) -> parser.apply(new ByteArrayInputStream(bytes, offset, length)));
+  }
+
   /**
    * 检验消息的真实性，并且获取解密后的明文.
    * <ol>
@@ -282,12 +357,16 @@ public class WxCryptUtil {
    */
   public String decryptContent(String msgSignature, String timeStamp, String nonce, String encryptedContent) {
     // 验证安全签名
+    this.checkSignature(msgSignature, timeStamp, nonce, encryptedContent);
+    // 解密
+    return decrypt(encryptedContent);
+  }
+
+  private void checkSignature(String msgSignature, String timeStamp, String nonce, String encryptedContent) {
     String signature = SHA1.gen(this.token, timeStamp, nonce, encryptedContent);
     if (!signature.equals(msgSignature)) {
       throw new WxRuntimeException("加密消息签名校验失败");
     }
-    // 解密
-    return decrypt(encryptedContent);
   }
 
   /**
@@ -297,47 +376,92 @@ public class WxCryptUtil {
    * @return 解密得到的明文
    */
   public String decrypt(String cipherText) {
-    byte[] original;
-    try {
-      // 设置解密模式为AES的CBC模式
-      Cipher cipher = Cipher.getInstance("AES/CBC/NoPadding");
-      SecretKeySpec keySpec = new SecretKeySpec(this.aesKey, "AES");
-      IvParameterSpec iv = new IvParameterSpec(Arrays.copyOfRange(this.aesKey, 0, 16));
-      cipher.init(Cipher.DECRYPT_MODE, keySpec, iv);
+    return this.decrypt(cipherText, (bytes, offset, length) -> new String(bytes, offset, length, CHARSET));
+  }
 
-      // 使用BASE64对密文进行解码
-      byte[] encrypted = Base64.decodeBase64(cipherText);
+  /**
+   * 解密到当前线程复用的缓冲区，再把其中的明文xml部分交给handler处理.
+   */
+  private <T> T decrypt(String cipherText, PlainTextHandler<T> handler) {
+    // 使用BASE64对密文进行解码
+    byte[] encrypted = Base64.decodeBase64(cipherText);
 
-      // 解密
-      original = cipher.doFinal(encrypted);
-    } catch (Exception e) {
-      throw new WxRuntimeException(e);
+    byte[] buffer = BUFFER_LOCAL.get();
+    if (buffer == null || buffer.length < encrypted.length) {
+      buffer = new byte[Math.max(encrypted.length, 4096)];
     }
-
-    String xmlContent;
-    String fromAppid;
+    // 嵌套调用时不会拿到正在使用的缓冲区
+    BUFFER_LOCAL.set(null);
     try {
-      // 去除补位字符
-      byte[] bytes = PKCS7Encoder.decode(original);
+      int length;
+      try {
+        // 设置解密模式为AES的CBC模式
+        KeySpec spec = this.keySpec();
+        Cipher cipher = CIPHER_LOCAL.get();
+        cipher.init(Cipher.DECRYPT_MODE, spec.key, spec.iv);
+
+        // 解密
+        length = cipher.doFinal(encrypted, 0, encrypted.length, buffer, 0);
+      } catch (Exception e) {
+        throw new WxRuntimeException(e);
+      }
+
+      // 去除补位字符，与 PKCS7Encoder.decode 一致
+      int pad = length > 0 ? buffer[length - 1] : 0;
+      if (pad < 1 || pad > 32) {
+        pad = 0;
+      }
+      int end = length - pad;
 
       // 分离16位随机字符串,网络字节序和AppId
-      byte[] networkOrder = Arrays.copyOfRange(bytes, 16, 20);
-
-      int xmlLength = bytesNetworkOrder2Number(networkOrder);
-
-      xmlContent = new String(Arrays.copyOfRange(bytes, 20, 20 + xmlLength), CHARSET);
-      fromAppid = new String(Arrays.copyOfRange(bytes, 20 + xmlLength, bytes.length), CHARSET);
-    } catch (Exception e) {
-      throw new WxRuntimeException(e);
+      if (end < 20) {
+        throw new WxRuntimeException("解密后的消息长度不正确");
+      }
+      int xmlLength = bytesNetworkOrder2Number(buffer, 16);
+      if (xmlLength < 0 || xmlLength > end - 20) {
+        throw new WxRuntimeException("解密后的消息长度不正确");
+      }
+
+      // appid不相同的情况 暂时忽略这段判断
+      //    if (!fromAppid.equals(this.appidOrCorpid)) {
+      //      throw new WxRuntimeException("AppID不正确，请核实！");
+      //    }
+
+      return handler.handle(buffer, 20, xmlLength);
+    } finally {
+      if (buffer.length <= MAX_CACHED_BUFFER_SIZE) {
+        BUFFER_LOCAL.set(buffer);
+      }
     }
+  }
 
-    // appid不相同的情况 暂时忽略这段判断
-    //    if (!fromAppid.equals(this.appidOrCorpid)) {
-    //      throw new WxRuntimeException("AppID不正确，请核实！");
-    //    }
+  private KeySpec keySpec() {
+    KeySpec spec = this.keySpec;
+    if (spec == null || spec.aesKey != this.aesKey) {
+      spec = new KeySpec(this.aesKey);
+      this.keySpec = spec;
+    }
+    return spec;
+  }
 
-    return xmlContent;
+  /**
+   * 由aesKey生成的密钥和iv，aesKey不变时复用.
+   */
+  private static class KeySpec {
+    private final byte[] aesKey;
+    private final SecretKeySpec key;
+    private final IvParameterSpec iv;
+
+    KeySpec(byte[] aesKey) {
+      this.aesKey = aesKey;
+      this.key = new SecretKeySpec(aesKey, "AES");
+      this.iv = new IvParameterSpec(aesKey, 0, 16);
+    }
+  }
 
+  @FunctionalInterface
+  private interface PlainTextHandler<T> {
+    T handle(byte[] bytes, int offset, int length);
   }
 
   @Data
@@ -0,0 +1,225 @@
+package me.chanjar.weixin.common.util.http;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import me.chanjar.weixin.common.api.WxRetryPolicy;
+import me.chanjar.weixin.common.error.WxErrorException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <pre>
+ * 异步请求的公共支持方法.
+ *
+ * 对于底层http客户端本身不支持非阻塞调用的执行器（如apache httpclient、jodd-http），
+ * 异步请求会在一个共享的线程池中执行，可通过{@link #setBlockingExecutor(Executor)}替换.
+ * 默认线程池的线程数及等待队列长度均有上限，队列已满时新的请求不会排队，返回的future直接以{@link RejectedExecutionException}失败.
+ * 需要延迟执行的重试由一个共享的调度线程计时，到期后再交给上述线程池执行，调度线程本身不执行任何请求.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+@Slf4j
+public final class AsyncRequestSupport {
+  private static volatile Executor blockingExecutor;
+
+  private AsyncRequestSupport() {
+  }
+
+  /**
+   * 可抛出受检异常的结果提供者.
+   *
+   * @param <T> 结果类型
+   */
+  @FunctionalInterface
+  public interface CheckedSupplier<T> {
+    T get() throws Exception;
+  }
+
+  /**
+   * 替换执行阻塞请求的线程池.
+   *
+   * @param executor 线程池
+   */
+  public static void setBlockingExecutor(Executor executor) {
+    blockingExecutor = executor;
+  }
+
+  /**
+   * @return 执行阻塞请求的线程池
+   */
+  public static Executor getBlockingExecutor() {
+    Executor executor = blockingExecutor;
+    return executor != null ? executor : DefaultExecutors.BLOCKING;
+  }
+
+  /**
+   * 在阻塞请求线程池中执行.
+   */
+  public static <T> CompletableFuture<T> supplyAsync(CheckedSupplier<T> supplier) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    try {
+      getBlockingExecutor().execute(() -> complete(future, supplier));
+    } catch (Exception e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  /**
+   * 在当前线程中执行，并将结果或异常包装为已完成的future.
+   */
+  public static <T> CompletableFuture<T> supply(CheckedSupplier<T> supplier) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    complete(future, supplier);
+    return future;
+  }
+
+  public static <T> CompletableFuture<T> failedFuture(Throwable e) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(e);
+    return future;
+  }
+
+  /**
+   * 去掉{@link CompletionException}等包装，得到实际的异常.
+   */
+  public static Throwable unwrap(Throwable e) {
+    while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+      e = e.getCause();
+    }
+    return e;
+  }
+
+  /**
+   * <pre>
+   * 异步执行请求，失败时按重试策略延迟重试，与同步的execute方法语义一致.
+   * 延迟通过共享的调度线程实现，等待期间不占用任何线程.
+   * </pre>
+   *
+   * @param attempt        执行一次请求
+   * @param retryPolicy    重试策略
+   * @param accountKey     账号标识，用于按账号限制重试预算
+   * @param deadline       请求的截止时间戳（毫秒），0表示不限制
+   * @param exhaustedError 可重试的错误不再重试时返回给调用方的异常
+   * @return 请求结果
+   */
+  public static <T> CompletableFuture<T> retry(Supplier<CompletableFuture<T>> attempt, WxRetryPolicy retryPolicy,
+                                               String accountKey, long deadline,
+                                               Function<WxErrorException, ? extends Throwable> exhaustedError) {
+    return retry(attempt, retryPolicy, accountKey, deadline, exhaustedError, null);
+  }
+
+  /**
+   * 同 {@link #retry(Supplier, WxRetryPolicy, String, long, Function)}，每次发起重试前回调 onRetry.
+   *
+   * @param onRetry 发起重试前的回调，可为null
+   */
+  public static <T> CompletableFuture<T> retry(Supplier<CompletableFuture<T>> attempt, WxRetryPolicy retryPolicy,
+                                               String accountKey, long deadline,
+                                               Function<WxErrorException, ? extends Throwable> exhaustedError,
+                                               Runnable onRetry) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    new RetryingAttempt<>(result, attempt, retryPolicy, accountKey, deadline, exhaustedError, onRetry).run(0);
+    return result;
+  }
+
+  @RequiredArgsConstructor
+  private static class RetryingAttempt<T> {
+    private final CompletableFuture<T> result;
+    private final Supplier<CompletableFuture<T>> attempt;
+    private final WxRetryPolicy retryPolicy;
+    private final String accountKey;
+    private final long deadline;
+    private final Function<WxErrorException, ? extends Throwable> exhaustedError;
+    private final Runnable onRetry;
+
+    private void run(int retryTimes) {
+      CompletableFuture<T> future;
+      try {
+        future = this.attempt.get();
+      } catch (Exception e) {
+        future = failedFuture(e);
+      }
+
+      future.whenComplete((value, throwable) -> {
+        if (throwable == null) {
+          this.result.complete(value);
+          return;
+        }
+
+        Throwable e = unwrap(throwable);
+        if (!(e instanceof WxErrorException) || !this.retryPolicy.isRetryable(((WxErrorException) e).getError())) {
+          this.result.completeExceptionally(e);
+          return;
+        }
+
+        long sleepMillis = this.retryPolicy.nextRetryDelay(this.accountKey, retryTimes, this.deadline);
+        if (sleepMillis < 0) {
+          log.warn("重试达到最大次数【{}】", retryTimes);
+          this.result.completeExceptionally(this.exhaustedError.apply((WxErrorException) e));
+          return;
+        }
+
+        log.warn("微信系统繁忙，{} ms 后重试(第{}次)", sleepMillis, retryTimes + 1);
+        if (this.onRetry != null) {
+          this.onRetry.run();
+        }
+        try {
+          DefaultExecutors.SCHEDULER.schedule(() -> this.resubmit(retryTimes + 1), sleepMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception ex) {
+          this.result.completeExceptionally(ex);
+        }
+      });
+    }
+
+    /**
+     * 到期的重试交给阻塞请求线程池执行，发起请求前读取access_token等操作可能阻塞，不能占用调度线程.
+     */
+    private void resubmit(int retryTimes) {
+      try {
+        getBlockingExecutor().execute(() -> this.run(retryTimes));
+      } catch (Exception e) {
+        this.result.completeExceptionally(e);
+      }
+    }
+  }
+
+  private static <T> void complete(CompletableFuture<T> future, CheckedSupplier<T> supplier) {
+    try {
+      future.complete(supplier.get());
+    } catch (Throwable e) {
+      future.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * 延迟初始化的默认线程池，未使用异步接口时不会创建任何线程.
+   */
+  private static class DefaultExecutors {
+    private static final int BLOCKING_THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+
+    /**
+     * 等待队列已满时拒绝（AbortPolicy），由提交方将future以RejectedExecutionException失败.
+     */
+    private static final Executor BLOCKING = new ThreadPoolExecutor(BLOCKING_THREADS, BLOCKING_THREADS,
+      60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(BLOCKING_THREADS * 128),
+      new ThreadFactoryBuilder().setNameFormat("WxAsyncRequest-pool-%d").setDaemon(true).build(),
+      new ThreadPoolExecutor.AbortPolicy());
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setNameFormat("WxAsyncRetry-scheduler-%d").setDaemon(true).build());
+  }
+}
@@ -4,6 +4,7 @@ import me.chanjar.weixin.common.enums.WxType;
 import me.chanjar.weixin.common.error.WxErrorException;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * http请求执行器.
@@ -37,4 +38,17 @@ public interface RequestExecutor<T, E> {
    * @throws IOException      io异常
    */
   void execute(String uri, E data, ResponseHandler<T> handler, WxType wxType) throws WxErrorException, IOException;
+
+  /**
+   * 异步执行http请求.
+   * 默认在{@link AsyncRequestSupport#getBlockingExecutor()}中调用同步的execute方法，底层客户端支持非阻塞调用的执行器可覆盖本方法.
+   *
+   * @param uri    uri
+   * @param data   数据
+   * @param wxType 微信模块类型
+   * @return 响应结果，失败时以{@link WxErrorException}或{@link IOException}异常完成
+   */
+  default CompletableFuture<T> executeAsync(String uri, E data, WxType wxType) {
+    return AsyncRequestSupport.supplyAsync(() -> this.execute(uri, data, wxType));
+  }
 }
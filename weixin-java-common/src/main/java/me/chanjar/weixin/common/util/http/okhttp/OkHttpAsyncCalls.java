@@ -0,0 +1,57 @@
+package me.chanjar.weixin.common.util.http.okhttp;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 基于okhttp enqueue的非阻塞调用.
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+final class OkHttpAsyncCalls {
+  private OkHttpAsyncCalls() {
+  }
+
+  /**
+   * 异步发送请求，完成时返回响应内容字符串.
+   *
+   * @param client  okhttp客户端
+   * @param request 请求
+   * @return 响应内容
+   */
+  static CompletableFuture<String> enqueue(OkHttpClient client, Request request) {
+    CompletableFuture<String> future = new CompletableFuture<>();
+    Call call = client.newCall(request);
+    call.enqueue(new Callback() {
+      @Override
+      public void onFailure(@NotNull Call call, @NotNull IOException e) {
+        future.completeExceptionally(e);
+      }
+
+      @Override
+      public void onResponse(@NotNull Call call, @NotNull Response response) {
+        try (ResponseBody body = response.body()) {
+          future.complete(body == null ? "" : body.string());
+        } catch (IOException e) {
+          future.completeExceptionally(e);
+        }
+      }
+    });
+
+    // 调用方取消future时同时取消底层请求
+    future.whenComplete((result, e) -> {
+      if (future.isCancelled()) {
+        call.cancel();
+      }
+    });
+    return future;
+  }
+}
@@ -2,6 +2,7 @@ package me.chanjar.weixin.common.util.http.okhttp;
 
 import me.chanjar.weixin.common.enums.WxType;
 import me.chanjar.weixin.common.error.WxErrorException;
+import me.chanjar.weixin.common.util.http.AsyncRequestSupport;
 import me.chanjar.weixin.common.util.http.RequestHttp;
 import me.chanjar.weixin.common.util.http.SimpleGetRequestExecutor;
 import okhttp3.OkHttpClient;
@@ -9,6 +10,7 @@ import okhttp3.Request;
 import okhttp3.Response;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * .
@@ -23,18 +25,28 @@ public class OkHttpSimpleGetRequestExecutor extends SimpleGetRequestExecutor<OkH
 
   @Override
   public String execute(String uri, String queryParam, WxType wxType) throws WxErrorException, IOException {
+    //得到httpClient
+    OkHttpClient client = requestHttp.getRequestHttpClient();
+    Request request = new Request.Builder().url(buildUri(uri, queryParam)).build();
+    Response response = client.newCall(request).execute();
+    return this.handleResponse(wxType, response.body().string());
+  }
+
+  @Override
+  public CompletableFuture<String> executeAsync(String uri, String queryParam, WxType wxType) {
+    Request request = new Request.Builder().url(buildUri(uri, queryParam)).build();
+    return OkHttpAsyncCalls.enqueue(requestHttp.getRequestHttpClient(), request)
+      .thenCompose(responseContent -> AsyncRequestSupport.supply(() -> this.handleResponse(wxType, responseContent)));
+  }
+
+  private static String buildUri(String uri, String queryParam) {
     if (queryParam != null) {
       if (uri.indexOf('?') == -1) {
         uri += '?';
       }
       uri += uri.endsWith("?") ? queryParam : '&' + queryParam;
     }
-
-    //得到httpClient
-    OkHttpClient client = requestHttp.getRequestHttpClient();
-    Request request = new Request.Builder().url(uri).build();
-    Response response = client.newCall(request).execute();
-    return this.handleResponse(wxType, response.body().string());
+    return uri;
   }
 
 }
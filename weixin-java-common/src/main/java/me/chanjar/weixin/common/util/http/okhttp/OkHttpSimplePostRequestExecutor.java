@@ -3,12 +3,14 @@ package me.chanjar.weixin.common.util.http.okhttp;
 import lombok.extern.slf4j.Slf4j;
 import me.chanjar.weixin.common.enums.WxType;
 import me.chanjar.weixin.common.error.WxErrorException;
+import me.chanjar.weixin.common.util.http.AsyncRequestSupport;
 import me.chanjar.weixin.common.util.http.RequestHttp;
 import me.chanjar.weixin.common.util.http.SimplePostRequestExecutor;
 import okhttp3.*;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * .
@@ -30,4 +32,12 @@ public class OkHttpSimplePostRequestExecutor extends SimplePostRequestExecutor<O
     return this.handleResponse(wxType, Objects.requireNonNull(response.body()).string());
   }
 
+  @Override
+  public CompletableFuture<String> executeAsync(String uri, String postEntity, WxType wxType) {
+    RequestBody body = RequestBody.Companion.create(postEntity, MediaType.parse("text/plain; charset=utf-8"));
+    Request request = new Request.Builder().url(uri).post(body).build();
+    return OkHttpAsyncCalls.enqueue(requestHttp.getRequestHttpClient(), request)
+      .thenCompose(responseContent -> AsyncRequestSupport.supply(() -> this.handleResponse(wxType, responseContent)));
+  }
+
 }
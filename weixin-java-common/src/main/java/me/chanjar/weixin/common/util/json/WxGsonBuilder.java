@@ -14,6 +14,7 @@ import me.chanjar.weixin.common.bean.result.WxMediaUploadResult;
  */
 public class WxGsonBuilder {
   private static final GsonBuilder INSTANCE = new GsonBuilder();
+  private static volatile Gson GSON_INSTANCE;
 
   static {
     INSTANCE.disableHtmlEscaping();
@@ -25,8 +26,21 @@ public class WxGsonBuilder {
 
   }
 
+  /**
+   * 获取共享的Gson实例.
+   * Gson本身是线程安全且不可变的，因此只需在首次调用时构建一次，避免每次调用都重建TypeAdapter及其反射缓存.
+   *
+   * @return 已注册好所有TypeAdapter的Gson实例
+   */
   public static Gson create() {
-    return INSTANCE.create();
+    if (null == GSON_INSTANCE) {
+      synchronized (INSTANCE) {
+        if (null == GSON_INSTANCE) {
+          GSON_INSTANCE = INSTANCE.create();
+        }
+      }
+    }
+    return GSON_INSTANCE;
   }
 
 }
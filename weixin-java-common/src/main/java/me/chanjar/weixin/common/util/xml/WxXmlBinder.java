@@ -0,0 +1,44 @@
+package me.chanjar.weixin.common.util.xml;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * <pre>
+ * 基于StAX的xml与bean相互转换器.
+ * 实现类由 weixin-graal 中的 XmlBinderProcessor 根据bean上的XStream注解在编译期生成，
+ * 类名为bean类名加 XmlBinder 后缀，不使用反射，可以替代XStream用于消息的解析和生成.
+ * </pre>
+ *
+ * @param <T> bean类型
+ */
+public interface WxXmlBinder<T> {
+
+  /**
+   * xml -> pojo.
+   *
+   * @param reader 位于根节点开始处的reader，返回时位于根节点结束处
+   * @return 解析得到的对象
+   * @throws XMLStreamException xml格式错误
+   */
+  T fromXml(XMLStreamReader reader) throws XMLStreamException;
+
+  /**
+   * pojo -> xml.
+   *
+   * @param object 要转换的对象
+   * @param writer 输出
+   * @throws XMLStreamException 写入错误
+   */
+  void toXml(T object, XMLStreamWriter writer) throws XMLStreamException;
+
+  /**
+   * bean中含有无法生成xml的字段（如Map）时返回false，此时生成xml需要使用XStream.
+   *
+   * @return 是否支持 {@link #toXml}
+   */
+  default boolean isWritable() {
+    return true;
+  }
+}
@@ -0,0 +1,236 @@
+package me.chanjar.weixin.common.util.xml;
+
+import me.chanjar.weixin.common.error.WxRuntimeException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ * 编译期生成的 {@link WxXmlBinder} 的查找和运行时辅助方法.
+ * 数值的解析方式与XStream对应的Converter保持一致.
+ * </pre>
+ */
+public class WxXmlBinders {
+  private static final String BINDER_SUFFIX = "XmlBinder";
+
+  private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+  private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+  private static final Map<Class<?>, Optional<WxXmlBinder<?>>> BINDERS = new ConcurrentHashMap<>();
+
+  private static XMLInputFactory createInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    return factory;
+  }
+
+  /**
+   * 查找编译期为指定类生成的转换器.
+   *
+   * @param clazz bean类型
+   * @return 没有生成时返回null
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> WxXmlBinder<T> find(Class<T> clazz) {
+    return (WxXmlBinder<T>) BINDERS.computeIfAbsent(clazz, WxXmlBinders::load).orElse(null);
+  }
+
+  private static Optional<WxXmlBinder<?>> load(Class<?> clazz) {
+    try {
+      Class<?> binderClass = Class.forName(clazz.getName() + BINDER_SUFFIX, true, clazz.getClassLoader());
+      return Optional.of((WxXmlBinder<?>) binderClass.getDeclaredConstructor().newInstance());
+    } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+      // 没有生成转换器，使用XStream
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * xml -> pojo.
+   */
+  public static <T> T fromXml(WxXmlBinder<T> binder, String xml) {
+    try {
+      return read(binder, INPUT_FACTORY.createXMLStreamReader(new StringReader(xml)));
+    } catch (XMLStreamException e) {
+      throw new WxRuntimeException(e);
+    }
+  }
+
+  /**
+   * xml -> pojo.
+   */
+  public static <T> T fromXml(WxXmlBinder<T> binder, InputStream is) {
+    try {
+      return read(binder, INPUT_FACTORY.createXMLStreamReader(is));
+    } catch (XMLStreamException e) {
+      throw new WxRuntimeException(e);
+    }
+  }
+
+  private static <T> T read(WxXmlBinder<T> binder, XMLStreamReader reader) throws XMLStreamException {
+    try {
+      while (reader.hasNext()) {
+        if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+          return binder.fromXml(reader);
+        }
+      }
+      throw new WxRuntimeException("xml内容为空");
+    } catch (IllegalArgumentException e) {
+      // 数值格式错误
+      throw new WxRuntimeException(e);
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * pojo -> xml.
+   */
+  public static <T> String toXml(WxXmlBinder<T> binder, T object) {
+    StringWriter out = new StringWriter();
+    try {
+      XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(out);
+      binder.toXml(object, writer);
+      writer.close();
+    } catch (XMLStreamException e) {
+      throw new WxRuntimeException(e);
+    }
+    return out.toString();
+  }
+
+  /**
+   * 移动到下一个子节点的开始处.
+   *
+   * @return 到达当前节点结束处时返回false
+   */
+  public static boolean nextElement(XMLStreamReader reader) throws XMLStreamException {
+    while (reader.hasNext()) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        return true;
+      }
+      if (event == XMLStreamConstants.END_ELEMENT) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 跳过当前节点及其子节点.
+   */
+  public static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0 && reader.hasNext()) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
+
+  /**
+   * 读取当前节点的文本内容（含CDATA），忽略其中的子节点.
+   */
+  public static String readText(XMLStreamReader reader) throws XMLStreamException {
+    StringBuilder text = null;
+    String single = null;
+    while (reader.hasNext()) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+        || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE) {
+        if (single == null) {
+          single = reader.getText();
+        } else {
+          if (text == null) {
+            text = new StringBuilder(single);
+          }
+          text.append(reader.getText());
+        }
+      } else if (event == XMLStreamConstants.START_ELEMENT) {
+        skipElement(reader);
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        break;
+      }
+    }
+    if (text != null) {
+      return text.toString();
+    }
+    return single == null ? "" : single;
+  }
+
+  public static Integer readInteger(XMLStreamReader reader) throws XMLStreamException {
+    // 与XStream的IntConverter一致，允许无符号32位的值
+    long value = Long.decode(readText(reader));
+    if (value < Integer.MIN_VALUE || value > 0xFFFFFFFFL) {
+      throw new NumberFormatException("For input string: \"" + value + '"');
+    }
+    return (int) value;
+  }
+
+  public static Long readLong(XMLStreamReader reader) throws XMLStreamException {
+    return Long.decode(readText(reader));
+  }
+
+  public static Short readShort(XMLStreamReader reader) throws XMLStreamException {
+    return Short.decode(readText(reader));
+  }
+
+  public static Byte readByte(XMLStreamReader reader) throws XMLStreamException {
+    return Byte.decode(readText(reader));
+  }
+
+  public static Double readDouble(XMLStreamReader reader) throws XMLStreamException {
+    return Double.valueOf(readText(reader));
+  }
+
+  public static Float readFloat(XMLStreamReader reader) throws XMLStreamException {
+    return Float.valueOf(readText(reader));
+  }
+
+  public static Boolean readBoolean(XMLStreamReader reader) throws XMLStreamException {
+    return Boolean.valueOf(readText(reader));
+  }
+
+  /**
+   * 写入一个文本节点.
+   */
+  public static void writeText(XMLStreamWriter writer, String name, Object value) throws XMLStreamException {
+    writer.writeStartElement(name);
+    writer.writeCharacters(String.valueOf(value));
+    writer.writeEndElement();
+  }
+
+  /**
+   * 写入一个CDATA节点，对应 {@link XStreamCDataConverter}.
+   */
+  public static void writeCData(XMLStreamWriter writer, String name, Object value) throws XMLStreamException {
+    writer.writeStartElement(name);
+    writer.writeCData(String.valueOf(value));
+    writer.writeEndElement();
+  }
+
+  /**
+   * 写入一个包含一层CDATA子节点的节点，对应 {@link XStreamMediaIdConverter} 和 {@link XStreamReplaceNameConverter}.
+   */
+  public static void writeWrappedCData(XMLStreamWriter writer, String name, String wrapper, Object value)
+    throws XMLStreamException {
+    writer.writeStartElement(name);
+    writeCData(writer, wrapper, value);
+    writer.writeEndElement();
+  }
+}
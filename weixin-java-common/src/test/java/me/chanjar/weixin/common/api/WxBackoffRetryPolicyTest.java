@@ -0,0 +1,54 @@
+package me.chanjar.weixin.common.api;
+
+import com.google.common.collect.ImmutableSet;
+import me.chanjar.weixin.common.error.WxError;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class WxBackoffRetryPolicyTest {
+
+  @Test
+  public void testLegacyBackoff() {
+    WxBackoffRetryPolicy policy = WxBackoffRetryPolicy.of(1000, 3);
+    Assert.assertTrue(policy.isRetryable(WxError.builder().errorCode(-1).build()));
+    Assert.assertFalse(policy.isRetryable(WxError.builder().errorCode(45009).build()));
+
+    Assert.assertEquals(policy.nextRetryDelay("app", 0, 0), 1000);
+    Assert.assertEquals(policy.nextRetryDelay("app", 1, 0), 2000);
+    Assert.assertEquals(policy.nextRetryDelay("app", 2, 0), 4000);
+    Assert.assertTrue(policy.nextRetryDelay("app", 3, 0) < 0);
+  }
+
+  @Test
+  public void testFullJitterAndMaxDelay() {
+    WxBackoffRetryPolicy policy = new WxBackoffRetryPolicy();
+    policy.setMaxRetryTimes(100);
+    policy.setMaxDelayMillis(5000);
+    policy.setRetryableCodes(ImmutableSet.of(-1, 45009));
+    Assert.assertTrue(policy.isRetryable(WxError.builder().errorCode(45009).build()));
+
+    for (int i = 0; i < 100; i++) {
+      long delay = policy.nextRetryDelay("app", i, 0);
+      Assert.assertTrue(delay >= 0 && delay <= 5000, String.valueOf(delay));
+    }
+  }
+
+  @Test
+  public void testDeadline() {
+    WxBackoffRetryPolicy policy = WxBackoffRetryPolicy.of(1000, 5);
+    Assert.assertTrue(policy.nextRetryDelay("app", 0, System.currentTimeMillis() + 500) < 0);
+    Assert.assertEquals(policy.nextRetryDelay("app", 0, System.currentTimeMillis() + 5000), 1000);
+  }
+
+  @Test
+  public void testRetryBudgetPerAccount() {
+    WxBackoffRetryPolicy policy = WxBackoffRetryPolicy.of(1, 5);
+    policy.setRetryBudget(2);
+
+    Assert.assertTrue(policy.nextRetryDelay("app1", 0, 0) >= 0);
+    Assert.assertTrue(policy.nextRetryDelay("app1", 0, 0) >= 0);
+    Assert.assertTrue(policy.nextRetryDelay("app1", 0, 0) < 0);
+    // 预算按账号独立计算
+    Assert.assertTrue(policy.nextRetryDelay("app2", 0, 0) >= 0);
+  }
+}
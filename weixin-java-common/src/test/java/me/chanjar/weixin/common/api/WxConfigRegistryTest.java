@@ -0,0 +1,63 @@
+package me.chanjar.weixin.common.api;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+public class WxConfigRegistryTest {
+
+  @Test
+  public void testPutAndRemove() {
+    WxConfigRegistry<String, String> registry = new WxConfigRegistry<>();
+    assertTrue(registry.isEmpty());
+    assertNull(registry.getSingle());
+    assertNull(registry.firstId());
+
+    assertNull(registry.put("a", "configA"));
+    assertEquals(registry.getSingle(), "configA");
+
+    registry.put("b", "configB");
+    assertNull(registry.getSingle());
+    assertEquals(registry.get("b"), "configB");
+    assertEquals(registry.firstId(), "a");
+
+    assertEquals(registry.put("a", "configA2"), "configA");
+    assertEquals(registry.firstId(), "a");
+    assertEquals(registry.remove("a"), "configA2");
+    assertNull(registry.remove("a"));
+    assertEquals(registry.getSingle(), "configB");
+    assertEquals(registry.firstId(), "b");
+  }
+
+  @Test
+  public void testViewCachedPerConfig() {
+    WxConfigRegistry<String, String> registry = new WxConfigRegistry<>();
+    registry.put("a", "configA");
+    AtomicInteger created = new AtomicInteger();
+
+    String view = registry.getView("a", config -> config + "#" + created.incrementAndGet());
+    assertEquals(view, "configA#1");
+    assertSame(registry.getView("a", config -> config + "#" + created.incrementAndGet()), view);
+    assertNull(registry.getView("b", config -> config + "#" + created.incrementAndGet()));
+
+    // 配置被替换后重新创建视图
+    registry.put("a", "configA2");
+    assertEquals(registry.getView("a", config -> config + "#" + created.incrementAndGet()), "configA2#2");
+  }
+
+  @Test
+  public void testReplaceAll() {
+    WxConfigRegistry<String, String> registry = new WxConfigRegistry<>();
+    registry.put("a", "configA");
+
+    Map<String, String> old = registry.replaceAll(ImmutableMap.of("b", "configB", "c", "configC"));
+    assertEquals(old, ImmutableMap.of("a", "configA"));
+    assertFalse(registry.contains("a"));
+    assertEquals(registry.size(), 2);
+    assertEquals(registry.toMap(), ImmutableMap.of("b", "configB", "c", "configC"));
+  }
+}
@@ -0,0 +1,75 @@
+package me.chanjar.weixin.common.api;
+
+import me.chanjar.weixin.common.redis.BaseWxRedisOps;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class WxMessageRedisDuplicateCheckerTest {
+
+  public void testDuplicateAcrossNodes() {
+    InMemoryWxRedisOps redis = new InMemoryWxRedisOps();
+    WxMessageRedisDuplicateChecker node1 = new WxMessageRedisDuplicateChecker(redis);
+    WxMessageRedisDuplicateChecker node2 = new WxMessageRedisDuplicateChecker(redis);
+
+    assertFalse(node1.isDuplicate("msg1"));
+    assertEquals(redis.calls.get(), 1);
+
+    // 重试落到另一个节点
+    assertTrue(node2.isDuplicate("msg1"));
+    assertEquals(redis.calls.get(), 2);
+
+    // 本节点见过的消息由本地过滤，不访问redis
+    assertTrue(node1.isDuplicate("msg1"));
+    assertEquals(redis.calls.get(), 2);
+  }
+
+  public void testBatch() {
+    InMemoryWxRedisOps redis = new InMemoryWxRedisOps();
+    WxMessageRedisDuplicateChecker node1 = new WxMessageRedisDuplicateChecker(redis);
+    WxMessageRedisDuplicateChecker node2 = new WxMessageRedisDuplicateChecker(redis);
+    assertFalse(node2.isDuplicate("b"));
+
+    List<Boolean> result = node1.isDuplicate(Arrays.asList("a", "b", "a", null));
+    assertEquals(result, Arrays.asList(false, true, true, false));
+    assertEquals(redis.calls.get(), 2);
+  }
+
+  public void testRedisUnavailable() {
+    WxMessageRedisDuplicateChecker checker = new WxMessageRedisDuplicateChecker(new BaseWxRedisOps() {
+    });
+    assertFalse(checker.isDuplicate("msg1"));
+    assertTrue(checker.isDuplicate("msg1"));
+  }
+
+  private static class InMemoryWxRedisOps extends BaseWxRedisOps {
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public boolean setIfAbsent(String key, String value, int expire, TimeUnit timeUnit) {
+      this.calls.incrementAndGet();
+      return this.values.putIfAbsent(key, value) == null;
+    }
+
+    @Override
+    public List<Boolean> setIfAbsent(List<String> keys, String value, int expire, TimeUnit timeUnit) {
+      this.calls.incrementAndGet();
+      Boolean[] result = new Boolean[keys.size()];
+      for (int i = 0; i < result.length; i++) {
+        result[i] = this.values.putIfAbsent(keys.get(i), value) == null;
+      }
+      return Arrays.asList(result);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package me.chanjar.weixin.common.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class WxMessageRuleIndexTest {
+
+  @Getter
+  @AllArgsConstructor
+  private static class Rule {
+    private final String name;
+    private final String msgType;
+    private final String event;
+    private final String eventKey;
+    private final String content;
+  }
+
+  private static WxMessageRuleIndex<Rule> index(List<Rule> rules) {
+    return new WxMessageRuleIndex<>(rules, Rule::getMsgType, Rule::getEvent, Rule::getEventKey, Rule::getContent);
+  }
+
+  private static List<String> names(List<Rule> rules) {
+    return rules.stream().map(Rule::getName).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testCandidatesKeepInsertionOrder() {
+    List<Rule> rules = Arrays.asList(
+      new Rule("any", null, null, null, null),
+      new Rule("text", "text", null, null, null),
+      new Rule("hello", "text", null, null, "hello"),
+      new Rule("click", "event", "click", null, null),
+      new Rule("menu1", "event", "click", "MENU_1", null),
+      new Rule("other", "text", null, null, "bye"),
+      new Rule("last", null, null, null, null)
+    );
+    WxMessageRuleIndex<Rule> index = index(rules);
+
+    Assert.assertEquals(names(index.candidates("text", null, null, "hello")), Arrays.asList("any", "text", "hello", "last"));
+    Assert.assertEquals(names(index.candidates("TEXT", null, null, null)), Arrays.asList("any", "text", "last"));
+    Assert.assertEquals(names(index.candidates("event", "CLICK", "menu_1", null)),
+      Arrays.asList("any", "click", "menu1", "last"));
+    Assert.assertEquals(names(index.candidates("image", null, null, null)), Arrays.asList("any", "last"));
+  }
+
+  @Test
+  public void testFoldCase() {
+    Assert.assertEquals(WxMessageRuleIndex.foldCase("View_Miniprogram"), "view_miniprogram");
+    Assert.assertSame(WxMessageRuleIndex.foldCase("click"), "click");
+    // 开尔文符号与K在equalsIgnoreCase下相等
+    Assert.assertTrue("k".equalsIgnoreCase("K"));
+    Assert.assertEquals(WxMessageRuleIndex.foldCase("K"), "k");
+  }
+
+  @Test
+  public void testNonAsciiKeyNotIndexed() {
+    List<Rule> rules = Collections.singletonList(new Rule("cn", null, "事件", null, null));
+    Assert.assertEquals(names(index(rules).candidates(null, null, null, null)), Collections.singletonList("cn"));
+  }
+
+  @Test
+  public void testIsBuiltFrom() {
+    List<Rule> rules = new ArrayList<>();
+    rules.add(new Rule("a", "text", null, null, null));
+    WxMessageRuleIndex<Rule> index = index(rules);
+    Assert.assertTrue(index.isBuiltFrom(rules));
+
+    rules.add(new Rule("b", "text", null, null, null));
+    Assert.assertFalse(index.isBuiltFrom(rules));
+    Assert.assertEquals(names(index(rules).candidates("text", null, null, null)), Arrays.asList("a", "b"));
+  }
+}
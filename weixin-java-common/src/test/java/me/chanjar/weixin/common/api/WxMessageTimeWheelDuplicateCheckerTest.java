@@ -0,0 +1,67 @@
+package me.chanjar.weixin.common.api;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class WxMessageTimeWheelDuplicateCheckerTest {
+
+  public void testExpire() {
+    ManualClockChecker checker = new ManualClockChecker(2000L, 1000L, 100, false);
+    assertFalse(checker.isDuplicate("1"));
+    assertFalse(checker.isDuplicate("2"));
+
+    checker.now = 1500L;
+    assertTrue(checker.isDuplicate("1"));
+    assertFalse(checker.isDuplicate("3"));
+
+    // 第0代在第3代开始时过期，第1代仍保留
+    checker.now = 3000L;
+    assertFalse(checker.isDuplicate("1"));
+    assertTrue(checker.isDuplicate("3"));
+    assertEquals(checker.size(), 2);
+  }
+
+  public void testMaxEntries() {
+    ManualClockChecker checker = new ManualClockChecker(10000L, 1000L, 3, true);
+    assertFalse(checker.isDuplicate("a"));
+    assertFalse(checker.isDuplicate("b"));
+
+    checker.now = 1000L;
+    assertFalse(checker.isDuplicate("c"));
+    // 超过上限，提前丢弃最老的一代
+    assertFalse(checker.isDuplicate("d"));
+    assertEquals(checker.size(), 2);
+    assertTrue(checker.isDuplicate("c"));
+    assertFalse(checker.isDuplicate("a"));
+  }
+
+  public void testHashedKey() {
+    ManualClockChecker checker = new ManualClockChecker(2000L, 1000L, 100, true);
+    long key = WxMessageDuplicateChecker.hashKey(123L, 1600000000L, "fromUser", null);
+    assertEquals(WxMessageDuplicateChecker.hashKey(123L, 1600000000L, "fromUser", ""), key);
+    assertNotEquals(WxMessageDuplicateChecker.hashKey(123L, 1600000000L, "fromUse", "r"), key);
+    assertNotEquals(WxMessageDuplicateChecker.hashKey(124L, 1600000000L, "fromUser", null), key);
+
+    assertTrue(checker.isHashedKeySupported());
+    assertFalse(checker.isDuplicate(key));
+    assertTrue(checker.isDuplicate(key));
+  }
+
+  private static class ManualClockChecker extends WxMessageTimeWheelDuplicateChecker {
+    private long now;
+
+    ManualClockChecker(long timeToLive, long bucketMillis, int maxEntries, boolean hashedKey) {
+      super(timeToLive, bucketMillis, maxEntries, hashedKey);
+    }
+
+    @Override
+    protected long currentTimeMillis() {
+      return this.now;
+    }
+  }
+}
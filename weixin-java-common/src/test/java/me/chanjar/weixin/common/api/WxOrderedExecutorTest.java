@@ -0,0 +1,124 @@
+package me.chanjar.weixin.common.api;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+@Test
+public class WxOrderedExecutorTest {
+
+  public void testSameKeyInOrder() throws InterruptedException {
+    WxOrderedExecutor executor = WxMessageExecutors.newOrderedExecutor("test-ordered-%d", 8, 100_000);
+    Map<String, List<Integer>> results = new ConcurrentHashMap<>();
+    AtomicBoolean overlapped = new AtomicBoolean();
+    Map<String, AtomicBoolean> running = new ConcurrentHashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      for (int user = 0; user < 10; user++) {
+        String key = "user" + user;
+        int seq = i;
+        results.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>()));
+        running.computeIfAbsent(key, k -> new AtomicBoolean());
+        executor.execute(key, () -> {
+          if (!running.get(key).compareAndSet(false, true)) {
+            overlapped.set(true);
+          }
+          results.get(key).add(seq);
+          running.get(key).set(false);
+        });
+      }
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertFalse(overlapped.get());
+    for (List<Integer> sequence : results.values()) {
+      assertEquals(sequence.size(), 1000);
+      for (int i = 0; i < sequence.size(); i++) {
+        assertEquals(sequence.get(i).intValue(), i);
+      }
+    }
+    assertEquals(executor.getActiveKeyCount(), 0);
+    assertEquals(executor.getPendingCount(), 0);
+  }
+
+  public void testBounded() throws InterruptedException {
+    WxOrderedExecutor executor = new WxOrderedExecutor(Executors.newFixedThreadPool(1), 2,
+      WxOrderedExecutor.RejectPolicy.ABORT);
+    CountDownLatch release = new CountDownLatch(1);
+    executor.execute("a", () -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    executor.execute("a", () -> {
+    });
+
+    try {
+      executor.execute("b", () -> {
+      });
+      fail("超过上限时应拒绝");
+    } catch (RejectedExecutionException expected) {
+      assertEquals(executor.getPendingCount(), 2);
+    }
+
+    release.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals(executor.getPendingCount(), 0);
+  }
+
+  public void testWorkerRejectionReleasesPending() throws InterruptedException {
+    // 单线程、无队列的工作线程池，线程忙时直接拒绝
+    ThreadPoolExecutor workers = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+    WxOrderedExecutor executor = new WxOrderedExecutor(workers, 10, WxOrderedExecutor.RejectPolicy.ABORT);
+    CountDownLatch release = new CountDownLatch(1);
+    executor.execute(() -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+
+    try {
+      executor.execute(() -> {
+      });
+      fail("工作线程池拒绝时应抛出异常");
+    } catch (RejectedExecutionException expected) {
+      assertEquals(executor.getPendingCount(), 1);
+    }
+
+    release.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals(executor.getPendingCount(), 0);
+  }
+
+  public void testFailedTaskDoesNotBlockKey() throws Exception {
+    WxOrderedExecutor executor = WxMessageExecutors.newOrderedExecutor("test-ordered-%d", 1, 10);
+    executor.execute("a", () -> {
+      throw new IllegalStateException("test");
+    });
+    executor.submit("a", () -> {
+    }).get(5, TimeUnit.SECONDS);
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,113 @@
+package me.chanjar.weixin.common.api;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WxTokenRefreshSchedulerTest {
+  private WxTokenRefreshScheduler scheduler;
+
+  @BeforeMethod
+  public void setUp() {
+    this.scheduler = new WxTokenRefreshScheduler(null, 4);
+    this.scheduler.setRefreshAheadMillis(100);
+    this.scheduler.setJitterMillis(0);
+    this.scheduler.setRetryIntervalMillis(20);
+    this.scheduler.setCheckIntervalMillis(20);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    this.scheduler.shutdown();
+  }
+
+  @Test
+  public void testRefreshBeforeExpiry() throws InterruptedException {
+    FakeTask task = new FakeTask("a", 300);
+    this.scheduler.register(task);
+
+    // 注册时未过期，在过期前100ms刷新
+    Assert.assertTrue(task.refreshed.await(2, TimeUnit.SECONDS));
+    Assert.assertTrue(task.refreshAt - task.initialExpiresTime < 0);
+    // 成功次数在refresh返回后才记录，需等待
+    long deadline = System.currentTimeMillis() + 2000;
+    while (this.scheduler.getSuccessCount() < 1 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(this.scheduler.getSuccessCount(), 1);
+  }
+
+  @Test
+  public void testExpiredTaskRefreshedImmediately() throws InterruptedException {
+    FakeTask task = new FakeTask("b", -1);
+    Assert.assertTrue(this.scheduler.register(task));
+    Assert.assertFalse(this.scheduler.register(new FakeTask("b", -1)));
+
+    Assert.assertTrue(task.refreshed.await(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testFailureIsRetried() throws InterruptedException {
+    FakeTask task = new FakeTask("c", -1);
+    task.failures.set(2);
+    this.scheduler.register(task);
+
+    Assert.assertTrue(task.refreshed.await(2, TimeUnit.SECONDS));
+    Assert.assertEquals(this.scheduler.getFailureCount(), 2);
+  }
+
+  @Test
+  public void testUnregister() throws InterruptedException {
+    FakeTask task = new FakeTask("d", 300);
+    this.scheduler.register(task);
+    this.scheduler.unregister("d");
+
+    Assert.assertFalse(task.refreshed.await(500, TimeUnit.MILLISECONDS));
+  }
+
+  private static class FakeTask implements WxTokenRefreshTask {
+    private final String name;
+    private final long initialExpiresTime;
+    private final CountDownLatch refreshed = new CountDownLatch(1);
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile long expiresTime;
+    private volatile long refreshAt;
+
+    private FakeTask(String name, long lifetimeMillis) {
+      this.name = name;
+      this.initialExpiresTime = System.currentTimeMillis() + lifetimeMillis;
+      this.expiresTime = this.initialExpiresTime;
+    }
+
+    @Override
+    public String getName() {
+      return this.name;
+    }
+
+    @Override
+    public boolean isExpired() {
+      return System.currentTimeMillis() >= this.expiresTime;
+    }
+
+    @Override
+    public long getExpiresTime() {
+      return this.expiresTime;
+    }
+
+    @Override
+    public void refresh() {
+      if (this.failures.getAndDecrement() > 0) {
+        throw new IllegalStateException("模拟刷新失败");
+      }
+
+      this.refreshAt = System.currentTimeMillis();
+      this.expiresTime = this.refreshAt + 7200 * 1000L;
+      this.refreshed.countDown();
+    }
+  }
+}
@@ -3,6 +3,10 @@ package me.chanjar.weixin.common.error;
 import me.chanjar.weixin.common.enums.WxType;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
 
@@ -32,4 +36,50 @@ public class WxErrorTest {
 
   }
 
+  public void testFromJsonWithTranslatedMsg() {
+    String json = "{ \"errcode\": 40001, \"errmsg\": \"invalid credential\" }";
+    assertEquals(WxError.fromJson(json, WxType.MP).getErrorMsg(), WxMpErrorMsgEnum.CODE_40001.getMsg());
+    assertEquals(WxError.fromJson(json, WxType.CP).getErrorMsg(), WxCpErrorMsgEnum.findMsgByCode(40001));
+    assertEquals(WxError.fromJson(json, WxType.MiniApp).getErrorMsg(), WxMaErrorMsgEnum.findMsgByCode(40001));
+    assertEquals(WxError.fromJson(json, WxType.Open).getErrorMsg(), "invalid credential");
+
+    json = "{ \"errcode\": 1234567890, \"errmsg\": \"unknown\" }";
+    for (WxType type : WxType.values()) {
+      assertEquals(WxError.fromJson(json, type).getErrorMsg(), "unknown");
+    }
+  }
+
+  public void testFindMsgByCode() {
+    for (WxMpErrorMsgEnum value : WxMpErrorMsgEnum.values()) {
+      assertEquals(WxMpErrorMsgEnum.findMsgByCode(value.getCode()), firstMsg(WxMpErrorMsgEnum.values()).get(value.getCode()));
+    }
+    for (WxCpErrorMsgEnum value : WxCpErrorMsgEnum.values()) {
+      assertEquals(WxCpErrorMsgEnum.findMsgByCode(value.getCode()), firstMsg(WxCpErrorMsgEnum.values()).get(value.getCode()));
+    }
+    for (WxMaErrorMsgEnum value : WxMaErrorMsgEnum.values()) {
+      assertEquals(WxMaErrorMsgEnum.findMsgByCode(value.getCode()), firstMsg(WxMaErrorMsgEnum.values()).get(value.getCode()));
+    }
+
+    assertNull(WxMpErrorMsgEnum.findMsgByCode(Integer.MIN_VALUE));
+    assertNull(WxCpErrorMsgEnum.findMsgByCode(Integer.MAX_VALUE));
+    assertNull(WxMaErrorMsgEnum.findMsgByCode(1234567890));
+  }
+
+  /**
+   * 原先线性查找的语义：同一错误码以先出现的为准.
+   */
+  private static Map<Integer, String> firstMsg(Enum<?>[] values) {
+    Map<Integer, String> result = new LinkedHashMap<>();
+    Arrays.stream(values).forEach(value -> {
+      if (value instanceof WxMpErrorMsgEnum) {
+        result.putIfAbsent(((WxMpErrorMsgEnum) value).getCode(), ((WxMpErrorMsgEnum) value).getMsg());
+      } else if (value instanceof WxCpErrorMsgEnum) {
+        result.putIfAbsent(((WxCpErrorMsgEnum) value).getCode(), ((WxCpErrorMsgEnum) value).getMsg());
+      } else if (value instanceof WxMaErrorMsgEnum) {
+        result.putIfAbsent(((WxMaErrorMsgEnum) value).getCode(), ((WxMaErrorMsgEnum) value).getMsg());
+      }
+    });
+    return result;
+  }
+
 }
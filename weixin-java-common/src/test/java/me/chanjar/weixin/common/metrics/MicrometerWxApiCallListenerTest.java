@@ -0,0 +1,77 @@
+package me.chanjar.weixin.common.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.chanjar.weixin.common.enums.WxType;
+import me.chanjar.weixin.common.error.WxError;
+import me.chanjar.weixin.common.error.WxErrorException;
+import me.chanjar.weixin.common.error.WxRuntimeException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MicrometerWxApiCallListenerTest {
+  private static final String SEND_URL = "https://api.weixin.qq.com/cgi-bin/message/custom/send";
+
+  @Test
+  public void testEndpointOf() {
+    Assert.assertEquals(WxApiCallEvent.endpointOf(SEND_URL + "?access_token=abc"), "/cgi-bin/message/custom/send");
+    Assert.assertEquals(WxApiCallEvent.endpointOf("https://api.mch.weixin.qq.com/v3/pay/transactions/id/4200000123456789?mchid=1"),
+      "/v3/pay/transactions/id/{id}");
+    Assert.assertEquals(WxApiCallEvent.endpointOf("https://api.mch.weixin.qq.com/v3/refund/domestic/refunds/R20210101123/"),
+      "/v3/refund/domestic/refunds/{id}/");
+    Assert.assertEquals(WxApiCallEvent.endpointOf("https://api.weixin.qq.com/sns/oauth2/access_token"), "/sns/oauth2/access_token");
+  }
+
+  @Test
+  public void testSizeOf() {
+    Assert.assertEquals(WxApiCallEvent.sizeOf("abc"), 3);
+    Assert.assertEquals(WxApiCallEvent.sizeOf("微信"), 6);
+    Assert.assertEquals(WxApiCallEvent.sizeOf("a😀"), 5);
+    Assert.assertEquals(WxApiCallEvent.sizeOf(new byte[7]), 7);
+    Assert.assertEquals(WxApiCallEvent.sizeOf(new Object()), -1);
+    Assert.assertEquals(WxApiCallEvent.sizeOf(null), -1);
+  }
+
+  @Test
+  public void testFailErrorCode() {
+    WxErrorException e = new WxErrorException(WxError.builder().errorCode(-1).errorMsg("system busy").build());
+    Assert.assertEquals(WxApiCallEvent.start(WxType.MP, "app1", SEND_URL, null).fail(e).getErrorCode(), "-1");
+
+    e = new WxErrorException(WxError.builder().errorCode(40001).build());
+    WxApiCallEvent event = WxApiCallEvent.start(WxType.MP, "app1", SEND_URL, null).fail(new WxRuntimeException("retry", e));
+    Assert.assertFalse(event.isSuccess());
+    Assert.assertEquals(event.getErrorCode(), "40001");
+
+    event = WxApiCallEvent.start(WxType.Pay, "mch1", SEND_URL, null).fail(new RuntimeException(), null);
+    Assert.assertEquals(event.getErrorCode(), WxApiCallEvent.UNKNOWN_ERROR_CODE);
+  }
+
+  @Test
+  public void testRecord() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MicrometerWxApiCallListener listener = new MicrometerWxApiCallListener(registry);
+
+    WxApiCallEvent event = WxApiCallEvent.start(WxType.MP, "app1", SEND_URL, "{\"touser\":\"a\"}");
+    event.retried();
+    event.retried();
+    listener.onApiCall(event.succeed("{\"errcode\":0}"));
+    listener.onApiCall(WxApiCallEvent.start(WxType.MP, "app1", SEND_URL, "{}")
+      .fail(new WxErrorException(WxError.builder().errorCode(45015).build())));
+    listener.onAccessTokenRefreshed(WxType.MP, "app1");
+    listener.onAccessTokenInvalid(WxType.MP, "app1", 40001);
+
+    Timer success = registry.get("wx.api.calls").tags("type", "MP", "account", "app1",
+      "endpoint", "/cgi-bin/message/custom/send", "outcome", "SUCCESS", "errcode", "0").timer();
+    Assert.assertEquals(success.count(), 1);
+    Assert.assertEquals(registry.get("wx.api.calls").tags("outcome", "ERROR", "errcode", "45015").timer().count(), 1);
+    Assert.assertEquals(registry.get("wx.api.retries").counter().count(), 2.0);
+    Assert.assertEquals(registry.get("wx.api.request.bytes").summary().totalAmount(), 16.0);
+    Assert.assertEquals(registry.get("wx.api.response.bytes").summary().totalAmount(), 13.0);
+    Assert.assertEquals(registry.get("wx.access_token.refresh").tags("account", "app1").counter().count(), 1.0);
+    Assert.assertEquals(registry.get("wx.access_token.invalid").tags("errcode", "40001").counter().count(), 1.0);
+
+    listener.setAccountTagEnabled(false);
+    listener.onApiCall(WxApiCallEvent.start(WxType.MP, "app2", SEND_URL, null).succeed(null));
+    Assert.assertEquals(registry.get("wx.api.calls").tags("account", "unknown").timer().count(), 1);
+  }
+}
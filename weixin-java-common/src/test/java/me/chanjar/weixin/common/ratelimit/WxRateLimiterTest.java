@@ -0,0 +1,138 @@
+package me.chanjar.weixin.common.ratelimit;
+
+import me.chanjar.weixin.common.redis.BaseWxRedisOps;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class WxRateLimiterTest {
+  private static final String SEND_URL = "https://api.weixin.qq.com/cgi-bin/message/custom/send";
+
+  @Test
+  public void testEndpointOf() {
+    Assert.assertEquals(BaseWxRateLimiter.endpointOf(SEND_URL + "?access_token=abc"), "/cgi-bin/message/custom/send");
+    Assert.assertEquals(BaseWxRateLimiter.endpointOf("/cgi-bin/user/get"), "/cgi-bin/user/get");
+    Assert.assertEquals(BaseWxRateLimiter.endpointOf("https://api.weixin.qq.com"), "/");
+  }
+
+  @Test
+  public void testInMemoryLimit() {
+    WxInMemoryRateLimiter limiter = new WxInMemoryRateLimiter();
+    limiter.setLimit("/cgi-bin/message/custom/send", 3, 1, TimeUnit.HOURS);
+
+    for (int i = 0; i < 3; i++) {
+      Assert.assertTrue(limiter.tryAcquire("app1", SEND_URL));
+    }
+    Assert.assertFalse(limiter.tryAcquire("app1", SEND_URL + "?a=b"));
+    // 其他账号和未配置的接口不受影响
+    Assert.assertTrue(limiter.tryAcquire("app2", SEND_URL));
+    Assert.assertTrue(limiter.tryAcquire("app1", "https://api.weixin.qq.com/cgi-bin/user/get"));
+
+    WxRateLimitStats stats = find(limiter.getStats(), "app1");
+    Assert.assertEquals(stats.getAcquired(), 3);
+    Assert.assertEquals(stats.getRejected(), 1);
+    Assert.assertEquals(stats.getAvailable(), 0);
+  }
+
+  @Test
+  public void testInMemoryRefill() throws InterruptedException {
+    WxInMemoryRateLimiter limiter = new WxInMemoryRateLimiter();
+    limiter.setDefaultLimit(2, 100, TimeUnit.MILLISECONDS);
+
+    Assert.assertTrue(limiter.tryAcquire("app", SEND_URL));
+    Assert.assertTrue(limiter.tryAcquire("app", SEND_URL));
+    Assert.assertFalse(limiter.tryAcquire("app", SEND_URL));
+    Thread.sleep(60);
+    Assert.assertTrue(limiter.tryAcquire("app", SEND_URL));
+  }
+
+  @Test
+  public void testBucketsAreBounded() {
+    WxInMemoryRateLimiter limiter = new WxInMemoryRateLimiter(100, TimeUnit.HOURS.toMillis(1));
+    limiter.setDefaultLimit(1, 1, TimeUnit.HOURS);
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertTrue(limiter.tryAcquire("app" + i, SEND_URL));
+    }
+    Assert.assertTrue(limiter.getStats().size() <= 100);
+  }
+
+  @Test
+  public void testRedisLimitIsShared() {
+    InMemoryWxRedisOps redis = new InMemoryWxRedisOps();
+    WxRedisRateLimiter node1 = new WxRedisRateLimiter(redis);
+    WxRedisRateLimiter node2 = new WxRedisRateLimiter(redis);
+    node1.setDefaultLimit(2, 1, TimeUnit.HOURS);
+    node2.setDefaultLimit(2, 1, TimeUnit.HOURS);
+
+    Assert.assertTrue(node1.tryAcquire("app", SEND_URL));
+    Assert.assertTrue(node2.tryAcquire("app", SEND_URL));
+    Assert.assertFalse(node1.tryAcquire("app", SEND_URL));
+    Assert.assertEquals(find(node2.getStats(), "app").getAvailable(), 0);
+  }
+
+  @Test
+  public void testRedisLimitUsesAtomicIncrement() {
+    Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    InMemoryWxRedisOps redis = new InMemoryWxRedisOps() {
+      @Override
+      public long increment(String key, int expire, TimeUnit timeUnit) {
+        long count = counters.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        this.setValue(key, String.valueOf(count), expire, timeUnit);
+        return count;
+      }
+
+      @Override
+      public Lock getLock(String key) {
+        throw new AssertionError("获取许可时不应加锁");
+      }
+    };
+    WxRedisRateLimiter limiter = new WxRedisRateLimiter(redis);
+    limiter.setDefaultLimit(2, 1, TimeUnit.HOURS);
+
+    Assert.assertTrue(limiter.tryAcquire("app", SEND_URL));
+    Assert.assertTrue(limiter.tryAcquire("app", SEND_URL));
+    Assert.assertFalse(limiter.tryAcquire("app", SEND_URL));
+    Assert.assertEquals(find(limiter.getStats(), "app").getAvailable(), 0);
+  }
+
+  private static WxRateLimitStats find(List<WxRateLimitStats> stats, String accountKey) {
+    return stats.stream().filter(s -> s.getAccountKey().equals(accountKey)).findFirst().orElse(null);
+  }
+
+  private static class InMemoryWxRedisOps extends BaseWxRedisOps {
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+    private final Map<String, Lock> locks = new ConcurrentHashMap<>();
+
+    @Override
+    public String getValue(String key) {
+      return this.values.get(key);
+    }
+
+    @Override
+    public void setValue(String key, String value, int expire, TimeUnit timeUnit) {
+      this.values.put(key, value);
+    }
+
+    @Override
+    public Long getExpire(String key) {
+      return this.values.containsKey(key) ? -1L : -2L;
+    }
+
+    @Override
+    public void expire(String key, int expire, TimeUnit timeUnit) {
+      this.values.remove(key);
+    }
+
+    @Override
+    public Lock getLock(String key) {
+      return this.locks.computeIfAbsent(key, k -> new ReentrantLock());
+    }
+  }
+}
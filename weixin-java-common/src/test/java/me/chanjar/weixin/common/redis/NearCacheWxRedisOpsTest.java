@@ -0,0 +1,141 @@
+package me.chanjar.weixin.common.redis;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class NearCacheWxRedisOpsTest extends CommonWxRedisOpsTest {
+  private static final String VERSION_KEY = "wx:near-cache:version";
+
+  private InMemoryWxRedisOps redis;
+
+  @BeforeMethod
+  public void setUp() {
+    this.redis = new InMemoryWxRedisOps();
+    this.wxRedisOps = new NearCacheWxRedisOps(this.redis, VERSION_KEY);
+  }
+
+  @Test
+  public void testReadsAreServedLocally() {
+    this.redis.setValue("token", "abc", 7200, TimeUnit.SECONDS);
+    this.redis.reads.set(0);
+
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(this.wxRedisOps.getValue("token"), "abc");
+      Assert.assertTrue(this.wxRedisOps.getExpire("token") > 7000);
+    }
+    // 一次版本检查 + 一次GET + 一次TTL
+    Assert.assertEquals(this.redis.reads.get(), 3);
+  }
+
+  @Test
+  public void testExpireInvalidatesLocalCopy() {
+    this.wxRedisOps.setValue("token", "abc", 7200, TimeUnit.SECONDS);
+    Assert.assertEquals(this.wxRedisOps.getValue("token"), "abc");
+
+    this.wxRedisOps.expire("token", 0, TimeUnit.SECONDS);
+    Assert.assertNull(this.wxRedisOps.getValue("token"));
+    Assert.assertTrue(this.wxRedisOps.getExpire("token") < 2);
+  }
+
+  @Test
+  public void testReadsGoToRedisShortlyBeforeExpiry() {
+    this.redis.setValue("token", "abc", 5, TimeUnit.SECONDS);
+    this.redis.reads.set(0);
+
+    this.wxRedisOps.getValue("token");
+    this.wxRedisOps.getValue("token");
+    // 剩余时间小于expireAheadMillis，不使用本地缓存
+    Assert.assertEquals(this.redis.reads.get(), 5);
+  }
+
+  @Test
+  public void testOtherNodeWriteIsVisibleAfterVersionChange() {
+    NearCacheWxRedisOps otherNode = new NearCacheWxRedisOps(this.redis, VERSION_KEY);
+    NearCacheWxRedisOps node = (NearCacheWxRedisOps) this.wxRedisOps;
+    node.setVersionCheckIntervalMillis(0);
+
+    otherNode.setValue("token", "abc", 7200, TimeUnit.SECONDS);
+    Assert.assertEquals(node.getValue("token"), "abc");
+
+    otherNode.setValue("token", "def", 7200, TimeUnit.SECONDS);
+    Assert.assertEquals(node.getValue("token"), "def");
+
+    otherNode.expire("token", 0, TimeUnit.SECONDS);
+    Assert.assertNull(node.getValue("token"));
+  }
+
+  @Test
+  public void testInvalidate() {
+    NearCacheWxRedisOps node = new NearCacheWxRedisOps(this.redis);
+    node.getValue("token");
+    this.redis.setValue("token", "abc", 7200, TimeUnit.SECONDS);
+    Assert.assertEquals(node.getValue("token"), "abc");
+
+    this.redis.setValue("token", "def", 7200, TimeUnit.SECONDS);
+    Assert.assertEquals(node.getValue("token"), "abc");
+    node.invalidate("token");
+    Assert.assertEquals(node.getValue("token"), "def");
+  }
+
+  private static class InMemoryWxRedisOps extends BaseWxRedisOps {
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+    private final Map<String, Long> expireAts = new ConcurrentHashMap<>();
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @Override
+    public String getValue(String key) {
+      this.reads.incrementAndGet();
+      this.evictIfExpired(key);
+      return this.values.get(key);
+    }
+
+    @Override
+    public void setValue(String key, String value, int expire, TimeUnit timeUnit) {
+      this.values.put(key, value);
+      if (expire <= 0) {
+        this.expireAts.remove(key);
+      } else {
+        this.expireAts.put(key, System.currentTimeMillis() + timeUnit.toMillis(expire));
+      }
+    }
+
+    @Override
+    public Long getExpire(String key) {
+      this.reads.incrementAndGet();
+      this.evictIfExpired(key);
+      if (!this.values.containsKey(key)) {
+        return -2L;
+      }
+
+      Long expireAt = this.expireAts.get(key);
+      return expireAt == null ? -1L : TimeUnit.MILLISECONDS.toSeconds(expireAt - System.currentTimeMillis());
+    }
+
+    @Override
+    public void expire(String key, int expire, TimeUnit timeUnit) {
+      this.expireAts.put(key, System.currentTimeMillis() + timeUnit.toMillis(expire));
+      this.evictIfExpired(key);
+    }
+
+    @Override
+    public Lock getLock(String key) {
+      return new ReentrantLock();
+    }
+
+    private void evictIfExpired(String key) {
+      Long expireAt = this.expireAts.get(key);
+      if (expireAt != null && expireAt <= System.currentTimeMillis()) {
+        this.values.remove(key);
+        this.expireAts.remove(key);
+      }
+    }
+  }
+}
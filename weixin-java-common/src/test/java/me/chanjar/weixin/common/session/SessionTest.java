@@ -10,7 +10,8 @@ public class SessionTest {
   public Object[][] getSessionManager() {
 
     return new Object[][]{
-      new Object[]{new StandardSessionManager()}
+      new Object[]{new StandardSessionManager()},
+      new Object[]{new ShardedSessionManager()}
     };
 
   }
@@ -0,0 +1,125 @@
+package me.chanjar.weixin.common.session;
+
+import org.testng.annotations.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class ShardedSessionManagerTest {
+
+  public void testWriteThroughAndLoad() {
+    MemorySessionStore store = new MemorySessionStore();
+    ShardedSessionManager node1 = new ShardedSessionManager(store);
+    node1.getSession("abc").setAttribute("step", 2);
+    assertEquals(store.data.get("abc").get("step"), 2);
+
+    // 另一个节点本地没有该session，从外部存储加载
+    ShardedSessionManager node2 = new ShardedSessionManager(store);
+    assertNull(node2.getSession("xyz", false));
+    WxSession session = node2.getSession("abc", false);
+    assertNotNull(session);
+    assertEquals(session.getAttribute("step"), 2);
+    assertEquals(node2.getLoadedSessions(), 1);
+    assertEquals(node2.getActiveSessions(), 1);
+
+    session.removeAttribute("step");
+    assertFalse(store.data.get("abc").containsKey("step"));
+  }
+
+  public void testInvalidateDeletesFromStore() {
+    MemorySessionStore store = new MemorySessionStore();
+    ShardedSessionManager manager = new ShardedSessionManager(store);
+    WxSession session = manager.getSession("abc");
+    session.setAttribute("a", "b");
+    session.invalidate();
+
+    assertFalse(store.data.containsKey("abc"));
+    assertEquals(manager.getActiveSessions(), 0);
+    assertEquals(manager.getExpiredSessions(), 1);
+  }
+
+  public void testStatistics() {
+    ShardedSessionManager manager = new ShardedSessionManager(null, 4, 100L);
+    manager.setMaxActiveSessions(2);
+    manager.getSession("a");
+    manager.getSession("b");
+    try {
+      manager.getSession("c");
+    } catch (TooManyActiveSessionsException expected) {
+      // ignore
+    }
+
+    assertEquals(manager.getSessionCounter(), 2);
+    assertEquals(manager.getRejectedSessions(), 1);
+    assertEquals(manager.getMaxActive(), 2);
+    assertEquals(manager.findSessions().length, 2);
+  }
+
+  public void testExpiryTouchesStore() throws InterruptedException {
+    MemorySessionStore store = new MemorySessionStore();
+    ShardedSessionManager manager = new ShardedSessionManager(store, 4, 20L);
+    manager.setMaxInactiveInterval(1);
+    WxSession session = manager.getSession("abc");
+    session.setAttribute("a", "b");
+    manager.findSession("abc").endAccess();
+
+    // 半个最大不活跃时间后检查一次，session仍有效，延长外部存储中的过期时间
+    Thread.sleep(700);
+    assertTrue(store.touched.containsKey("abc"));
+    assertEquals(manager.getActiveSessions(), 1);
+
+    Thread.sleep(1000);
+    assertEquals(manager.getActiveSessions(), 0);
+    assertFalse(store.data.containsKey("abc"));
+    manager.shutdown();
+  }
+
+  public void testUnusedManagerCanBeCollected() throws InterruptedException {
+    ShardedSessionManager manager = new ShardedSessionManager(null, 4, 20L);
+    manager.getSession("abc");
+    WeakReference<ShardedSessionManager> ref = new WeakReference<>(manager);
+    manager = null;
+
+    // 后台的过期检查线程不会让manager无法回收
+    for (int i = 0; i < 50 && ref.get() != null; i++) {
+      System.gc();
+      Thread.sleep(100);
+    }
+    assertNull(ref.get());
+  }
+
+  private static class MemorySessionStore implements WxSessionStore {
+    private final Map<String, Map<String, Object>> data = new ConcurrentHashMap<>();
+    private final Map<String, Integer> touched = new ConcurrentHashMap<>();
+
+    @Override
+    public Map<String, Object> load(String sessionId) {
+      Map<String, Object> attributes = this.data.get(sessionId);
+      return attributes == null ? null : new HashMap<>(attributes);
+    }
+
+    @Override
+    public void save(String sessionId, Map<String, Object> attributes, int maxInactiveInterval) {
+      this.data.put(sessionId, attributes);
+    }
+
+    @Override
+    public void touch(String sessionId, int maxInactiveInterval) {
+      this.touched.put(sessionId, maxInactiveInterval);
+    }
+
+    @Override
+    public void delete(String sessionId) {
+      this.data.remove(sessionId);
+    }
+  }
+}
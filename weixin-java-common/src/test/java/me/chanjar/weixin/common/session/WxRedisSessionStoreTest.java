@@ -0,0 +1,72 @@
+package me.chanjar.weixin.common.session;
+
+import me.chanjar.weixin.common.redis.WxRedisOps;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.expectThrows;
+
+@Test
+public class WxRedisSessionStoreTest {
+
+  public void testSaveAndLoad() {
+    WxRedisOps redisOps = mock(WxRedisOps.class);
+    WxRedisSessionStore store = new WxRedisSessionStore(redisOps);
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put("step", 2);
+    attributes.put("tags", new ArrayList<>(Arrays.asList("a", "b")));
+    attributes.put("bytes", new byte[]{1, 2});
+    store.save("abc", attributes, 60);
+
+    ArgumentCaptor<String> value = ArgumentCaptor.forClass(String.class);
+    verify(redisOps).setValue(eq("wx:session:abc"), value.capture(), anyInt(), any(TimeUnit.class));
+    when(redisOps.getValue("wx:session:abc")).thenReturn(value.getValue());
+
+    Map<String, Object> loaded = store.load("abc");
+    assertEquals(loaded.get("step"), 2);
+    assertEquals(loaded.get("tags"), attributes.get("tags"));
+    assertEquals((byte[]) loaded.get("bytes"), new byte[]{1, 2});
+  }
+
+  public void testRejectClassOutsideAllowlist() throws IOException {
+    WxRedisOps redisOps = mock(WxRedisOps.class);
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put("user", new User());
+    when(redisOps.getValue("wx:session:abc")).thenReturn(serialize(attributes));
+
+    expectThrows(IllegalStateException.class, () -> new WxRedisSessionStore(redisOps).load("abc"));
+    Map<String, Object> loaded = new WxRedisSessionStore(redisOps, "wx:session", User.class.getName()).load("abc");
+    assertEquals(((User) loaded.get("user")).name, "binary");
+  }
+
+  private static String serialize(Object value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    return Base64.getEncoder().encodeToString(bytes.toByteArray());
+  }
+
+  private static class User implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String name = "binary";
+  }
+}
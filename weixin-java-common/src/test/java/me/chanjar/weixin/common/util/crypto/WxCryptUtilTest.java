@@ -1,11 +1,14 @@
 package me.chanjar.weixin.common.util.crypto;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
+import org.apache.commons.io.IOUtils;
 import org.testng.annotations.*;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -77,6 +80,25 @@ public class WxCryptUtilTest {
     assertEquals(pc.encrypt(this.randomStr, this.replyMsg2), this.afterAesEncrypt2);
   }
 
+  public void testDecryptXmlStream() throws IOException {
+    WxCryptUtil pc = new WxCryptUtil(this.token, this.encodingAesKey, this.appId);
+    WxCryptUtil.EncryptContext context = pc.encryptContext(this.replyMsg2);
+    String encryptedXml = String.format(this.xmlFormat, context.getEncrypt());
+
+    String plainText = pc.decryptXml(context.getSignature(), context.getTimeStamp(), context.getNonce(),
+      new ByteArrayInputStream(encryptedXml.getBytes(StandardCharsets.UTF_8)),
+      is -> {
+        try {
+          return IOUtils.toString(is, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+          throw new IllegalStateException(e);
+        }
+      });
+    assertEquals(plainText, this.replyMsg2);
+    assertEquals(pc.decryptXml(context.getSignature(), context.getTimeStamp(), context.getNonce(), encryptedXml),
+      this.replyMsg2);
+  }
+
   public void testValidateSignatureError() throws ParserConfigurationException, SAXException,
     IOException {
     try {
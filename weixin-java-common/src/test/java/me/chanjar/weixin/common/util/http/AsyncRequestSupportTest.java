@@ -0,0 +1,106 @@
+package me.chanjar.weixin.common.util.http;
+
+import me.chanjar.weixin.common.api.WxBackoffRetryPolicy;
+import me.chanjar.weixin.common.error.WxError;
+import me.chanjar.weixin.common.error.WxErrorException;
+import me.chanjar.weixin.common.error.WxRuntimeException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncRequestSupportTest {
+
+  @Test
+  public void testRetryOnSystemBusy() {
+    AtomicInteger counter = new AtomicInteger();
+    List<String> threads = new CopyOnWriteArrayList<>();
+    CompletableFuture<String> future = AsyncRequestSupport.retry(() -> {
+      threads.add(Thread.currentThread().getName());
+      if (counter.incrementAndGet() < 3) {
+        return AsyncRequestSupport.failedFuture(systemBusy());
+      }
+      return CompletableFuture.completedFuture("ok");
+    }, WxBackoffRetryPolicy.of(10, 5), "app", 0, e -> new WxRuntimeException("超出重试次数"));
+
+    Assert.assertEquals(future.join(), "ok");
+    Assert.assertEquals(counter.get(), 3);
+    // 重试在请求线程池中发起，不占用调度线程
+    Assert.assertTrue(threads.get(1).startsWith("WxAsyncRequest-"), threads.get(1));
+    Assert.assertTrue(threads.get(2).startsWith("WxAsyncRequest-"), threads.get(2));
+  }
+
+  @Test
+  public void testRetryExhausted() {
+    AtomicInteger counter = new AtomicInteger();
+    CompletableFuture<String> future = AsyncRequestSupport.retry(() -> {
+      counter.incrementAndGet();
+      return AsyncRequestSupport.failedFuture(systemBusy());
+    }, WxBackoffRetryPolicy.of(10, 2), "app", 0, e -> new WxRuntimeException("超出重试次数"));
+
+    try {
+      future.join();
+      Assert.fail();
+    } catch (CompletionException e) {
+      Assert.assertTrue(e.getCause() instanceof WxRuntimeException);
+    }
+    Assert.assertEquals(counter.get(), 3);
+  }
+
+  @Test
+  public void testOtherErrorsAreNotRetried() {
+    AtomicInteger counter = new AtomicInteger();
+    CompletableFuture<String> future = AsyncRequestSupport.retry(() -> {
+      counter.incrementAndGet();
+      return AsyncRequestSupport.failedFuture(new WxErrorException(WxError.builder().errorCode(40013).build()));
+    }, WxBackoffRetryPolicy.of(10, 5), "app", 0, e -> new WxRuntimeException("超出重试次数"));
+
+    try {
+      future.join();
+      Assert.fail();
+    } catch (CompletionException e) {
+      Assert.assertEquals(((WxErrorException) e.getCause()).getError().getErrorCode(), 40013);
+    }
+    Assert.assertEquals(counter.get(), 1);
+  }
+
+  @Test
+  public void testSupplyAsync() {
+    Assert.assertEquals(AsyncRequestSupport.supplyAsync(() -> Thread.currentThread().getName()).join().substring(0, 15),
+      "WxAsyncRequest-");
+
+    CompletableFuture<String> failed = AsyncRequestSupport.supplyAsync(() -> {
+      throw systemBusy();
+    });
+    try {
+      failed.join();
+      Assert.fail();
+    } catch (CompletionException e) {
+      Assert.assertTrue(e.getCause() instanceof WxErrorException);
+    }
+  }
+
+  @Test
+  public void testRejectedWhenPoolIsFull() {
+    AsyncRequestSupport.setBlockingExecutor(command -> {
+      throw new RejectedExecutionException("队列已满");
+    });
+    try {
+      AsyncRequestSupport.supplyAsync(() -> "ok").join();
+      Assert.fail();
+    } catch (CompletionException e) {
+      Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+    } finally {
+      AsyncRequestSupport.setBlockingExecutor(null);
+    }
+  }
+
+  private static WxErrorException systemBusy() {
+    return new WxErrorException(WxError.builder().errorCode(-1).errorMsg("系统繁忙").build());
+  }
+}
@@ -1,7 +1,10 @@
 package me.chanjar.weixin.cp.api;
 
+import me.chanjar.weixin.common.api.WxRetryPolicy;
 import me.chanjar.weixin.common.bean.WxJsapiSignature;
 import me.chanjar.weixin.common.error.WxErrorException;
+import me.chanjar.weixin.common.metrics.WxApiCallListener;
+import me.chanjar.weixin.common.ratelimit.WxRateLimiter;
 import me.chanjar.weixin.common.service.WxService;
 import me.chanjar.weixin.common.session.WxSession;
 import me.chanjar.weixin.common.session.WxSessionManager;
@@ -13,6 +16,8 @@ import me.chanjar.weixin.cp.bean.WxCpMaJsCode2SessionResult;
 import me.chanjar.weixin.cp.bean.WxCpProviderToken;
 import me.chanjar.weixin.cp.config.WxCpConfigStorage;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 微信API的Service.
  *
@@ -200,6 +205,39 @@ public interface WxCpService extends WxService {
    */
   <T, E> T execute(RequestExecutor<T, E> executor, String uri, E data) throws WxErrorException;
 
+  /**
+   * <pre>
+   * {@link #execute(RequestExecutor, String, Object)}的异步版本，调用线程不会等待微信接口返回.
+   * access_token失效时的自动刷新以及系统繁忙（-1）时的延迟重试都在后台完成，语义与同步版本一致.
+   * </pre>
+   *
+   * @param <T>      请求值类型
+   * @param <E>      返回值类型
+   * @param executor 执行器
+   * @param uri      请求地址
+   * @param data     参数
+   * @return 结果，失败时以WxErrorException等异常完成
+   */
+  <T, E> CompletableFuture<T> executeAsync(RequestExecutor<T, E> executor, String uri, E data);
+
+  /**
+   * GET请求的异步版本.
+   *
+   * @param url        请求接口地址
+   * @param queryParam 参数
+   * @return 接口响应字符串
+   */
+  CompletableFuture<String> getAsync(String url, String queryParam);
+
+  /**
+   * POST请求的异步版本.
+   *
+   * @param url      请求接口地址
+   * @param postData 请求参数json值
+   * @return 接口响应字符串
+   */
+  CompletableFuture<String> postAsync(String url, String postData);
+
   /**
    * <pre>
    * 设置当微信系统响应系统繁忙时，要等待多少 retrySleepMillis(ms) * 2^(重试次数 - 1) 再发起重试
@@ -220,6 +258,36 @@ public interface WxCpService extends WxService {
    */
   void setMaxRetryTimes(int maxRetryTimes);
 
+  /**
+   * <pre>
+   * 设置请求失败时的重试策略，设置后retrySleepMillis和maxRetryTimes不再生效.
+   * 默认：只重试-1（系统繁忙），每次等待 retrySleepMillis * 2^(重试次数 - 1)，最多重试maxRetryTimes次
+   * </pre>
+   *
+   * @param retryPolicy 重试策略，可使用{@link me.chanjar.weixin.common.api.WxBackoffRetryPolicy}
+   */
+  void setRetryPolicy(WxRetryPolicy retryPolicy);
+
+  /**
+   * <pre>
+   * 设置客户端限流器，按（corpId:agentId, 接口）限制调用频率，超出时不发出请求，直接以错误码{@link me.chanjar.weixin.common.ratelimit.WxRateLimiter#RATE_LIMITED_ERROR_CODE}失败.
+   * 默认：不限流
+   * </pre>
+   *
+   * @param rateLimiter 限流器，可使用{@link me.chanjar.weixin.common.ratelimit.WxInMemoryRateLimiter}或{@link me.chanjar.weixin.common.ratelimit.WxRedisRateLimiter}
+   */
+  void setRateLimiter(WxRateLimiter rateLimiter);
+
+  /**
+   * <pre>
+   * 设置接口调用监听器，用于采集耗时、错误码、重试次数、token刷新等指标.
+   * 默认：不设置，此时不产生任何额外开销
+   * </pre>
+   *
+   * @param apiCallListener 监听器，可使用{@link me.chanjar.weixin.common.metrics.MicrometerWxApiCallListener}
+   */
+  void setApiCallListener(WxApiCallListener apiCallListener);
+
   /**
    * 获取某个sessionId对应的session,如果sessionId没有对应的session，则新建一个并返回。
    *
@@ -4,13 +4,19 @@ import com.google.common.base.Joiner;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import lombok.extern.slf4j.Slf4j;
+import me.chanjar.weixin.common.api.WxBackoffRetryPolicy;
 import me.chanjar.weixin.common.api.WxConsts;
+import me.chanjar.weixin.common.api.WxRequestDeadline;
+import me.chanjar.weixin.common.api.WxRetryPolicy;
 import me.chanjar.weixin.common.bean.ToJson;
 import me.chanjar.weixin.common.bean.WxJsapiSignature;
 import me.chanjar.weixin.common.enums.WxType;
 import me.chanjar.weixin.common.error.WxError;
 import me.chanjar.weixin.common.error.WxErrorException;
 import me.chanjar.weixin.common.error.WxRuntimeException;
+import me.chanjar.weixin.common.metrics.WxApiCallEvent;
+import me.chanjar.weixin.common.metrics.WxApiCallListener;
+import me.chanjar.weixin.common.ratelimit.WxRateLimiter;
 import me.chanjar.weixin.common.session.StandardSessionManager;
 import me.chanjar.weixin.common.session.WxSession;
 import me.chanjar.weixin.common.session.WxSessionManager;
@@ -30,6 +36,8 @@ import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import static me.chanjar.weixin.cp.constant.WxCpApiPathConsts.*;
 
@@ -82,6 +90,13 @@ public abstract class BaseWxCpServiceImpl<H, P> implements WxCpService, RequestH
   private File tmpDirFile;
   private int retrySleepMillis = 1000;
   private int maxRetryTimes = 5;
+  private WxRetryPolicy retryPolicy;
+  /**
+   * 未设置retryPolicy时使用的策略，在设置retrySleepMillis或maxRetryTimes时重建，避免每次请求都创建新的策略.
+   */
+  private volatile WxRetryPolicy defaultRetryPolicy = WxBackoffRetryPolicy.of(1000, 5);
+  private WxRateLimiter rateLimiter;
+  private volatile WxApiCallListener apiCallListener;
 
   @Override
   public boolean checkSignature(String msgSignature, String timestamp, String nonce, String data) {
@@ -261,37 +276,57 @@ public abstract class BaseWxCpServiceImpl<H, P> implements WxCpService, RequestH
    */
   @Override
   public <T, E> T execute(RequestExecutor<T, E> executor, String uri, E data) throws WxErrorException {
+    WxApiCallListener listener = this.apiCallListener;
+    if (listener == null) {
+      return this.executeWithRetry(executor, uri, data, null);
+    }
+
+    WxApiCallEvent event = WxApiCallEvent.start(WxType.CP, this.getRetryAccountKey(), uri, data);
+    try {
+      T result = this.executeWithRetry(executor, uri, data, event);
+      listener.onApiCall(event.succeed(result));
+      return result;
+    } catch (WxErrorException | RuntimeException e) {
+      listener.onApiCall(event.fail(e));
+      throw e;
+    }
+  }
+
+  private <T, E> T executeWithRetry(RequestExecutor<T, E> executor, String uri, E data, WxApiCallEvent event)
+    throws WxErrorException {
+    WxRetryPolicy retryPolicy = this.getRetryPolicy();
+    long deadline = WxRequestDeadline.get();
     int retryTimes = 0;
-    do {
+    // 一次调用只占用一个许可，刷新access_token后的重新请求及重试均不再重复检查
+    this.checkRateLimit(uri);
+    while (true) {
       try {
         return this.executeInternal(executor, uri, data, false);
       } catch (WxErrorException e) {
-        if (retryTimes + 1 > this.maxRetryTimes) {
-          log.warn("重试达到最大次数【{}】", this.maxRetryTimes);
+        // 默认只有-1（系统繁忙）可以重试
+        if (!retryPolicy.isRetryable(e.getError())) {
+          throw e;
+        }
+
+        long sleepMillis = retryPolicy.nextRetryDelay(this.getRetryAccountKey(), retryTimes, deadline);
+        if (sleepMillis < 0) {
+          log.warn("已重试【{}】次，达到最大重试次数、重试预算或请求截止时间", retryTimes);
           //最后一次重试失败后，直接抛出异常，不再等待
-          throw new WxRuntimeException("微信服务端异常，超出重试次数");
+          throw new WxRuntimeException("微信服务端异常，超出重试次数", e);
         }
 
-        WxError error = e.getError();
-        /*
-         * -1 系统繁忙, 1000ms后重试
-         */
-        if (error.getErrorCode() == -1) {
-          int sleepMillis = this.retrySleepMillis * (1 << retryTimes);
-          try {
-            log.debug("微信系统繁忙，{} ms 后重试(第{}次)", sleepMillis, retryTimes + 1);
-            Thread.sleep(sleepMillis);
-          } catch (InterruptedException e1) {
-            Thread.currentThread().interrupt();
-          }
-        } else {
-          throw e;
+        try {
+          log.warn("微信系统繁忙，{} ms 后重试(第{}次)", sleepMillis, retryTimes + 1);
+          Thread.sleep(sleepMillis);
+        } catch (InterruptedException e1) {
+          Thread.currentThread().interrupt();
+        }
+        retryTimes++;
+        if (event != null) {
+          event.retried();
         }
       }
-    } while (retryTimes++ < this.maxRetryTimes);
-
-    log.warn("重试达到最大次数【{}】", this.maxRetryTimes);
-    throw new WxRuntimeException("微信服务端异常，超出重试次数");
+    }
   }
 
   protected <T, E> T executeInternal(RequestExecutor<T, E> executor, String uri, E data, boolean doNotAutoRefresh) throws WxErrorException {
@@ -314,6 +349,7 @@ public abstract class BaseWxCpServiceImpl<H, P> implements WxCpService, RequestH
       if (WxConsts.ACCESS_TOKEN_ERROR_CODES.contains(error.getErrorCode())) {
         // 强制设置wxCpConfigStorage它的access token过期了，这样在下一次请求里就会刷新access token
         this.configStorage.expireAccessToken();
+        this.onAccessTokenInvalid(error.getErrorCode());
         if (this.getWxCpConfigStorage().autoRefreshToken() && !doNotAutoRefresh) {
           log.warn("即将重新获取新的access_token，错误代码：{}，错误信息：{}", error.getErrorCode(), error.getErrorMsg());
           //下一次不再自动重试
@@ -333,6 +369,87 @@ public abstract class BaseWxCpServiceImpl<H, P> implements WxCpService, RequestH
     }
   }
 
+  @Override
+  public <T, E> CompletableFuture<T> executeAsync(RequestExecutor<T, E> executor, String uri, E data) {
+    WxApiCallListener listener = this.apiCallListener;
+    WxApiCallEvent event = listener == null ? null
+      : WxApiCallEvent.start(WxType.CP, this.getRetryAccountKey(), uri, data);
+    CompletableFuture<T> future = this.isRateLimited(uri)
+      ? AsyncRequestSupport.failedFuture(this.rateLimitedError(uri))
+      : AsyncRequestSupport.retry(() -> this.executeInternalAsync(executor, uri, data, false),
+        this.getRetryPolicy(), this.getRetryAccountKey(), WxRequestDeadline.get(),
+        e -> new WxRuntimeException("微信服务端异常，超出重试次数", e), event == null ? null : event::retried);
+    if (event == null) {
+      return future;
+    }
+
+    return future.whenComplete((result, throwable) ->
+      listener.onApiCall(throwable == null ? event.succeed(result) : event.fail(AsyncRequestSupport.unwrap(throwable))));
+  }
+
+  @Override
+  public CompletableFuture<String> getAsync(String url, String queryParam) {
+    return this.executeAsync(SimpleGetRequestExecutor.create(this), url, queryParam);
+  }
+
+  @Override
+  public CompletableFuture<String> postAsync(String url, String postData) {
+    return this.executeAsync(SimplePostRequestExecutor.create(this), url, postData);
+  }
+
+  protected <T, E> CompletableFuture<T> executeInternalAsync(RequestExecutor<T, E> executor, String uri, E data,
+                                                             boolean doNotAutoRefresh) {
+    if (uri.contains("access_token=")) {
+      return AsyncRequestSupport.failedFuture(new IllegalArgumentException("uri参数中不允许有access_token: " + uri));
+    }
+
+    // 读取或刷新access_token可能涉及存储的网络读写及锁，在后台线程中进行，不阻塞调用线程
+    return AsyncRequestSupport.supplyAsync(() -> this.getAccessToken(false)).thenCompose(accessToken -> {
+      String uriWithAccessToken = uri + (uri.contains("?") ? "&" : "?") + "access_token=" + accessToken;
+      return executor.executeAsync(uriWithAccessToken, data, WxType.CP).handle((result, throwable) -> {
+        E dataForLog = DataUtils.handleDataWithSecret(data);
+        if (throwable == null) {
+          log.debug("\n【请求地址】: {}\n【请求参数】：{}\n【响应数据】：{}", uriWithAccessToken, dataForLog, result);
+          return CompletableFuture.completedFuture(result);
+        }
+
+        Throwable e = AsyncRequestSupport.unwrap(throwable);
+        if (e instanceof IOException) {
+          log.error("\n【请求地址】: {}\n【请求参数】：{}\n【异常信息】：{}", uriWithAccessToken, dataForLog, e.getMessage());
+          return AsyncRequestSupport.<T>failedFuture(new WxRuntimeException(e));
+        }
+
+        if (!(e instanceof WxErrorException)) {
+          return AsyncRequestSupport.<T>failedFuture(e);
+        }
+
+        WxError error = ((WxErrorException) e).getError();
+        if (WxConsts.ACCESS_TOKEN_ERROR_CODES.contains(error.getErrorCode())) {
+          // 使access_token过期需要获取其锁（redis存储时为分布式锁），不能在http客户端或重试调度的回调线程中执行
+          return AsyncRequestSupport.supplyAsync(() -> {
+            this.configStorage.expireAccessToken();
+            this.onAccessTokenInvalid(error.getErrorCode());
+            return null;
+          }).thenCompose(ignored -> {
+            if (this.getWxCpConfigStorage().autoRefreshToken() && !doNotAutoRefresh) {
+              log.warn("即将重新获取新的access_token，错误代码：{}，错误信息：{}", error.getErrorCode(), error.getErrorMsg());
+              return this.executeInternalAsync(executor, uri, data, true);
+            }
+
+            log.error("\n【请求地址】: {}\n【请求参数】：{}\n【错误信息】：{}", uriWithAccessToken, dataForLog, error);
+            return AsyncRequestSupport.<T>failedFuture(new WxErrorException(error, e));
+          });
+        }
+
+        if (error.getErrorCode() != 0) {
+          log.error("\n【请求地址】: {}\n【请求参数】：{}\n【错误信息】：{}", uriWithAccessToken, dataForLog, error);
+          return AsyncRequestSupport.<T>failedFuture(new WxErrorException(error, e));
+        }
+        return CompletableFuture.<T>completedFuture(null);
+      }).thenCompose(Function.identity());
+    });
+  }
+
   /**
    * 普通请求，不自动带accessToken
    */
@@ -363,12 +480,76 @@ public abstract class BaseWxCpServiceImpl<H, P> implements WxCpService, RequestH
   @Override
   public void setRetrySleepMillis(int retrySleepMillis) {
     this.retrySleepMillis = retrySleepMillis;
+    this.defaultRetryPolicy = WxBackoffRetryPolicy.of(this.retrySleepMillis, this.maxRetryTimes);
   }
 
 
   @Override
   public void setMaxRetryTimes(int maxRetryTimes) {
     this.maxRetryTimes = maxRetryTimes;
+    this.defaultRetryPolicy = WxBackoffRetryPolicy.of(this.retrySleepMillis, this.maxRetryTimes);
+  }
+
+  @Override
+  public void setRetryPolicy(WxRetryPolicy retryPolicy) {
+    this.retryPolicy = retryPolicy;
+  }
+
+  /**
+   * @return 重试策略，未设置时按retrySleepMillis和maxRetryTimes进行指数退避重试
+   */
+  protected WxRetryPolicy getRetryPolicy() {
+    return this.retryPolicy != null ? this.retryPolicy : this.defaultRetryPolicy;
+  }
+
+  @Override
+  public void setRateLimiter(WxRateLimiter rateLimiter) {
+    this.rateLimiter = rateLimiter;
+  }
+
+  /**
+   * 被客户端限流时不发出请求，直接失败.
+   */
+  private void checkRateLimit(String uri) throws WxErrorException {
+    if (this.isRateLimited(uri)) {
+      throw this.rateLimitedError(uri);
+    }
+  }
+
+  private boolean isRateLimited(String uri) {
+    return this.rateLimiter != null && !this.rateLimiter.tryAcquire(this.getRetryAccountKey(), uri);
+  }
+
+  private WxErrorException rateLimitedError(String uri) {
+    log.warn("超出客户端限流配置，请求未发出：{}", uri);
+    return new WxErrorException(WxError.builder().errorCode(WxRateLimiter.RATE_LIMITED_ERROR_CODE)
+      .errorMsg("超出客户端限流配置，请求未发出").build());
+  }
+
+  @Override
+  public void setApiCallListener(WxApiCallListener apiCallListener) {
+    this.apiCallListener = apiCallListener;
+  }
+
+  /**
+   * access token 刷新成功后由各实现类调用，通知接口调用监听器.
+   */
+  protected void onAccessTokenRefreshed() {
+    WxApiCallListener listener = this.apiCallListener;
+    if (listener != null) {
+      listener.onAccessTokenRefreshed(WxType.CP, this.getRetryAccountKey());
+    }
+  }
+
+  private void onAccessTokenInvalid(int errorCode) {
+    WxApiCallListener listener = this.apiCallListener;
+    if (listener != null) {
+      listener.onAccessTokenInvalid(WxType.CP, this.getRetryAccountKey(), errorCode);
+    }
+  }
+
+  private String getRetryAccountKey() {
+    return this.getWxCpConfigStorage().getCorpId() + ":" + this.getWxCpConfigStorage().getAgentId();
   }
 
   @Override
@@ -72,6 +72,7 @@ public class WxCpServiceApacheHttpClientImpl extends BaseWxCpServiceImpl<Closeab
 
         WxAccessToken accessToken = WxAccessToken.fromJson(resultContent);
         this.configStorage.updateAccessToken(accessToken.getAccessToken(), accessToken.getExpiresIn());
+        this.onAccessTokenRefreshed();
       } catch (IOException e) {
         throw new WxRuntimeException(e);
       }
@@ -69,6 +69,7 @@ public class WxCpServiceImpl extends WxCpServiceApacheHttpClientImpl {
 
         WxAccessToken accessToken = WxAccessToken.fromJson(resultContent);
         configStorage.updateAccessToken(accessToken.getAccessToken(), accessToken.getExpiresIn());
+        this.onAccessTokenRefreshed();
       } catch (IOException e) {
         throw new WxRuntimeException(e);
       }
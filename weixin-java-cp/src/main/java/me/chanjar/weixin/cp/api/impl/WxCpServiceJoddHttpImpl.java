@@ -57,6 +57,7 @@ public class WxCpServiceJoddHttpImpl extends BaseWxCpServiceImpl<HttpConnectionP
       }
       WxAccessToken accessToken = WxAccessToken.fromJson(resultContent);
       this.configStorage.updateAccessToken(accessToken.getAccessToken(), accessToken.getExpiresIn());
+      this.onAccessTokenRefreshed();
     }
     return this.configStorage.getAccessToken();
   }
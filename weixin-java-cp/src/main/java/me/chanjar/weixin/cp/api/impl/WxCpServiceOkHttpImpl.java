@@ -66,6 +66,7 @@ public class WxCpServiceOkHttpImpl extends BaseWxCpServiceImpl<OkHttpClient, OkH
       WxAccessToken accessToken = WxAccessToken.fromJson(resultContent);
       this.configStorage.updateAccessToken(accessToken.getAccessToken(),
         accessToken.getExpiresIn());
+      this.onAccessTokenRefreshed();
     }
     return this.configStorage.getAccessToken();
   }
@@ -27,6 +27,7 @@ public class WxCpServiceOnTpImpl extends WxCpServiceApacheHttpClientImpl {
     WxAccessToken accessToken = wxCpTpService.getCorpToken(this.configStorage.getCorpId(), this.configStorage.getCorpSecret());
 
     this.configStorage.updateAccessToken(accessToken.getAccessToken(), accessToken.getExpiresIn());
+    this.onAccessTokenRefreshed();
     return this.configStorage.getAccessToken();
   }
 
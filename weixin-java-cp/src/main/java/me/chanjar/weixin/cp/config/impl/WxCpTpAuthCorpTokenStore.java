@@ -0,0 +1,313 @@
+package me.chanjar.weixin.cp.config.impl;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import me.chanjar.weixin.common.redis.WxRedisOps;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <pre>
+ * 第三方应用授权企业的凭证存储，保存各授权企业的access_token、企业jsapi_ticket及应用jsapi_ticket.
+ *
+ * 每个授权企业对应一个条目，条目内以不可变对象保存凭证及其过期时间，读取时无需加锁；
+ * 条目同时持有各凭证的刷新锁，配合 {@link me.chanjar.weixin.cp.tp.service.impl.BaseWxCpTpServiceImpl}
+ * 实现同一授权企业同一时刻只有一个线程去刷新凭证.
+ *
+ * 条目数超过 maxSize 时，会先清理凭证均已过期且超过 idleMillis 未被访问的企业，仍然超出时再按最近访问时间淘汰，
+ * 直到条目数不超过 maxSize 的90%，以此限制内存占用；正在刷新凭证（刷新锁被持有）的企业不会被清理.
+ *
+ * 通过 {@link #forSuite(WxRedisOps, String)} 或 {@link #WxCpTpAuthCorpTokenStore(WxRedisOps, String)} 构造时，凭证会同时写入redis，
+ * 本地没有或已过期时从redis读取，因此被淘汰的企业或集群中其他节点刷新过的凭证无需重新获取.
+ * 序列化时只保存本地的凭证，反序列化后的对象不再读写redis.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class WxCpTpAuthCorpTokenStore implements Serializable {
+  private static final long serialVersionUID = -3504236541275342195L;
+
+  /**
+   * 凭证类型.
+   */
+  public enum TokenType {
+    /**
+     * 授权企业的access_token.
+     */
+    ACCESS_TOKEN("access_token"),
+    /**
+     * 授权企业的jsapi_ticket.
+     */
+    CORP_JSAPI_TICKET("corp_jsapi_ticket"),
+    /**
+     * 第三方应用的jsapi_ticket.
+     */
+    SUITE_JSAPI_TICKET("suite_jsapi_ticket");
+
+    private final String key;
+
+    TokenType(String key) {
+      this.key = key;
+    }
+  }
+
+  private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+  private final Map<String, CorpEntry> entries = new ConcurrentHashMap<>();
+  private final transient WxRedisOps redisOps;
+  private final String keyPrefix;
+
+  /**
+   * 最多保存的授权企业数.
+   */
+  @Getter
+  @Setter
+  private int maxSize = 100_000;
+
+  /**
+   * 凭证均已过期的企业超过多久未被访问即可被清理（毫秒）.
+   */
+  @Getter
+  @Setter
+  private long idleMillis = 30 * 60 * 1000L;
+
+  /**
+   * 仅保存在本地内存中.
+   */
+  public WxCpTpAuthCorpTokenStore() {
+    this(null, null);
+  }
+
+  /**
+   * @param redisOps  redis操作，为null时仅保存在本地内存中
+   * @param keyPrefix redis中key的前缀，redisOps不为null时必填，且同一redis中有多个第三方应用时应包含suiteId以作区分，
+   *                  也可使用 {@link #forSuite(WxRedisOps, String)} 按suiteId生成
+   */
+  public WxCpTpAuthCorpTokenStore(WxRedisOps redisOps, String keyPrefix) {
+    if (redisOps != null && StringUtils.isBlank(keyPrefix)) {
+      throw new IllegalArgumentException("使用redis时keyPrefix不能为空");
+    }
+    this.redisOps = redisOps;
+    this.keyPrefix = StringUtils.defaultString(keyPrefix);
+  }
+
+  /**
+   * 创建同时写入redis的存储，key的前缀为 wx:cp:tp:{suiteId}:corp: ，多个第三方应用可共用同一redis.
+   *
+   * @param redisOps redis操作
+   * @param suiteId  第三方应用的suiteId
+   * @return 授权企业凭证的存储
+   */
+  public static WxCpTpAuthCorpTokenStore forSuite(@NonNull WxRedisOps redisOps, @NonNull String suiteId) {
+    return new WxCpTpAuthCorpTokenStore(redisOps, "wx:cp:tp:" + suiteId + ":corp:");
+  }
+
+  /**
+   * @return 凭证，不存在时返回null
+   */
+  public String getValue(String authCorpId, TokenType type) {
+    Token token = this.current(authCorpId, type);
+    return token == null ? null : token.value;
+  }
+
+  /**
+   * @return 凭证的过期时间（毫秒时间戳），不存在时返回0
+   */
+  public long getExpiresTime(String authCorpId, TokenType type) {
+    Token token = this.current(authCorpId, type);
+    return token == null ? 0 : token.expiresTime;
+  }
+
+  public boolean isExpired(String authCorpId, TokenType type) {
+    Token token = this.current(authCorpId, type);
+    return token == null || token.isExpired(System.currentTimeMillis());
+  }
+
+  /**
+   * 更新凭证.
+   *
+   * @param expiresInSeconds 从现在起的有效秒数
+   */
+  public void update(String authCorpId, TokenType type, String value, int expiresInSeconds) {
+    this.entry(authCorpId).tokens.set(type.ordinal(),
+      new Token(value, System.currentTimeMillis() + expiresInSeconds * 1000L));
+    if (this.redisOps != null && expiresInSeconds > 0) {
+      this.redisOps.setValue(this.redisKey(authCorpId, type), value, expiresInSeconds, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * 使凭证过期.
+   */
+  public void expire(String authCorpId, TokenType type) {
+    CorpEntry entry = this.entries.get(authCorpId);
+    if (entry != null) {
+      entry.tokens.set(type.ordinal(), null);
+    }
+    if (this.redisOps != null) {
+      this.redisOps.expire(this.redisKey(authCorpId, type), 0, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * @return 该授权企业该类凭证的刷新锁
+   */
+  public Lock getLock(String authCorpId, TokenType type) {
+    return this.entry(authCorpId).locks[type.ordinal()];
+  }
+
+  /**
+   * 移除授权企业的本地条目，比如企业取消授权时.
+   */
+  public void remove(String authCorpId) {
+    this.entries.remove(authCorpId);
+  }
+
+  /**
+   * @return 本地保存的授权企业数
+   */
+  public int size() {
+    return this.entries.size();
+  }
+
+  /**
+   * 清理凭证均已过期且超过idleMillis未被访问的企业，条目数仍超过maxSize时按最近访问时间淘汰.
+   */
+  public synchronized void cleanUp() {
+    long now = System.currentTimeMillis();
+    this.entries.entrySet().removeIf(e -> e.getValue().isInactive(now, this.idleMillis) && !e.getValue().isLocked());
+
+    int overflow = this.entries.size() - this.maxSize / 10 * 9;
+    if (this.entries.size() <= this.maxSize || overflow <= 0) {
+      return;
+    }
+
+    List<Map.Entry<String, CorpEntry>> candidates = new ArrayList<>(this.entries.entrySet());
+    candidates.sort((a, b) -> Long.compare(a.getValue().lastAccessTime, b.getValue().lastAccessTime));
+    for (int i = 0; overflow > 0 && i < candidates.size(); i++) {
+      Map.Entry<String, CorpEntry> candidate = candidates.get(i);
+      // 正在刷新的企业被淘汰后，其他线程会拿到新条目中的另一把锁而重复刷新
+      if (!candidate.getValue().isLocked() && this.entries.remove(candidate.getKey(), candidate.getValue())) {
+        overflow--;
+      }
+    }
+  }
+
+  private Token current(String authCorpId, TokenType type) {
+    CorpEntry entry = this.entries.get(authCorpId);
+    long now = System.currentTimeMillis();
+    Token token = null;
+    if (entry != null) {
+      entry.touch(now);
+      token = entry.tokens.get(type.ordinal());
+      if (token != null && !token.isExpired(now)) {
+        return token;
+      }
+    }
+
+    if (this.redisOps == null) {
+      return token;
+    }
+
+    String key = this.redisKey(authCorpId, type);
+    String value = this.redisOps.getValue(key);
+    if (StringUtils.isBlank(value)) {
+      return token;
+    }
+    Long ttl = this.redisOps.getExpire(key);
+    if (ttl == null || ttl <= 0) {
+      return token;
+    }
+
+    Token loaded = new Token(value, now + ttl * 1000L);
+    (entry != null ? entry : this.entry(authCorpId)).tokens.set(type.ordinal(), loaded);
+    return loaded;
+  }
+
+  private CorpEntry entry(String authCorpId) {
+    CorpEntry entry = this.entries.get(authCorpId);
+    if (entry != null) {
+      entry.touch(System.currentTimeMillis());
+      return entry;
+    }
+
+    entry = this.entries.computeIfAbsent(authCorpId, k -> new CorpEntry());
+    if (this.entries.size() > this.maxSize) {
+      this.cleanUp();
+    }
+    return entry;
+  }
+
+  private String redisKey(String authCorpId, TokenType type) {
+    return this.keyPrefix + authCorpId + ":" + type.key;
+  }
+
+  private static class Token implements Serializable {
+    private static final long serialVersionUID = 4327614720346861395L;
+
+    private final String value;
+    private final long expiresTime;
+
+    private Token(String value, long expiresTime) {
+      this.value = value;
+      this.expiresTime = expiresTime;
+    }
+
+    private boolean isExpired(long now) {
+      return now > this.expiresTime;
+    }
+  }
+
+  private static class CorpEntry implements Serializable {
+    private static final long serialVersionUID = -6218503519412893147L;
+
+    private final AtomicReferenceArray<Token> tokens = new AtomicReferenceArray<>(TOKEN_TYPES.length);
+    private final ReentrantLock[] locks = new ReentrantLock[TOKEN_TYPES.length];
+    private volatile long lastAccessTime = System.currentTimeMillis();
+
+    private CorpEntry() {
+      for (int i = 0; i < this.locks.length; i++) {
+        this.locks[i] = new ReentrantLock();
+      }
+    }
+
+    private void touch(long now) {
+      // 避免每次读取都写volatile字段，精确到秒即可
+      if (now - this.lastAccessTime > 1000) {
+        this.lastAccessTime = now;
+      }
+    }
+
+    private boolean isLocked() {
+      for (ReentrantLock lock : this.locks) {
+        if (lock.isLocked()) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean isInactive(long now, long idleMillis) {
+      if (now - this.lastAccessTime <= idleMillis) {
+        return false;
+      }
+      for (int i = 0; i < this.tokens.length(); i++) {
+        Token token = this.tokens.get(i);
+        if (token != null && !token.isExpired(now)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
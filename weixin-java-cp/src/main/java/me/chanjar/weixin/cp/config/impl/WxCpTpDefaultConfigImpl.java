@@ -4,12 +4,12 @@ import me.chanjar.weixin.common.bean.WxAccessToken;
 import me.chanjar.weixin.common.util.http.apache.ApacheHttpClientBuilder;
 import me.chanjar.weixin.cp.bean.WxCpProviderToken;
 import me.chanjar.weixin.cp.config.WxCpTpConfigStorage;
+import me.chanjar.weixin.cp.config.impl.WxCpTpAuthCorpTokenStore.TokenType;
 import me.chanjar.weixin.cp.util.json.WxCpGsonBuilder;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
 import java.io.Serializable;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
@@ -25,9 +25,6 @@ public class WxCpTpDefaultConfigImpl implements WxCpTpConfigStorage, Serializabl
 
   private final transient Map<String, Lock> providerAccessTokenLocker = new ConcurrentHashMap<>();
   private final transient Map<String, Lock> suiteAccessTokenLocker = new ConcurrentHashMap<>();
-  private final transient Map<String, Lock> accessTokenLocker = new ConcurrentHashMap<>();
-  private final transient Map<String, Lock> authCorpJsapiTicketLocker = new ConcurrentHashMap<>();
-  private final transient Map<String, Lock> authSuiteJsapiTicketLocker = new ConcurrentHashMap<>();
   private volatile String corpId;
   private volatile String corpSecret;
   /**
@@ -45,12 +42,10 @@ public class WxCpTpDefaultConfigImpl implements WxCpTpConfigStorage, Serializabl
   private volatile String suiteTicket;
   private volatile long suiteTicketExpiresTime;
   private volatile String oauth2redirectUri;
-  private volatile Map<String, String> authCorpAccessTokenMap = new HashMap<>();
-  private volatile Map<String, Long> authCorpAccessTokenExpireTimeMap = new HashMap<>();
-  private volatile Map<String, String> authCorpJsApiTicketMap = new HashMap<>();
-  private volatile Map<String, Long> authCorpJsApiTicketExpireTimeMap = new HashMap<>();
-  private volatile Map<String, String> authSuiteJsApiTicketMap = new HashMap<>();
-  private volatile Map<String, Long> authSuiteJsApiTicketExpireTimeMap = new HashMap<>();
+  /**
+   * 各授权企业的access_token及jsapi_ticket.
+   */
+  private volatile WxCpTpAuthCorpTokenStore authCorpTokenStore;
   private volatile String httpProxyHost;
   private volatile int httpProxyPort;
   private volatile String httpProxyUsername;
@@ -274,15 +269,43 @@ public class WxCpTpDefaultConfigImpl implements WxCpTpConfigStorage, Serializabl
     return providerSecret;
   }
 
+  /**
+   * @return 授权企业凭证的存储
+   */
+  public WxCpTpAuthCorpTokenStore getAuthCorpTokenStore() {
+    WxCpTpAuthCorpTokenStore store = this.authCorpTokenStore;
+    if (store == null) {
+      synchronized (this) {
+        store = this.authCorpTokenStore;
+        if (store == null) {
+          store = new WxCpTpAuthCorpTokenStore();
+          this.authCorpTokenStore = store;
+        }
+      }
+    }
+    return store;
+  }
+
+  /**
+   * 设置授权企业凭证的存储，比如需要调整最多保存的企业数，
+   * 或者通过 {@link WxCpTpAuthCorpTokenStore#forSuite(me.chanjar.weixin.common.redis.WxRedisOps, String)} 持久化到redis.
+   *
+   * @param authCorpTokenStore 授权企业凭证的存储
+   */
+  public void setAuthCorpTokenStore(WxCpTpAuthCorpTokenStore authCorpTokenStore) {
+    this.authCorpTokenStore = authCorpTokenStore;
+  }
+
   @Override
   public String getAccessToken(String authCorpId) {
-    return authCorpAccessTokenMap.get(authCorpId);
+    return this.getAuthCorpTokenStore().getValue(authCorpId, TokenType.ACCESS_TOKEN);
   }
 
   @Override
   public WxAccessToken getAccessTokenEntity(String authCorpId) {
-    String accessToken = authCorpAccessTokenMap.getOrDefault(authCorpId, StringUtils.EMPTY);
-    Long expire = authCorpAccessTokenExpireTimeMap.getOrDefault(authCorpId, 0L);
+    WxCpTpAuthCorpTokenStore store = this.getAuthCorpTokenStore();
+    String accessToken = StringUtils.defaultString(store.getValue(authCorpId, TokenType.ACCESS_TOKEN));
+    long expire = store.getExpiresTime(authCorpId, TokenType.ACCESS_TOKEN);
     WxAccessToken accessTokenEntity = new WxAccessToken();
     accessTokenEntity.setAccessToken(accessToken);
     accessTokenEntity.setExpiresIn((int) ((expire - System.currentTimeMillis()) / 1000 + 200));
@@ -292,80 +315,61 @@ public class WxCpTpDefaultConfigImpl implements WxCpTpConfigStorage, Serializabl
   @Override
   public boolean isAccessTokenExpired(String authCorpId) {
     //不存在或者过期
-    return authCorpAccessTokenExpireTimeMap.get(authCorpId) == null
-      || System.currentTimeMillis() > authCorpAccessTokenExpireTimeMap.get(authCorpId);
+    return this.getAuthCorpTokenStore().isExpired(authCorpId, TokenType.ACCESS_TOKEN);
   }
 
   @Override
   public void expireAccessToken(String authCorpId) {
-    authCorpAccessTokenMap.remove(authCorpId);
-    authCorpAccessTokenExpireTimeMap.remove(authCorpId);
+    this.getAuthCorpTokenStore().expire(authCorpId, TokenType.ACCESS_TOKEN);
   }
 
   @Override
   public void updateAccessToken(String authCorpId, String accessToken, int expiredInSeconds) {
-    authCorpAccessTokenMap.put(authCorpId, accessToken);
     // 预留200秒的时间
-    authCorpAccessTokenExpireTimeMap.put(authCorpId, System.currentTimeMillis() + (expiredInSeconds - 200) * 1000L);
+    this.getAuthCorpTokenStore().update(authCorpId, TokenType.ACCESS_TOKEN, accessToken, expiredInSeconds - 200);
   }
 
 
   @Override
   public String getAuthCorpJsApiTicket(String authCorpId) {
-    return this.authCorpJsApiTicketMap.get(authCorpId);
+    return this.getAuthCorpTokenStore().getValue(authCorpId, TokenType.CORP_JSAPI_TICKET);
   }
 
   @Override
   public boolean isAuthCorpJsApiTicketExpired(String authCorpId) {
-    Long t = this.authCorpJsApiTicketExpireTimeMap.get(authCorpId);
-    if (t == null) {
-      return true;
-    }
-
-    return System.currentTimeMillis() > t;
+    return this.getAuthCorpTokenStore().isExpired(authCorpId, TokenType.CORP_JSAPI_TICKET);
   }
 
   @Override
   public void expireAuthCorpJsApiTicket(String authCorpId) {
-    this.authCorpJsApiTicketMap.remove(authCorpId);
-    this.authCorpJsApiTicketExpireTimeMap.remove(authCorpId);
+    this.getAuthCorpTokenStore().expire(authCorpId, TokenType.CORP_JSAPI_TICKET);
   }
 
   @Override
   public void updateAuthCorpJsApiTicket(String authCorpId, String jsApiTicket, int expiredInSeconds) {
-    // 应该根据不同的授权企业做区分
-    authCorpJsApiTicketMap.put(authCorpId, jsApiTicket);
     // 预留200秒的时间
-    authCorpJsApiTicketExpireTimeMap.put(authCorpId, System.currentTimeMillis() + (expiredInSeconds - 200) * 1000L);
+    this.getAuthCorpTokenStore().update(authCorpId, TokenType.CORP_JSAPI_TICKET, jsApiTicket, expiredInSeconds - 200);
   }
 
   @Override
   public String getAuthSuiteJsApiTicket(String authCorpId) {
-    return authSuiteJsApiTicketMap.get(authCorpId);
+    return this.getAuthCorpTokenStore().getValue(authCorpId, TokenType.SUITE_JSAPI_TICKET);
   }
 
   @Override
   public boolean isAuthSuiteJsApiTicketExpired(String authCorpId) {
-    Long t = authSuiteJsApiTicketExpireTimeMap.get(authCorpId);
-    if (t == null) {
-      return true;
-    }
-
-    return System.currentTimeMillis() > t;
+    return this.getAuthCorpTokenStore().isExpired(authCorpId, TokenType.SUITE_JSAPI_TICKET);
   }
 
   @Override
   public void expireAuthSuiteJsApiTicket(String authCorpId) {
-    this.authSuiteJsApiTicketMap.remove(authCorpId);
-    this.authSuiteJsApiTicketExpireTimeMap.remove(authCorpId);
+    this.getAuthCorpTokenStore().expire(authCorpId, TokenType.SUITE_JSAPI_TICKET);
   }
 
   @Override
   public void updateAuthSuiteJsApiTicket(String authCorpId, String jsApiTicket, int expiredInSeconds) {
-    // 应该根据不同的授权企业做区分
-    authSuiteJsApiTicketMap.put(authCorpId, jsApiTicket);
     // 预留200秒的时间
-    authSuiteJsApiTicketExpireTimeMap.put(authCorpId, System.currentTimeMillis() + (expiredInSeconds - 200) * 1000L);
+    this.getAuthCorpTokenStore().update(authCorpId, TokenType.SUITE_JSAPI_TICKET, jsApiTicket, expiredInSeconds - 200);
   }
 
   @Override
@@ -491,20 +495,17 @@ public class WxCpTpDefaultConfigImpl implements WxCpTpConfigStorage, Serializabl
 
   @Override
   public Lock getAccessTokenLock(String authCorpId) {
-    return this.accessTokenLocker
-      .computeIfAbsent(String.join(":", this.suiteId, authCorpId), key -> new ReentrantLock());
+    return this.getAuthCorpTokenStore().getLock(authCorpId, TokenType.ACCESS_TOKEN);
   }
 
   @Override
   public Lock getAuthCorpJsapiTicketLock(String authCorpId) {
-    return this.authCorpJsapiTicketLocker
-      .computeIfAbsent(String.join(":", this.suiteId, authCorpId), key -> new ReentrantLock());
+    return this.getAuthCorpTokenStore().getLock(authCorpId, TokenType.CORP_JSAPI_TICKET);
   }
 
   @Override
   public Lock getSuiteJsapiTicketLock(String authCorpId) {
-    return this.authSuiteJsapiTicketLocker
-      .computeIfAbsent(String.join(":", this.suiteId, authCorpId), key -> new ReentrantLock());
+    return this.getAuthCorpTokenStore().getLock(authCorpId, TokenType.SUITE_JSAPI_TICKET);
   }
 
   @Override
@@ -1,10 +1,11 @@
 package me.chanjar.weixin.cp.message;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
 import me.chanjar.weixin.common.api.WxErrorExceptionHandler;
 import me.chanjar.weixin.common.api.WxMessageDuplicateChecker;
+import me.chanjar.weixin.common.api.WxMessageExecutors;
 import me.chanjar.weixin.common.api.WxMessageInMemoryDuplicateChecker;
+import me.chanjar.weixin.common.api.WxMessageRuleIndex;
 import me.chanjar.weixin.common.session.InternalSession;
 import me.chanjar.weixin.common.session.InternalSessionManager;
 import me.chanjar.weixin.common.session.WxSessionManager;
@@ -18,7 +19,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.*;
+import java.util.concurrent.ExecutorService;
 
 /**
  * <pre>
@@ -51,8 +52,11 @@ import java.util.concurrent.*;
 @Slf4j
 public class WxCpMessageRouter {
   private static final int DEFAULT_THREAD_POOL_SIZE = 100;
+  private static final int DEFAULT_QUEUE_CAPACITY = 10000;
   private final List<WxCpMessageRouterRule> rules = new ArrayList<>();
 
+  private volatile WxMessageRuleIndex<WxCpMessageRouterRule> ruleIndex;
+
   private final WxCpService wxCpService;
 
   private ExecutorService executorService;
@@ -68,9 +72,8 @@ public class WxCpMessageRouter {
    */
   public WxCpMessageRouter(WxCpService wxCpService) {
     this.wxCpService = wxCpService;
-    ThreadFactory namedThreadFactory = new ThreadFactoryBuilder().setNameFormat("WxCpMessageRouter-pool-%d").build();
-    this.executorService = new ThreadPoolExecutor(DEFAULT_THREAD_POOL_SIZE, DEFAULT_THREAD_POOL_SIZE,
-      0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), namedThreadFactory);
+    this.executorService = WxMessageExecutors.newBoundedExecutor("WxCpMessageRouter-pool-%d", DEFAULT_THREAD_POOL_SIZE,
+      DEFAULT_QUEUE_CAPACITY);
     this.messageDuplicateChecker = new WxMessageInMemoryDuplicateChecker();
     this.sessionManager = wxCpService.getSessionManager();
     this.exceptionHandler = new LogExceptionHandler();
@@ -79,7 +82,8 @@ public class WxCpMessageRouter {
   /**
    * <pre>
    * 设置自定义的 {@link ExecutorService}
-   * 如果不调用该方法，默认使用 Executors.newFixedThreadPool(100)
+   * 如果不调用该方法，默认使用100个线程、队列长度10000的线程池，队列满时由调用线程执行
+   * 需要同一个用户的消息按顺序处理时，可使用 {@link WxMessageExecutors#newOrderedExecutor(String, int, int)}
    * </pre>
    */
   public void setExecutorService(ExecutorService executorService) {
@@ -120,6 +124,23 @@ public class WxCpMessageRouter {
     return this.rules;
   }
 
+  /**
+   * 已添加规则的匹配条件发生变化，下次路由时重建索引.
+   */
+  void ruleChanged() {
+    this.ruleIndex = null;
+  }
+
+  private WxMessageRuleIndex<WxCpMessageRouterRule> getRuleIndex() {
+    WxMessageRuleIndex<WxCpMessageRouterRule> index = this.ruleIndex;
+    if (index == null || !index.isBuiltFrom(this.rules)) {
+      index = new WxMessageRuleIndex<>(this.rules, WxCpMessageRouterRule::getMsgType, WxCpMessageRouterRule::getEvent,
+        WxCpMessageRouterRule::getEventKey, WxCpMessageRouterRule::getContent);
+      this.ruleIndex = index;
+    }
+    return index;
+  }
+
   /**
    * 开始一个新的Route规则.
    */
@@ -137,8 +158,10 @@ public class WxCpMessageRouter {
     }
 
     final List<WxCpMessageRouterRule> matchRules = new ArrayList<>();
-    // 收集匹配的规则
-    for (final WxCpMessageRouterRule rule : this.rules) {
+    // 收集匹配的规则，只需检查索引中与消息对应的规则
+    List<WxCpMessageRouterRule> candidates = this.getRuleIndex().candidates(wxMessage.getMsgType(),
+      wxMessage.getEvent(), wxMessage.getEventKey(), StringUtils.trimToNull(wxMessage.getContent()));
+    for (final WxCpMessageRouterRule rule : candidates) {
       if (rule.test(wxMessage)) {
         matchRules.add(rule);
         if (!rule.isReEnter()) {
@@ -152,15 +175,19 @@ public class WxCpMessageRouter {
     }
 
     WxCpXmlOutMessage res = null;
-    final List<Future> futures = new ArrayList<>();
     for (final WxCpMessageRouterRule rule : matchRules) {
       // 返回最后一个非异步的rule的执行结果
       if (rule.isAsync()) {
-        futures.add(
-          this.executorService.submit(() -> {
+        // 执行器为 WxOrderedExecutor 时，同一个用户的异步规则按顺序执行
+        WxMessageExecutors.submit(this.executorService, wxMessage.getFromUserName(), () -> {
+          try {
             rule.service(wxMessage, context, WxCpMessageRouter.this.wxCpService, WxCpMessageRouter.this.sessionManager, WxCpMessageRouter.this.exceptionHandler);
-          })
-        );
+          } finally {
+            log.debug("End session access: async=true, sessionId={}", wxMessage.getFromUserName());
+            // 异步操作结束，session访问结束
+            sessionEndAccess(wxMessage);
+          }
+        });
       } else {
         res = rule.service(wxMessage, context, this.wxCpService, this.sessionManager, this.exceptionHandler);
         // 在同步操作结束，session访问结束
@@ -169,23 +196,6 @@ public class WxCpMessageRouter {
       }
     }
 
-    if (futures.size() > 0) {
-      this.executorService.submit(() -> {
-        for (Future future : futures) {
-          try {
-            future.get();
-            log.debug("End session access: async=true, sessionId={}", wxMessage.getFromUserName());
-            // 异步操作结束，session访问结束
-            sessionEndAccess(wxMessage);
-          } catch (InterruptedException e) {
-            log.error("Error happened when wait task finish", e);
-            Thread.currentThread().interrupt();
-          } catch (ExecutionException e) {
-            log.error("Error happened when wait task finish", e);
-          }
-        }
-      });
-    }
     return res;
   }
 
@@ -197,6 +207,18 @@ public class WxCpMessageRouter {
   }
 
   private boolean isMsgDuplicated(WxCpXmlMessage wxMessage) {
+    if (this.messageDuplicateChecker.isHashedKeySupported()) {
+      long messageKey = wxMessage.getMsgId() == null
+        ? WxMessageDuplicateChecker.hashKey(wxMessage.getCreateTime(), String.valueOf(wxMessage.getAgentId()),
+        wxMessage.getFromUserName(), StringUtils.trimToEmpty(wxMessage.getEventKey()),
+        StringUtils.trimToEmpty(wxMessage.getEvent()), wxMessage.getUserId(), wxMessage.getChangeType(),
+        wxMessage.getTagId(), wxMessage.getId(), wxMessage.getChatId(), wxMessage.getExternalUserId())
+        : WxMessageDuplicateChecker.hashKey(wxMessage.getMsgId(), wxMessage.getCreateTime(), wxMessage.getFromUserName(),
+        wxMessage.getUserId(), wxMessage.getChangeType(), wxMessage.getTagId(), wxMessage.getId(),
+        wxMessage.getChatId(), wxMessage.getExternalUserId());
+      return this.messageDuplicateChecker.isDuplicate(messageKey);
+    }
+
     StringBuilder messageId = new StringBuilder();
     if (wxMessage.getMsgId() == null) {
       messageId.append(wxMessage.getCreateTime())
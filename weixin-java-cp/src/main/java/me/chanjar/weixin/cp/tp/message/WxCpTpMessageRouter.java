@@ -1,10 +1,11 @@
 package me.chanjar.weixin.cp.tp.message;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
 import me.chanjar.weixin.common.api.WxErrorExceptionHandler;
 import me.chanjar.weixin.common.api.WxMessageDuplicateChecker;
+import me.chanjar.weixin.common.api.WxMessageExecutors;
 import me.chanjar.weixin.common.api.WxMessageInMemoryDuplicateChecker;
+import me.chanjar.weixin.common.api.WxMessageRuleIndex;
 import me.chanjar.weixin.common.session.InternalSession;
 import me.chanjar.weixin.common.session.InternalSessionManager;
 import me.chanjar.weixin.common.session.WxSessionManager;
@@ -18,7 +19,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.*;
+import java.util.concurrent.ExecutorService;
 
 /**
  * <pre>
@@ -53,8 +54,11 @@ import java.util.concurrent.*;
 @Slf4j
 public class WxCpTpMessageRouter {
   private static final int DEFAULT_THREAD_POOL_SIZE = 100;
+  private static final int DEFAULT_QUEUE_CAPACITY = 10000;
   private final List<WxCpTpMessageRouterRule> rules = new ArrayList<>();
 
+  private volatile WxMessageRuleIndex<WxCpTpMessageRouterRule> ruleIndex;
+
   private final WxCpTpService wxCpTpService;
 
   private ExecutorService executorService;
@@ -70,9 +74,8 @@ public class WxCpTpMessageRouter {
    */
   public WxCpTpMessageRouter(WxCpTpService wxCpTpService) {
     this.wxCpTpService = wxCpTpService;
-    ThreadFactory namedThreadFactory = new ThreadFactoryBuilder().setNameFormat("WxCpTpMessageRouter-pool-%d").build();
-    this.executorService = new ThreadPoolExecutor(DEFAULT_THREAD_POOL_SIZE, DEFAULT_THREAD_POOL_SIZE,
-      0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), namedThreadFactory);
+    this.executorService = WxMessageExecutors.newBoundedExecutor("WxCpTpMessageRouter-pool-%d", DEFAULT_THREAD_POOL_SIZE,
+      DEFAULT_QUEUE_CAPACITY);
     this.messageDuplicateChecker = new WxMessageInMemoryDuplicateChecker();
     this.sessionManager = wxCpTpService.getSessionManager();
     this.exceptionHandler = new LogExceptionHandler();
@@ -81,7 +84,8 @@ public class WxCpTpMessageRouter {
   /**
    * <pre>
    * 设置自定义的 {@link ExecutorService}
-   * 如果不调用该方法，默认使用 Executors.newFixedThreadPool(100)
+   * 如果不调用该方法，默认使用100个线程、队列长度10000的线程池，队列满时由调用线程执行
+   * 需要同一个用户的消息按顺序处理时，可使用 {@link WxMessageExecutors#newOrderedExecutor(String, int, int)}
    * </pre>
    */
   public void setExecutorService(ExecutorService executorService) {
@@ -122,6 +126,23 @@ public class WxCpTpMessageRouter {
     return this.rules;
   }
 
+  /**
+   * 已添加规则的匹配条件发生变化，下次路由时重建索引.
+   */
+  void ruleChanged() {
+    this.ruleIndex = null;
+  }
+
+  private WxMessageRuleIndex<WxCpTpMessageRouterRule> getRuleIndex() {
+    WxMessageRuleIndex<WxCpTpMessageRouterRule> index = this.ruleIndex;
+    if (index == null || !index.isBuiltFrom(this.rules)) {
+      index = new WxMessageRuleIndex<>(this.rules, WxCpTpMessageRouterRule::getMsgType, WxCpTpMessageRouterRule::getEvent,
+        null, WxCpTpMessageRouterRule::getContent);
+      this.ruleIndex = index;
+    }
+    return index;
+  }
+
   /**
    * 开始一个新的Route规则.
    */
@@ -139,8 +160,10 @@ public class WxCpTpMessageRouter {
     }
 
     final List<WxCpTpMessageRouterRule> matchRules = new ArrayList<>();
-    // 收集匹配的规则
-    for (final WxCpTpMessageRouterRule rule : this.rules) {
+    // 收集匹配的规则，只需检查索引中与消息对应的规则
+    List<WxCpTpMessageRouterRule> candidates = this.getRuleIndex().candidates(wxMessage.getMsgType(),
+      wxMessage.getEvent(), wxMessage.getEventKey(), StringUtils.trimToNull(wxMessage.getContent()));
+    for (final WxCpTpMessageRouterRule rule : candidates) {
       if (rule.test(wxMessage)) {
         matchRules.add(rule);
         if (!rule.isReEnter()) {
@@ -154,15 +177,19 @@ public class WxCpTpMessageRouter {
     }
 
     WxCpXmlOutMessage res = null;
-    final List<Future> futures = new ArrayList<>();
     for (final WxCpTpMessageRouterRule rule : matchRules) {
       // 返回最后一个非异步的rule的执行结果
       if (rule.isAsync()) {
-        futures.add(
-          this.executorService.submit(() -> {
+        // 执行器为 WxOrderedExecutor 时，同一个企业的异步规则按顺序执行
+        WxMessageExecutors.submit(this.executorService, wxMessage.getAuthCorpId(), () -> {
+          try {
             rule.service(wxMessage, context, WxCpTpMessageRouter.this.wxCpTpService, WxCpTpMessageRouter.this.sessionManager, WxCpTpMessageRouter.this.exceptionHandler);
-          })
-        );
+          } finally {
+            log.debug("End session access: async=true, sessionId={}", wxMessage.getSuiteId());
+            // 异步操作结束，session访问结束
+            sessionEndAccess(wxMessage);
+          }
+        });
       } else {
         res = rule.service(wxMessage, context, this.wxCpTpService, this.sessionManager, this.exceptionHandler);
         // 在同步操作结束，session访问结束
@@ -171,23 +198,6 @@ public class WxCpTpMessageRouter {
       }
     }
 
-    if (futures.size() > 0) {
-      this.executorService.submit(() -> {
-        for (Future future : futures) {
-          try {
-            future.get();
-            log.debug("End session access: async=true, sessionId={}", wxMessage.getSuiteId());
-            // 异步操作结束，session访问结束
-            sessionEndAccess(wxMessage);
-          } catch (InterruptedException e) {
-            log.error("Error happened when wait task finish", e);
-            Thread.currentThread().interrupt();
-          } catch (ExecutionException e) {
-            log.error("Error happened when wait task finish", e);
-          }
-        }
-      });
-    }
     return res;
   }
 
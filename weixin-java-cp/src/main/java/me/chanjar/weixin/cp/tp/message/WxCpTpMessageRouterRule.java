@@ -1,6 +1,11 @@
 package me.chanjar.weixin.cp.tp.message;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import me.chanjar.weixin.common.api.WxErrorExceptionHandler;
 import me.chanjar.weixin.common.error.WxErrorException;
 import me.chanjar.weixin.common.session.WxSessionManager;
@@ -37,6 +42,18 @@ public class WxCpTpMessageRouterRule {
 
   private String rContent;
 
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private volatile Pattern eventKeyPattern;
+
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private volatile Pattern rContentPattern;
+
   private WxCpTpMessageMatcher matcher;
 
   private boolean reEnter = false;
@@ -220,11 +237,11 @@ public class WxCpTpMessageRouterRule {
         &&
         (this.suiteTicket == null || this.suiteTicket.equalsIgnoreCase(wxMessage.getSuiteTicket()))
         &&
-        (this.eventKeyRegex == null || Pattern.matches(this.eventKeyRegex, StringUtils.trimToEmpty(wxMessage.getEventKey())))
+        (this.eventKeyRegex == null || this.eventKeyPattern().matcher(StringUtils.trimToEmpty(wxMessage.getEventKey())).matches())
         &&
         (this.content == null || this.content.equals(StringUtils.trimToNull(wxMessage.getContent())))
         &&
-        (this.rContent == null || Pattern.matches(this.rContent, StringUtils.trimToEmpty(wxMessage.getContent())))
+        (this.rContent == null || this.rContentPattern().matcher(StringUtils.trimToEmpty(wxMessage.getContent())).matches())
         &&
         (this.infoType == null || this.infoType.equals(wxMessage.getInfoType()))
         &&
@@ -235,6 +252,60 @@ public class WxCpTpMessageRouterRule {
         (this.authCode == null || this.authCode.equalsIgnoreCase(wxMessage.getAuthCode()));
   }
 
+  /**
+   * 编译后的eventKeyRegex，正则变化时重新编译.
+   */
+  private Pattern eventKeyPattern() {
+    Pattern pattern = this.eventKeyPattern;
+    if (pattern == null || !pattern.pattern().equals(this.eventKeyRegex)) {
+      pattern = Pattern.compile(this.eventKeyRegex);
+      this.eventKeyPattern = pattern;
+    }
+    return pattern;
+  }
+
+  /**
+   * 编译后的rContent，正则变化时重新编译.
+   */
+  private Pattern rContentPattern() {
+    Pattern pattern = this.rContentPattern;
+    if (pattern == null || !pattern.pattern().equals(this.rContent)) {
+      pattern = Pattern.compile(this.rContent);
+      this.rContentPattern = pattern;
+    }
+    return pattern;
+  }
+
+  /**
+   * Sets msgType.
+   *
+   * @param msgType the msgType
+   */
+  public void setMsgType(String msgType) {
+    this.msgType = msgType;
+    this.routerBuilder.ruleChanged();
+  }
+
+  /**
+   * Sets event.
+   *
+   * @param event the event
+   */
+  public void setEvent(String event) {
+    this.event = event;
+    this.routerBuilder.ruleChanged();
+  }
+
+  /**
+   * Sets content.
+   *
+   * @param content the content
+   */
+  public void setContent(String content) {
+    this.content = content;
+    this.routerBuilder.ruleChanged();
+  }
+
   /**
    * 处理微信推送过来的消息
    *
@@ -1,5 +1,6 @@
 package me.chanjar.weixin.cp.tp.service;
 
+import me.chanjar.weixin.common.api.WxRetryPolicy;
 import me.chanjar.weixin.common.bean.WxAccessToken;
 import me.chanjar.weixin.common.bean.WxJsapiSignature;
 import me.chanjar.weixin.common.error.WxErrorException;
@@ -313,6 +314,16 @@ public interface WxCpTpService {
    */
   void setMaxRetryTimes(int maxRetryTimes);
 
+  /**
+   * <pre>
+   * 设置请求失败时的重试策略，设置后retrySleepMillis和maxRetryTimes不再生效.
+   * 默认：只重试-1（系统繁忙），每次等待 retrySleepMillis * 2^(重试次数 - 1)，最多重试maxRetryTimes次
+   * </pre>
+   *
+   * @param retryPolicy 重试策略，可使用{@link me.chanjar.weixin.common.api.WxBackoffRetryPolicy}
+   */
+  void setRetryPolicy(WxRetryPolicy retryPolicy);
+
   /**
    * 初始化http请求对象
    */
@@ -5,6 +5,9 @@ import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import me.chanjar.weixin.common.api.WxBackoffRetryPolicy;
+import me.chanjar.weixin.common.api.WxRequestDeadline;
+import me.chanjar.weixin.common.api.WxRetryPolicy;
 import me.chanjar.weixin.common.bean.WxAccessToken;
 import me.chanjar.weixin.common.bean.WxJsapiSignature;
 import me.chanjar.weixin.common.enums.WxType;
@@ -32,6 +35,7 @@ import java.io.IOException;
 import java.net.URLEncoder;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
 
 import static me.chanjar.weixin.cp.constant.WxCpApiPathConsts.Tp.*;
 
@@ -82,6 +86,11 @@ public abstract class BaseWxCpTpServiceImpl<H, P> implements WxCpTpService, Requ
   private File tmpDirFile;
   private int retrySleepMillis = 1000;
   private int maxRetryTimes = 5;
+  private WxRetryPolicy retryPolicy;
+  /**
+   * 未设置retryPolicy时使用的策略，在设置retrySleepMillis或maxRetryTimes时重建，避免每次请求都创建新的策略.
+   */
+  private volatile WxRetryPolicy defaultRetryPolicy = WxBackoffRetryPolicy.of(1000, 5);
 
   @Override
   public boolean checkSignature(String msgSignature, String timestamp, String nonce, String data) {
@@ -143,7 +152,23 @@ public abstract class BaseWxCpTpServiceImpl<H, P> implements WxCpTpService, Requ
 
   @Override
   public String getSuiteJsApiTicket(String authCorpId) throws WxErrorException {
-    if (this.configStorage.isAuthSuiteJsApiTicketExpired(authCorpId)) {
+    return this.getSuiteJsApiTicket(authCorpId, false);
+  }
+
+  @Override
+  public String getSuiteJsApiTicket(String authCorpId, boolean forceRefresh) throws WxErrorException {
+    final String current = this.configStorage.getAuthSuiteJsApiTicket(authCorpId);
+    if (!forceRefresh && !this.configStorage.isAuthSuiteJsApiTicketExpired(authCorpId)) {
+      return current;
+    }
+
+    Lock lock = this.configStorage.getSuiteJsapiTicketLock(authCorpId);
+    lock.lock();
+    try {
+      if (this.isRefreshedByOthers(this.configStorage.isAuthSuiteJsApiTicketExpired(authCorpId), forceRefresh,
+        current, this.configStorage.getAuthSuiteJsApiTicket(authCorpId))) {
+        return this.configStorage.getAuthSuiteJsApiTicket(authCorpId);
+      }
 
       String resp = get(configStorage.getApiUrl(GET_SUITE_JSAPI_TICKET),
         "type=agent_config&access_token=" + this.configStorage.getAccessToken(authCorpId), true);
@@ -152,28 +177,36 @@ public abstract class BaseWxCpTpServiceImpl<H, P> implements WxCpTpService, Requ
       if (jsonObject.get("errcode").getAsInt() == 0) {
         String jsApiTicket = jsonObject.get("ticket").getAsString();
         int expiredInSeconds = jsonObject.get("expires_in").getAsInt();
-        synchronized (globalJsApiTicketRefreshLock) {
-          configStorage.updateAuthSuiteJsApiTicket(authCorpId, jsApiTicket, expiredInSeconds);
-        }
+        configStorage.updateAuthSuiteJsApiTicket(authCorpId, jsApiTicket, expiredInSeconds);
       } else {
         throw new WxErrorException(WxError.fromJson(resp));
       }
+    } finally {
+      lock.unlock();
     }
 
     return configStorage.getAuthSuiteJsApiTicket(authCorpId);
   }
 
   @Override
-  public String getSuiteJsApiTicket(String authCorpId, boolean forceRefresh) throws WxErrorException {
-    if (forceRefresh) {
-      this.configStorage.expireAuthSuiteJsApiTicket(authCorpId);
-    }
-    return this.getSuiteJsApiTicket(authCorpId);
+  public String getAuthCorpJsApiTicket(String authCorpId) throws WxErrorException {
+    return this.getAuthCorpJsApiTicket(authCorpId, false);
   }
 
   @Override
-  public String getAuthCorpJsApiTicket(String authCorpId) throws WxErrorException {
-    if (this.configStorage.isAuthCorpJsApiTicketExpired(authCorpId)) {
+  public String getAuthCorpJsApiTicket(String authCorpId, boolean forceRefresh) throws WxErrorException {
+    final String current = this.configStorage.getAuthCorpJsApiTicket(authCorpId);
+    if (!forceRefresh && !this.configStorage.isAuthCorpJsApiTicketExpired(authCorpId)) {
+      return current;
+    }
+
+    Lock lock = this.configStorage.getAuthCorpJsapiTicketLock(authCorpId);
+    lock.lock();
+    try {
+      if (this.isRefreshedByOthers(this.configStorage.isAuthCorpJsApiTicketExpired(authCorpId), forceRefresh,
+        current, this.configStorage.getAuthCorpJsApiTicket(authCorpId))) {
+        return this.configStorage.getAuthCorpJsApiTicket(authCorpId);
+      }
 
       String resp = get(configStorage.getApiUrl(GET_AUTH_CORP_JSAPI_TICKET),
         "access_token=" + this.configStorage.getAccessToken(authCorpId), true);
@@ -182,23 +215,24 @@ public abstract class BaseWxCpTpServiceImpl<H, P> implements WxCpTpService, Requ
       if (jsonObject.get("errcode").getAsInt() == 0) {
         String jsApiTicket = jsonObject.get("ticket").getAsString();
         int expiredInSeconds = jsonObject.get("expires_in").getAsInt();
-
-        synchronized (globalAuthCorpJsApiTicketRefreshLock) {
-          configStorage.updateAuthCorpJsApiTicket(authCorpId, jsApiTicket, expiredInSeconds);
-        }
+        configStorage.updateAuthCorpJsApiTicket(authCorpId, jsApiTicket, expiredInSeconds);
       } else {
         throw new WxErrorException(WxError.fromJson(resp));
       }
+    } finally {
+      lock.unlock();
     }
     return configStorage.getAuthCorpJsApiTicket(authCorpId);
   }
 
-  @Override
-  public String getAuthCorpJsApiTicket(String authCorpId, boolean forceRefresh) throws WxErrorException {
-    if (forceRefresh) {
-      this.configStorage.expireAuthCorpJsApiTicket(authCorpId);
+  /**
+   * 拿到刷新锁后判断是否还需要刷新：未过期且不要求强制刷新，或者要求强制刷新但在等待锁期间已被其他线程刷新过（与加锁前不同）时，无需再刷新.
+   */
+  private boolean isRefreshedByOthers(boolean expired, boolean forceRefresh, String before, String now) {
+    if (expired) {
+      return false;
     }
-    return this.getAuthCorpJsApiTicket(authCorpId);
+    return !forceRefresh || !StringUtils.equals(before, now);
   }
 
   @Override
@@ -225,9 +259,22 @@ public abstract class BaseWxCpTpServiceImpl<H, P> implements WxCpTpService, Requ
   @Override
   public WxAccessToken getCorpToken(String authCorpId, String permanentCode, boolean forceRefresh)
     throws WxErrorException {
-    if (this.configStorage.isAccessTokenExpired(authCorpId) || forceRefresh) {
-      WxAccessToken corpToken = this.getCorpToken(authCorpId, permanentCode);
-      this.configStorage.updateAccessToken(authCorpId, corpToken.getAccessToken(), corpToken.getExpiresIn());
+    final String current = this.configStorage.getAccessToken(authCorpId);
+    if (!forceRefresh && !this.configStorage.isAccessTokenExpired(authCorpId)) {
+      return this.configStorage.getAccessTokenEntity(authCorpId);
+    }
+
+    // 同一授权企业同一时刻只有一个线程去获取，其他线程等待后直接使用其结果
+    Lock lock = this.configStorage.getAccessTokenLock(authCorpId);
+    lock.lock();
+    try {
+      if (!this.isRefreshedByOthers(this.configStorage.isAccessTokenExpired(authCorpId), forceRefresh,
+        current, this.configStorage.getAccessToken(authCorpId))) {
+        WxAccessToken corpToken = this.getCorpToken(authCorpId, permanentCode);
+        this.configStorage.updateAccessToken(authCorpId, corpToken.getAccessToken(), corpToken.getExpiresIn());
+      }
+    } finally {
+      lock.unlock();
     }
     return this.configStorage.getAccessTokenEntity(authCorpId);
   }
@@ -325,37 +372,34 @@ public abstract class BaseWxCpTpServiceImpl<H, P> implements WxCpTpService, Requ
     return execute(executor, uri,  data,false);
   }
   public <T, E> T execute(RequestExecutor<T, E> executor, String uri, E data,boolean withoutSuiteAccessToken) throws WxErrorException {
+    WxRetryPolicy retryPolicy = this.getRetryPolicy();
+    long deadline = WxRequestDeadline.get();
     int retryTimes = 0;
-    do {
+    while (true) {
       try {
         return this.executeInternal(executor, uri, data,withoutSuiteAccessToken);
       } catch (WxErrorException e) {
-        if (retryTimes + 1 > this.maxRetryTimes) {
-          log.warn("重试达到最大次数【{}】", this.maxRetryTimes);
+        // 默认只有-1（系统繁忙）可以重试
+        if (!retryPolicy.isRetryable(e.getError())) {
+          throw e;
+        }
+
+        long sleepMillis = retryPolicy.nextRetryDelay(this.getWxCpTpConfigStorage().getSuiteId(), retryTimes, deadline);
+        if (sleepMillis < 0) {
+          log.warn("已重试【{}】次，达到最大重试次数、重试预算或请求截止时间", retryTimes);
           //最后一次重试失败后，直接抛出异常，不再等待
           throw new WxRuntimeException("微信服务端异常，超出重试次数");
         }
 
-        WxError error = e.getError();
-        /*
-         * -1 系统繁忙, 1000ms后重试
-         */
-        if (error.getErrorCode() == -1) {
-          int sleepMillis = this.retrySleepMillis * (1 << retryTimes);
-          try {
-            log.debug("微信系统繁忙，{} ms 后重试(第{}次)", sleepMillis, retryTimes + 1);
-            Thread.sleep(sleepMillis);
-          } catch (InterruptedException e1) {
-            Thread.currentThread().interrupt();
-          }
-        } else {
-          throw e;
+        try {
+          log.warn("微信系统繁忙，{} ms 后重试(第{}次)", sleepMillis, retryTimes + 1);
+          Thread.sleep(sleepMillis);
+        } catch (InterruptedException e1) {
+          Thread.currentThread().interrupt();
         }
+        retryTimes++;
       }
-    } while (retryTimes++ < this.maxRetryTimes);
-
-    log.warn("重试达到最大次数【{}】", this.maxRetryTimes);
-    throw new WxRuntimeException("微信服务端异常，超出重试次数");
+    }
   }
 
   protected <T, E> T executeInternal(RequestExecutor<T, E> executor, String uri, E data) throws WxErrorException {
@@ -415,12 +459,26 @@ public abstract class BaseWxCpTpServiceImpl<H, P> implements WxCpTpService, Requ
   @Override
   public void setRetrySleepMillis(int retrySleepMillis) {
     this.retrySleepMillis = retrySleepMillis;
+    this.defaultRetryPolicy = WxBackoffRetryPolicy.of(this.retrySleepMillis, this.maxRetryTimes);
   }
 
 
   @Override
   public void setMaxRetryTimes(int maxRetryTimes) {
     this.maxRetryTimes = maxRetryTimes;
+    this.defaultRetryPolicy = WxBackoffRetryPolicy.of(this.retrySleepMillis, this.maxRetryTimes);
+  }
+
+  @Override
+  public void setRetryPolicy(WxRetryPolicy retryPolicy) {
+    this.retryPolicy = retryPolicy;
+  }
+
+  /**
+   * @return 重试策略，未设置时按retrySleepMillis和maxRetryTimes进行指数退避重试
+   */
+  protected WxRetryPolicy getRetryPolicy() {
+    return this.retryPolicy != null ? this.retryPolicy : this.defaultRetryPolicy;
   }
 
   public File getTmpDirFile() {
@@ -0,0 +1,115 @@
+package me.chanjar.weixin.cp.util;
+
+import me.chanjar.weixin.common.api.WxTokenRefreshScheduler;
+import me.chanjar.weixin.common.api.WxTokenRefreshTask;
+import me.chanjar.weixin.common.error.WxErrorException;
+import me.chanjar.weixin.cp.api.WxCpService;
+import me.chanjar.weixin.cp.config.WxCpConfigStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <pre>
+ * 企业微信应用凭证的后台刷新任务.
+ * 使用示例：WxCpTokenRefreshTasks.register(scheduler, wxCpService);
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class WxCpTokenRefreshTasks {
+
+  /**
+   * 将应用的access_token、企业jsapi_ticket及应用jsapi_ticket注册到调度器.
+   *
+   * @param scheduler 调度器
+   * @param service   企业微信服务
+   */
+  public static void register(WxTokenRefreshScheduler scheduler, WxCpService service) {
+    of(service).forEach(scheduler::register);
+  }
+
+  /**
+   * 应用的access_token、企业jsapi_ticket及应用jsapi_ticket刷新任务.
+   *
+   * @param service 企业微信服务
+   * @return 刷新任务
+   */
+  public static List<WxTokenRefreshTask> of(WxCpService service) {
+    WxCpConfigStorage config = service.getWxCpConfigStorage();
+    String prefix = "cp:" + config.getCorpId() + ":" + config.getAgentId() + ":";
+    List<WxTokenRefreshTask> tasks = new ArrayList<>();
+    tasks.add(new AccessTokenTask(service, prefix + "access_token"));
+    tasks.add(new JsapiTicketTask(service, prefix + "jsapi_ticket", false));
+    tasks.add(new JsapiTicketTask(service, prefix + "agent_jsapi_ticket", true));
+    return tasks;
+  }
+
+  private static class AccessTokenTask implements WxTokenRefreshTask {
+    private final WxCpService service;
+    private final String name;
+
+    private AccessTokenTask(WxCpService service, String name) {
+      this.service = service;
+      this.name = name;
+    }
+
+    @Override
+    public String getName() {
+      return this.name;
+    }
+
+    @Override
+    public boolean isExpired() {
+      return this.service.getWxCpConfigStorage().isAccessTokenExpired();
+    }
+
+    @Override
+    public long getExpiresTime() {
+      return this.service.getWxCpConfigStorage().getExpiresTime();
+    }
+
+    @Override
+    public void refresh() throws WxErrorException {
+      this.service.getAccessToken(true);
+    }
+  }
+
+  private static class JsapiTicketTask implements WxTokenRefreshTask {
+    private final WxCpService service;
+    private final String name;
+    private final boolean agent;
+
+    private JsapiTicketTask(WxCpService service, String name, boolean agent) {
+      this.service = service;
+      this.name = name;
+      this.agent = agent;
+    }
+
+    @Override
+    public String getName() {
+      return this.name;
+    }
+
+    @Override
+    public boolean isExpired() {
+      WxCpConfigStorage config = this.service.getWxCpConfigStorage();
+      return this.agent ? config.isAgentJsapiTicketExpired() : config.isJsapiTicketExpired();
+    }
+
+    @Override
+    public long getExpiresTime() {
+      // 配置存储未提供ticket的过期时间，由调度器按上次刷新时间推算
+      return 0;
+    }
+
+    @Override
+    public void refresh() throws WxErrorException {
+      if (this.agent) {
+        this.service.getAgentJsapiTicket(true);
+      } else {
+        this.service.getJsapiTicket(true);
+      }
+    }
+  }
+}
@@ -16,6 +16,7 @@ import me.chanjar.weixin.cp.bean.WxCpUser;
 public class WxCpGsonBuilder {
 
   private static final GsonBuilder INSTANCE = new GsonBuilder();
+  private static volatile Gson GSON_INSTANCE;
 
   static {
     INSTANCE.disableHtmlEscaping();
@@ -27,8 +28,18 @@ public class WxCpGsonBuilder {
     INSTANCE.registerTypeAdapter(WxCpTag.class, new WxCpTagGsonAdapter());
   }
 
+  /**
+   * 获取本模块共享的Gson实例，缓存方式同 {@link me.chanjar.weixin.common.util.json.WxGsonBuilder#create()}.
+   */
   public static Gson create() {
-    return INSTANCE.create();
+    if (null == GSON_INSTANCE) {
+      synchronized (INSTANCE) {
+        if (null == GSON_INSTANCE) {
+          GSON_INSTANCE = INSTANCE.create();
+        }
+      }
+    }
+    return GSON_INSTANCE;
   }
 
 }
@@ -0,0 +1,93 @@
+package me.chanjar.weixin.cp.config.impl;
+
+import me.chanjar.weixin.common.redis.WxRedisOps;
+import me.chanjar.weixin.cp.config.impl.WxCpTpAuthCorpTokenStore.TokenType;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import static org.testng.Assert.*;
+
+public class WxCpTpAuthCorpTokenStoreTest {
+
+  @Test
+  public void testUpdateAndExpire() {
+    WxCpTpAuthCorpTokenStore store = new WxCpTpAuthCorpTokenStore();
+    assertTrue(store.isExpired("corp", TokenType.ACCESS_TOKEN));
+    assertEquals(store.size(), 0);
+
+    store.update("corp", TokenType.ACCESS_TOKEN, "token", 7000);
+    store.update("corp", TokenType.CORP_JSAPI_TICKET, "ticket", 7000);
+    assertEquals(store.size(), 1);
+    assertEquals(store.getValue("corp", TokenType.ACCESS_TOKEN), "token");
+    assertFalse(store.isExpired("corp", TokenType.CORP_JSAPI_TICKET));
+    assertTrue(store.isExpired("corp", TokenType.SUITE_JSAPI_TICKET));
+    assertSame(store.getLock("corp", TokenType.ACCESS_TOKEN), store.getLock("corp", TokenType.ACCESS_TOKEN));
+
+    store.expire("corp", TokenType.ACCESS_TOKEN);
+    assertTrue(store.isExpired("corp", TokenType.ACCESS_TOKEN));
+    assertEquals(store.getValue("corp", TokenType.CORP_JSAPI_TICKET), "ticket");
+  }
+
+  @Test
+  public void testEviction() {
+    WxCpTpAuthCorpTokenStore store = new WxCpTpAuthCorpTokenStore();
+    store.setMaxSize(100);
+    for (int i = 0; i < 1000; i++) {
+      store.update("corp" + i, TokenType.ACCESS_TOKEN, "token" + i, 7000);
+    }
+
+    assertTrue(store.size() <= 100);
+    assertEquals(store.getValue("corp999", TokenType.ACCESS_TOKEN), "token999");
+  }
+
+  @Test
+  public void testEvictionSkipsLockedEntries() {
+    WxCpTpAuthCorpTokenStore store = new WxCpTpAuthCorpTokenStore();
+    store.setMaxSize(10);
+    Lock lock = store.getLock("refreshing", TokenType.ACCESS_TOKEN);
+    lock.lock();
+    try {
+      for (int i = 0; i < 100; i++) {
+        store.update("corp" + i, TokenType.ACCESS_TOKEN, "token" + i, 7000);
+      }
+
+      assertTrue(store.size() <= 10);
+      assertSame(store.getLock("refreshing", TokenType.ACCESS_TOKEN), lock);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Test
+  public void testRedisReadThrough() {
+    WxRedisOps redisOps = Mockito.mock(WxRedisOps.class);
+    WxCpTpAuthCorpTokenStore store = new WxCpTpAuthCorpTokenStore(redisOps, "suite:");
+    store.update("corp", TokenType.ACCESS_TOKEN, "token", 7000);
+    Mockito.verify(redisOps).setValue("suite:corp:access_token", "token", 7000, TimeUnit.SECONDS);
+
+    // 本地被淘汰后从redis读取
+    store.remove("corp");
+    Mockito.when(redisOps.getValue("suite:corp:access_token")).thenReturn("token");
+    Mockito.when(redisOps.getExpire("suite:corp:access_token")).thenReturn(6000L);
+    assertFalse(store.isExpired("corp", TokenType.ACCESS_TOKEN));
+    assertEquals(store.getValue("corp", TokenType.ACCESS_TOKEN), "token");
+    Mockito.verify(redisOps, Mockito.times(1)).getValue("suite:corp:access_token");
+  }
+
+  @Test
+  public void testRedisKeyScopedBySuite() {
+    WxRedisOps redisOps = Mockito.mock(WxRedisOps.class);
+    WxCpTpAuthCorpTokenStore.forSuite(redisOps, "suite1").update("corp", TokenType.ACCESS_TOKEN, "token1", 7000);
+    WxCpTpAuthCorpTokenStore.forSuite(redisOps, "suite2").update("corp", TokenType.ACCESS_TOKEN, "token2", 7000);
+    Mockito.verify(redisOps).setValue("wx:cp:tp:suite1:corp:corp:access_token", "token1", 7000, TimeUnit.SECONDS);
+    Mockito.verify(redisOps).setValue("wx:cp:tp:suite2:corp:corp:access_token", "token2", 7000, TimeUnit.SECONDS);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testRedisRequiresKeyPrefix() {
+    new WxCpTpAuthCorpTokenStore(Mockito.mock(WxRedisOps.class), null);
+  }
+}
@@ -1,6 +1,7 @@
 package me.chanjar.weixin.cp.config.impl;
 
 import me.chanjar.weixin.common.bean.WxAccessToken;
+import org.apache.commons.lang3.SerializationUtils;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -22,4 +23,13 @@ public class WxCpTpDefaultConfigImplTest {
     Assert.assertTrue(accessToken.getExpiresIn() <= testExpireTime - restTime, "过期时间计算有误");
   }
 
+  @Test
+  public void testSerializeKeepsAuthCorpTokens() {
+    WxCpTpDefaultConfigImpl storage = new WxCpTpDefaultConfigImpl();
+    storage.updateAccessToken("corp", "token", 7200);
+
+    WxCpTpDefaultConfigImpl copy = SerializationUtils.clone(storage);
+    Assert.assertEquals(copy.getAccessToken("corp"), "token");
+    Assert.assertFalse(copy.isAccessTokenExpired("corp"));
+  }
 }
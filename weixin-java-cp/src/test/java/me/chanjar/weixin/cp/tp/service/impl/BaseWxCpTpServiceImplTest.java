@@ -1,6 +1,7 @@
 package me.chanjar.weixin.cp.tp.service.impl;
 
 import com.google.gson.JsonObject;
+import me.chanjar.weixin.common.bean.WxAccessToken;
 import me.chanjar.weixin.common.error.WxErrorException;
 import me.chanjar.weixin.cp.bean.WxCpTpAuthInfo;
 import me.chanjar.weixin.cp.bean.WxCpTpCorp;
@@ -12,7 +13,16 @@ import org.mockito.Mockito;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static me.chanjar.weixin.cp.constant.WxCpApiPathConsts.Tp.GET_AUTH_INFO;
+import static me.chanjar.weixin.cp.constant.WxCpApiPathConsts.Tp.GET_CORP_TOKEN;
 import static me.chanjar.weixin.cp.constant.WxCpApiPathConsts.Tp.GET_PERMANENT_CODE;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -29,6 +39,38 @@ public class BaseWxCpTpServiceImplTest {
   public void testCheckSignature() {
   }
 
+  @Test
+  public void testGetCorpTokenSingleFlight() throws Exception {
+    final WxCpTpService service = Mockito.spy(new WxCpTpServiceApacheHttpClientImpl());
+    final WxCpTpConfigStorage configStorage = new WxCpTpDefaultConfigImpl();
+    service.setWxCpTpConfigStorage(configStorage);
+
+    AtomicInteger calls = new AtomicInteger();
+    Mockito.doAnswer(invocation -> {
+      calls.incrementAndGet();
+      TimeUnit.MILLISECONDS.sleep(100);
+      return "{\"access_token\":\"token" + calls.get() + "\",\"expires_in\":7200}";
+    }).when(service).post(Mockito.eq(configStorage.getApiUrl(GET_CORP_TOKEN)), Mockito.anyString());
+
+    // 同一授权企业的并发请求只会获取一次
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<WxAccessToken>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> service.getCorpToken("corp", "code", false)));
+      }
+      for (Future<WxAccessToken> future : futures) {
+        assertThat(future.get().getAccessToken()).isEqualTo("token1");
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(calls.get()).isEqualTo(1);
+
+    assertThat(service.getCorpToken("corp", "code", true).getAccessToken()).isEqualTo("token2");
+    assertThat(configStorage.getAccessToken("corp")).isEqualTo("token2");
+  }
+
   @Test
   public void testGetSuiteAccessToken() {
   }
@@ -1,5 +1,6 @@
 package me.chanjar.weixin.cs.api;
 
+import me.chanjar.weixin.common.api.WxRetryPolicy;
 import me.chanjar.weixin.common.error.WxErrorException;
 import me.chanjar.weixin.common.service.WxService;
 import me.chanjar.weixin.common.session.WxSession;
@@ -95,6 +96,16 @@ public interface WxCsService extends WxService {
    */
   void setMaxRetryTimes(int maxRetryTimes);
 
+  /**
+   * <pre>
+   * 设置请求失败时的重试策略，设置后retrySleepMillis和maxRetryTimes不再生效.
+   * 默认：只重试-1（系统繁忙），每次等待 retrySleepMillis * 2^(重试次数 - 1)，最多重试maxRetryTimes次
+   * </pre>
+   *
+   * @param retryPolicy 重试策略，可使用{@link me.chanjar.weixin.common.api.WxBackoffRetryPolicy}
+   */
+  void setRetryPolicy(WxRetryPolicy retryPolicy);
+
   /**
    * 获取某个sessionId对应的session,如果sessionId没有对应的session，则新建一个并返回。
    *
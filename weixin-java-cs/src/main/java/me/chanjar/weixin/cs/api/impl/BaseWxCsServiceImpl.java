@@ -2,7 +2,10 @@ package me.chanjar.weixin.cs.api.impl;
 
 import com.google.gson.JsonObject;
 import lombok.extern.slf4j.Slf4j;
+import me.chanjar.weixin.common.api.WxBackoffRetryPolicy;
 import me.chanjar.weixin.common.api.WxConsts;
+import me.chanjar.weixin.common.api.WxRequestDeadline;
+import me.chanjar.weixin.common.api.WxRetryPolicy;
 import me.chanjar.weixin.common.bean.ToJson;
 import me.chanjar.weixin.common.enums.WxType;
 import me.chanjar.weixin.common.error.WxError;
@@ -60,6 +63,11 @@ public abstract class BaseWxCsServiceImpl<H, P> implements WxCsService, RequestH
 
   private int retrySleepMillis = 1000;
   private int maxRetryTimes = 5;
+  private WxRetryPolicy retryPolicy;
+  /**
+   * 未设置retryPolicy时使用的策略，在设置retrySleepMillis或maxRetryTimes时重建，避免每次请求都创建新的策略.
+   */
+  private volatile WxRetryPolicy defaultRetryPolicy = WxBackoffRetryPolicy.of(1000, 5);
 
   @Override
   public boolean checkSignature(String msgSignature, String timestamp, String nonce, String data) {
@@ -113,37 +121,34 @@ public abstract class BaseWxCsServiceImpl<H, P> implements WxCsService, RequestH
    */
   @Override
   public <T, E> T execute(RequestExecutor<T, E> executor, String uri, E data) throws WxErrorException {
+    WxRetryPolicy retryPolicy = this.getRetryPolicy();
+    long deadline = WxRequestDeadline.get();
     int retryTimes = 0;
-    do {
+    while (true) {
       try {
         return this.executeInternal(executor, uri, data, false);
       } catch (WxErrorException e) {
-        if (retryTimes + 1 > this.maxRetryTimes) {
-          log.warn("重试达到最大次数【{}】", this.maxRetryTimes);
+        // 默认只有-1（系统繁忙）可以重试
+        if (!retryPolicy.isRetryable(e.getError())) {
+          throw e;
+        }
+
+        long sleepMillis = retryPolicy.nextRetryDelay(this.getWxCsConfigStorage().getCorpId(), retryTimes, deadline);
+        if (sleepMillis < 0) {
+          log.warn("已重试【{}】次，达到最大重试次数、重试预算或请求截止时间", retryTimes);
           //最后一次重试失败后，直接抛出异常，不再等待
           throw new WxRuntimeException("微信服务端异常，超出重试次数");
         }
 
-        WxError error = e.getError();
-        /*
-         * -1 系统繁忙, 1000ms后重试
-         */
-        if (error.getErrorCode() == -1) {
-          int sleepMillis = this.retrySleepMillis * (1 << retryTimes);
-          try {
-            log.debug("微信系统繁忙，{} ms 后重试(第{}次)", sleepMillis, retryTimes + 1);
-            Thread.sleep(sleepMillis);
-          } catch (InterruptedException e1) {
-            Thread.currentThread().interrupt();
-          }
-        } else {
-          throw e;
+        try {
+          log.warn("微信系统繁忙，{} ms 后重试(第{}次)", sleepMillis, retryTimes + 1);
+          Thread.sleep(sleepMillis);
+        } catch (InterruptedException e1) {
+          Thread.currentThread().interrupt();
         }
+        retryTimes++;
       }
-    } while (retryTimes++ < this.maxRetryTimes);
-
-    log.warn("重试达到最大次数【{}】", this.maxRetryTimes);
-    throw new WxRuntimeException("微信服务端异常，超出重试次数");
+    }
   }
 
   protected <T, E> T executeInternal(RequestExecutor<T, E> executor, String uri, E data, boolean doNotAutoRefresh) throws WxErrorException {
@@ -215,12 +220,26 @@ public abstract class BaseWxCsServiceImpl<H, P> implements WxCsService, RequestH
   @Override
   public void setRetrySleepMillis(int retrySleepMillis) {
     this.retrySleepMillis = retrySleepMillis;
+    this.defaultRetryPolicy = WxBackoffRetryPolicy.of(this.retrySleepMillis, this.maxRetryTimes);
   }
 
 
   @Override
   public void setMaxRetryTimes(int maxRetryTimes) {
     this.maxRetryTimes = maxRetryTimes;
+    this.defaultRetryPolicy = WxBackoffRetryPolicy.of(this.retrySleepMillis, this.maxRetryTimes);
+  }
+
+  @Override
+  public void setRetryPolicy(WxRetryPolicy retryPolicy) {
+    this.retryPolicy = retryPolicy;
+  }
+
+  /**
+   * @return 重试策略，未设置时按retrySleepMillis和maxRetryTimes进行指数退避重试
+   */
+  protected WxRetryPolicy getRetryPolicy() {
+    return this.retryPolicy != null ? this.retryPolicy : this.defaultRetryPolicy;
   }
 
   @Override
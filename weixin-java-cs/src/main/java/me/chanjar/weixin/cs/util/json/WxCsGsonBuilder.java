@@ -11,14 +11,25 @@ import me.chanjar.weixin.common.util.json.WxErrorAdapter;
 public class WxCsGsonBuilder {
 
   private static final GsonBuilder INSTANCE = new GsonBuilder();
+  private static volatile Gson GSON_INSTANCE;
 
   static {
     INSTANCE.disableHtmlEscaping();
     INSTANCE.registerTypeAdapter(WxError.class, new WxErrorAdapter());
   }
 
+  /**
+   * 获取本模块共享的Gson实例，缓存方式同 {@link me.chanjar.weixin.common.util.json.WxGsonBuilder#create()}.
+   */
   public static Gson create() {
-    return INSTANCE.create();
+    if (null == GSON_INSTANCE) {
+      synchronized (INSTANCE) {
+        if (null == GSON_INSTANCE) {
+          GSON_INSTANCE = INSTANCE.create();
+        }
+      }
+    }
+    return GSON_INSTANCE;
   }
 
 }
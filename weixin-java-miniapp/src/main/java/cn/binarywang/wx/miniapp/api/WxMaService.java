@@ -2,7 +2,10 @@ package cn.binarywang.wx.miniapp.api;
 
 import cn.binarywang.wx.miniapp.bean.WxMaJscode2SessionResult;
 import cn.binarywang.wx.miniapp.config.WxMaConfig;
+import me.chanjar.weixin.common.api.WxRetryPolicy;
 import me.chanjar.weixin.common.error.WxErrorException;
+import me.chanjar.weixin.common.metrics.WxApiCallListener;
+import me.chanjar.weixin.common.ratelimit.WxRateLimiter;
 import me.chanjar.weixin.common.service.WxImgProcService;
 import me.chanjar.weixin.common.service.WxOcrService;
 import me.chanjar.weixin.common.service.WxService;
@@ -11,6 +14,7 @@ import me.chanjar.weixin.common.util.http.RequestExecutor;
 import me.chanjar.weixin.common.util.http.RequestHttp;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The interface Wx ma service.
@@ -137,6 +141,39 @@ public interface WxMaService extends WxService {
    */
   <T, E> T execute(RequestExecutor<T, E> executor, String uri, E data) throws WxErrorException;
 
+  /**
+   * <pre>
+   * {@link #execute(RequestExecutor, String, Object)}的异步版本，调用线程不会等待微信接口返回.
+   * access_token失效时的自动刷新以及系统繁忙（-1）时的延迟重试都在后台完成，语义与同步版本一致.
+   * </pre>
+   *
+   * @param <T>      .
+   * @param <E>      .
+   * @param executor 执行器
+   * @param uri      接口请求地址
+   * @param data     参数或请求数据
+   * @return 结果，失败时以WxErrorException等异常完成
+   */
+  <T, E> CompletableFuture<T> executeAsync(RequestExecutor<T, E> executor, String uri, E data);
+
+  /**
+   * GET请求的异步版本.
+   *
+   * @param url        请求接口地址
+   * @param queryParam 参数
+   * @return 接口响应字符串
+   */
+  CompletableFuture<String> getAsync(String url, String queryParam);
+
+  /**
+   * POST请求的异步版本.
+   *
+   * @param url      请求接口地址
+   * @param postData 请求参数json值
+   * @return 接口响应字符串
+   */
+  CompletableFuture<String> postAsync(String url, String postData);
+
   /**
    * <pre>
    * 设置当微信系统响应系统繁忙时，要等待多少 retrySleepMillis(ms) * 2^(重试次数 - 1) 再发起重试.
@@ -157,6 +194,36 @@ public interface WxMaService extends WxService {
    */
   void setMaxRetryTimes(int maxRetryTimes);
 
+  /**
+   * <pre>
+   * 设置请求失败时的重试策略，设置后retrySleepMillis和maxRetryTimes不再生效.
+   * 默认：只重试-1（系统繁忙），每次等待 retrySleepMillis * 2^(重试次数 - 1)，最多重试maxRetryTimes次
+   * </pre>
+   *
+   * @param retryPolicy 重试策略，可使用{@link me.chanjar.weixin.common.api.WxBackoffRetryPolicy}
+   */
+  void setRetryPolicy(WxRetryPolicy retryPolicy);
+
+  /**
+   * <pre>
+   * 设置客户端限流器，按（小程序的appid, 接口）限制调用频率，超出时不发出请求，直接以错误码{@link me.chanjar.weixin.common.ratelimit.WxRateLimiter#RATE_LIMITED_ERROR_CODE}失败.
+   * 默认：不限流
+   * </pre>
+   *
+   * @param rateLimiter 限流器，可使用{@link me.chanjar.weixin.common.ratelimit.WxInMemoryRateLimiter}或{@link me.chanjar.weixin.common.ratelimit.WxRedisRateLimiter}
+   */
+  void setRateLimiter(WxRateLimiter rateLimiter);
+
+  /**
+   * <pre>
+   * 设置接口调用监听器，用于采集耗时、错误码、重试次数、token刷新等指标.
+   * 默认：不设置，此时不产生任何额外开销
+   * </pre>
+   *
+   * @param apiCallListener 监听器，可使用{@link me.chanjar.weixin.common.metrics.MicrometerWxApiCallListener}
+   */
+  void setApiCallListener(WxApiCallListener apiCallListener);
+
   /**
    * 获取WxMaConfig 对象.
    *
@@ -218,6 +285,19 @@ public interface WxMaService extends WxService {
    */
   WxMaService switchoverTo(String miniappId);
 
+  /**
+   * <pre>
+   * 获取绑定到指定小程序的服务视图，多小程序时可替代基于ThreadLocal的 {@link #switchoverTo(String)}.
+   * 视图固定使用该小程序的配置，不受当前线程所切换的小程序影响，可以在线程池及异步代码中安全传递；
+   * 与原服务共用http客户端，同一配置的视图只会创建一次，配置被替换或移除后再次获取会得到新的视图.
+   * 视图上对配置的增删及切换操作均作用于原服务；重试、限流及监听器等设置始终读取原服务的当前设置，在视图上修改同样作用于原服务.
+   * </pre>
+   *
+   * @param miniappId 小程序标识
+   * @return 绑定到该小程序的服务，找不到对应配置时抛出异常
+   */
+  WxMaService forApp(String miniappId);
+
   /**
    * 返回消息（客服消息和模版消息）发送接口方法实现类，以方便调用其各个接口.
    *
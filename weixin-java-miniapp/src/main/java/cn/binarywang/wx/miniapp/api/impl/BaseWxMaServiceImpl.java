@@ -6,21 +6,28 @@ import cn.binarywang.wx.miniapp.config.WxMaConfig;
 import cn.binarywang.wx.miniapp.util.WxMaConfigHolder;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import lombok.extern.slf4j.Slf4j;
+import me.chanjar.weixin.common.api.WxBackoffRetryPolicy;
+import me.chanjar.weixin.common.api.WxConfigRegistry;
 import me.chanjar.weixin.common.api.WxConsts;
+import me.chanjar.weixin.common.api.WxRequestDeadline;
+import me.chanjar.weixin.common.api.WxRetryPolicy;
 import me.chanjar.weixin.common.bean.ToJson;
 import me.chanjar.weixin.common.bean.WxAccessToken;
 import me.chanjar.weixin.common.enums.WxType;
 import me.chanjar.weixin.common.error.WxError;
 import me.chanjar.weixin.common.error.WxErrorException;
 import me.chanjar.weixin.common.error.WxRuntimeException;
+import me.chanjar.weixin.common.metrics.WxApiCallEvent;
+import me.chanjar.weixin.common.metrics.WxApiCallListener;
+import me.chanjar.weixin.common.ratelimit.WxRateLimiter;
 import me.chanjar.weixin.common.service.WxImgProcService;
 import me.chanjar.weixin.common.service.WxOcrService;
 import me.chanjar.weixin.common.util.DataUtils;
 import me.chanjar.weixin.common.util.crypto.SHA1;
+import me.chanjar.weixin.common.util.http.AsyncRequestSupport;
 import me.chanjar.weixin.common.util.http.RequestExecutor;
 import me.chanjar.weixin.common.util.http.RequestHttp;
 import me.chanjar.weixin.common.util.http.SimpleGetRequestExecutor;
@@ -32,8 +39,11 @@ import org.apache.commons.lang3.StringUtils;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * @author <a href="https://github.com/binarywang">Binary Wang</a>
@@ -75,9 +85,21 @@ public abstract class BaseWxMaServiceImpl<H, P> implements WxMaService, RequestH
   private final WxMaShopDeliveryService shopDeliveryService = new WxMaShopDeliveryServiceImpl(this);
   private final WxMaLinkService linkService = new WxMaLinkServiceImpl(this);
   private final WxMaReimburseInvoiceService reimburseInvoiceService = new WxMaReimburseInvoiceServiceImpl(this);
-  private Map<String, WxMaConfig> configMap;
+  private final WxConfigRegistry<WxMaConfig, WxMaService> configs = new WxConfigRegistry<>();
+  /**
+   * 通过 {@link #forApp(String)} 创建的视图所属的原服务及所绑定的配置，非视图时均为null.
+   */
+  private BaseWxMaServiceImpl<H, P> root;
+  private WxMaConfig boundConfig;
   private int retrySleepMillis = 1000;
   private int maxRetryTimes = 5;
+  private WxRetryPolicy retryPolicy;
+  /**
+   * 未设置retryPolicy时使用的策略，在设置retrySleepMillis或maxRetryTimes时重建，避免每次请求都创建新的策略.
+   */
+  private volatile WxRetryPolicy defaultRetryPolicy = WxBackoffRetryPolicy.of(1000, 5);
+  private WxRateLimiter rateLimiter;
+  private volatile WxApiCallListener apiCallListener;
 
   @Override
   public RequestHttp getRequestHttp() {
@@ -214,13 +236,41 @@ public abstract class BaseWxMaServiceImpl<H, P> implements WxMaService, RequestH
    */
   @Override
   public <T, E> T execute(RequestExecutor<T, E> executor, String uri, E data) throws WxErrorException {
+    WxApiCallListener listener = this.settings().apiCallListener;
+    if (listener == null) {
+      return this.executeWithRetry(executor, uri, data, null);
+    }
+
+    WxApiCallEvent event = WxApiCallEvent.start(WxType.MiniApp, this.getWxMaConfig().getAppid(), uri, data);
+    try {
+      T result = this.executeWithRetry(executor, uri, data, event);
+      listener.onApiCall(event.succeed(result));
+      return result;
+    } catch (WxErrorException | RuntimeException e) {
+      listener.onApiCall(event.fail(e));
+      throw e;
+    }
+  }
+
+  private <T, E> T executeWithRetry(RequestExecutor<T, E> executor, String uri, E data, WxApiCallEvent event)
+    throws WxErrorException {
+    WxRetryPolicy retryPolicy = this.getRetryPolicy();
+    long deadline = WxRequestDeadline.get();
     int retryTimes = 0;
-    do {
+    // 一次调用只占用一个许可，刷新access_token后的重新请求及重试均不再重复检查
+    this.checkRateLimit(uri);
+    while (true) {
       try {
         return this.executeInternal(executor, uri, data, false);
       } catch (WxErrorException e) {
-        if (retryTimes + 1 > this.maxRetryTimes) {
-          log.warn("重试达到最大次数【{}】", maxRetryTimes);
+        // 默认只有-1（系统繁忙）可以重试
+        if (!retryPolicy.isRetryable(e.getError())) {
+          throw e;
+        }
+
+        long sleepMillis = retryPolicy.nextRetryDelay(this.getWxMaConfig().getAppid(), retryTimes, deadline);
+        if (sleepMillis < 0) {
+          log.warn("已重试【{}】次，达到最大重试次数、重试预算或请求截止时间", retryTimes);
           //最后一次重试失败后，直接抛出异常，不再等待
           throw new WxErrorException(WxError.builder()
             .errorCode(e.getError().getErrorCode())
@@ -228,24 +278,18 @@ public abstract class BaseWxMaServiceImpl<H, P> implements WxMaService, RequestH
             .build());
         }
 
-        WxError error = e.getError();
-        // -1 系统繁忙, 1000ms后重试
-        if (error.getErrorCode() == -1) {
-          int sleepMillis = this.retrySleepMillis * (1 << retryTimes);
-          try {
-            log.warn("微信系统繁忙，{} ms 后重试(第{}次)", sleepMillis, retryTimes + 1);
-            Thread.sleep(sleepMillis);
-          } catch (InterruptedException e1) {
-            Thread.currentThread().interrupt();
-          }
-        } else {
-          throw e;
+        try {
+          log.warn("微信系统繁忙，{} ms 后重试(第{}次)", sleepMillis, retryTimes + 1);
+          Thread.sleep(sleepMillis);
+        } catch (InterruptedException e1) {
+          Thread.currentThread().interrupt();
+        }
+        retryTimes++;
+        if (event != null) {
+          event.retried();
         }
       }
-    } while (retryTimes++ < this.maxRetryTimes);
-
-    log.warn("重试达到最大次数【{}】", this.maxRetryTimes);
-    throw new WxRuntimeException("微信服务端异常，超出重试次数");
+    }
   }
 
   private <T, E> T executeInternal(RequestExecutor<T, E> executor, String uri, E data, boolean doNotAutoRefreshToken) throws WxErrorException {
@@ -270,17 +314,8 @@ public abstract class BaseWxMaServiceImpl<H, P> implements WxMaService, RequestH
       WxError error = e.getError();
       if (WxConsts.ACCESS_TOKEN_ERROR_CODES.contains(error.getErrorCode())) {
         // 强制设置WxMaConfig的access token过期了，这样在下一次请求里就会刷新access token
-        Lock lock = this.getWxMaConfig().getAccessTokenLock();
-        lock.lock();
-        try {
-          if (StringUtils.equals(this.getWxMaConfig().getAccessToken(), accessToken)) {
-            this.getWxMaConfig().expireAccessToken();
-          }
-        } catch (Exception ex) {
-          this.getWxMaConfig().expireAccessToken();
-        } finally {
-          lock.unlock();
-        }
+        this.expireAccessToken(this.getWxMaConfig(), accessToken);
+        this.onAccessTokenInvalid(this.getWxMaConfig(), error.getErrorCode());
         if (this.getWxMaConfig().autoRefreshToken() && !doNotAutoRefreshToken) {
           log.warn("即将重新获取新的access_token，错误代码：{}，错误信息：{}", error.getErrorCode(), error.getErrorMsg());
           //下一次不再自动重试
@@ -300,6 +335,138 @@ public abstract class BaseWxMaServiceImpl<H, P> implements WxMaService, RequestH
     }
   }
 
+  @Override
+  public <T, E> CompletableFuture<T> executeAsync(RequestExecutor<T, E> executor, String uri, E data) {
+    // 重试及刷新token后的重新请求会在其他线程中执行，需要带上当前小程序的标识
+    String configKey = WxMaConfigHolder.get();
+    String appid = this.getWxMaConfig().getAppid();
+    WxApiCallListener listener = this.settings().apiCallListener;
+    WxApiCallEvent event = listener == null ? null : WxApiCallEvent.start(WxType.MiniApp, appid, uri, data);
+    CompletableFuture<T> future = this.isRateLimited(uri)
+      ? AsyncRequestSupport.failedFuture(this.rateLimitedError(uri))
+      : AsyncRequestSupport.retry(
+        () -> this.withConfigKey(configKey, () -> this.executeInternalAsync(executor, uri, data, false)),
+        this.getRetryPolicy(), appid, WxRequestDeadline.get(),
+        e -> new WxErrorException(WxError.builder()
+          .errorCode(e.getError().getErrorCode())
+          .errorMsg("微信服务端异常，超出重试次数！")
+          .build()), event == null ? null : event::retried);
+    if (event == null) {
+      return future;
+    }
+
+    return future.whenComplete((result, throwable) ->
+      listener.onApiCall(throwable == null ? event.succeed(result) : event.fail(AsyncRequestSupport.unwrap(throwable))));
+  }
+
+  @Override
+  public CompletableFuture<String> getAsync(String url, String queryParam) {
+    return this.executeAsync(SimpleGetRequestExecutor.create(this), url, queryParam);
+  }
+
+  @Override
+  public CompletableFuture<String> postAsync(String url, String postData) {
+    return this.executeAsync(SimplePostRequestExecutor.create(this), url, postData);
+  }
+
+  private <T, E> CompletableFuture<T> executeInternalAsync(RequestExecutor<T, E> executor, String uri, E data,
+                                                           boolean doNotAutoRefreshToken) {
+    if (uri.contains("access_token=")) {
+      return AsyncRequestSupport.failedFuture(new IllegalArgumentException("uri参数中不允许有access_token: " + uri));
+    }
+
+    String configKey = WxMaConfigHolder.get();
+    WxMaConfig config = this.getWxMaConfig();
+    String apiUri = StringUtils.isNotEmpty(config.getApiHostUrl())
+      ? uri.replace("https://api.weixin.qq.com", config.getApiHostUrl()) : uri;
+    return this.getAccessTokenAsync(configKey).thenCompose(accessToken -> {
+      String uriWithAccessToken = apiUri + (apiUri.contains("?") ? "&" : "?") + "access_token=" + accessToken;
+      return executor.executeAsync(uriWithAccessToken, data, WxType.MiniApp).handle((result, throwable) -> {
+        E dataForLog = DataUtils.handleDataWithSecret(data);
+        if (throwable == null) {
+          log.debug("\n【请求地址】: {}\n【请求参数】：{}\n【响应数据】：{}", uriWithAccessToken, dataForLog, result);
+          return CompletableFuture.completedFuture(result);
+        }
+
+        Throwable e = AsyncRequestSupport.unwrap(throwable);
+        if (e instanceof IOException) {
+          log.error("\n【请求地址】: {}\n【请求参数】：{}\n【异常信息】：{}", uriWithAccessToken, dataForLog, e.getMessage());
+          return AsyncRequestSupport.<T>failedFuture(new WxRuntimeException(e));
+        }
+
+        if (!(e instanceof WxErrorException)) {
+          return AsyncRequestSupport.<T>failedFuture(e);
+        }
+
+        WxError error = ((WxErrorException) e).getError();
+        if (WxConsts.ACCESS_TOKEN_ERROR_CODES.contains(error.getErrorCode())) {
+          // 使access_token过期需要获取其锁（redis存储时为分布式锁），不能在http客户端或重试调度的回调线程中执行
+          return AsyncRequestSupport.supplyAsync(() -> {
+            this.expireAccessToken(config, accessToken);
+            this.onAccessTokenInvalid(config, error.getErrorCode());
+            return null;
+          }).thenCompose(ignored -> {
+            if (config.autoRefreshToken() && !doNotAutoRefreshToken) {
+              log.warn("即将重新获取新的access_token，错误代码：{}，错误信息：{}", error.getErrorCode(), error.getErrorMsg());
+              return this.withConfigKey(configKey, () -> this.executeInternalAsync(executor, uri, data, true));
+            }
+
+            log.error("\n【请求地址】: {}\n【请求参数】：{}\n【错误信息】：{}", uriWithAccessToken, dataForLog, error);
+            return AsyncRequestSupport.<T>failedFuture(new WxErrorException(error, e));
+          });
+        }
+
+        if (error.getErrorCode() != 0) {
+          log.error("\n【请求地址】: {}\n【请求参数】：{}\n【错误信息】：{}", uriWithAccessToken, dataForLog, error);
+          return AsyncRequestSupport.<T>failedFuture(new WxErrorException(error, e));
+        }
+        return CompletableFuture.<T>completedFuture(null);
+      }).thenCompose(Function.identity());
+    });
+  }
+
+  /**
+   * 获取access_token，读取存储（redis等存储需要网络往返）及刷新均在后台线程中进行，不阻塞调用线程.
+   */
+  private CompletableFuture<String> getAccessTokenAsync(String configKey) {
+    return AsyncRequestSupport.supplyAsync(() -> {
+      String current = WxMaConfigHolder.get();
+      WxMaConfigHolder.set(configKey);
+      try {
+        return this.getAccessToken(false);
+      } finally {
+        WxMaConfigHolder.set(current);
+      }
+    });
+  }
+
+  private <T> CompletableFuture<T> withConfigKey(String configKey, Supplier<CompletableFuture<T>> action) {
+    String current = WxMaConfigHolder.get();
+    WxMaConfigHolder.set(configKey);
+    try {
+      return action.get();
+    } finally {
+      WxMaConfigHolder.set(current);
+    }
+  }
+
+  /**
+   * 强制设置access token过期，若其他线程已经刷新过（当前token与请求所用的不同），则不再使其过期.
+   */
+  private void expireAccessToken(WxMaConfig config, String accessToken) {
+    Lock lock = config.getAccessTokenLock();
+    lock.lock();
+    try {
+      if (StringUtils.equals(config.getAccessToken(), accessToken)) {
+        config.expireAccessToken();
+      }
+    } catch (Exception ex) {
+      config.expireAccessToken();
+    } finally {
+      lock.unlock();
+    }
+  }
+
   /**
    * 设置当前的AccessToken
    *
@@ -316,17 +483,26 @@ public abstract class BaseWxMaServiceImpl<H, P> implements WxMaService, RequestH
     }
     WxAccessToken accessToken = WxAccessToken.fromJson(resultContent);
     config.updateAccessToken(accessToken.getAccessToken(), accessToken.getExpiresIn());
+    WxApiCallListener listener = this.settings().apiCallListener;
+    if (listener != null) {
+      listener.onAccessTokenRefreshed(WxType.MiniApp, config.getAppid());
+    }
     return accessToken.getAccessToken();
   }
 
   @Override
   public WxMaConfig getWxMaConfig() {
-    if (this.configMap.size() == 1) {
+    if (this.boundConfig != null) {
+      return this.boundConfig;
+    }
+
+    WxMaConfig single = this.configs.getSingle();
+    if (single != null) {
       // 只有一个小程序，直接返回其配置即可
-      return this.configMap.values().iterator().next();
+      return single;
     }
 
-    return this.configMap.get(WxMaConfigHolder.get());
+    return this.configs.get(WxMaConfigHolder.get());
   }
 
   @Override
@@ -342,45 +518,64 @@ public abstract class BaseWxMaServiceImpl<H, P> implements WxMaService, RequestH
 
   @Override
   public void setMultiConfigs(Map<String, WxMaConfig> configs, String defaultMiniappId) {
-    this.configMap = Maps.newHashMap(configs);
+    if (this.root != null) {
+      this.root.setMultiConfigs(configs, defaultMiniappId);
+      return;
+    }
+
+    this.configs.replaceAll(configs);
     WxMaConfigHolder.set(defaultMiniappId);
     this.initHttp();
   }
 
   @Override
   public void addConfig(String miniappId, WxMaConfig configStorages) {
+    if (this.root != null) {
+      this.root.addConfig(miniappId, configStorages);
+      return;
+    }
+
     synchronized (this) {
-      if (this.configMap == null) {
+      if (this.configs.isEmpty()) {
         this.setWxMaConfig(configStorages);
       } else {
         WxMaConfigHolder.set(miniappId);
-        this.configMap.put(miniappId, configStorages);
+        this.configs.put(miniappId, configStorages);
       }
     }
   }
 
   @Override
   public void removeConfig(String miniappId) {
+    if (this.root != null) {
+      this.root.removeConfig(miniappId);
+      return;
+    }
+
     synchronized (this) {
-      if (this.configMap.size() == 1) {
-        this.configMap.remove(miniappId);
+      if (this.configs.size() == 1) {
+        this.configs.remove(miniappId);
         log.warn("已删除最后一个小程序配置：{}，须立即使用setWxMaConfig或setMultiConfigs添加配置", miniappId);
         return;
       }
       if (WxMaConfigHolder.get().equals(miniappId)) {
-        this.configMap.remove(miniappId);
-        final String defaultMpId = this.configMap.keySet().iterator().next();
+        this.configs.remove(miniappId);
+        final String defaultMpId = this.configs.firstId();
         WxMaConfigHolder.set(defaultMpId);
         log.warn("已删除默认小程序配置，小程序【{}】被设为默认配置", defaultMpId);
         return;
       }
-      this.configMap.remove(miniappId);
+      this.configs.remove(miniappId);
     }
   }
 
   @Override
   public WxMaService switchoverTo(String miniappId) {
-    if (this.configMap.containsKey(miniappId)) {
+    if (this.root != null) {
+      return this.root.switchoverTo(miniappId);
+    }
+
+    if (this.configs.contains(miniappId)) {
       WxMaConfigHolder.set(miniappId);
       return this;
     }
@@ -390,7 +585,11 @@ public abstract class BaseWxMaServiceImpl<H, P> implements WxMaService, RequestH
 
   @Override
   public boolean switchover(String mpId) {
-    if (this.configMap.containsKey(mpId)) {
+    if (this.root != null) {
+      return this.root.switchover(mpId);
+    }
+
+    if (this.configs.contains(mpId)) {
       WxMaConfigHolder.set(mpId);
       return true;
     }
@@ -399,14 +598,144 @@ public abstract class BaseWxMaServiceImpl<H, P> implements WxMaService, RequestH
     return false;
   }
 
+  @Override
+  public WxMaService forApp(String miniappId) {
+    if (this.root != null) {
+      return this.root.forApp(miniappId);
+    }
+
+    WxMaService view = this.configs.getView(miniappId, this::createView);
+    if (view != null) {
+      return view;
+    }
+
+    WxMaConfig config = this.getWxMaConfig();
+    if (this.configs.isEmpty() && config != null && miniappId.equals(config.getAppid())) {
+      // 子类自行提供固定配置（如开放平台代小程序实现）时，本身即绑定到该小程序
+      return this;
+    }
+
+    throw new WxRuntimeException(String.format("无法找到对应【%s】的小程序配置信息，请核实！", miniappId));
+  }
+
+  private WxMaService createView(WxMaConfig config) {
+    BaseWxMaServiceImpl<H, P> view = this.newInstance();
+    view.root = this;
+    view.boundConfig = config;
+    view.initHttp(this);
+    return view;
+  }
+
+  /**
+   * 创建 {@link #forApp(String)} 所用的视图对象，默认通过无参构造方法创建同类型的实例，没有无参构造方法的子类需要覆盖本方法.
+   *
+   * @return 新的服务实例
+   */
+  @SuppressWarnings("unchecked")
+  protected BaseWxMaServiceImpl<H, P> newInstance() {
+    try {
+      return this.getClass().getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new WxRuntimeException("无法创建" + this.getClass().getName() + "的实例，请覆盖newInstance方法", e);
+    }
+  }
+
+  /**
+   * 为视图初始化http客户端，默认与普通服务一样按绑定的配置初始化，子类可覆盖以直接共用原服务的http客户端.
+   *
+   * @param source 原服务
+   */
+  protected void initHttp(BaseWxMaServiceImpl<H, P> source) {
+    this.initHttp();
+  }
+
+  /**
+   * 重试、限流及监听器等设置的持有者，视图始终使用原服务的设置，原服务修改设置后对已创建的视图同样生效.
+   */
+  private BaseWxMaServiceImpl<H, P> settings() {
+    return this.root != null ? this.root : this;
+  }
+
   @Override
   public void setRetrySleepMillis(int retrySleepMillis) {
+    if (this.root != null) {
+      this.root.setRetrySleepMillis(retrySleepMillis);
+      return;
+    }
     this.retrySleepMillis = retrySleepMillis;
+    this.defaultRetryPolicy = WxBackoffRetryPolicy.of(this.retrySleepMillis, this.maxRetryTimes);
   }
 
   @Override
   public void setMaxRetryTimes(int maxRetryTimes) {
+    if (this.root != null) {
+      this.root.setMaxRetryTimes(maxRetryTimes);
+      return;
+    }
     this.maxRetryTimes = maxRetryTimes;
+    this.defaultRetryPolicy = WxBackoffRetryPolicy.of(this.retrySleepMillis, this.maxRetryTimes);
+  }
+
+  @Override
+  public void setRetryPolicy(WxRetryPolicy retryPolicy) {
+    if (this.root != null) {
+      this.root.setRetryPolicy(retryPolicy);
+      return;
+    }
+    this.retryPolicy = retryPolicy;
+  }
+
+  /**
+   * @return 重试策略，未设置时按retrySleepMillis和maxRetryTimes进行指数退避重试
+   */
+  protected WxRetryPolicy getRetryPolicy() {
+    BaseWxMaServiceImpl<H, P> settings = this.settings();
+    return settings.retryPolicy != null ? settings.retryPolicy : settings.defaultRetryPolicy;
+  }
+
+  @Override
+  public void setRateLimiter(WxRateLimiter rateLimiter) {
+    if (this.root != null) {
+      this.root.setRateLimiter(rateLimiter);
+      return;
+    }
+    this.rateLimiter = rateLimiter;
+  }
+
+  @Override
+  public void setApiCallListener(WxApiCallListener apiCallListener) {
+    if (this.root != null) {
+      this.root.setApiCallListener(apiCallListener);
+      return;
+    }
+    this.apiCallListener = apiCallListener;
+  }
+
+  private void onAccessTokenInvalid(WxMaConfig config, int errorCode) {
+    WxApiCallListener listener = this.settings().apiCallListener;
+    if (listener != null) {
+      listener.onAccessTokenInvalid(WxType.MiniApp, config.getAppid(), errorCode);
+    }
+  }
+
+  /**
+   * 被客户端限流时不发出请求，直接失败.
+   */
+  private void checkRateLimit(String uri) throws WxErrorException {
+    if (this.isRateLimited(uri)) {
+      throw this.rateLimitedError(uri);
+    }
+  }
+
+  private boolean isRateLimited(String uri) {
+    WxRateLimiter rateLimiter = this.settings().rateLimiter;
+    return rateLimiter != null && !rateLimiter.tryAcquire(this.getWxMaConfig().getAppid(), uri);
+  }
+
+  private WxErrorException rateLimitedError(String uri) {
+    log.warn("超出客户端限流配置，请求未发出：{}", uri);
+    return new WxErrorException(WxError.builder().errorCode(WxRateLimiter.RATE_LIMITED_ERROR_CODE)
+      .errorMsg("超出客户端限流配置，请求未发出").build());
   }
 
   @Override
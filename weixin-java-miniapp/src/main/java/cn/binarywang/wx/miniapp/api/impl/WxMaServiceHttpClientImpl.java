@@ -59,6 +59,12 @@ public class WxMaServiceHttpClientImpl extends BaseWxMaServiceImpl {
     return HttpType.APACHE_HTTP;
   }
 
+  @Override
+  protected void initHttp(BaseWxMaServiceImpl source) {
+    this.httpClient = (CloseableHttpClient) source.getRequestHttpClient();
+    this.httpProxy = (HttpHost) source.getRequestHttpProxy();
+  }
+
   @Override
   protected String doGetAccessTokenRequest() throws IOException {
 
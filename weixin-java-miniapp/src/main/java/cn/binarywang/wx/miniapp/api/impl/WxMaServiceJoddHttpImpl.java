@@ -44,6 +44,12 @@ public class WxMaServiceJoddHttpImpl extends BaseWxMaServiceImpl<HttpConnectionP
     return HttpType.JODD_HTTP;
   }
 
+  @Override
+  protected void initHttp(BaseWxMaServiceImpl<HttpConnectionProvider, ProxyInfo> source) {
+    this.httpClient = source.getRequestHttpClient();
+    this.httpProxy = source.getRequestHttpProxy();
+  }
+
   @Override
   protected String doGetAccessTokenRequest() throws IOException {
     String url = StringUtils.isNotEmpty(this.getWxMaConfig().getApiHostUrl()) ?
@@ -62,6 +62,12 @@ public class WxMaServiceOkHttpImpl extends BaseWxMaServiceImpl<OkHttpClient, OkH
     return HttpType.OK_HTTP;
   }
 
+  @Override
+  protected void initHttp(BaseWxMaServiceImpl<OkHttpClient, OkHttpProxyInfo> source) {
+    this.httpClient = source.getRequestHttpClient();
+    this.httpProxy = source.getRequestHttpProxy();
+  }
+
   @Override
   protected String doGetAccessTokenRequest() throws IOException {
     String url = StringUtils.isNotEmpty(this.getWxMaConfig().getApiHostUrl()) ?
@@ -171,12 +171,8 @@ public class WxMaMessage implements Serializable {
 
   public static WxMaMessage fromEncryptedXml(InputStream is, WxMaConfig wxMaConfig, String timestamp,
                                              String nonce, String msgSignature) {
-    try {
-      return fromEncryptedXml(IOUtils.toString(is, StandardCharsets.UTF_8), wxMaConfig,
-        timestamp, nonce, msgSignature);
-    } catch (IOException e) {
-      throw new WxRuntimeException(e);
-    }
+    // 解密后的明文字节直接交给XStream解析，不再转成字符串
+    return new WxMaCryptUtils(wxMaConfig).decryptXml(msgSignature, timestamp, nonce, is, WxMaMessage::fromXml);
   }
 
   public static WxMaMessage fromJson(String json) {
@@ -74,6 +74,15 @@ public interface WxMaConfig {
    */
   boolean isJsapiTicketExpired();
 
+  /**
+   * jsapi ticket的过期时间，供后台刷新时据此安排刷新时间.
+   *
+   * @return 过期时间戳（毫秒），无法获知或不存在时返回0
+   */
+  default long getJsapiTicketExpiresTime() {
+    return 0;
+  }
+
   /**
    * 强制将jsapi ticket过期掉
    */
@@ -108,6 +117,15 @@ public interface WxMaConfig {
    */
   boolean isCardApiTicketExpired();
 
+  /**
+   * 卡券api ticket的过期时间，供后台刷新时据此安排刷新时间.
+   *
+   * @return 过期时间戳（毫秒），无法获知或不存在时返回0
+   */
+  default long getCardApiTicketExpiresTime() {
+    return 0;
+  }
+
   /**
    * 强制将卡券api ticket过期掉.
    */
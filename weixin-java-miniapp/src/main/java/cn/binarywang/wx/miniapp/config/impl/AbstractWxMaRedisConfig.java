@@ -160,6 +160,11 @@ public abstract class AbstractWxMaRedisConfig extends WxMaDefaultConfigImpl {
     return isExpired(getExpireFromRedis(JSAPI_TICKET));
   }
 
+  @Override
+  public long getJsapiTicketExpiresTime() {
+    return getExpireFromRedis(JSAPI_TICKET);
+  }
+
   @Override
   public void expireJsapiTicket() {
     setExpire(JSAPI_TICKET, 0);
@@ -193,6 +198,11 @@ public abstract class AbstractWxMaRedisConfig extends WxMaDefaultConfigImpl {
     return isExpired(getExpireFromRedis(CARD_API_TICKET));
   }
 
+  @Override
+  public long getCardApiTicketExpiresTime() {
+    return getExpireFromRedis(CARD_API_TICKET);
+  }
+
   @Override
   public void expireCardApiTicket() {
     setExpire(CARD_API_TICKET, 0);
@@ -50,6 +50,12 @@ public class WxMaRedisBetterConfigImpl extends WxMaDefaultConfigImpl {
     return expire == null || expire < 2;
   }
 
+  @Override
+  public long getExpiresTime() {
+    Long expire = redisOps.getExpire(this.accessTokenKey);
+    return expire == null || expire < 2 ? 0 : System.currentTimeMillis() + expire * 1000L;
+  }
+
   @Override
   public synchronized void updateAccessToken(String accessToken, int expiresInSeconds) {
     redisOps.setValue(this.accessTokenKey, accessToken, expiresInSeconds - 200, TimeUnit.SECONDS);
@@ -73,6 +79,11 @@ public class WxMaRedisBetterConfigImpl extends WxMaDefaultConfigImpl {
     return doIsTicketExpired(TicketType.JSAPI);
   }
 
+  @Override
+  public long getJsapiTicketExpiresTime() {
+    return doGetTicketExpiresTime(TicketType.JSAPI);
+  }
+
   @Override
   public void expireJsapiTicket() {
     doExpireTicket(TicketType.JSAPI);
@@ -93,6 +104,11 @@ public class WxMaRedisBetterConfigImpl extends WxMaDefaultConfigImpl {
     return doIsTicketExpired(TicketType.WX_CARD);
   }
 
+  @Override
+  public long getCardApiTicketExpiresTime() {
+    return doGetTicketExpiresTime(TicketType.WX_CARD);
+  }
+
   @Override
   public void expireCardApiTicket() {
     doExpireTicket(TicketType.WX_CARD);
@@ -115,6 +131,11 @@ public class WxMaRedisBetterConfigImpl extends WxMaDefaultConfigImpl {
     return redisOps.getExpire(this.getTicketRedisKey(type)) < 2;
   }
 
+  private long doGetTicketExpiresTime(TicketType type) {
+    Long expire = redisOps.getExpire(this.getTicketRedisKey(type));
+    return expire == null || expire < 2 ? 0 : System.currentTimeMillis() + expire * 1000L;
+  }
+
   private void doUpdateTicket(TicketType type, String ticket, int expiresInSeconds) {
     redisOps.setValue(this.getTicketRedisKey(type), ticket, expiresInSeconds - 200, TimeUnit.SECONDS);
   }
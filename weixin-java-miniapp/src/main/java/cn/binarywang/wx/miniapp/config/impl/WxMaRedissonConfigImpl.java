@@ -89,6 +89,11 @@ public class WxMaRedissonConfigImpl extends WxMaDefaultConfigImpl {
     return expire == null || expire < 2;
   }
 
+  @Override
+  public long getExpiresTime() {
+    return this.expiresTimeOf(this.accessTokenKey);
+  }
+
   @Override
   public void updateAccessToken(WxAccessToken accessToken) {
     redisOps.setValue(this.accessTokenKey, accessToken.getAccessToken(), accessToken.getExpiresIn(), TimeUnit.SECONDS);
@@ -110,6 +115,11 @@ public class WxMaRedissonConfigImpl extends WxMaDefaultConfigImpl {
     return expire == null || expire < 2;
   }
 
+  @Override
+  public long getJsapiTicketExpiresTime() {
+    return this.expiresTimeOf(this.jsapiTicketKey);
+  }
+
   @Override
   public void expireJsapiTicket() {
     redisOps.expire(this.jsapiTicketKey, 0, TimeUnit.SECONDS);
@@ -132,6 +142,11 @@ public class WxMaRedissonConfigImpl extends WxMaDefaultConfigImpl {
     return expire == null || expire < 2;
   }
 
+  @Override
+  public long getCardApiTicketExpiresTime() {
+    return this.expiresTimeOf(this.cardApiTicketKey);
+  }
+
   @Override
   public void expireCardApiTicket() {
     redisOps.expire(this.cardApiTicketKey, 0, TimeUnit.SECONDS);
@@ -147,4 +162,9 @@ public class WxMaRedissonConfigImpl extends WxMaDefaultConfigImpl {
     redisOps.expire(this.accessTokenKey, 0, TimeUnit.SECONDS);
   }
 
+  private long expiresTimeOf(String key) {
+    Long expire = redisOps.getExpire(key);
+    return expire == null || expire < 2 ? 0 : System.currentTimeMillis() + expire * 1000L;
+  }
+
 }
@@ -16,6 +16,7 @@ import com.google.gson.GsonBuilder;
  */
 public class WxMaGsonBuilder {
   private static final GsonBuilder INSTANCE = new GsonBuilder();
+  private static volatile Gson GSON_INSTANCE;
 
   static {
     INSTANCE.disableHtmlEscaping();
@@ -28,8 +29,18 @@ public class WxMaGsonBuilder {
     INSTANCE.registerTypeAdapter(WxMaUserPortrait.class, new WxMaUserPortraitGsonAdapter());
   }
 
+  /**
+   * 获取本模块共享的Gson实例，缓存方式同 {@link me.chanjar.weixin.common.util.json.WxGsonBuilder#create()}.
+   */
   public static Gson create() {
-    return INSTANCE.create();
+    if (null == GSON_INSTANCE) {
+      synchronized (INSTANCE) {
+        if (null == GSON_INSTANCE) {
+          GSON_INSTANCE = INSTANCE.create();
+        }
+      }
+    }
+    return GSON_INSTANCE;
   }
 
 }
@@ -2,11 +2,17 @@ package cn.binarywang.wx.miniapp.message;
 
 import cn.binarywang.wx.miniapp.api.WxMaService;
 import cn.binarywang.wx.miniapp.bean.WxMaMessage;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import me.chanjar.weixin.common.api.WxErrorExceptionHandler;
 import me.chanjar.weixin.common.api.WxMessageDuplicateChecker;
+import me.chanjar.weixin.common.api.WxMessageExecutors;
 import me.chanjar.weixin.common.api.WxMessageInMemoryDuplicateChecker;
+import me.chanjar.weixin.common.api.WxMessageRuleIndex;
 import me.chanjar.weixin.common.session.InternalSession;
 import me.chanjar.weixin.common.session.InternalSessionManager;
 import me.chanjar.weixin.common.session.StandardSessionManager;
@@ -20,7 +26,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.*;
+import java.util.concurrent.ExecutorService;
 
 /**
  * @author <a href="https://github.com/binarywang">Binary Wang</a>
@@ -28,9 +34,16 @@ import java.util.concurrent.*;
 @Data
 public class WxMaMessageRouter {
   private static final int DEFAULT_THREAD_POOL_SIZE = 100;
+  private static final int DEFAULT_QUEUE_CAPACITY = 10000;
   private final Logger log = LoggerFactory.getLogger(WxMaMessageRouter.class);
   private final List<WxMaMessageRouterRule> rules = new ArrayList<>();
 
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private volatile WxMessageRuleIndex<WxMaMessageRouterRule> ruleIndex;
+
   private final WxMaService wxMaService;
 
   private ExecutorService executorService;
@@ -43,14 +56,30 @@ public class WxMaMessageRouter {
 
   public WxMaMessageRouter(WxMaService wxMaService) {
     this.wxMaService = wxMaService;
-    ThreadFactory namedThreadFactory = new ThreadFactoryBuilder().setNameFormat("WxMaMessageRouter-pool-%d").build();
-    this.executorService = new ThreadPoolExecutor(DEFAULT_THREAD_POOL_SIZE, DEFAULT_THREAD_POOL_SIZE,
-      0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), namedThreadFactory);
+    this.executorService = WxMessageExecutors.newBoundedExecutor("WxMaMessageRouter-pool-%d", DEFAULT_THREAD_POOL_SIZE,
+      DEFAULT_QUEUE_CAPACITY);
     this.sessionManager = new StandardSessionManager();
     this.exceptionHandler = new LogExceptionHandler();
     this.messageDuplicateChecker = new WxMessageInMemoryDuplicateChecker();
   }
 
+  /**
+   * 已添加规则的匹配条件发生变化，下次路由时重建索引.
+   */
+  void ruleChanged() {
+    this.ruleIndex = null;
+  }
+
+  private WxMessageRuleIndex<WxMaMessageRouterRule> getRuleIndex() {
+    WxMessageRuleIndex<WxMaMessageRouterRule> index = this.ruleIndex;
+    if (index == null || !index.isBuiltFrom(this.rules)) {
+      index = new WxMessageRuleIndex<>(this.rules, WxMaMessageRouterRule::getMsgType, WxMaMessageRouterRule::getEvent,
+        null, WxMaMessageRouterRule::getContent);
+      this.ruleIndex = index;
+    }
+    return index;
+  }
+
   /**
    * 开始一个新的Route规则.
    */
@@ -68,8 +97,10 @@ public class WxMaMessageRouter {
     }
 
     final List<WxMaMessageRouterRule> matchRules = new ArrayList<>();
-    // 收集匹配的规则
-    for (final WxMaMessageRouterRule rule : this.rules) {
+    // 收集匹配的规则，只需检查索引中与消息对应的规则
+    List<WxMaMessageRouterRule> candidates = this.getRuleIndex().candidates(wxMessage.getMsgType(),
+      wxMessage.getEvent(), null, wxMessage.getContent() == null ? null : wxMessage.getContent().trim());
+    for (final WxMaMessageRouterRule rule : candidates) {
       if (rule.test(wxMessage)) {
         matchRules.add(rule);
         if (!rule.isReEnter()) {
@@ -82,16 +113,20 @@ public class WxMaMessageRouter {
       return null;
     }
 
-    final List<Future<?>> futures = new ArrayList<>();
     WxMaXmlOutMessage result = null;
     for (final WxMaMessageRouterRule rule : matchRules) {
       // 返回最后一个非异步的rule的执行结果
       if (rule.isAsync()) {
-        futures.add(
-          this.executorService.submit(() -> {
+        // 执行器为 WxOrderedExecutor 时，同一个用户的异步规则按顺序执行
+        WxMessageExecutors.submit(this.executorService, wxMessage.getFromUser(), () -> {
+          try {
             rule.service(wxMessage, context, WxMaMessageRouter.this.wxMaService, WxMaMessageRouter.this.sessionManager, WxMaMessageRouter.this.exceptionHandler);
-          })
-        );
+          } finally {
+            WxMaMessageRouter.this.log.debug("End session access: async=true, sessionId={}", wxMessage.getFromUser());
+            // 异步操作结束，session访问结束
+            sessionEndAccess(wxMessage);
+          }
+        });
       } else {
         result = rule.service(wxMessage, context, this.wxMaService, this.sessionManager, this.exceptionHandler);
         // 在同步操作结束，session访问结束
@@ -100,20 +135,6 @@ public class WxMaMessageRouter {
       }
     }
 
-    if (futures.size() > 0) {
-      this.executorService.submit(() -> {
-        for (Future<?> future : futures) {
-          try {
-            future.get();
-            WxMaMessageRouter.this.log.debug("End session access: async=true, sessionId={}", wxMessage.getFromUser());
-            // 异步操作结束，session访问结束
-            sessionEndAccess(wxMessage);
-          } catch (InterruptedException | ExecutionException e) {
-            WxMaMessageRouter.this.log.error("Error happened when wait task finish", e);
-          }
-        }
-      });
-    }
     return result;
   }
 
@@ -122,6 +143,15 @@ public class WxMaMessageRouter {
   }
 
   private boolean isMsgDuplicated(WxMaMessage wxMessage) {
+    if (this.messageDuplicateChecker.isHashedKeySupported()) {
+      long messageKey = wxMessage.getMsgId() == null
+        ? WxMessageDuplicateChecker.hashKey(wxMessage.getCreateTime(), wxMessage.getFromUser(),
+        StringUtils.trimToEmpty(wxMessage.getEvent()), wxMessage.getToUser())
+        : WxMessageDuplicateChecker.hashKey(wxMessage.getMsgId(), wxMessage.getCreateTime(), wxMessage.getFromUser(),
+        wxMessage.getToUser());
+      return this.messageDuplicateChecker.isDuplicate(messageKey);
+    }
+
     StringBuilder messageId = new StringBuilder();
     if (wxMessage.getMsgId() == null) {
       messageId.append(wxMessage.getCreateTime())
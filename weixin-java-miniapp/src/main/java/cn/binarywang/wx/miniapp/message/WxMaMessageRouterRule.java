@@ -29,6 +29,8 @@ public class WxMaMessageRouterRule {
 
   private String rContent;
 
+  private volatile Pattern rContentPattern;
+
   private String title;
 
   private WxMaMessageMatcher matcher;
@@ -188,8 +190,8 @@ public class WxMaMessageRouterRule {
         (this.content == null || this.content
           .equals(wxMessage.getContent() == null ? null : wxMessage.getContent().trim()))
         &&
-        (this.rContent == null || Pattern
-          .matches(this.rContent, wxMessage.getContent() == null ? "" : wxMessage.getContent().trim()))
+        (this.rContent == null || this.rContentPattern()
+          .matcher(wxMessage.getContent() == null ? "" : wxMessage.getContent().trim()).matches())
         &&
         (this.matcher == null || this.matcher.match(wxMessage))
         &&
@@ -198,6 +200,18 @@ public class WxMaMessageRouterRule {
       ;
   }
 
+  /**
+   * 编译后的rContent，正则变化时重新编译.
+   */
+  private Pattern rContentPattern() {
+    Pattern pattern = this.rContentPattern;
+    if (pattern == null || !pattern.pattern().equals(this.rContent)) {
+      pattern = Pattern.compile(this.rContent);
+      this.rContentPattern = pattern;
+    }
+    return pattern;
+  }
+
   /**
    * 处理微信推送过来的消息.
    */
@@ -260,6 +274,7 @@ public class WxMaMessageRouterRule {
 
   public void setMsgType(String msgType) {
     this.msgType = msgType;
+    this.routerBuilder.ruleChanged();
   }
 
   public String getEvent() {
@@ -268,6 +283,7 @@ public class WxMaMessageRouterRule {
 
   public void setEvent(String event) {
     this.event = event;
+    this.routerBuilder.ruleChanged();
   }
 
   public String getEventKey() {
@@ -284,6 +300,7 @@ public class WxMaMessageRouterRule {
 
   public void setContent(String content) {
     this.content = content;
+    this.routerBuilder.ruleChanged();
   }
 
   public String getrContent() {
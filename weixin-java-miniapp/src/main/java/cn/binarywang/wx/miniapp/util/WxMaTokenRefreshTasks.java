@@ -0,0 +1,141 @@
+package cn.binarywang.wx.miniapp.util;
+
+import cn.binarywang.wx.miniapp.api.WxMaService;
+import cn.binarywang.wx.miniapp.config.WxMaConfig;
+import me.chanjar.weixin.common.api.WxTokenRefreshScheduler;
+import me.chanjar.weixin.common.api.WxTokenRefreshTask;
+import me.chanjar.weixin.common.error.WxErrorException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <pre>
+ * 小程序凭证的后台刷新任务.
+ * 使用示例：WxMaTokenRefreshTasks.register(scheduler, wxMaService, "appId1", "appId2");
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class WxMaTokenRefreshTasks {
+
+  /**
+   * 将指定小程序的access_token、jsapi_ticket及卡券api_ticket注册到调度器.
+   *
+   * @param scheduler 调度器
+   * @param service   小程序服务
+   * @param appIds    小程序appId，需已通过setMultiConfigs等方法配置到service中
+   */
+  public static void register(WxTokenRefreshScheduler scheduler, WxMaService service, String... appIds) {
+    for (String appId : appIds) {
+      of(service, appId).forEach(scheduler::register);
+    }
+  }
+
+  /**
+   * 指定小程序的access_token、jsapi_ticket及卡券api_ticket刷新任务.
+   *
+   * @param service 小程序服务
+   * @param appId   小程序appId
+   * @return 刷新任务
+   */
+  public static List<WxTokenRefreshTask> of(WxMaService service, String appId) {
+    List<WxTokenRefreshTask> tasks = new ArrayList<>();
+    tasks.add(new AccessTokenTask(service, appId));
+    tasks.add(new JsapiTicketTask(service, appId));
+    tasks.add(new CardApiTicketTask(service, appId));
+    return tasks;
+  }
+
+  private abstract static class ConfigTask implements WxTokenRefreshTask {
+    protected final WxMaService service;
+    protected final String appId;
+
+    private ConfigTask(WxMaService service, String appId) {
+      this.service = service;
+      this.appId = appId;
+    }
+
+    protected WxMaConfig config() {
+      return this.service.switchoverTo(this.appId).getWxMaConfig();
+    }
+  }
+
+  private static class AccessTokenTask extends ConfigTask {
+    private AccessTokenTask(WxMaService service, String appId) {
+      super(service, appId);
+    }
+
+    @Override
+    public String getName() {
+      return "ma:" + this.appId + ":access_token";
+    }
+
+    @Override
+    public boolean isExpired() {
+      return this.config().isAccessTokenExpired();
+    }
+
+    @Override
+    public long getExpiresTime() {
+      return this.config().getExpiresTime();
+    }
+
+    @Override
+    public void refresh() throws WxErrorException {
+      this.service.switchoverTo(this.appId).getAccessToken(true);
+    }
+  }
+
+  private static class JsapiTicketTask extends ConfigTask {
+    private JsapiTicketTask(WxMaService service, String appId) {
+      super(service, appId);
+    }
+
+    @Override
+    public String getName() {
+      return "ma:" + this.appId + ":ticket:jsapi";
+    }
+
+    @Override
+    public boolean isExpired() {
+      return this.config().isJsapiTicketExpired();
+    }
+
+    @Override
+    public long getExpiresTime() {
+      return this.config().getJsapiTicketExpiresTime();
+    }
+
+    @Override
+    public void refresh() throws WxErrorException {
+      this.service.switchoverTo(this.appId).getJsapiService().getJsapiTicket(true);
+    }
+  }
+
+  private static class CardApiTicketTask extends ConfigTask {
+    private CardApiTicketTask(WxMaService service, String appId) {
+      super(service, appId);
+    }
+
+    @Override
+    public String getName() {
+      return "ma:" + this.appId + ":ticket:wx_card";
+    }
+
+    @Override
+    public boolean isExpired() {
+      return this.config().isCardApiTicketExpired();
+    }
+
+    @Override
+    public long getExpiresTime() {
+      return this.config().getCardApiTicketExpiresTime();
+    }
+
+    @Override
+    public void refresh() throws WxErrorException {
+      this.service.switchoverTo(this.appId).getJsapiService().getCardApiTicket(true);
+    }
+  }
+}
@@ -1,11 +1,12 @@
 package me.chanjar.weixin.mp.api;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import me.chanjar.weixin.common.api.WxErrorExceptionHandler;
 import me.chanjar.weixin.common.api.WxMessageDuplicateChecker;
+import me.chanjar.weixin.common.api.WxMessageExecutors;
 import me.chanjar.weixin.common.api.WxMessageInMemoryDuplicateChecker;
+import me.chanjar.weixin.common.api.WxMessageRuleIndex;
 import me.chanjar.weixin.common.session.InternalSession;
 import me.chanjar.weixin.common.session.InternalSessionManager;
 import me.chanjar.weixin.common.session.StandardSessionManager;
@@ -21,7 +22,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.*;
+import java.util.concurrent.ExecutorService;
 
 /**
  * <pre>
@@ -55,8 +56,11 @@ import java.util.concurrent.*;
 @AllArgsConstructor
 public class WxMpMessageRouter {
   private static final int DEFAULT_THREAD_POOL_SIZE = 100;
+  private static final int DEFAULT_QUEUE_CAPACITY = 10000;
   private final List<WxMpMessageRouterRule> rules = new ArrayList<>();
 
+  private volatile WxMessageRuleIndex<WxMpMessageRouterRule> ruleIndex;
+
   private final WxMpService wxMpService;
 
   private ExecutorService executorService;
@@ -69,9 +73,8 @@ public class WxMpMessageRouter {
 
   public WxMpMessageRouter(WxMpService wxMpService) {
     this.wxMpService = wxMpService;
-    ThreadFactory namedThreadFactory = new ThreadFactoryBuilder().setNameFormat("WxMpMessageRouter-pool-%d").build();
-    this.executorService = new ThreadPoolExecutor(DEFAULT_THREAD_POOL_SIZE, DEFAULT_THREAD_POOL_SIZE,
-      0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), namedThreadFactory);
+    this.executorService = WxMessageExecutors.newBoundedExecutor("WxMpMessageRouter-pool-%d", DEFAULT_THREAD_POOL_SIZE,
+      DEFAULT_QUEUE_CAPACITY);
     this.messageDuplicateChecker = new WxMessageInMemoryDuplicateChecker();
     this.sessionManager = new StandardSessionManager();
     this.exceptionHandler = new LogExceptionHandler();
@@ -99,7 +102,8 @@ public class WxMpMessageRouter {
   /**
    * <pre>
    * 设置自定义的 {@link ExecutorService}
-   * 如果不调用该方法，默认使用 Executors.newFixedThreadPool(100)
+   * 如果不调用该方法，默认使用100个线程、队列长度10000的线程池，队列满时由调用线程执行
+   * 需要同一个用户的消息按顺序处理时，可使用 {@link WxMessageExecutors#newOrderedExecutor(String, int, int)}
    * </pre>
    */
   public void setExecutorService(ExecutorService executorService) {
@@ -140,6 +144,23 @@ public class WxMpMessageRouter {
     return this.rules;
   }
 
+  /**
+   * 已添加规则的匹配条件发生变化，下次路由时重建索引.
+   */
+  void ruleChanged() {
+    this.ruleIndex = null;
+  }
+
+  private WxMessageRuleIndex<WxMpMessageRouterRule> getRuleIndex() {
+    WxMessageRuleIndex<WxMpMessageRouterRule> index = this.ruleIndex;
+    if (index == null || !index.isBuiltFrom(this.rules)) {
+      index = new WxMessageRuleIndex<>(this.rules, WxMpMessageRouterRule::getMsgType, WxMpMessageRouterRule::getEvent,
+        WxMpMessageRouterRule::getEventKey, WxMpMessageRouterRule::getContent);
+      this.ruleIndex = index;
+    }
+    return index;
+  }
+
   /**
    * 开始一个新的Route规则.
    */
@@ -175,8 +196,10 @@ public class WxMpMessageRouter {
     }
 
     final List<WxMpMessageRouterRule> matchRules = new ArrayList<>();
-    // 收集匹配的规则
-    for (final WxMpMessageRouterRule rule : this.rules) {
+    // 收集匹配的规则，只需检查索引中与消息对应的规则
+    List<WxMpMessageRouterRule> candidates = this.getRuleIndex().candidates(wxMessage.getMsgType(),
+      wxMessage.getEvent(), wxMessage.getEventKey(), StringUtils.trimToNull(wxMessage.getContent()));
+    for (final WxMpMessageRouterRule rule : candidates) {
       if (rule.test(wxMessage)) {
         matchRules.add(rule);
         if (!rule.isReEnter()) {
@@ -190,15 +213,19 @@ public class WxMpMessageRouter {
     }
 
     WxMpXmlOutMessage res = null;
-    final List<Future<?>> futures = new ArrayList<>();
     for (final WxMpMessageRouterRule rule : matchRules) {
       // 返回最后一个非异步的rule的执行结果
       if (rule.isAsync()) {
-        futures.add(
-          this.executorService.submit(() -> {
+        // 执行器为 WxOrderedExecutor 时，同一个用户的异步规则按顺序执行
+        WxMessageExecutors.submit(this.executorService, wxMessage.getFromUser(), () -> {
+          try {
             rule.service(wxMessage, context, mpService, WxMpMessageRouter.this.sessionManager, WxMpMessageRouter.this.exceptionHandler);
-          })
-        );
+          } finally {
+            log.debug("End session access: async=true, sessionId={}", wxMessage.getFromUser());
+            // 异步操作结束，session访问结束
+            sessionEndAccess(wxMessage);
+          }
+        });
       } else {
         res = rule.service(wxMessage, context, mpService, this.sessionManager, this.exceptionHandler);
         // 在同步操作结束，session访问结束
@@ -207,25 +234,6 @@ public class WxMpMessageRouter {
       }
     }
 
-    if (futures.isEmpty()) {
-      return res;
-    }
-
-    this.executorService.submit(() -> {
-      for (Future<?> future : futures) {
-        try {
-          future.get();
-          log.debug("End session access: async=true, sessionId={}", wxMessage.getFromUser());
-          // 异步操作结束，session访问结束
-          sessionEndAccess(wxMessage);
-        } catch (InterruptedException e) {
-          log.error("Error happened when wait task finish", e);
-          Thread.currentThread().interrupt();
-        } catch (ExecutionException e) {
-          log.error("Error happened when wait task finish", e);
-        }
-      }
-    });
     return res;
   }
 
@@ -238,6 +246,16 @@ public class WxMpMessageRouter {
   }
 
   private boolean isMsgDuplicated(WxMpXmlMessage wxMessage) {
+    if (this.messageDuplicateChecker.isHashedKeySupported()) {
+      long messageKey = wxMessage.getMsgId() == null
+        ? WxMessageDuplicateChecker.hashKey(wxMessage.getCreateTime(), wxMessage.getFromUser(),
+        StringUtils.trimToEmpty(wxMessage.getEventKey()), StringUtils.trimToEmpty(wxMessage.getEvent()),
+        wxMessage.getUserCardCode())
+        : WxMessageDuplicateChecker.hashKey(wxMessage.getMsgId(), wxMessage.getCreateTime(), wxMessage.getFromUser(),
+        wxMessage.getUserCardCode());
+      return this.messageDuplicateChecker.isDuplicate(messageKey);
+    }
+
     StringBuilder messageId = new StringBuilder();
     if (wxMessage.getMsgId() == null) {
       messageId.append(wxMessage.getCreateTime())
@@ -30,6 +30,10 @@ public class WxMpMessageRouterRule {
 
   private String rContent;
 
+  private volatile Pattern eventKeyPattern;
+
+  private volatile Pattern rContentPattern;
+
   private WxMpMessageMatcher matcher;
 
   private boolean reEnter = false;
@@ -182,16 +186,40 @@ public class WxMpMessageRouterRule {
         &&
         (this.eventKey == null || this.eventKey.equalsIgnoreCase(wxMessage.getEventKey()))
         &&
-        (this.eventKeyRegex == null || Pattern.matches(this.eventKeyRegex, StringUtils.trimToEmpty(wxMessage.getEventKey())))
+        (this.eventKeyRegex == null || this.eventKeyPattern().matcher(StringUtils.trimToEmpty(wxMessage.getEventKey())).matches())
         &&
         (this.content == null || this.content.equals(StringUtils.trimToNull(wxMessage.getContent())))
         &&
-        (this.rContent == null || Pattern.matches(this.rContent, StringUtils.trimToEmpty(wxMessage.getContent())))
+        (this.rContent == null || this.rContentPattern().matcher(StringUtils.trimToEmpty(wxMessage.getContent())).matches())
         &&
         (this.matcher == null || this.matcher.match(wxMessage))
       ;
   }
 
+  /**
+   * 编译后的eventKeyRegex，正则变化时重新编译.
+   */
+  private Pattern eventKeyPattern() {
+    Pattern pattern = this.eventKeyPattern;
+    if (pattern == null || !pattern.pattern().equals(this.eventKeyRegex)) {
+      pattern = Pattern.compile(this.eventKeyRegex);
+      this.eventKeyPattern = pattern;
+    }
+    return pattern;
+  }
+
+  /**
+   * 编译后的rContent，正则变化时重新编译.
+   */
+  private Pattern rContentPattern() {
+    Pattern pattern = this.rContentPattern;
+    if (pattern == null || !pattern.pattern().equals(this.rContent)) {
+      pattern = Pattern.compile(this.rContent);
+      this.rContentPattern = pattern;
+    }
+    return pattern;
+  }
+
   /**
    * 处理微信推送过来的消息
    *
@@ -259,6 +287,7 @@ public class WxMpMessageRouterRule {
 
   public void setMsgType(String msgType) {
     this.msgType = msgType;
+    this.routerBuilder.ruleChanged();
   }
 
   public String getEvent() {
@@ -267,6 +296,7 @@ public class WxMpMessageRouterRule {
 
   public void setEvent(String event) {
     this.event = event;
+    this.routerBuilder.ruleChanged();
   }
 
   public String getEventKey() {
@@ -275,6 +305,7 @@ public class WxMpMessageRouterRule {
 
   public void setEventKey(String eventKey) {
     this.eventKey = eventKey;
+    this.routerBuilder.ruleChanged();
   }
 
   public String getContent() {
@@ -283,6 +314,7 @@ public class WxMpMessageRouterRule {
 
   public void setContent(String content) {
     this.content = content;
+    this.routerBuilder.ruleChanged();
   }
 
   public String getrContent() {
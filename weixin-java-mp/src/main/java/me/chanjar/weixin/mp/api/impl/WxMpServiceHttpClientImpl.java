@@ -43,6 +43,12 @@ public class WxMpServiceHttpClientImpl extends BaseWxMpServiceImpl<CloseableHttp
     return HttpType.APACHE_HTTP;
   }
 
+  @Override
+  protected void initHttp(BaseWxMpServiceImpl<CloseableHttpClient, HttpHost> source) {
+    this.httpClient = source.getRequestHttpClient();
+    this.httpProxy = source.getRequestHttpProxy();
+  }
+
   @Override
   public void initHttp() {
     WxMpConfigStorage configStorage = this.getWxMpConfigStorage();
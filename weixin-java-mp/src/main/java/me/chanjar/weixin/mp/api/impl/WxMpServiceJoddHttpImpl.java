@@ -38,6 +38,12 @@ public class WxMpServiceJoddHttpImpl extends BaseWxMpServiceImpl<HttpConnectionP
     return HttpType.JODD_HTTP;
   }
 
+  @Override
+  protected void initHttp(BaseWxMpServiceImpl<HttpConnectionProvider, ProxyInfo> source) {
+    this.httpClient = source.getRequestHttpClient();
+    this.httpProxy = source.getRequestHttpProxy();
+  }
+
   @Override
   public void initHttp() {
 
@@ -38,6 +38,12 @@ public class WxMpServiceOkHttpImpl extends BaseWxMpServiceImpl<OkHttpClient, OkH
     return HttpType.OK_HTTP;
   }
 
+  @Override
+  protected void initHttp(BaseWxMpServiceImpl<OkHttpClient, OkHttpProxyInfo> source) {
+    this.httpClient = source.getRequestHttpClient();
+    this.httpProxy = source.getRequestHttpProxy();
+  }
+
   @Override
   public String getAccessToken(boolean forceRefresh) throws WxErrorException {
     final WxMpConfigStorage config = this.getWxMpConfigStorage();
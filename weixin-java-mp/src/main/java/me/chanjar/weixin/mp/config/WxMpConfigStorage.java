@@ -78,6 +78,16 @@ public interface WxMpConfigStorage {
    */
   boolean isTicketExpired(TicketType type);
 
+  /**
+   * ticket的过期时间，供后台刷新时据此安排刷新时间.
+   *
+   * @param type ticket类型
+   * @return 过期时间戳（毫秒），无法获知或不存在时返回0
+   */
+  default long getTicketExpiresTime(TicketType type) {
+    return 0;
+  }
+
   /**
    * 强制将ticket过期掉.
    *
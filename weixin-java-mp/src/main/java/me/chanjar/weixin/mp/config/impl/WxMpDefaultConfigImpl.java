@@ -138,6 +138,20 @@ public class WxMpDefaultConfigImpl implements WxMpConfigStorage, Serializable {
     }
   }
 
+  @Override
+  public long getTicketExpiresTime(TicketType type) {
+    switch (type) {
+      case SDK:
+        return this.sdkTicketExpiresTime;
+      case JSAPI:
+        return this.jsapiTicketExpiresTime;
+      case WX_CARD:
+        return this.cardApiTicketExpiresTime;
+      default:
+        return 0;
+    }
+  }
+
   @Override
   public synchronized void updateTicket(TicketType type, String ticket, int expiresInSeconds) {
     switch (type) {
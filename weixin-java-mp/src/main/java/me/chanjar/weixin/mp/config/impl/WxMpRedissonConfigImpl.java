@@ -69,6 +69,12 @@ public class WxMpRedissonConfigImpl extends WxMpDefaultConfigImpl {
     return expire == null || expire < 2;
   }
 
+  @Override
+  public long getExpiresTime() {
+    Long expire = redisOps.getExpire(this.accessTokenKey);
+    return expire == null || expire < 2 ? 0 : System.currentTimeMillis() + expire * 1000L;
+  }
+
   @Override
   public synchronized void updateAccessToken(String accessToken, int expiresInSeconds) {
     redisOps.setValue(this.accessTokenKey, accessToken, expiresInSeconds - 200, TimeUnit.SECONDS);
@@ -89,6 +95,12 @@ public class WxMpRedissonConfigImpl extends WxMpDefaultConfigImpl {
     return redisOps.getExpire(this.getTicketRedisKey(type)) < 2;
   }
 
+  @Override
+  public long getTicketExpiresTime(TicketType type) {
+    Long expire = redisOps.getExpire(this.getTicketRedisKey(type));
+    return expire == null || expire < 2 ? 0 : System.currentTimeMillis() + expire * 1000L;
+  }
+
   @Override
   public synchronized void updateTicket(TicketType type, String jsapiTicket, int expiresInSeconds) {
     redisOps.setValue(this.getTicketRedisKey(type), jsapiTicket, expiresInSeconds - 200, TimeUnit.SECONDS);
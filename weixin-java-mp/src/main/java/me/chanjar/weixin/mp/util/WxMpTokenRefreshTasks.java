@@ -0,0 +1,120 @@
+package me.chanjar.weixin.mp.util;
+
+import me.chanjar.weixin.common.api.WxTokenRefreshScheduler;
+import me.chanjar.weixin.common.api.WxTokenRefreshTask;
+import me.chanjar.weixin.common.enums.TicketType;
+import me.chanjar.weixin.common.error.WxErrorException;
+import me.chanjar.weixin.mp.api.WxMpService;
+import me.chanjar.weixin.mp.config.WxMpConfigStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <pre>
+ * 公众号凭证的后台刷新任务.
+ * 使用示例：WxMpTokenRefreshTasks.register(scheduler, wxMpService, "appId1", "appId2");
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class WxMpTokenRefreshTasks {
+
+  /**
+   * 将指定公众号的access_token、jsapi_ticket及卡券api_ticket注册到调度器.
+   *
+   * @param scheduler 调度器
+   * @param service   公众号服务
+   * @param appIds    公众号appId，需已通过setMultiConfigStorages等方法配置到service中
+   */
+  public static void register(WxTokenRefreshScheduler scheduler, WxMpService service, String... appIds) {
+    for (String appId : appIds) {
+      of(service, appId).forEach(scheduler::register);
+    }
+  }
+
+  /**
+   * 指定公众号的access_token、jsapi_ticket及卡券api_ticket刷新任务.
+   *
+   * @param service 公众号服务
+   * @param appId   公众号appId
+   * @return 刷新任务
+   */
+  public static List<WxTokenRefreshTask> of(WxMpService service, String appId) {
+    List<WxTokenRefreshTask> tasks = new ArrayList<>();
+    tasks.add(new AccessTokenTask(service, appId));
+    tasks.add(new TicketTask(service, appId, TicketType.JSAPI));
+    tasks.add(new TicketTask(service, appId, TicketType.WX_CARD));
+    return tasks;
+  }
+
+  private static class AccessTokenTask implements WxTokenRefreshTask {
+    private final WxMpService service;
+    private final String appId;
+
+    private AccessTokenTask(WxMpService service, String appId) {
+      this.service = service;
+      this.appId = appId;
+    }
+
+    private WxMpConfigStorage config() {
+      return this.service.switchoverTo(this.appId).getWxMpConfigStorage();
+    }
+
+    @Override
+    public String getName() {
+      return "mp:" + this.appId + ":access_token";
+    }
+
+    @Override
+    public boolean isExpired() {
+      return this.config().isAccessTokenExpired();
+    }
+
+    @Override
+    public long getExpiresTime() {
+      return this.config().getExpiresTime();
+    }
+
+    @Override
+    public void refresh() throws WxErrorException {
+      this.service.switchoverTo(this.appId).getAccessToken(true);
+    }
+  }
+
+  private static class TicketTask implements WxTokenRefreshTask {
+    private final WxMpService service;
+    private final String appId;
+    private final TicketType type;
+
+    private TicketTask(WxMpService service, String appId, TicketType type) {
+      this.service = service;
+      this.appId = appId;
+      this.type = type;
+    }
+
+    @Override
+    public String getName() {
+      return "mp:" + this.appId + ":ticket:" + this.type.getCode();
+    }
+
+    private WxMpConfigStorage config() {
+      return this.service.switchoverTo(this.appId).getWxMpConfigStorage();
+    }
+
+    @Override
+    public boolean isExpired() {
+      return this.config().isTicketExpired(this.type);
+    }
+
+    @Override
+    public long getExpiresTime() {
+      return this.config().getTicketExpiresTime(this.type);
+    }
+
+    @Override
+    public void refresh() throws WxErrorException {
+      this.service.switchoverTo(this.appId).getTicket(this.type, true);
+    }
+  }
+}
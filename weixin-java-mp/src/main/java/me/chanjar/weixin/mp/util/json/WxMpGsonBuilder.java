@@ -23,6 +23,7 @@ import me.chanjar.weixin.mp.bean.template.WxMpTemplateMessage;
 public class WxMpGsonBuilder {
 
   private static final GsonBuilder INSTANCE = new GsonBuilder();
+  private static volatile Gson GSON_INSTANCE;
 
   static {
     INSTANCE.disableHtmlEscaping();
@@ -63,8 +64,18 @@ public class WxMpGsonBuilder {
     INSTANCE.registerTypeAdapter(WxMpMemberCardActivateTempInfoResult.class, new WxMpMemberCardActivateTempInfoResultGsonAdapter());
   }
 
+  /**
+   * 获取本模块共享的Gson实例，缓存方式同 {@link me.chanjar.weixin.common.util.json.WxGsonBuilder#create()}.
+   */
   public static Gson create() {
-    return INSTANCE.create();
+    if (null == GSON_INSTANCE) {
+      synchronized (INSTANCE) {
+        if (null == GSON_INSTANCE) {
+          GSON_INSTANCE = INSTANCE.create();
+        }
+      }
+    }
+    return GSON_INSTANCE;
   }
 
 }
@@ -6,8 +6,11 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.thoughtworks.xstream.XStream;
+import me.chanjar.weixin.common.util.xml.WxXmlBinder;
+import me.chanjar.weixin.common.util.xml.WxXmlBinders;
 import me.chanjar.weixin.common.util.xml.XStreamInitializer;
 import me.chanjar.weixin.mp.bean.message.WxMpXmlMessage;
 import me.chanjar.weixin.mp.bean.message.WxMpXmlOutImageMessage;
@@ -20,6 +23,10 @@ import me.chanjar.weixin.mp.bean.message.WxMpXmlOutVoiceMessage;
 
 public class XStreamTransformer {
   private static final Map<Class<?>, XStream> CLASS_2_XSTREAM_INSTANCE = new HashMap<>();
+  /**
+   * 编译期生成的xml转换器，优先于XStream使用.
+   */
+  private static final Map<Class<?>, WxXmlBinder<?>> CLASS_2_BINDER = new ConcurrentHashMap<>();
 
   static {
     registerClass(WxMpXmlMessage.class);
@@ -30,6 +37,9 @@ public class XStreamTransformer {
     registerClass(WxMpXmlOutVideoMessage.class);
     registerClass(WxMpXmlOutVoiceMessage.class);
     registerClass(WxMpXmlOutTransferKefuMessage.class);
+    for (Class<?> clz : CLASS_2_XSTREAM_INSTANCE.keySet()) {
+      registerBinder(clz);
+    }
   }
 
   /**
@@ -37,12 +47,20 @@ public class XStreamTransformer {
    */
   @SuppressWarnings("unchecked")
   public static <T> T fromXml(Class<T> clazz, String xml) {
+    WxXmlBinder<T> binder = binder(clazz);
+    if (binder != null) {
+      return WxXmlBinders.fromXml(binder, xml);
+    }
     T object = (T) CLASS_2_XSTREAM_INSTANCE.get(clazz).fromXML(xml);
     return object;
   }
 
   @SuppressWarnings("unchecked")
   public static <T> T fromXml(Class<T> clazz, InputStream is) {
+    WxXmlBinder<T> binder = binder(clazz);
+    if (binder != null) {
+      return WxXmlBinders.fromXml(binder, is);
+    }
     T object = (T) CLASS_2_XSTREAM_INSTANCE.get(clazz).fromXML(is);
     return object;
   }
@@ -51,6 +69,10 @@ public class XStreamTransformer {
    * pojo -> xml.
    */
   public static <T> String toXml(Class<T> clazz, T object) {
+    WxXmlBinder<T> binder = binder(clazz);
+    if (binder != null && binder.isWritable()) {
+      return WxXmlBinders.toXml(binder, object);
+    }
     return CLASS_2_XSTREAM_INSTANCE.get(clazz).toXML(object);
   }
 
@@ -62,6 +84,8 @@ public class XStreamTransformer {
    */
   public static void register(Class<?> clz, XStream xStream) {
     CLASS_2_XSTREAM_INSTANCE.put(clz, xStream);
+    // 自定义的XStream优先于生成的转换器
+    CLASS_2_BINDER.remove(clz);
   }
 
   /**
@@ -101,4 +125,16 @@ public class XStreamTransformer {
 
     return result.toArray(new Class<?>[0]);
   }
+
+  private static void registerBinder(Class<?> clz) {
+    WxXmlBinder<?> binder = WxXmlBinders.find(clz);
+    if (binder != null) {
+      CLASS_2_BINDER.put(clz, binder);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> WxXmlBinder<T> binder(Class<T> clazz) {
+    return (WxXmlBinder<T>) CLASS_2_BINDER.get(clazz);
+  }
 }
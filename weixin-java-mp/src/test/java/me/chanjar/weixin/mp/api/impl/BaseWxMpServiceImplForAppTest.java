@@ -0,0 +1,90 @@
+package me.chanjar.weixin.mp.api.impl;
+
+import com.google.common.collect.ImmutableMap;
+import me.chanjar.weixin.common.api.WxRetryPolicy;
+import me.chanjar.weixin.common.error.WxErrorException;
+import me.chanjar.weixin.common.error.WxRuntimeException;
+import me.chanjar.weixin.common.ratelimit.WxRateLimitStats;
+import me.chanjar.weixin.common.ratelimit.WxRateLimiter;
+import me.chanjar.weixin.mp.api.WxMpService;
+import me.chanjar.weixin.mp.config.impl.WxMpDefaultConfigImpl;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.testng.Assert.*;
+
+/**
+ * 多公众号服务视图的测试.
+ */
+public class BaseWxMpServiceImplForAppTest {
+
+  private static WxMpDefaultConfigImpl config(String appId) {
+    WxMpDefaultConfigImpl config = new WxMpDefaultConfigImpl();
+    config.setAppId(appId);
+    config.updateAccessToken("token-" + appId, 7200);
+    return config;
+  }
+
+  @Test
+  public void testForApp() throws Exception {
+    WxMpServiceImpl service = new WxMpServiceImpl();
+    service.setMultiConfigStorages(ImmutableMap.of("a", config("a"), "b", config("b")), "a");
+
+    WxMpService viewB = service.forApp("b");
+    assertSame(service.forApp("b"), viewB);
+    assertSame(viewB.forApp("b"), viewB);
+    assertEquals(viewB.getWxMpConfigStorage().getAppId(), "b");
+    assertSame(((WxMpServiceImpl) viewB).getRequestHttpClient(), service.getRequestHttpClient());
+
+    // 视图不受当前线程所切换的公众号影响，在其他线程中同样如此
+    service.switchoverTo("a");
+    assertEquals(viewB.getAccessToken(), "token-b");
+    assertEquals(CompletableFuture.supplyAsync(() -> viewB.getWxMpConfigStorage().getAppId()).get(), "b");
+    assertEquals(service.getWxMpConfigStorage().getAppId(), "a");
+
+    // 通过视图添加的配置作用于原服务，替换配置后得到新的视图
+    viewB.addConfigStorage("b", config("b"));
+    WxMpService newViewB = service.forApp("b");
+    assertNotSame(newViewB, viewB);
+    assertSame(newViewB.getWxMpConfigStorage(), service.switchoverTo("b").getWxMpConfigStorage());
+
+    service.removeConfigStorage("b");
+    assertThrows(WxRuntimeException.class, () -> service.forApp("b"));
+  }
+
+  @Test
+  public void testViewReadsRootSettings() {
+    WxMpServiceImpl service = new WxMpServiceImpl();
+    service.setMultiConfigStorages(ImmutableMap.of("a", config("a"), "b", config("b")), "a");
+    BaseWxMpServiceImpl<?, ?> viewB = (BaseWxMpServiceImpl<?, ?>) service.forApp("b");
+
+    // 视图创建后在原服务上修改的设置对视图同样生效
+    WxRetryPolicy retryPolicy = service.getRetryPolicy();
+    service.setMaxRetryTimes(1);
+    assertNotSame(viewB.getRetryPolicy(), retryPolicy);
+    assertSame(viewB.getRetryPolicy(), service.getRetryPolicy());
+
+    service.setRateLimiter(new WxRateLimiter() {
+      @Override
+      public boolean tryAcquire(String accountKey, String uri) {
+        return false;
+      }
+
+      @Override
+      public List<WxRateLimitStats> getStats() {
+        return Collections.emptyList();
+      }
+    });
+    WxErrorException e = expectThrows(WxErrorException.class, () -> viewB.get("https://api.weixin.qq.com/cgi-bin/test", null));
+    assertEquals(e.getError().getErrorCode(), WxRateLimiter.RATE_LIMITED_ERROR_CODE);
+
+    // 在视图上修改的设置作用于原服务
+    viewB.setRateLimiter(null);
+    viewB.setMaxRetryTimes(3);
+    assertSame(service.getRetryPolicy(), viewB.getRetryPolicy());
+    assertNotSame(service.getRetryPolicy(), retryPolicy);
+  }
+}
@@ -5,11 +5,13 @@ import com.google.inject.Inject;
 import me.chanjar.weixin.common.api.WxConsts;
 import me.chanjar.weixin.common.bean.WxJsapiSignature;
 import me.chanjar.weixin.common.bean.WxNetCheckResult;
+import me.chanjar.weixin.common.enums.WxType;
 import me.chanjar.weixin.common.error.WxError;
 import me.chanjar.weixin.common.error.WxErrorException;
 import me.chanjar.weixin.common.error.WxMpErrorMsgEnum;
 import me.chanjar.weixin.common.util.http.HttpType;
 import me.chanjar.weixin.common.util.http.RequestExecutor;
+import me.chanjar.weixin.common.util.http.ResponseHandler;
 import me.chanjar.weixin.mp.api.WxMpService;
 import me.chanjar.weixin.mp.api.test.ApiTestModule;
 import me.chanjar.weixin.mp.config.impl.WxMpDefaultConfigImpl;
@@ -23,6 +25,7 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -251,6 +254,62 @@ public class BaseWxMpServiceImplTest {
     }
   }
 
+  @Test
+  public void testExecuteAsyncAutoRefreshToken() {
+    BaseWxMpServiceImpl<Object, Object> service = new BaseWxMpServiceImpl() {
+      @Override
+      public String getAccessToken(boolean forceRefresh) throws WxErrorException {
+        return "模拟一个过期的access token:" + System.currentTimeMillis();
+      }
+
+      @Override
+      public void initHttp() {
+
+      }
+
+      @Override
+      public Object getRequestHttpClient() {
+        return null;
+      }
+
+      @Override
+      public Object getRequestHttpProxy() {
+        return null;
+      }
+
+      @Override
+      public HttpType getRequestType() {
+        return null;
+      }
+    };
+    WxMpDefaultConfigImpl config = new WxMpDefaultConfigImpl();
+    config.setAppId("1");
+    service.setWxMpConfigStorage(config);
+
+    AtomicInteger counter = new AtomicInteger();
+    RequestExecutor<Object, Object> re = new RequestExecutor<Object, Object>() {
+      @Override
+      public Object execute(String uri, Object data, WxType wxType) throws WxErrorException {
+        counter.incrementAndGet();
+        throw new WxErrorException(WxError.builder().errorCode(WxMpErrorMsgEnum.CODE_40001.getCode())
+          .errorMsg(WxMpErrorMsgEnum.CODE_40001.getMsg()).build());
+      }
+
+      @Override
+      public void execute(String uri, Object data, ResponseHandler<Object> handler, WxType wxType) {
+      }
+    };
+
+    try {
+      service.executeAsync(re, "http://baidu.com", new HashMap<>()).join();
+      Assert.fail("代码应该不会执行到这里");
+    } catch (CompletionException e) {
+      Assert.assertTrue(e.getCause() instanceof WxErrorException);
+      Assert.assertEquals(((WxErrorException) e.getCause()).getError().getErrorCode(), WxMpErrorMsgEnum.CODE_40001.getCode());
+      Assert.assertEquals(counter.get(), 2);
+    }
+  }
+
   @Test
   public void testTestExecute() {
   }
@@ -0,0 +1,47 @@
+package me.chanjar.weixin.mp.util.xml;
+
+import com.thoughtworks.xstream.XStream;
+import me.chanjar.weixin.common.util.xml.WxXmlBinders;
+import me.chanjar.weixin.common.util.xml.XStreamInitializer;
+import me.chanjar.weixin.mp.bean.message.WxMpXmlMessage;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 生成的XmlBinder与XStream的解析结果应保持一致.
+ */
+@Test
+public class XStreamTransformerTest {
+
+  public void testBinderConsistentWithXStream() {
+    String xml = "<xml>"
+      + "<ToUserName><![CDATA[toUser]]></ToUserName>"
+      + "<FromUserName><![CDATA[fromUser]]></FromUserName>"
+      + "<CreateTime>1348831860</CreateTime>"
+      + "<MsgType><![CDATA[event]]></MsgType>"
+      + "<MsgID>1234567890123456</MsgID>"
+      + "<Event><![CDATA[pic_weixin]]></Event>"
+      + "<EventKey><![CDATA[6]]></EventKey>"
+      + "<Latitude>23.137466</Latitude>"
+      + "<ScanCodeInfo>"
+      + " <ScanType><![CDATA[qrcode]]></ScanType>"
+      + " <ScanResult><![CDATA[1]]></ScanResult>"
+      + "</ScanCodeInfo>"
+      + "<UnknownElement><Nested>ignored</Nested></UnknownElement>"
+      + "</xml>";
+
+    assertThat(WxXmlBinders.find(WxMpXmlMessage.class)).isNotNull();
+
+    XStream xstream = XStreamInitializer.getInstance();
+    xstream.processAnnotations(WxMpXmlMessage.class);
+    xstream.aliasField("MsgID", WxMpXmlMessage.class, "msgId");
+    WxMpXmlMessage expected = (WxMpXmlMessage) xstream.fromXML(xml);
+    WxMpXmlMessage actual = XStreamTransformer.fromXml(WxMpXmlMessage.class, xml);
+
+    assertThat(actual).isEqualTo(expected);
+    assertThat(actual.getMsgId()).isEqualTo(1234567890123456L);
+    assertThat(actual.getScanCodeInfo().getScanResult()).isEqualTo("1");
+  }
+
+}
@@ -187,6 +187,8 @@ public interface WxOpenComponentService {
 
   /**
    * Gets wx mp service by appid.
+   * 实例由实现类按appId缓存，可能被淘汰后重新创建，直接在返回的实例上修改的设置届时会丢失，
+   * 需要保留的设置见 {@link me.chanjar.weixin.open.api.impl.WxOpenComponentServiceImpl#setMpServiceCustomizer}.
    *
    * @param appid the appid
    * @return the wx mp service by appid
@@ -195,6 +197,8 @@ public interface WxOpenComponentService {
 
   /**
    * 获取指定appid的开放平台小程序服务（继承一般小程序服务能力）.
+   * 实例由实现类按appId缓存，可能被淘汰后重新创建，直接在返回的实例上修改的设置届时会丢失，
+   * 需要保留的设置见 {@link me.chanjar.weixin.open.api.impl.WxOpenComponentServiceImpl#setMaServiceCustomizer}.
    *
    * @param appid .
    * @return . wx ma service by appid
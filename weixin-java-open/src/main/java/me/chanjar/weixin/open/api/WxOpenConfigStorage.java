@@ -250,6 +250,16 @@ public interface WxOpenConfigStorage {
    */
   boolean isAuthorizerAccessTokenExpired(String appId);
 
+  /**
+   * 授权方access token的过期时间，供后台刷新时据此安排刷新时间.
+   *
+   * @param appId the app id
+   * @return 过期时间戳（毫秒），无法获知或不存在时返回0
+   */
+  default long getAuthorizerAccessTokenExpiresTime(String appId) {
+    return 0;
+  }
+
   /**
    * 强制将access token过期掉
    *
@@ -1,10 +1,11 @@
 package me.chanjar.weixin.open.api.impl;
 
 import cn.binarywang.wx.miniapp.bean.WxMaJscode2SessionResult;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import me.chanjar.weixin.common.api.WxConsts;
 import me.chanjar.weixin.common.bean.oauth2.WxOAuth2AccessToken;
@@ -28,6 +29,7 @@ import me.chanjar.weixin.open.bean.minishop.goods.*;
 import me.chanjar.weixin.open.bean.minishop.limitdiscount.LimitDiscountGoods;
 import me.chanjar.weixin.open.bean.minishop.limitdiscount.LimitDiscountSku;
 import me.chanjar.weixin.open.bean.result.*;
+import me.chanjar.weixin.open.util.WxOpenServiceCache;
 import me.chanjar.weixin.open.util.json.WxOpenGsonBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.Nullable;
@@ -35,99 +37,180 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
+import java.util.function.BiConsumer;
 
 /**
  * @author <a href="https://github.com/007gzs">007</a>
  */
 @Slf4j
-@AllArgsConstructor
 public class WxOpenComponentServiceImpl implements WxOpenComponentService {
 
-  private static final Map<String, WxOpenMaService> WX_OPEN_MA_SERVICE_MAP = new ConcurrentHashMap<>();
-  private static final Map<String, WxOpenMpService> WX_OPEN_MP_SERVICE_MAP = new ConcurrentHashMap<>();
-  private static final Map<String, WxOpenFastMaService> WX_OPEN_FAST_MA_SERVICE_MAP = new ConcurrentHashMap<>();
+  private final WxOpenService wxOpenService;
 
-  private static final Map<String, WxOpenMinishopService> WX_OPEN_MINISHOP_SERVICE_MAP = new ConcurrentHashMap<>();
+  private volatile WxOpenServiceCache<WxOpenMpService> mpServices;
+  private volatile WxOpenServiceCache<WxOpenMaService> maServices;
+  private volatile WxOpenServiceCache<WxOpenFastMaService> fastMaServices;
+  private volatile WxOpenServiceCache<WxOpenMinishopService> minishopServices;
 
-  private final WxOpenService wxOpenService;
+  private volatile BiConsumer<String, ? super WxOpenMpService> mpServiceCustomizer;
+  private volatile BiConsumer<String, ? super WxOpenMaService> maServiceCustomizer;
+  private volatile BiConsumer<String, ? super WxOpenFastMaService> fastMaServiceCustomizer;
+  private volatile BiConsumer<String, ? super WxOpenMinishopService> minishopServiceCustomizer;
 
-  @Override
-  public WxOpenMpService getWxMpServiceByAppid(String appId) {
-    WxOpenMpService wxMpService = WX_OPEN_MP_SERVICE_MAP.get(appId);
-    if (wxMpService == null) {
-      synchronized (WX_OPEN_MP_SERVICE_MAP) {
-        wxMpService = WX_OPEN_MP_SERVICE_MAP.get(appId);
-        if (wxMpService == null) {
-          WxOpenConfigStorage storage = this.getWxOpenConfigStorage();
-          wxMpService = new WxOpenMpServiceImpl(this, appId, storage.getWxMpConfigStorage(appId));
-          // 配置重试次数和重试间隔
-          wxMpService.setMaxRetryTimes(storage.getMaxRetryTimes());
-          wxMpService.setRetrySleepMillis(storage.getRetrySleepMillis());
-          WX_OPEN_MP_SERVICE_MAP.put(appId, wxMpService);
-        }
+  public WxOpenComponentServiceImpl(WxOpenService wxOpenService) {
+    this.wxOpenService = wxOpenService;
+    this.configureServiceCache(WxOpenServiceCache.DEFAULT_MAX_SIZE, WxOpenServiceCache.DEFAULT_IDLE_MILLIS);
+  }
+
+  /**
+   * 设置各授权方服务实例的缓存大小及闲置淘汰时间，已缓存的实例会被移除.
+   *
+   * @param maxSize    每类服务最多缓存的实例数
+   * @param idleMillis 超过多久未被访问即淘汰（毫秒）
+   */
+  public synchronized void configureServiceCache(long maxSize, long idleMillis) {
+    List<WxOpenServiceCache<?>> old = this.serviceCaches();
+    this.mpServices = new WxOpenServiceCache<>("mp", maxSize, idleMillis, this::releaseService);
+    this.maServices = new WxOpenServiceCache<>("ma", maxSize, idleMillis, this::releaseService);
+    this.fastMaServices = new WxOpenServiceCache<>("fastMa", maxSize, idleMillis, this::releaseService);
+    this.minishopServices = new WxOpenServiceCache<>("minishop", maxSize, idleMillis, this::releaseService);
+    old.forEach(WxOpenServiceCache::clear);
+  }
+
+  /**
+   * 移除授权方的所有服务实例，比如收到取消授权通知时.
+   *
+   * @param appId 授权方appId
+   */
+  public void removeAuthorizerServices(String appId) {
+    this.serviceCaches().forEach(cache -> cache.remove(appId));
+  }
+
+  /**
+   * @return 各类服务实例缓存的命中、未命中及淘汰统计，key为mp、ma、fastMa、minishop
+   */
+  public Map<String, CacheStats> getServiceCacheStats() {
+    return ImmutableMap.of("mp", this.mpServices.stats(), "ma", this.maServices.stats(),
+      "fastMa", this.fastMaServices.stats(), "minishop", this.minishopServices.stats());
+  }
+
+  /**
+   * 设置公众号服务实例创建后的定制逻辑，参数为授权方appId和新创建的实例.
+   * 实例会因缓存淘汰或 {@link #configureServiceCache(long, long)} 而重新创建，直接在
+   * {@link #getWxMpServiceByAppid(String)} 返回的实例上设置的重试策略、限流器、监听器、http配置等届时会丢失，
+   * 需要保留的设置应在此处设置，每次创建实例时都会重新应用.
+   *
+   * @param customizer 定制逻辑，为null时不做定制
+   */
+  public void setMpServiceCustomizer(BiConsumer<String, ? super WxOpenMpService> customizer) {
+    this.mpServiceCustomizer = customizer;
+  }
+
+  /**
+   * 设置小程序服务实例创建后的定制逻辑，说明同 {@link #setMpServiceCustomizer(BiConsumer)}.
+   *
+   * @param customizer 定制逻辑，为null时不做定制
+   */
+  public void setMaServiceCustomizer(BiConsumer<String, ? super WxOpenMaService> customizer) {
+    this.maServiceCustomizer = customizer;
+  }
+
+  /**
+   * 设置快速创建的小程序服务实例创建后的定制逻辑，说明同 {@link #setMpServiceCustomizer(BiConsumer)}.
+   *
+   * @param customizer 定制逻辑，为null时不做定制
+   */
+  public void setFastMaServiceCustomizer(BiConsumer<String, ? super WxOpenFastMaService> customizer) {
+    this.fastMaServiceCustomizer = customizer;
+  }
+
+  /**
+   * 设置小商店服务实例创建后的定制逻辑，说明同 {@link #setMpServiceCustomizer(BiConsumer)}.
+   *
+   * @param customizer 定制逻辑，为null时不做定制
+   */
+  public void setMinishopServiceCustomizer(BiConsumer<String, ? super WxOpenMinishopService> customizer) {
+    this.minishopServiceCustomizer = customizer;
+  }
+
+  /**
+   * 服务实例被淘汰或移除后的回调.
+   * 各实例共用配置中的http客户端，凭证保存在配置存储中，默认无需额外释放；
+   * 为授权方单独创建了http客户端等资源时，可重写此方法释放.
+   * 被移除的实例上直接设置的重试策略、限流器、监听器等不会带到之后重新创建的实例中，
+   * 需要保留的设置请通过 {@link #setMpServiceCustomizer(BiConsumer)} 等方法设置.
+   *
+   * @param appId   授权方appId
+   * @param service 被移除的实例
+   */
+  protected void releaseService(String appId, Object service) {
+    log.debug("授权方【{}】的服务实例{}已从缓存中移除", appId, service.getClass().getSimpleName());
+  }
+
+  private List<WxOpenServiceCache<?>> serviceCaches() {
+    List<WxOpenServiceCache<?>> caches = new ArrayList<>(4);
+    for (WxOpenServiceCache<?> cache : Arrays.asList(this.mpServices, this.maServices, this.fastMaServices,
+      this.minishopServices)) {
+      if (cache != null) {
+        caches.add(cache);
       }
     }
-    return wxMpService;
+    return caches;
+  }
+
+  @Override
+  public WxOpenMpService getWxMpServiceByAppid(String appId) {
+    return this.mpServices.get(appId, id -> {
+      WxOpenConfigStorage storage = this.getWxOpenConfigStorage();
+      WxOpenMpService wxMpService = new WxOpenMpServiceImpl(this, id, storage.getWxMpConfigStorage(id));
+      // 配置重试次数和重试间隔
+      wxMpService.setMaxRetryTimes(storage.getMaxRetryTimes());
+      wxMpService.setRetrySleepMillis(storage.getRetrySleepMillis());
+      return customize(this.mpServiceCustomizer, id, wxMpService);
+    });
   }
 
   @Override
   public WxOpenMaService getWxMaServiceByAppid(String appId) {
-    WxOpenMaService wxOpenMaService = WX_OPEN_MA_SERVICE_MAP.get(appId);
-    if (wxOpenMaService == null) {
-      synchronized (WX_OPEN_MA_SERVICE_MAP) {
-        wxOpenMaService = WX_OPEN_MA_SERVICE_MAP.get(appId);
-        if (wxOpenMaService == null) {
-          WxOpenConfigStorage storage = this.getWxOpenConfigStorage();
-          wxOpenMaService = new WxOpenMaServiceImpl(this, appId, storage.getWxMaConfig(appId));
-          // 配置重试次数和重试间隔
-          wxOpenMaService.setMaxRetryTimes(storage.getMaxRetryTimes());
-          wxOpenMaService.setRetrySleepMillis(storage.getRetrySleepMillis());
-          WX_OPEN_MA_SERVICE_MAP.put(appId, wxOpenMaService);
-        }
-      }
-    }
-    return wxOpenMaService;
+    return this.maServices.get(appId, id -> {
+      WxOpenConfigStorage storage = this.getWxOpenConfigStorage();
+      WxOpenMaService wxOpenMaService = new WxOpenMaServiceImpl(this, id, storage.getWxMaConfig(id));
+      // 配置重试次数和重试间隔
+      wxOpenMaService.setMaxRetryTimes(storage.getMaxRetryTimes());
+      wxOpenMaService.setRetrySleepMillis(storage.getRetrySleepMillis());
+      return customize(this.maServiceCustomizer, id, wxOpenMaService);
+    });
   }
 
   @Override
   public WxOpenFastMaService getWxFastMaServiceByAppid(String appId) {
-    WxOpenFastMaService fastMaService = WX_OPEN_FAST_MA_SERVICE_MAP.get(appId);
-    if (fastMaService == null) {
-      synchronized (WX_OPEN_FAST_MA_SERVICE_MAP) {
-        fastMaService = WX_OPEN_FAST_MA_SERVICE_MAP.get(appId);
-        if (fastMaService == null) {
-          WxOpenConfigStorage storage = this.getWxOpenConfigStorage();
-          fastMaService = new WxOpenFastMaServiceImpl(this, appId, storage.getWxMaConfig(appId));
-          // 配置重试次数和重试间隔
-          fastMaService.setMaxRetryTimes(storage.getMaxRetryTimes());
-          fastMaService.setRetrySleepMillis(storage.getRetrySleepMillis());
-          WX_OPEN_FAST_MA_SERVICE_MAP.put(appId, fastMaService);
-        }
-      }
-    }
-    return fastMaService;
+    return this.fastMaServices.get(appId, id -> {
+      WxOpenConfigStorage storage = this.getWxOpenConfigStorage();
+      WxOpenFastMaService fastMaService = new WxOpenFastMaServiceImpl(this, id, storage.getWxMaConfig(id));
+      // 配置重试次数和重试间隔
+      fastMaService.setMaxRetryTimes(storage.getMaxRetryTimes());
+      fastMaService.setRetrySleepMillis(storage.getRetrySleepMillis());
+      return customize(this.fastMaServiceCustomizer, id, fastMaService);
+    });
   }
 
   @Override
   public WxOpenMinishopService getWxMinishopServiceByAppid(String appId) {
-    WxOpenMinishopService minishopService = WX_OPEN_MINISHOP_SERVICE_MAP.get(appId);
-    if (minishopService == null) {
-      synchronized (WX_OPEN_MINISHOP_SERVICE_MAP) {
-        minishopService = WX_OPEN_MINISHOP_SERVICE_MAP.get(appId);
-        if (minishopService == null) {
-          minishopService = new WxOpenMinishopServiceImpl(this, appId, getWxOpenConfigStorage().getWxMaConfig(appId));
-          WX_OPEN_MINISHOP_SERVICE_MAP.put(appId, minishopService);
-        }
-      }
-    }
+    return this.minishopServices.get(appId, id -> customize(this.minishopServiceCustomizer, id,
+      new WxOpenMinishopServiceImpl(this, id, getWxOpenConfigStorage().getWxMaConfig(id))));
+  }
 
-    return minishopService;
+  private static <S> S customize(BiConsumer<String, ? super S> customizer, String appId, S service) {
+    if (customizer != null) {
+      customizer.accept(appId, service);
+    }
+    return service;
   }
 
   public WxOpenService getWxOpenService() {
@@ -336,6 +419,10 @@ public class WxOpenComponentServiceImpl implements WxOpenComponentService {
       }
       return "success";
     }
+    //取消授权后不再需要该授权方的服务实例
+    if (StringUtils.equalsIgnoreCase(wxMessage.getInfoType(), "unauthorized") && wxMessage.getAuthorizerAppid() != null) {
+      this.removeAuthorizerServices(wxMessage.getAuthorizerAppid());
+    }
     return "";
   }
 
@@ -189,6 +189,12 @@ public class WxOpenInMemoryConfigStorage implements WxOpenConfigStorage {
     return getTokenString(authorizerAccessTokens, appId) == null;
   }
 
+  @Override
+  public long getAuthorizerAccessTokenExpiresTime(String appId) {
+    Token token = authorizerAccessTokens.get(appId);
+    return token == null || token.expiresTime == null ? 0 : token.expiresTime;
+  }
+
   @Override
   public void expireAuthorizerAccessToken(String appId) {
     expireToken(authorizerAccessTokens, appId);
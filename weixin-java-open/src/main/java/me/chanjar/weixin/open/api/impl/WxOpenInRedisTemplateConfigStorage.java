@@ -86,6 +86,12 @@ public class WxOpenInRedisTemplateConfigStorage extends AbstractWxOpenInRedisCon
     return expire == null || expire < 2;
   }
 
+  @Override
+  public long getAuthorizerAccessTokenExpiresTime(String appId) {
+    Long expire = redisOps.getExpire(this.getKey(this.authorizerAccessTokenKey, appId));
+    return expire == null || expire < 2 ? 0 : System.currentTimeMillis() + expire * 1000L;
+  }
+
   @Override
   public void expireAuthorizerAccessToken(String appId) {
     redisOps.expire(this.getKey(this.authorizerAccessTokenKey, appId), 0, TimeUnit.SECONDS);
@@ -4,19 +4,15 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 import com.thoughtworks.xstream.annotations.XStreamConverter;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
-import me.chanjar.weixin.common.error.WxRuntimeException;
 import me.chanjar.weixin.common.util.xml.XStreamCDataConverter;
 import me.chanjar.weixin.mp.bean.message.WxMpXmlMessage;
 import me.chanjar.weixin.mp.bean.message.WxMpXmlOutMessage;
 import me.chanjar.weixin.open.api.WxOpenConfigStorage;
 import me.chanjar.weixin.open.util.WxOpenCryptUtil;
 import me.chanjar.weixin.open.util.xml.XStreamTransformer;
-import org.apache.commons.io.IOUtils;
 
-import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
-import java.nio.charset.StandardCharsets;
 
 /**
  * @author <a href="https://github.com/007gzs">007</a>
@@ -161,11 +157,9 @@ public class WxOpenXmlMessage implements Serializable {
 
   public static WxOpenXmlMessage fromEncryptedXml(InputStream is, WxOpenConfigStorage wxOpenConfigStorage,
                                                   String timestamp, String nonce, String msgSignature) {
-    try {
-      return fromEncryptedXml(IOUtils.toString(is, StandardCharsets.UTF_8),
-        wxOpenConfigStorage, timestamp, nonce, msgSignature);
-    } catch (IOException e) {
-      throw new WxRuntimeException(e);
-    }
+    WxOpenCryptUtil cryptUtil = new WxOpenCryptUtil(wxOpenConfigStorage);
+    String plainText = cryptUtil.decryptXml(msgSignature, timestamp, nonce, is);
+    log.debug("解密后的原始xml消息内容：{}", plainText);
+    return fromXml(plainText);
   }
 }
@@ -0,0 +1,264 @@
+package me.chanjar.weixin.open.util;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import me.chanjar.weixin.common.api.WxTokenRefreshScheduler;
+import me.chanjar.weixin.common.api.WxTokenRefreshTask;
+import me.chanjar.weixin.common.error.WxErrorException;
+import me.chanjar.weixin.common.redis.WxRedisOps;
+import me.chanjar.weixin.open.api.WxOpenComponentService;
+import me.chanjar.weixin.open.api.WxOpenConfigStorage;
+import me.chanjar.weixin.open.bean.result.WxOpenAuthorizerListResult;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * 开放平台授权方access_token的批量预热及后台刷新.
+ *
+ * 默认情况下授权方的access_token是在请求线程中发现过期后才逐个刷新的，托管大量公众号/小程序时，
+ * 重启后或大量token同时过期时会在请求路径上集中刷新.
+ * {@link #warmUp()} 通过 getAuthorizerList 分页列出所有授权方（其refresh_token会同时保存到配置存储中），
+ * 并将各授权方的access_token注册到 {@link WxTokenRefreshScheduler}：
+ * 已过期的立即刷新，其余的在过期前 refreshAheadMillis 至 refreshAheadMillis + jitterMillis 之间随机刷新，
+ * 刷新时间分散在整个窗口内，并发数即调度器的线程数. 刷新结果通过 {@link WxOpenComponentService#getAuthorizerAccessToken(String, boolean)}
+ * 保存到 {@link WxOpenConfigStorage} 中，稳定状态下请求线程不会再遇到过期的token.
+ *
+ * 新授权或取消授权时，可通过 {@link #register(String)} 和 {@link #unregister(String)} 增删授权方；
+ * refresh_token失效或已取消授权的授权方在刷新失败时会被自动移除.
+ * 使用示例：
+ * WxOpenAuthorizerTokenRefresher refresher = new WxOpenAuthorizerTokenRefresher(componentService, redisOps, 8);
+ * refresher.warmUp();
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+@Slf4j
+public class WxOpenAuthorizerTokenRefresher {
+  /**
+   * 拉取授权方列表时每页的最大数量.
+   */
+  private static final int MAX_PAGE_SIZE = 500;
+
+  /**
+   * 授权方已取消授权（61003）或refresh_token失效（61023）时，不再尝试刷新.
+   */
+  private static final Set<Integer> UNAUTHORIZED_ERROR_CODES = new HashSet<>(Arrays.asList(61003, 61023));
+
+  private final WxOpenComponentService componentService;
+  private final WxTokenRefreshScheduler scheduler;
+  private final boolean ownScheduler;
+  private final Set<String> authorizers = ConcurrentHashMap.newKeySet();
+
+  /**
+   * 每页拉取的授权方数量.
+   */
+  @Getter
+  @Setter
+  private int pageSize = MAX_PAGE_SIZE;
+
+  /**
+   * 最近一次预热时微信返回的授权方总数.
+   */
+  @Getter
+  private volatile int totalCount;
+
+  /**
+   * 最近一次预热已列出的授权方数量.
+   */
+  @Getter
+  private volatile int listedCount;
+
+  private final LongAdder successCount = new LongAdder();
+  private final LongAdder failureCount = new LongAdder();
+  private final LongAdder removedCount = new LongAdder();
+
+  /**
+   * 使用独立的调度器，刷新在过期前5分钟至35分钟之间随机进行.
+   *
+   * @param componentService 第三方平台服务
+   * @param redisOps         redis操作对象，用作集群刷新租约，为null时只在本JVM内协调
+   * @param concurrency      同时刷新的最大数量
+   */
+  public WxOpenAuthorizerTokenRefresher(WxOpenComponentService componentService, WxRedisOps redisOps, int concurrency) {
+    this.componentService = componentService;
+    this.scheduler = new WxTokenRefreshScheduler(redisOps, concurrency);
+    this.scheduler.setRefreshAheadMillis(5 * 60 * 1000L);
+    this.scheduler.setJitterMillis(30 * 60 * 1000L);
+    this.ownScheduler = true;
+  }
+
+  /**
+   * 使用已有的调度器，调度器由调用方负责关闭.
+   *
+   * @param componentService 第三方平台服务
+   * @param scheduler        调度器
+   */
+  public WxOpenAuthorizerTokenRefresher(WxOpenComponentService componentService, WxTokenRefreshScheduler scheduler) {
+    this.componentService = componentService;
+    this.scheduler = scheduler;
+    this.ownScheduler = false;
+  }
+
+  /**
+   * 分页列出所有授权方并注册到调度器.
+   *
+   * @return 本次列出的授权方数量
+   * @throws WxErrorException 拉取授权方列表失败，此前已列出的授权方仍会被刷新
+   */
+  public int warmUp() throws WxErrorException {
+    int size = Math.max(1, Math.min(this.pageSize, MAX_PAGE_SIZE));
+    int offset = 0;
+    this.listedCount = 0;
+    while (true) {
+      WxOpenAuthorizerListResult page = this.componentService.getAuthorizerList(offset, size);
+      List<Map<String, String>> list = page == null ? null : page.getList();
+      if (list == null || list.isEmpty()) {
+        break;
+      }
+
+      this.totalCount = page.getTotalCount();
+      for (Map<String, String> authorizer : list) {
+        String appId = authorizer.get("authorizer_appid");
+        if (appId != null) {
+          this.register(appId);
+        }
+      }
+      offset += list.size();
+      this.listedCount = offset;
+      log.debug("已列出授权方 {}/{}", offset, this.totalCount);
+
+      if (offset >= page.getTotalCount()) {
+        break;
+      }
+    }
+
+    log.info("共列出{}个授权方，已注册后台刷新的授权方{}个", this.listedCount, this.authorizers.size());
+    return this.listedCount;
+  }
+
+  /**
+   * 注册授权方，比如收到新的授权通知时.
+   *
+   * @param appId 授权方appId
+   * @return 是否新注册，已注册时返回false
+   */
+  public boolean register(String appId) {
+    if (!this.authorizers.add(appId)) {
+      return false;
+    }
+
+    this.scheduler.register(new AuthorizerAccessTokenTask(appId));
+    return true;
+  }
+
+  /**
+   * 移除授权方，比如收到取消授权通知时.
+   *
+   * @param appId 授权方appId
+   */
+  public void unregister(String appId) {
+    if (this.authorizers.remove(appId)) {
+      this.scheduler.unregister(this.taskName(appId));
+    }
+  }
+
+  /**
+   * 移除所有授权方，使用独立的调度器时同时将其关闭.
+   */
+  public void shutdown() {
+    for (String appId : this.authorizers) {
+      this.unregister(appId);
+    }
+    if (this.ownScheduler) {
+      this.scheduler.shutdown();
+    }
+  }
+
+  /**
+   * @return 已注册后台刷新的授权方数量
+   */
+  public int getRegisteredCount() {
+    return this.authorizers.size();
+  }
+
+  /**
+   * @return 刷新成功的次数
+   */
+  public long getSuccessCount() {
+    return this.successCount.sum();
+  }
+
+  /**
+   * @return 刷新失败的次数
+   */
+  public long getFailureCount() {
+    return this.failureCount.sum();
+  }
+
+  /**
+   * @return 因取消授权或refresh_token失效而被移除的授权方数量
+   */
+  public long getRemovedCount() {
+    return this.removedCount.sum();
+  }
+
+  private String taskName(String appId) {
+    return "open:" + this.componentService.getWxOpenConfigStorage().getComponentAppId() + ":" + appId + ":access_token";
+  }
+
+  private class AuthorizerAccessTokenTask implements WxTokenRefreshTask {
+    private final String appId;
+    private final String name;
+
+    private AuthorizerAccessTokenTask(String appId) {
+      this.appId = appId;
+      this.name = WxOpenAuthorizerTokenRefresher.this.taskName(appId);
+    }
+
+    private WxOpenConfigStorage config() {
+      return WxOpenAuthorizerTokenRefresher.this.componentService.getWxOpenConfigStorage();
+    }
+
+    @Override
+    public String getName() {
+      return this.name;
+    }
+
+    @Override
+    public boolean isExpired() {
+      return this.config().isAuthorizerAccessTokenExpired(this.appId);
+    }
+
+    @Override
+    public long getExpiresTime() {
+      return this.config().getAuthorizerAccessTokenExpiresTime(this.appId);
+    }
+
+    @Override
+    public void refresh() throws WxErrorException {
+      try {
+        WxOpenAuthorizerTokenRefresher.this.componentService.getAuthorizerAccessToken(this.appId, true);
+        WxOpenAuthorizerTokenRefresher.this.successCount.increment();
+      } catch (WxErrorException e) {
+        WxOpenAuthorizerTokenRefresher.this.failureCount.increment();
+        if (UNAUTHORIZED_ERROR_CODES.contains(e.getError().getErrorCode())) {
+          log.warn("授权方【{}】已取消授权或refresh_token已失效，不再后台刷新", this.appId);
+          WxOpenAuthorizerTokenRefresher.this.removedCount.increment();
+          WxOpenAuthorizerTokenRefresher.this.unregister(this.appId);
+        }
+        throw e;
+      } catch (RuntimeException e) {
+        WxOpenAuthorizerTokenRefresher.this.failureCount.increment();
+        throw e;
+      }
+    }
+  }
+}
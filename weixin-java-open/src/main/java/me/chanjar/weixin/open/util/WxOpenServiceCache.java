@@ -0,0 +1,133 @@
+package me.chanjar.weixin.open.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import me.chanjar.weixin.common.error.WxRuntimeException;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * <pre>
+ * 按授权方appId缓存的服务实例，限制数量并淘汰长时间未使用的实例.
+ *
+ * 同一appId的实例只会创建一次，创建时只阻塞获取同一appId的线程，不影响其他授权方.
+ * 超过 maxSize 时按最近使用淘汰，超过 idleMillis 未被访问的实例同样会被淘汰；
+ * 实例被淘汰或移除后会回调 removalListener 以便释放其持有的资源，
+ * 授权方的凭证保存在 {@link me.chanjar.weixin.open.api.WxOpenConfigStorage} 中，被淘汰的实例再次使用时重新创建即可.
+ * </pre>
+ *
+ * @param <S> 服务类型
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+@Slf4j
+public class WxOpenServiceCache<S> {
+  /**
+   * 默认最多缓存的实例数.
+   */
+  public static final long DEFAULT_MAX_SIZE = 10_000;
+
+  /**
+   * 默认的闲置淘汰时间（毫秒）.
+   */
+  public static final long DEFAULT_IDLE_MILLIS = 2 * 60 * 60 * 1000L;
+
+  private final String name;
+  private final Cache<String, S> cache;
+
+  public WxOpenServiceCache(String name) {
+    this(name, DEFAULT_MAX_SIZE, DEFAULT_IDLE_MILLIS, null);
+  }
+
+  /**
+   * @param name            缓存名称，用于日志
+   * @param maxSize         最多缓存的实例数
+   * @param idleMillis      超过多久未被访问即淘汰（毫秒）
+   * @param removalListener 实例被淘汰或移除后的回调，参数为appId和实例，可为null
+   */
+  public WxOpenServiceCache(String name, long maxSize, long idleMillis, BiConsumer<String, ? super S> removalListener) {
+    this.name = name;
+    this.cache = CacheBuilder.newBuilder()
+      .maximumSize(maxSize)
+      .expireAfterAccess(idleMillis, TimeUnit.MILLISECONDS)
+      .recordStats()
+      .removalListener((RemovalNotification<String, S> notification) -> {
+        log.debug("{}缓存中授权方【{}】的实例已移除，原因：{}", this.name, notification.getKey(), notification.getCause());
+        if (removalListener != null) {
+          removalListener.accept(notification.getKey(), notification.getValue());
+        }
+      })
+      .build();
+  }
+
+  /**
+   * 获取实例，不存在时创建.
+   *
+   * @param appId   授权方appId
+   * @param factory 创建实例的方法
+   * @return 实例
+   */
+  public S get(String appId, Function<String, ? extends S> factory) {
+    try {
+      return this.cache.get(appId, () -> factory.apply(appId));
+    } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new WxRuntimeException(cause);
+    }
+  }
+
+  /**
+   * @return 已缓存的实例，不存在时返回null
+   */
+  public S getIfPresent(String appId) {
+    return this.cache.getIfPresent(appId);
+  }
+
+  /**
+   * 移除实例，比如授权方取消授权时.
+   */
+  public void remove(String appId) {
+    this.cache.invalidate(appId);
+  }
+
+  /**
+   * 移除所有实例.
+   */
+  public void clear() {
+    this.cache.invalidateAll();
+  }
+
+  /**
+   * 清理已过期的实例，过期实例平时在读写时顺带清理.
+   */
+  public void cleanUp() {
+    this.cache.cleanUp();
+  }
+
+  /**
+   * @return 当前缓存的实例数（近似值）
+   */
+  public long size() {
+    return this.cache.size();
+  }
+
+  /**
+   * @return 命中、未命中、淘汰次数等统计数据
+   */
+  public CacheStats stats() {
+    return this.cache.stats();
+  }
+}
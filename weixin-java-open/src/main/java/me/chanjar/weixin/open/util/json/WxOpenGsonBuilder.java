@@ -14,6 +14,7 @@ import me.chanjar.weixin.open.bean.result.*;
 public class WxOpenGsonBuilder {
 
   private static final GsonBuilder INSTANCE = new GsonBuilder();
+  private static volatile Gson GSON_INSTANCE;
 
   static {
     INSTANCE.disableHtmlEscaping();
@@ -29,8 +30,18 @@ public class WxOpenGsonBuilder {
 
   }
 
+  /**
+   * 获取本模块共享的Gson实例，缓存方式同 {@link me.chanjar.weixin.common.util.json.WxGsonBuilder#create()}.
+   */
   public static Gson create() {
-    return INSTANCE.create();
+    if (null == GSON_INSTANCE) {
+      synchronized (INSTANCE) {
+        if (null == GSON_INSTANCE) {
+          GSON_INSTANCE = INSTANCE.create();
+        }
+      }
+    }
+    return GSON_INSTANCE;
   }
 
 }
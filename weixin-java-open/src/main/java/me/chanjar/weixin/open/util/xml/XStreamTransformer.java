@@ -6,8 +6,11 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.thoughtworks.xstream.XStream;
+import me.chanjar.weixin.common.util.xml.WxXmlBinder;
+import me.chanjar.weixin.common.util.xml.WxXmlBinders;
 import me.chanjar.weixin.common.util.xml.XStreamInitializer;
 import me.chanjar.weixin.open.bean.message.WxOpenXmlMessage;
 
@@ -16,9 +19,16 @@ import me.chanjar.weixin.open.bean.message.WxOpenXmlMessage;
  */
 public class XStreamTransformer {
   private static final Map<Class<?>, XStream> CLASS_2_XSTREAM_INSTANCE = new HashMap<>();
+  /**
+   * 编译期生成的xml转换器，优先于XStream使用.
+   */
+  private static final Map<Class<?>, WxXmlBinder<?>> CLASS_2_BINDER = new ConcurrentHashMap<>();
 
   static {
     registerClass(WxOpenXmlMessage.class);
+    for (Class<?> clz : CLASS_2_XSTREAM_INSTANCE.keySet()) {
+      registerBinder(clz);
+    }
   }
 
   /**
@@ -26,12 +36,20 @@ public class XStreamTransformer {
    */
   @SuppressWarnings("unchecked")
   public static <T> T fromXml(Class<T> clazz, String xml) {
+    WxXmlBinder<T> binder = binder(clazz);
+    if (binder != null) {
+      return WxXmlBinders.fromXml(binder, xml);
+    }
     T object = (T) CLASS_2_XSTREAM_INSTANCE.get(clazz).fromXML(xml);
     return object;
   }
 
   @SuppressWarnings("unchecked")
   public static <T> T fromXml(Class<T> clazz, InputStream is) {
+    WxXmlBinder<T> binder = binder(clazz);
+    if (binder != null) {
+      return WxXmlBinders.fromXml(binder, is);
+    }
     T object = (T) CLASS_2_XSTREAM_INSTANCE.get(clazz).fromXML(is);
     return object;
   }
@@ -40,6 +58,10 @@ public class XStreamTransformer {
    * pojo -> xml.
    */
   public static <T> String toXml(Class<T> clazz, T object) {
+    WxXmlBinder<T> binder = binder(clazz);
+    if (binder != null && binder.isWritable()) {
+      return WxXmlBinders.toXml(binder, object);
+    }
     return CLASS_2_XSTREAM_INSTANCE.get(clazz).toXML(object);
   }
 
@@ -51,6 +73,8 @@ public class XStreamTransformer {
    */
   public static void register(Class<?> clz, XStream xStream) {
     CLASS_2_XSTREAM_INSTANCE.put(clz, xStream);
+    // 自定义的XStream优先于生成的转换器
+    CLASS_2_BINDER.remove(clz);
   }
 
   /**
@@ -90,4 +114,16 @@ public class XStreamTransformer {
 
     return result.toArray(new Class<?>[0]);
   }
+
+  private static void registerBinder(Class<?> clz) {
+    WxXmlBinder<?> binder = WxXmlBinders.find(clz);
+    if (binder != null) {
+      CLASS_2_BINDER.put(clz, binder);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> WxXmlBinder<T> binder(Class<T> clazz) {
+    return (WxXmlBinder<T>) CLASS_2_BINDER.get(clazz);
+  }
 }
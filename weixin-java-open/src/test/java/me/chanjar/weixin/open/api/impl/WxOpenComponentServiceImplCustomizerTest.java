@@ -0,0 +1,35 @@
+package me.chanjar.weixin.open.api.impl;
+
+import me.chanjar.weixin.open.api.WxOpenMpService;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+
+/**
+ * 授权方服务实例被淘汰后重新创建时定制逻辑的测试.
+ */
+public class WxOpenComponentServiceImplCustomizerTest {
+
+  @Test
+  public void testCustomizerReappliedAfterEviction() {
+    WxOpenServiceImpl openService = new WxOpenServiceImpl();
+    openService.setWxOpenConfigStorage(new WxOpenInMemoryConfigStorage());
+    WxOpenComponentServiceImpl componentService = new WxOpenComponentServiceImpl(openService);
+    componentService.configureServiceCache(1, 60_000);
+    List<String> customized = new ArrayList<>();
+    componentService.setMpServiceCustomizer((appId, service) -> customized.add(appId));
+
+    WxOpenMpService first = componentService.getWxMpServiceByAppid("a");
+    componentService.getWxMpServiceByAppid("b");
+    // 超出缓存大小，a的实例已被淘汰，重新创建时再次定制
+    WxOpenMpService second = componentService.getWxMpServiceByAppid("a");
+
+    assertNotSame(second, first);
+    assertEquals(customized, Arrays.asList("a", "b", "a"));
+  }
+}
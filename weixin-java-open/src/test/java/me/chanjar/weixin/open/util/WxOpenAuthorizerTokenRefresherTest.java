@@ -0,0 +1,78 @@
+package me.chanjar.weixin.open.util;
+
+import com.google.common.collect.ImmutableMap;
+import me.chanjar.weixin.common.error.WxError;
+import me.chanjar.weixin.common.error.WxErrorException;
+import me.chanjar.weixin.open.api.impl.WxOpenComponentServiceImpl;
+import me.chanjar.weixin.open.api.impl.WxOpenInMemoryConfigStorage;
+import me.chanjar.weixin.open.api.impl.WxOpenServiceImpl;
+import me.chanjar.weixin.open.bean.result.WxOpenAuthorizerListResult;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+/**
+ * 授权方access_token批量预热的测试.
+ */
+public class WxOpenAuthorizerTokenRefresherTest {
+
+  @Test
+  public void testWarmUp() throws Exception {
+    WxOpenInMemoryConfigStorage storage = new WxOpenInMemoryConfigStorage();
+    storage.setComponentAppId("component");
+    WxOpenServiceImpl openService = new WxOpenServiceImpl();
+    openService.setWxOpenConfigStorage(storage);
+
+    List<Integer> pageOffsets = new ArrayList<>();
+    WxOpenComponentServiceImpl componentService = new WxOpenComponentServiceImpl(openService) {
+      @Override
+      public WxOpenAuthorizerListResult getAuthorizerList(int begin, int len) {
+        pageOffsets.add(begin);
+        List<Map<String, String>> list = new ArrayList<>();
+        for (int i = begin; i < Math.min(begin + len, 25); i++) {
+          list.add(ImmutableMap.of("authorizer_appid", "app" + i, "refresh_token", "refresh" + i));
+        }
+        WxOpenAuthorizerListResult result = new WxOpenAuthorizerListResult();
+        result.setTotalCount(25);
+        result.setList(list);
+        return result;
+      }
+
+      @Override
+      public String getAuthorizerAccessToken(String appId, boolean forceRefresh) throws WxErrorException {
+        if ("app0".equals(appId)) {
+          throw new WxErrorException(WxError.builder().errorCode(61023).errorMsg("invalid refresh_token").build());
+        }
+        storage.updateAuthorizerAccessToken(appId, "token-" + appId, 7200);
+        return "token-" + appId;
+      }
+    };
+
+    WxOpenAuthorizerTokenRefresher refresher = new WxOpenAuthorizerTokenRefresher(componentService, null, 4);
+    refresher.setPageSize(10);
+    try {
+      assertEquals(refresher.warmUp(), 25);
+      assertEquals(pageOffsets.toString(), "[0, 10, 20]");
+      assertEquals(refresher.getTotalCount(), 25);
+      assertFalse(refresher.register("app1"));
+
+      long deadline = System.currentTimeMillis() + 10_000;
+      while ((refresher.getSuccessCount() < 24 || refresher.getRemovedCount() < 1)
+        && System.currentTimeMillis() < deadline) {
+        Thread.sleep(20);
+      }
+      assertEquals(refresher.getSuccessCount(), 24);
+      assertEquals(refresher.getRemovedCount(), 1);
+      assertEquals(refresher.getRegisteredCount(), 24);
+      assertFalse(storage.isAuthorizerAccessTokenExpired("app24"));
+      assertTrue(storage.getAuthorizerAccessTokenExpiresTime("app24") > System.currentTimeMillis());
+    } finally {
+      refresher.shutdown();
+    }
+    assertEquals(refresher.getRegisteredCount(), 0);
+  }
+}
@@ -0,0 +1,86 @@
+package me.chanjar.weixin.open.util;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/**
+ * 授权方服务实例缓存的测试.
+ */
+public class WxOpenServiceCacheTest {
+
+  @Test
+  public void testCreateOncePerAppId() throws Exception {
+    WxOpenServiceCache<String> cache = new WxOpenServiceCache<>("test");
+    AtomicInteger created = new AtomicInteger();
+    CountDownLatch slowCreating = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      // 创建app1的实例时阻塞，不影响其他授权方
+      List<Future<String>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        futures.add(executor.submit(() -> cache.get("app1", id -> {
+          created.incrementAndGet();
+          slowCreating.countDown();
+          try {
+            release.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return "service-" + id;
+        })));
+      }
+      assertTrue(slowCreating.await(5, TimeUnit.SECONDS));
+      assertEquals(executor.submit(() -> cache.get("app2", id -> "service-" + id)).get(5, TimeUnit.SECONDS),
+        "service-app2");
+
+      release.countDown();
+      for (Future<String> future : futures) {
+        assertEquals(future.get(5, TimeUnit.SECONDS), "service-app1");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(created.get(), 1);
+    // 等待同一实例创建完成的线程同样计为未命中
+    assertEquals(cache.stats().requestCount(), 5);
+    assertEquals(cache.stats().loadSuccessCount(), 2);
+  }
+
+  @Test
+  public void testEvictionAndRemovalListener() {
+    List<String> removed = new ArrayList<>();
+    WxOpenServiceCache<String> cache = new WxOpenServiceCache<>("test", 10, 60_000,
+      (appId, service) -> removed.add(appId));
+    for (int i = 0; i < 30; i++) {
+      cache.get("app" + i, id -> "service-" + id);
+    }
+
+    assertTrue(cache.size() <= 10);
+    assertEquals(cache.stats().evictionCount(), 30 - cache.size());
+    assertEquals(removed.size(), 30 - cache.size());
+    assertEquals(cache.getIfPresent("app29"), "service-app29");
+
+    cache.remove("app29");
+    assertNull(cache.getIfPresent("app29"));
+    assertTrue(removed.contains("app29"));
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void testFactoryException() {
+    new WxOpenServiceCache<String>("test").get("app", id -> {
+      throw new IllegalStateException(id);
+    });
+  }
+}
@@ -6,13 +6,13 @@ import com.github.binarywang.wxpay.converter.WxPayOrderNotifyResultConverter;
 import com.github.binarywang.wxpay.exception.WxPayException;
 import com.github.binarywang.wxpay.service.WxPayService;
 import com.github.binarywang.wxpay.util.SignUtils;
+import com.github.binarywang.wxpay.util.XmlStreamCache;
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import me.chanjar.weixin.common.util.json.WxGsonBuilder;
-import me.chanjar.weixin.common.util.xml.XStreamInitializer;
 import org.w3c.dom.Document;
 
 import java.io.Serializable;
@@ -332,9 +332,7 @@ public class WxPayOrderNotifyResult extends BaseWxPayResult implements Serializa
    * @return the wx pay order notify result
    */
   public static WxPayOrderNotifyResult fromXML(String xmlString) {
-    XStream xstream = XStreamInitializer.getInstance();
-    xstream.processAnnotations(WxPayOrderNotifyResult.class);
-    xstream.registerConverter(new WxPayOrderNotifyResultConverter(xstream.getMapper(), xstream.getReflectionProvider()));
+    XStream xstream = XmlStreamCache.getInstance(WxPayOrderNotifyResult.class, WxPayOrderNotifyResultConverter.XSTREAM_CUSTOMIZER);
     WxPayOrderNotifyResult result = (WxPayOrderNotifyResult) xstream.fromXML(xmlString);
     result.setXmlString(xmlString);
     return result;
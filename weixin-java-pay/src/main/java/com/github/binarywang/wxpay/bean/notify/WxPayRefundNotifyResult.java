@@ -11,14 +11,13 @@ import org.apache.commons.codec.digest.DigestUtils;
 import com.github.binarywang.wxpay.bean.result.BaseWxPayResult;
 import com.github.binarywang.wxpay.constant.WxPayConstants;
 import com.github.binarywang.wxpay.exception.WxPayException;
-import com.thoughtworks.xstream.XStream;
+import com.github.binarywang.wxpay.util.XmlStreamCache;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import me.chanjar.weixin.common.util.json.WxGsonBuilder;
-import me.chanjar.weixin.common.util.xml.XStreamInitializer;
 import org.w3c.dom.Document;
 
 /**
@@ -308,9 +307,7 @@ public class WxPayRefundNotifyResult extends BaseWxPayResult implements Serializ
      * @return ReqInfo对象
      */
     public static ReqInfo fromXML(String xmlString) {
-      XStream xstream = XStreamInitializer.getInstance();
-      xstream.processAnnotations(ReqInfo.class);
-      return (ReqInfo) xstream.fromXML(xmlString);
+      return (ReqInfo) XmlStreamCache.getInstance(ReqInfo.class).fromXML(xmlString);
     }
 
     public void loadXML(Document d) {
@@ -0,0 +1,237 @@
+package com.github.binarywang.wxpay.bean.result;
+
+import me.chanjar.weixin.common.error.WxRuntimeException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * <pre>
+ * 账单文本的流式读取基类.
+ * 账单格式为：首行为标题，之后每行一条以`开头、以,`分隔的明细，最后是汇总标题行及以`开头的汇总数据行.
+ * 读取时只复用一个行缓冲区，内存占用与账单大小无关；字段的取值规则（去掉首尾空白，字段内的逗号替换为空格）与原先整体解析时一致.
+ * </pre>
+ *
+ * @param <T> 明细类型
+ * @param <S> 汇总类型
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+abstract class AbstractBillReader<T, S> implements Iterator<T>, Closeable {
+  private final Reader reader;
+  private final String summaryTitle;
+
+  private final char[] buffer = new char[8192];
+  private int position;
+  private int limit;
+  private boolean eof;
+
+  private final StringBuilder line = new StringBuilder(512);
+  private String[] fields = new String[32];
+  private int fieldCount;
+
+  private boolean summaryNext;
+  private T next;
+  private S summary;
+
+  AbstractBillReader(Reader reader, String summaryTitle) {
+    this.reader = reader;
+    this.summaryTitle = summaryTitle;
+  }
+
+  /**
+   * 根据当前行的字段构造一条明细.
+   */
+  abstract T createRow();
+
+  /**
+   * 根据当前行的字段构造汇总数据.
+   */
+  abstract S createSummary();
+
+  /**
+   * @return 当前行的第index个字段，不存在时返回null
+   */
+  String field(int index) {
+    return index < this.fieldCount ? this.fields[index] : null;
+  }
+
+  int fieldCount() {
+    return this.fieldCount;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (this.next != null) {
+      return true;
+    }
+
+    try {
+      while (this.next == null && this.readLine()) {
+        if (this.line.length() == 0) {
+          continue;
+        }
+
+        if (this.line.charAt(0) == '`') {
+          this.split();
+          if (this.summaryNext) {
+            this.summary = this.createSummary();
+            this.summaryNext = false;
+          } else {
+            this.next = this.createRow();
+          }
+        } else if (this.startsWith(this.summaryTitle)) {
+          this.summaryNext = true;
+        }
+      }
+    } catch (IOException e) {
+      throw new WxRuntimeException("读取账单出错", e);
+    }
+
+    return this.next != null;
+  }
+
+  @Override
+  public T next() {
+    if (!this.hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    T row = this.next;
+    this.next = null;
+    return row;
+  }
+
+  /**
+   * 逐条处理剩余的明细，并返回汇总数据.
+   *
+   * @param consumer 明细处理
+   * @return 汇总数据，账单中没有汇总数据时返回null
+   */
+  public S read(Consumer<? super T> consumer) {
+    while (this.hasNext()) {
+      consumer.accept(this.next());
+    }
+    return this.summary;
+  }
+
+  /**
+   * 汇总数据在账单末尾，需要在明细读取完毕（{@link #hasNext()}返回false）后获取.
+   *
+   * @return 汇总数据，账单中没有汇总数据或尚未读到时返回null
+   */
+  public S getSummary() {
+    return this.summary;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.reader.close();
+  }
+
+  private boolean readLine() throws IOException {
+    this.line.setLength(0);
+    boolean read = false;
+    while (true) {
+      if (this.position == this.limit) {
+        if (this.eof) {
+          return read;
+        }
+        int count = this.reader.read(this.buffer);
+        if (count < 0) {
+          this.eof = true;
+          if (read) {
+            this.trimLine();
+          }
+          return read;
+        }
+        this.position = 0;
+        this.limit = count;
+      }
+
+      read = true;
+      int start = this.position;
+      while (this.position < this.limit) {
+        char c = this.buffer[this.position++];
+        if (c == '\n') {
+          this.line.append(this.buffer, start, this.position - 1 - start);
+          this.trimLine();
+          return true;
+        }
+      }
+      this.line.append(this.buffer, start, this.limit - start);
+    }
+  }
+
+  /**
+   * 去掉行首的BOM以及行首尾的空白.
+   */
+  private void trimLine() {
+    int end = this.line.length();
+    while (end > 0 && this.line.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    this.line.setLength(end);
+
+    int start = 0;
+    while (start < end && (this.line.charAt(start) <= ' ' || this.line.charAt(start) == '\uFEFF')) {
+      start++;
+    }
+    if (start > 0) {
+      this.line.delete(0, start);
+    }
+  }
+
+  private boolean startsWith(String prefix) {
+    if (this.line.length() < prefix.length()) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (this.line.charAt(i) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void split() {
+    this.fieldCount = 0;
+    int start = 1;
+    int length = this.line.length();
+    for (int i = 1; i < length; i++) {
+      if (this.line.charAt(i) == '`') {
+        this.addField(start, i);
+        start = i + 1;
+      }
+    }
+    this.addField(start, length);
+  }
+
+  private void addField(int start, int end) {
+    while (start < end && isBlank(this.line.charAt(start))) {
+      start++;
+    }
+    while (end > start && isBlank(this.line.charAt(end - 1))) {
+      end--;
+    }
+
+    String value = this.line.substring(start, end);
+    if (value.indexOf(',') >= 0) {
+      value = value.replace(',', ' ');
+    }
+
+    if (this.fieldCount == this.fields.length) {
+      String[] newFields = new String[this.fields.length * 2];
+      System.arraycopy(this.fields, 0, newFields, 0, this.fieldCount);
+      this.fields = newFields;
+    }
+    this.fields[this.fieldCount++] = value;
+  }
+
+  private static boolean isBlank(char c) {
+    return c <= ' ' || c == ',';
+  }
+}
@@ -5,15 +5,14 @@ import com.github.binarywang.wxpay.exception.WxPayException;
 import com.github.binarywang.wxpay.service.WxPayService;
 import com.github.binarywang.wxpay.util.SignUtils;
 import com.github.binarywang.wxpay.util.XmlConfig;
+import com.github.binarywang.wxpay.util.XmlStreamCache;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import lombok.Data;
 import me.chanjar.weixin.common.error.WxRuntimeException;
 import me.chanjar.weixin.common.util.json.WxGsonBuilder;
-import me.chanjar.weixin.common.util.xml.XStreamInitializer;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -148,10 +147,7 @@ public abstract class BaseWxPayResult {
         throw new WxRuntimeException("parse xml error", e);
       }
     }
-    XStream xstream = XStreamInitializer.getInstance();
-    xstream.processAnnotations(clz);
-    xstream.setClassLoader(BaseWxPayResult.class.getClassLoader());
-    T result = (T) xstream.fromXML(xmlString);
+    T result = (T) XmlStreamCache.getInstance(clz).fromXML(xmlString);
     result.setXmlString(xmlString);
     return result;
   }
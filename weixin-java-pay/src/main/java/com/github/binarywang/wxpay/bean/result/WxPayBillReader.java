@@ -0,0 +1,163 @@
+package com.github.binarywang.wxpay.bean.result;
+
+import com.github.binarywang.wxpay.constant.WxPayConstants.BillType;
+import com.github.binarywang.wxpay.constant.WxPayConstants.TarType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * <pre>
+ * 对账单的流式读取，适用于交易量很大、无法整体读入内存的对账单.
+ * 以迭代器的方式逐条返回对账明细，明细读取完毕后可通过 {@link #getSummary()} 获取汇总数据（其中billInfoList为null）.
+ * 支持v2下载对账单接口及v3下载账单接口返回的交易账单，使用后需要关闭.
+ * 例如：
+ * try (WxPayBillReader reader = WxPayBillReader.fromStream(in, BillType.ALL, TarType.GZIP)) {
+ *   while (reader.hasNext()) {
+ *     WxPayBillInfo info = reader.next();
+ *   }
+ *   WxPayBillResult summary = reader.getSummary();
+ * }
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class WxPayBillReader extends AbstractBillReader<WxPayBillInfo, WxPayBillResult> {
+  private static final String TOTAL_DEAL_COUNT = "总交易单数";
+
+  private final String billType;
+
+  /**
+   * @param reader   账单内容
+   * @param billType 账单类型，支持ALL、SUCCESS、REFUND、RECHARGE_REFUND
+   */
+  public WxPayBillReader(Reader reader, String billType) {
+    super(reader, TOTAL_DEAL_COUNT);
+    if (!supports(billType)) {
+      throw new IllegalArgumentException("不支持的账单类型：" + billType);
+    }
+    this.billType = billType;
+  }
+
+  /**
+   * 从账单文件流构造，GZIP格式的账单会在读取时边读边解压.
+   *
+   * @param inputStream 账单文件流
+   * @param billType    账单类型，支持ALL、SUCCESS、REFUND、RECHARGE_REFUND
+   * @param tarType     压缩类型，GZIP或者null
+   * @return 对账单读取对象
+   * @throws IOException 解压失败
+   */
+  public static WxPayBillReader fromStream(InputStream inputStream, String billType, String tarType) throws IOException {
+    return new WxPayBillReader(toReader(inputStream, tarType), billType);
+  }
+
+  static Reader toReader(InputStream inputStream, String tarType) throws IOException {
+    InputStream in = TarType.GZIP.equals(tarType) ? new GZIPInputStream(inputStream, 8192) : inputStream;
+    return new InputStreamReader(in, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @param billType 账单类型
+   * @return 是否支持解析该类型的账单
+   */
+  public static boolean supports(String billType) {
+    return BillType.ALL.equals(billType) || BillType.SUCCESS.equals(billType)
+      || BillType.REFUND.equals(billType) || BillType.RECHARGE_REFUND.equals(billType);
+  }
+
+  @Override
+  WxPayBillInfo createRow() {
+    // 以下字段各类型账单均相同：
+    // 交易时间,公众账号ID,商户号,特约商户号,设备号,微信订单号,商户订单号,用户标识,交易类型,交易状态,付款银行,货币种类,应结订单金额,代金券金额
+    WxPayBillInfo result = new WxPayBillInfo();
+    result.setTradeTime(this.field(0));
+    result.setAppId(this.field(1));
+    result.setMchId(this.field(2));
+    result.setSubMchId(this.field(3));
+    result.setDeviceInfo(this.field(4));
+    result.setTransactionId(this.field(5));
+    result.setOutTradeNo(this.field(6));
+    result.setOpenId(this.field(7));
+    result.setTradeType(this.field(8));
+    result.setTradeState(this.field(9));
+    result.setBankType(this.field(10));
+    result.setFeeType(this.field(11));
+    result.setTotalFee(this.field(12));
+    result.setCouponFee(this.field(13));
+
+    switch (this.billType) {
+      case BillType.ALL: {
+        // 微信退款单号,商户退款单号,退款金额,充值券退款金额,退款类型,退款状态,商品名称,商户数据包,手续费,费率,
+        // 订单金额,申请退款金额,费率备注  （开通免充值券后的结算对账单专有的三个字段）
+        result.setRefundId(this.field(14));
+        result.setOutRefundNo(this.field(15));
+        result.setSettlementRefundFee(this.field(16));
+        result.setCouponRefundFee(this.field(17));
+        result.setRefundChannel(this.field(18));
+        result.setRefundState(this.field(19));
+        result.setBody(this.field(20));
+        result.setAttach(this.field(21));
+        result.setPoundage(this.field(22));
+        result.setPoundageRate(this.field(23));
+        if (this.fieldCount() > 24) {
+          result.setTotalAmount(this.field(24));
+          result.setAppliedRefundAmount(this.field(25));
+          result.setFeeRemark(this.field(26));
+        }
+        break;
+      }
+      case BillType.SUCCESS: {
+        // 商品名称,商户数据包,手续费,费率,订单金额,费率备注
+        result.setBody(this.field(14));
+        result.setAttach(this.field(15));
+        result.setPoundage(this.field(16));
+        result.setPoundageRate(this.field(17));
+        result.setTotalAmount(this.field(18));
+        result.setFeeRemark(this.field(19));
+        break;
+      }
+      default: {
+        // REFUND及RECHARGE_REFUND：
+        // 退款申请时间,退款成功时间,微信退款单号,商户退款单号,退款金额,充值券退款金额,退款类型,退款状态,商品名称,商户数据包,手续费,费率,
+        // 订单金额,申请退款金额（仅RECHARGE_REFUND）
+        result.setRefundTime(this.field(14));
+        result.setRefundSuccessTime(this.field(15));
+        result.setRefundId(this.field(16));
+        result.setOutRefundNo(this.field(17));
+        result.setSettlementRefundFee(this.field(18));
+        result.setCouponRefundFee(this.field(19));
+        result.setRefundChannel(this.field(20));
+        result.setRefundState(this.field(21));
+        result.setBody(this.field(22));
+        result.setAttach(this.field(23));
+        result.setPoundage(this.field(24));
+        result.setPoundageRate(this.field(25));
+        if (BillType.RECHARGE_REFUND.equals(this.billType)) {
+          result.setTotalAmount(this.field(26));
+          result.setAppliedRefundAmount(this.field(27));
+        }
+      }
+    }
+
+    return result;
+  }
+
+  @Override
+  WxPayBillResult createSummary() {
+    // 总交易单数,应结订单总金额,退款总金额,充值券退款总金额,手续费总金额,订单总金额,申请退款总金额
+    WxPayBillResult billResult = new WxPayBillResult();
+    billResult.setTotalRecord(this.field(0));
+    billResult.setTotalFee(this.field(1));
+    billResult.setTotalRefundFee(this.field(2));
+    billResult.setTotalCouponFee(this.field(3));
+    billResult.setTotalPoundageFee(this.field(4));
+    billResult.setTotalAmount(this.field(5));
+    billResult.setTotalAppliedRefundFee(this.field(6));
+    return billResult;
+  }
+}
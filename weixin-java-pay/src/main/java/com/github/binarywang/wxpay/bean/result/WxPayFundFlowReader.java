@@ -0,0 +1,63 @@
+package com.github.binarywang.wxpay.bean.result;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * <pre>
+ * 资金账单的流式读取，用法与 {@link WxPayBillReader} 相同.
+ * 明细读取完毕后可通过 {@link #getSummary()} 获取汇总数据（其中wxPayFundFlowBaseResultList为null）.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class WxPayFundFlowReader extends AbstractBillReader<WxPayFundFlowBaseResult, WxPayFundFlowResult> {
+  private static final String TOTAL_FUND_COUNT = "资金流水总笔数";
+
+  public WxPayFundFlowReader(Reader reader) {
+    super(reader, TOTAL_FUND_COUNT);
+  }
+
+  /**
+   * 从资金账单文件流构造，GZIP格式的账单会在读取时边读边解压.
+   *
+   * @param inputStream 资金账单文件流
+   * @param tarType     压缩类型，GZIP或者null
+   * @return 资金账单读取对象
+   * @throws IOException 解压失败
+   */
+  public static WxPayFundFlowReader fromStream(InputStream inputStream, String tarType) throws IOException {
+    return new WxPayFundFlowReader(WxPayBillReader.toReader(inputStream, tarType));
+  }
+
+  @Override
+  WxPayFundFlowBaseResult createRow() {
+    // 记账时间,微信支付业务单号,资金流水单号,业务名称,业务类型,收支类型,收支金额（元）,账户结余（元）,资金变更提交申请人,备注,业务凭证号
+    WxPayFundFlowBaseResult result = new WxPayFundFlowBaseResult();
+    result.setBillingTime(this.field(0));
+    result.setBizTransactionId(this.field(1));
+    result.setFundFlowId(this.field(2));
+    result.setBizName(this.field(3));
+    result.setBizType(this.field(4));
+    result.setFinancialType(this.field(5));
+    result.setFinancialFee(this.field(6));
+    result.setAccountBalance(this.field(7));
+    result.setFundApplicant(this.field(8));
+    result.setMemo(this.field(9));
+    result.setBizVoucherId(this.field(10));
+    return result;
+  }
+
+  @Override
+  WxPayFundFlowResult createSummary() {
+    // 资金流水总笔数,收入笔数,收入金额,支出笔数,支出金额
+    WxPayFundFlowResult result = new WxPayFundFlowResult();
+    result.setTotalRecord(this.field(0));
+    result.setIncomeRecord(this.field(1));
+    result.setIncomeAmount(this.field(2));
+    result.setExpenditureRecord(this.field(3));
+    result.setExpenditureAmount(this.field(4));
+    return result;
+  }
+}
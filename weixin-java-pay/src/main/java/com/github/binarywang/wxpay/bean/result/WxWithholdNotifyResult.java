@@ -6,13 +6,13 @@ import com.github.binarywang.wxpay.converter.WxPayOrderNotifyResultConverter;
 import com.github.binarywang.wxpay.exception.WxPayException;
 import com.github.binarywang.wxpay.service.WxPayService;
 import com.github.binarywang.wxpay.util.SignUtils;
+import com.github.binarywang.wxpay.util.XmlStreamCache;
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import me.chanjar.weixin.common.util.json.WxGsonBuilder;
-import me.chanjar.weixin.common.util.xml.XStreamInitializer;
 import org.w3c.dom.Document;
 
 import java.util.ArrayList;
@@ -166,9 +166,7 @@ public class WxWithholdNotifyResult extends BaseWxPayResult {
    * @return the wx withhold result
    */
   public static WxWithholdNotifyResult fromXML(String xmlString) {
-    XStream xstream = XStreamInitializer.getInstance();
-    xstream.processAnnotations(WxWithholdNotifyResult.class);
-    xstream.registerConverter(new WxPayOrderNotifyResultConverter(xstream.getMapper(), xstream.getReflectionProvider()));
+    XStream xstream = XmlStreamCache.getInstance(WxWithholdNotifyResult.class, WxPayOrderNotifyResultConverter.XSTREAM_CUSTOMIZER);
     WxWithholdNotifyResult result = (WxWithholdNotifyResult) xstream.fromXML(xmlString);
     result.setXmlString(xmlString);
     return result;
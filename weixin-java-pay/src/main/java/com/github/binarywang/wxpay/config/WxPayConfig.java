@@ -5,6 +5,7 @@ import com.github.binarywang.wxpay.util.ResourcesUtils;
 import com.github.binarywang.wxpay.v3.WxPayV3HttpClientBuilder;
 import com.github.binarywang.wxpay.v3.auth.*;
 import com.github.binarywang.wxpay.v3.util.PemUtils;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.*;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.RegExUtils;
@@ -20,6 +21,9 @@ import java.security.KeyStore;
 import java.security.PrivateKey;
 import java.security.cert.X509Certificate;
 import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 微信支付配置
@@ -27,13 +31,18 @@ import java.util.Collections;
  * @author Binary Wang (https://github.com/binarywang)
  */
 @Data
-@ToString(exclude = "verifier")
-@EqualsAndHashCode(exclude = "verifier")
+@ToString(exclude = {"verifier", "apiHttpClient", "apiSslHttpClient", "certificateRefresher"})
+@EqualsAndHashCode(exclude = {"verifier", "apiHttpClient", "apiSslHttpClient", "certificateRefresher"})
 public class WxPayConfig {
   private static final String DEFAULT_PAY_BASE_URL = "https://api.mch.weixin.qq.com";
   private static final String PROBLEM_MSG = "证书文件【%s】有问题，请核实！";
   private static final String NOT_FOUND_MSG = "证书文件【%s】不存在，请核实！";
 
+  /**
+   * 被替换的v2接口http客户端延迟关闭的最短时间(毫秒).
+   */
+  private static final long CLOSE_REPLACED_CLIENT_DELAY_MILLIS = 60_000;
+
   /**
    * 微信支付接口请求地址域名部分.
    */
@@ -176,12 +185,43 @@ public class WxPayConfig {
   private String httpProxyUsername;
   private String httpProxyPassword;
 
+  /**
+   * v2接口http连接池的最大连接数.
+   */
+  private int httpClientMaxTotal = 200;
+
+  /**
+   * v2接口http连接池中每个路由的最大连接数.
+   */
+  private int httpClientMaxPerRoute = 100;
+
+  /**
+   * v2接口http连接池中空闲连接的最大保留时间(毫秒)，超过后将被回收.
+   */
+  private int httpClientIdleTimeout = 60000;
+
+  /**
+   * v2接口使用的http连接池客户端（不带商户证书），首次请求时初始化.
+   */
+  private volatile CloseableHttpClient apiHttpClient;
+
+  /**
+   * v2接口使用的http连接池客户端（带商户证书），首次请求时初始化.
+   */
+  private volatile CloseableHttpClient apiSslHttpClient;
+
   /**
    * v3接口下证书检验对象，通过改对象可以获取到X509Certificate，进一步对敏感信息加密
    * 文档见 https://wechatpay-api.gitbook.io/wechatpay-api-v3/qian-ming-zhi-nan-1/min-gan-xin-xi-jia-mi
    */
   private Verifier verifier;
 
+  /**
+   * v3接口平台证书后台刷新器，设置后平台证书由其在后台定时下载，不再在验签的请求线程中更新.
+   * 多个商户配置可共用同一个刷新器.
+   */
+  private WxPayCertificateRefresher certificateRefresher;
+
   /**
    * 返回所设置的微信支付接口请求地址域名.
    *
@@ -204,6 +244,61 @@ public class WxPayConfig {
     return verifier;
   }
 
+  /**
+   * 设置ssl，已创建的带商户证书的v2接口http客户端将被替换，下次请求时使用新的证书重新创建.
+   * 被替换的客户端延迟关闭，仍在使用它的请求可以正常完成.
+   *
+   * @param sslContext the ssl context
+   */
+  public synchronized void setSslContext(SSLContext sslContext) {
+    this.sslContext = sslContext;
+    this.closeLater(this.apiSslHttpClient);
+    this.apiSslHttpClient = null;
+  }
+
+  /**
+   * 设置v3接口平台证书后台刷新器，已初始化的证书验签器会转到新的刷新器中刷新.
+   *
+   * @param certificateRefresher 平台证书后台刷新器，为null时恢复在请求线程中更新证书
+   */
+  public void setCertificateRefresher(WxPayCertificateRefresher certificateRefresher) {
+    this.unregisterVerifier();
+    this.certificateRefresher = certificateRefresher;
+    if (certificateRefresher != null && this.verifier instanceof AutoUpdateCertificatesVerifier) {
+      certificateRefresher.register((AutoUpdateCertificatesVerifier) this.verifier);
+    }
+  }
+
+  /**
+   * 关闭v2接口使用的http连接池客户端，下次请求时会重新创建.
+   * 与请求时创建客户端使用同一把锁，旧客户端延迟关闭，仍在使用它的请求可以正常完成.
+   */
+  public synchronized void resetApiHttpClients() {
+    this.closeLater(this.apiHttpClient);
+    this.apiHttpClient = null;
+    this.closeLater(this.apiSslHttpClient);
+    this.apiSslHttpClient = null;
+    this.unregisterVerifier();
+  }
+
+  /**
+   * 在请求可能用到的最长时间（至少 {@link #CLOSE_REPLACED_CLIENT_DELAY_MILLIS}）后关闭被替换的客户端.
+   */
+  private void closeLater(CloseableHttpClient httpClient) {
+    if (httpClient == null) {
+      return;
+    }
+
+    long delayMillis = Math.max(CLOSE_REPLACED_CLIENT_DELAY_MILLIS, (long) this.httpConnectionTimeout + this.httpTimeout);
+    ClientCloser.SCHEDULER.schedule(() -> IOUtils.closeQuietly(httpClient), delayMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private void unregisterVerifier() {
+    if (this.certificateRefresher != null && this.verifier instanceof AutoUpdateCertificatesVerifier) {
+      this.certificateRefresher.unregister((AutoUpdateCertificatesVerifier) this.verifier);
+    }
+  }
+
   /**
    * 初始化ssl.
    *
@@ -221,7 +316,7 @@ public class WxPayConfig {
       KeyStore keystore = KeyStore.getInstance("PKCS12");
       char[] partnerId2charArray = this.getMchId().toCharArray();
       keystore.load(inputStream, partnerId2charArray);
-      this.sslContext = SSLContexts.custom().loadKeyMaterial(keystore, partnerId2charArray).build();
+      this.setSslContext(SSLContexts.custom().loadKeyMaterial(keystore, partnerId2charArray).build());
       return this.sslContext;
     } catch (Exception e) {
       throw new WxPayException("证书文件有问题，请核实！", e);
@@ -265,7 +360,14 @@ public class WxPayConfig {
         .withValidator(new WxPayValidator(verifier))
         .build();
       this.apiV3HttpClient = httpClient;
+      this.unregisterVerifier();
+      if (this.verifier instanceof AutoUpdateCertificatesVerifier) {
+        ((AutoUpdateCertificatesVerifier) this.verifier).close();
+      }
       this.verifier=verifier;
+      if (this.certificateRefresher != null) {
+        this.certificateRefresher.register(verifier);
+      }
       this.privateKey = merchantPrivateKey;
 
       return httpClient;
@@ -337,4 +439,12 @@ public class WxPayConfig {
     }
     return inputStream;
   }
+
+  /**
+   * 延迟关闭被替换的http客户端，未替换过客户端时不会创建线程.
+   */
+  private static class ClientCloser {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setNameFormat("WxPayHttpClient-closer-%d").setDaemon(true).build());
+  }
 }
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -14,6 +15,7 @@ import com.github.binarywang.wxpay.bean.notify.WxPayOrderNotifyResult;
 import com.google.common.base.Function;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import com.thoughtworks.xstream.converters.MarshallingContext;
 import com.thoughtworks.xstream.converters.UnmarshallingContext;
@@ -30,6 +32,12 @@ import com.thoughtworks.xstream.mapper.Mapper;
  */
 public class WxPayOrderNotifyResultConverter extends AbstractReflectionConverter {
 
+  /**
+   * 注册本converter的XStream定制逻辑，作为 {@link com.github.binarywang.wxpay.util.XmlStreamCache} 的缓存键，需复用同一实例.
+   */
+  public static final Consumer<XStream> XSTREAM_CUSTOMIZER =
+    x -> x.registerConverter(new WxPayOrderNotifyResultConverter(x.getMapper(), x.getReflectionProvider()));
+
   /**
    * Instantiates a new Wx pay order notify result converter.
    *
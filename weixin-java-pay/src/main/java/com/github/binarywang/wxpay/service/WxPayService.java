@@ -9,6 +9,7 @@ import com.github.binarywang.wxpay.bean.result.enums.TradeTypeEnum;
 import com.github.binarywang.wxpay.config.WxPayConfig;
 import com.github.binarywang.wxpay.constant.WxPayConstants;
 import com.github.binarywang.wxpay.exception.WxPayException;
+import me.chanjar.weixin.common.metrics.WxApiCallListener;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
 
@@ -16,6 +17,7 @@ import java.io.File;
 import java.io.InputStream;
 import java.util.Date;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * <pre>
@@ -81,6 +83,19 @@ public interface WxPayService {
    */
   WxPayService switchoverTo(String mchId);
 
+  /**
+   * <pre>
+   * 获取绑定到指定商户号的服务视图，多商户号时可替代基于ThreadLocal的 {@link #switchoverTo(String)}.
+   * 视图固定使用该商户号的配置，不受当前线程所切换的商户号影响，可以在线程池及异步代码中安全传递；
+   * http连接池缓存在商户号配置上，因此与原服务共用，同一配置的视图只会创建一次，配置被替换或移除后再次获取会得到新的视图.
+   * 视图上对配置的增删及切换操作均作用于原服务；监听器等设置始终读取原服务的当前设置，在视图上修改同样作用于原服务.
+   * </pre>
+   *
+   * @param mchId 商户号
+   * @return 绑定到该商户号的服务，找不到对应配置时抛出异常
+   */
+  WxPayService forApp(String mchId);
+
   /**
    * 发送post请求，得到响应字节数组.
    *
@@ -92,6 +107,19 @@ public interface WxPayService {
    */
   byte[] postForBytes(String url, String requestStr, boolean useKey) throws WxPayException;
 
+  /**
+   * 发送post请求，以流的方式处理响应内容，适用于响应内容很大的情形（如下载对账单）.
+   *
+   * @param <T>        处理结果类型
+   * @param url        请求地址
+   * @param requestStr 请求信息
+   * @param useKey     是否使用证书
+   * @param handler    响应内容处理
+   * @return 处理结果
+   * @throws WxPayException the wx pay exception
+   */
+  <T> T postForStream(String url, String requestStr, boolean useKey, WxPayStreamHandler<T> handler) throws WxPayException;
+
   /**
    * 发送post请求，得到响应字符串.
    *
@@ -173,6 +201,17 @@ public interface WxPayService {
    */
   InputStream downloadV3(String url) throws WxPayException;
 
+  /**
+   * 发送下载 V3请求，以流的方式处理响应内容，不会将整个响应读入内存.
+   *
+   * @param <T>     处理结果类型
+   * @param url     请求地址
+   * @param handler 响应内容处理
+   * @return 处理结果
+   * @throws WxPayException the wx pay exception
+   */
+  <T> T downloadV3(String url, WxPayStreamHandler<T> handler) throws WxPayException;
+
   /**
    * 获取微信签约代扣服务类
    * @return entrust service
@@ -575,6 +614,13 @@ public interface WxPayService {
    */
   void setConfig(WxPayConfig config);
 
+  /**
+   * 设置接口调用监听器，用于采集耗时、错误码、报文大小等指标，默认不设置.
+   *
+   * @param apiCallListener 监听器，可使用{@link me.chanjar.weixin.common.metrics.MicrometerWxApiCallListener}
+   */
+  void setApiCallListener(WxApiCallListener apiCallListener);
+
   /**
    * <pre>
    * 微信支付-申请退款.
@@ -962,6 +1008,21 @@ public interface WxPayService {
    */
   WxPayBillResult downloadBill(WxPayDownloadBillRequest request) throws WxPayException;
 
+  /**
+   * <pre>
+   * 以流的方式下载对账单.
+   * 与 {@link #downloadBill(WxPayDownloadBillRequest)} 不同，对账明细在下载（及解压）的同时逐条交给consumer处理，
+   * 不会将整个账单读入内存，适用于交易量很大的商户.
+   * 接口链接：https://api.mch.weixin.qq.com/pay/downloadbill
+   * </pre>
+   *
+   * @param request  下载对账单请求，账单类型支持ALL、SUCCESS、REFUND、RECHARGE_REFUND
+   * @param consumer 对账明细处理
+   * @return 对账单汇总数据，其中billInfoList为null
+   * @throws WxPayException the wx pay exception
+   */
+  WxPayBillResult downloadBill(WxPayDownloadBillRequest request, Consumer<WxPayBillInfo> consumer) throws WxPayException;
+
   /**
    * <pre>
    * 下载资金账单.
@@ -1000,6 +1061,20 @@ public interface WxPayService {
    */
   WxPayFundFlowResult downloadFundFlow(WxPayDownloadFundFlowRequest request) throws WxPayException;
 
+  /**
+   * <pre>
+   * 以流的方式下载资金账单，资金流水在下载（及解压）的同时逐条交给consumer处理，不会将整个账单读入内存.
+   * 接口链接：https://api.mch.weixin.qq.com/pay/downloadfundflow
+   * </pre>
+   *
+   * @param request  下载资金流水请求
+   * @param consumer 资金流水处理
+   * @return 资金账单汇总数据，其中wxPayFundFlowBaseResultList为null
+   * @throws WxPayException the wx pay exception
+   */
+  WxPayFundFlowResult downloadFundFlow(WxPayDownloadFundFlowRequest request, Consumer<WxPayFundFlowBaseResult> consumer)
+    throws WxPayException;
+
   /**
    * <pre>
    * 申请交易账单API
@@ -1053,6 +1128,36 @@ public interface WxPayService {
    */
   InputStream downloadBill(String url) throws WxPayException;
 
+  /**
+   * <pre>
+   * 以流的方式下载并解析v3交易账单，对账明细在下载（及解压）的同时逐条交给consumer处理.
+   * 注意：解析后的内容无法再计算哈希值，需要校验完整性时请使用 {@link #downloadV3(String, WxPayStreamHandler)} 自行处理.
+   * </pre>
+   *
+   * @param url      申请交易账单接口返回的download_url
+   * @param billType 申请时的账单类型，支持ALL、SUCCESS、REFUND
+   * @param tarType  申请时的压缩类型，GZIP或者null
+   * @param consumer 对账明细处理
+   * @return 对账单汇总数据，其中billInfoList为null
+   * @throws WxPayException the wx pay exception
+   */
+  WxPayBillResult downloadTradeBill(String url, String billType, String tarType, Consumer<WxPayBillInfo> consumer)
+    throws WxPayException;
+
+  /**
+   * <pre>
+   * 以流的方式下载并解析v3资金账单，资金流水在下载（及解压）的同时逐条交给consumer处理.
+   * </pre>
+   *
+   * @param url      申请资金账单接口返回的download_url
+   * @param tarType  申请时的压缩类型，GZIP或者null
+   * @param consumer 资金流水处理
+   * @return 资金账单汇总数据，其中wxPayFundFlowBaseResultList为null
+   * @throws WxPayException the wx pay exception
+   */
+  WxPayFundFlowResult downloadFundFlowBill(String url, String tarType, Consumer<WxPayFundFlowBaseResult> consumer)
+    throws WxPayException;
+
   /**
    * <pre>
    * 提交付款码支付.
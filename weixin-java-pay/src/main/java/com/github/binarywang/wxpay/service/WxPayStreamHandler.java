@@ -0,0 +1,25 @@
+package com.github.binarywang.wxpay.service;
+
+import com.github.binarywang.wxpay.exception.WxPayException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 以流的方式处理接口响应内容，处理结束后连接会被释放，因此不能在处理之外继续使用该流.
+ *
+ * @param <T> 处理结果类型
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+@FunctionalInterface
+public interface WxPayStreamHandler<T> {
+  /**
+   * 处理响应内容.
+   *
+   * @param inputStream 响应内容
+   * @return 处理结果
+   * @throws IOException    读取出错
+   * @throws WxPayException 响应内容为错误信息等
+   */
+  T handle(InputStream inputStream) throws IOException, WxPayException;
+}
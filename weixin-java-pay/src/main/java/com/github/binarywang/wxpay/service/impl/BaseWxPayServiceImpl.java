@@ -21,26 +21,31 @@ import com.github.binarywang.wxpay.service.*;
 import com.github.binarywang.wxpay.util.SignUtils;
 import com.github.binarywang.wxpay.util.XmlConfig;
 import com.github.binarywang.wxpay.v3.util.AesUtils;
-import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import jodd.io.ZipUtil;
+import me.chanjar.weixin.common.api.WxConfigRegistry;
+import me.chanjar.weixin.common.enums.WxType;
 import me.chanjar.weixin.common.error.WxRuntimeException;
+import me.chanjar.weixin.common.metrics.WxApiCallEvent;
+import me.chanjar.weixin.common.metrics.WxApiCallListener;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipException;
 
 import static com.github.binarywang.wxpay.constant.WxPayConstants.QUERY_COMMENT_DATE_FORMAT;
@@ -55,7 +60,6 @@ import static com.github.binarywang.wxpay.constant.WxPayConstants.TarType;
  * @author <a href="https://github.com/binarywang">Binary Wang</a>
  */
 public abstract class BaseWxPayServiceImpl implements WxPayService {
-  private static final String TOTAL_FUND_COUNT = "资金流水总笔数";
 
   private static final Gson GSON = new GsonBuilder().create();
 
@@ -78,7 +82,75 @@ public abstract class BaseWxPayServiceImpl implements WxPayService {
   private final PartnerTransferService partnerTransferService = new PartnerTransferServiceImpl(this);
   private final PayrollService payrollService = new PayrollServiceImpl(this);
 
-  protected Map<String, WxPayConfig> configMap;
+  private final WxConfigRegistry<WxPayConfig, WxPayService> configs = new WxConfigRegistry<>();
+  /**
+   * 通过 {@link #forApp(String)} 创建的视图所属的原服务及所绑定的配置，非视图时均为null.
+   */
+  private BaseWxPayServiceImpl root;
+  private WxPayConfig boundConfig;
+
+  private volatile WxApiCallListener apiCallListener;
+
+  @Override
+  public void setApiCallListener(WxApiCallListener apiCallListener) {
+    if (this.root != null) {
+      this.root.setApiCallListener(apiCallListener);
+      return;
+    }
+    this.apiCallListener = apiCallListener;
+  }
+
+  /**
+   * 兼容原先直接访问 configMap 字段的子类，配置已改为保存在写时复制的注册表中.
+   *
+   * @return 当前所有商户配置的只读副本，修改它不会影响本服务
+   * @deprecated 请使用 {@link #getConfig()}、{@link #addConfig(String, WxPayConfig)} 等方法
+   */
+  @Deprecated
+  protected Map<String, WxPayConfig> getConfigMap() {
+    return Collections.unmodifiableMap(this.settings().configs.toMap());
+  }
+
+  /**
+   * 监听器等设置的持有者，视图始终使用原服务的设置，原服务修改设置后对已创建的视图同样生效.
+   */
+  private BaseWxPayServiceImpl settings() {
+    return this.root != null ? this.root : this;
+  }
+
+  /**
+   * 记录接口调用开始，未设置监听器时返回null.
+   *
+   * @param url     接口地址
+   * @param request 请求数据
+   * @return 调用事件
+   */
+  protected WxApiCallEvent startApiCall(String url, Object request) {
+    if (this.settings().apiCallListener == null) {
+      return null;
+    }
+    return WxApiCallEvent.start(WxType.Pay, this.getConfig().getMchId(), url, request);
+  }
+
+  /**
+   * 记录接口调用结束并通知监听器.
+   *
+   * @param event    {@link #startApiCall(String, Object)} 返回的事件
+   * @param response 响应数据
+   * @param e        异常，调用成功时为null
+   */
+  protected void endApiCall(WxApiCallEvent event, Object response, Exception e) {
+    WxApiCallListener listener = this.settings().apiCallListener;
+    if (event == null || listener == null) {
+      return;
+    }
+
+    if (e == null) {
+      listener.onApiCall(event.succeed(response));
+    } else {
+      listener.onApiCall(event.fail(e, e instanceof WxPayException ? ((WxPayException) e).getErrCode() : null));
+    }
+  }
 
   @Override
   public EntPayService getEntPayService() {
@@ -153,11 +225,16 @@ public abstract class BaseWxPayServiceImpl implements WxPayService {
 
   @Override
   public WxPayConfig getConfig() {
-    if (this.configMap.size() == 1) {
+    if (this.boundConfig != null) {
+      return this.boundConfig;
+    }
+
+    WxPayConfig single = this.configs.getSingle();
+    if (single != null) {
       // 只有一个商户号，直接返回其配置即可
-      return this.configMap.values().iterator().next();
+      return single;
     }
-    return this.configMap.get(WxPayConfigHolder.get());
+    return this.configs.get(WxPayConfigHolder.get());
   }
 
   @Override
@@ -168,32 +245,42 @@ public abstract class BaseWxPayServiceImpl implements WxPayService {
 
   @Override
   public void addConfig(String mchId, WxPayConfig wxPayConfig) {
+    if (this.root != null) {
+      this.root.addConfig(mchId, wxPayConfig);
+      return;
+    }
+
     synchronized (this) {
-      if (this.configMap == null) {
+      if (this.configs.isEmpty()) {
         this.setConfig(wxPayConfig);
       } else {
         WxPayConfigHolder.set(mchId);
-        this.configMap.put(mchId, wxPayConfig);
+        this.releaseReplacedConfig(this.configs.put(mchId, wxPayConfig), wxPayConfig);
       }
     }
   }
 
   @Override
   public void removeConfig(String mchId) {
+    if (this.root != null) {
+      this.root.removeConfig(mchId);
+      return;
+    }
+
     synchronized (this) {
-      if (this.configMap.size() == 1) {
-        this.configMap.remove(mchId);
+      if (this.configs.size() == 1) {
+        this.releaseReplacedConfig(this.configs.remove(mchId), null);
         log.warn("已删除最后一个商户号配置：{}，须立即使用setConfig或setMultiConfig添加配置", mchId);
         return;
       }
       if (WxPayConfigHolder.get().equals(mchId)) {
-        this.configMap.remove(mchId);
-        final String defaultMpId = this.configMap.keySet().iterator().next();
+        this.releaseReplacedConfig(this.configs.remove(mchId), null);
+        final String defaultMpId = this.configs.firstId();
         WxPayConfigHolder.set(defaultMpId);
         log.warn("已删除默认商户号配置，商户号【{}】被设为默认配置", defaultMpId);
         return;
       }
-      this.configMap.remove(mchId);
+      this.releaseReplacedConfig(this.configs.remove(mchId), null);
     }
   }
 
@@ -204,13 +291,32 @@ public abstract class BaseWxPayServiceImpl implements WxPayService {
 
   @Override
   public void setMultiConfig(Map<String, WxPayConfig> wxPayConfigs, String defaultMchId) {
-    this.configMap = Maps.newHashMap(wxPayConfigs);
+    if (this.root != null) {
+      this.root.setMultiConfig(wxPayConfigs, defaultMchId);
+      return;
+    }
+
+    final Map<String, WxPayConfig> oldConfigMap = this.configs.replaceAll(wxPayConfigs);
     WxPayConfigHolder.set(defaultMchId);
+    oldConfigMap.forEach((mchId, oldConfig) -> this.releaseReplacedConfig(oldConfig, wxPayConfigs.get(mchId)));
+  }
+
+  /**
+   * 商户号配置被替换（比如更换了证书）后，关闭旧配置对象上缓存的http连接池，新配置会在下次请求时重新创建.
+   */
+  private void releaseReplacedConfig(WxPayConfig oldConfig, WxPayConfig newConfig) {
+    if (oldConfig != null && oldConfig != newConfig) {
+      oldConfig.resetApiHttpClients();
+    }
   }
 
   @Override
   public boolean switchover(String mchId) {
-    if (this.configMap.containsKey(mchId)) {
+    if (this.root != null) {
+      return this.root.switchover(mchId);
+    }
+
+    if (this.configs.contains(mchId)) {
       WxPayConfigHolder.set(mchId);
       return true;
     }
@@ -220,13 +326,50 @@ public abstract class BaseWxPayServiceImpl implements WxPayService {
 
   @Override
   public WxPayService switchoverTo(String mchId) {
-    if (this.configMap.containsKey(mchId)) {
+    if (this.root != null) {
+      return this.root.switchoverTo(mchId);
+    }
+
+    if (this.configs.contains(mchId)) {
       WxPayConfigHolder.set(mchId);
       return this;
     }
     throw new WxRuntimeException(String.format("无法找到对应【%s】的商户号配置信息，请核实！", mchId));
   }
 
+  @Override
+  public WxPayService forApp(String mchId) {
+    if (this.root != null) {
+      return this.root.forApp(mchId);
+    }
+
+    WxPayService view = this.configs.getView(mchId, this::createView);
+    if (view == null) {
+      throw new WxRuntimeException(String.format("无法找到对应【%s】的商户号配置信息，请核实！", mchId));
+    }
+    return view;
+  }
+
+  private WxPayService createView(WxPayConfig config) {
+    BaseWxPayServiceImpl view = this.newInstance();
+    view.root = this;
+    view.boundConfig = config;
+    return view;
+  }
+
+  /**
+   * 创建 {@link #forApp(String)} 所用的视图对象，默认通过无参构造方法创建同类型的实例，没有无参构造方法的子类需要覆盖本方法.
+   *
+   * @return 新的服务实例
+   */
+  protected BaseWxPayServiceImpl newInstance() {
+    try {
+      return this.getClass().getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new WxRuntimeException("无法创建" + this.getClass().getName() + "的实例，请覆盖newInstance方法", e);
+    }
+  }
+
   @Override
   public String getPayBaseUrl() {
     if (this.getConfig().isUseSandboxEnv()) {
@@ -881,24 +1024,47 @@ public abstract class BaseWxPayServiceImpl implements WxPayService {
   }
 
   private String handleGzipBill(String url, String requestStr) throws WxPayException {
-    try {
-      byte[] responseBytes = this.postForBytes(url, requestStr, false);
-      Path tempDirectory = Files.createTempDirectory("bill");
-      Path path = Paths.get(tempDirectory.toString(), System.currentTimeMillis() + ".gzip");
-      Files.write(path, responseBytes);
-      try {
-        List<String> allLines = Files.readAllLines(ZipUtil.ungzip(path.toFile()).toPath(), StandardCharsets.UTF_8);
-        return Joiner.on("\n").join(allLines);
-      } catch (ZipException e) {
-        if (e.getMessage().contains("Not in GZIP format")) {
-          throw WxPayException.from(BaseWxPayResult.fromXML(new String(responseBytes, StandardCharsets.UTF_8),
-            WxPayCommonResult.class));
-        } else {
-          throw new WxPayException("解压zip文件出错！", e);
-        }
+    return this.postForStream(url, requestStr, false, in -> this.readGzipText(in, "解压zip文件出错！"));
+  }
+
+  @Override
+  public WxPayBillResult downloadBill(WxPayDownloadBillRequest request, Consumer<WxPayBillInfo> consumer)
+    throws WxPayException {
+    if (!WxPayBillReader.supports(request.getBillType())) {
+      throw new WxPayException("不支持解析该类型的对账单：" + request.getBillType());
+    }
+    request.checkAndSign(this.getConfig());
+
+    String url = this.getPayBaseUrl() + "/pay/downloadbill";
+    return this.postForStream(url, request.toXML(), false, in -> {
+      try (WxPayBillReader reader = WxPayBillReader.fromStream(this.checkBillStream(in), request.getBillType(),
+        request.getTarType())) {
+        return reader.read(consumer);
       }
-    } catch (Exception e) {
-      throw new WxPayException("解析对账单文件时出错！", e);
+    });
+  }
+
+  /**
+   * 账单接口出错时返回的是xml格式的错误信息，正常时为账单文本或gzip压缩包，二者均不会以'<'开头.
+   */
+  private InputStream checkBillStream(InputStream inputStream) throws IOException, WxPayException {
+    BufferedInputStream in = new BufferedInputStream(inputStream);
+    in.mark(1);
+    int first = in.read();
+    in.reset();
+    if (first == '<') {
+      String responseContent = IOUtils.toString(in, StandardCharsets.UTF_8);
+      throw WxPayException.from(BaseWxPayResult.fromXML(responseContent, WxPayCommonResult.class));
+    }
+    return in;
+  }
+
+  private String readGzipText(InputStream inputStream, String errorMsg) throws IOException, WxPayException {
+    InputStream in = this.checkBillStream(inputStream);
+    try (GZIPInputStream gzipInputStream = new GZIPInputStream(in)) {
+      return IOUtils.toString(gzipInputStream, StandardCharsets.UTF_8);
+    } catch (ZipException e) {
+      throw new WxPayException(errorMsg, e);
     }
   }
 
@@ -933,90 +1099,31 @@ public abstract class BaseWxPayServiceImpl implements WxPayService {
   }
 
   private String handleGzipFundFlow(String url, String requestStr) throws WxPayException {
-    try {
-      byte[] responseBytes = this.postForBytes(url, requestStr, true);
-      Path tempDirectory = Files.createTempDirectory("fundFlow");
-      Path path = Paths.get(tempDirectory.toString(), System.currentTimeMillis() + ".gzip");
-      Files.write(path, responseBytes);
-
-      try {
-        List<String> allLines = Files.readAllLines(ZipUtil.ungzip(path.toFile()).toPath(), StandardCharsets.UTF_8);
-        return Joiner.on("\n").join(allLines);
-      } catch (ZipException e) {
-        if (e.getMessage().contains("Not in GZIP format")) {
-          throw WxPayException.from(BaseWxPayResult.fromXML(new String(responseBytes, StandardCharsets.UTF_8),
-            WxPayCommonResult.class));
-        } else {
-          throw new WxPayException("解压zip文件出错", e);
-        }
-      }
-    } catch (WxPayException wxPayException) {
-      throw wxPayException;
-    } catch (Exception e) {
-      throw new WxPayException("解压zip文件出错", e);
-    }
+    return this.postForStream(url, requestStr, true, in -> this.readGzipText(in, "解压zip文件出错"));
   }
 
   private WxPayFundFlowResult handleFundFlow(String responseContent) {
-    WxPayFundFlowResult wxPayFundFlowResult = new WxPayFundFlowResult();
-
-    String listStr = "";
-    String objStr = "";
-
-    if (StringUtils.isNotBlank(responseContent) && responseContent.contains(TOTAL_FUND_COUNT)) {
-      listStr = responseContent.substring(0, responseContent.indexOf(TOTAL_FUND_COUNT));
-      objStr = responseContent.substring(responseContent.indexOf(TOTAL_FUND_COUNT));
-    }
-    /*
-     * 记账时间:2018-02-01 04:21:23 微信支付业务单号:50000305742018020103387128253 资金流水单号:1900009231201802015884652186 业务名称:退款
-     * 业务类型:退款 收支类型:支出 收支金额（元）:0.02 账户结余（元）:0.17 资金变更提交申请人:system 备注:缺货 业务凭证号:REF4200000068201801293084726067
-     * 参考以上格式进行取值
-     */
-    List<WxPayFundFlowBaseResult> wxPayFundFlowBaseResultList = new LinkedList<>();
-    // 去空格
-    String newStr = listStr.replaceAll(",", " ");
-    // 数据分组
-    String[] tempStr = newStr.split("`");
-    // 分组标题
-    String[] t = tempStr[0].split(" ");
-    // 计算循环次数
-    int j = tempStr.length / t.length;
-    // 纪录数组下标
-    int k = 1;
-    for (int i = 0; i < j; i++) {
-      WxPayFundFlowBaseResult wxPayFundFlowBaseResult = new WxPayFundFlowBaseResult();
-
-      wxPayFundFlowBaseResult.setBillingTime(tempStr[k].trim());
-      wxPayFundFlowBaseResult.setBizTransactionId(tempStr[k + 1].trim());
-      wxPayFundFlowBaseResult.setFundFlowId(tempStr[k + 2].trim());
-      wxPayFundFlowBaseResult.setBizName(tempStr[k + 3].trim());
-      wxPayFundFlowBaseResult.setBizType(tempStr[k + 4].trim());
-      wxPayFundFlowBaseResult.setFinancialType(tempStr[k + 5].trim());
-      wxPayFundFlowBaseResult.setFinancialFee(tempStr[k + 6].trim());
-      wxPayFundFlowBaseResult.setAccountBalance(tempStr[k + 7].trim());
-      wxPayFundFlowBaseResult.setFundApplicant(tempStr[k + 8].trim());
-      wxPayFundFlowBaseResult.setMemo(tempStr[k + 9].trim());
-      wxPayFundFlowBaseResult.setBizVoucherId(tempStr[k + 10].trim());
-
-      wxPayFundFlowBaseResultList.add(wxPayFundFlowBaseResult);
-      k += t.length;
+    List<WxPayFundFlowBaseResult> wxPayFundFlowBaseResultList = new ArrayList<>();
+    WxPayFundFlowResult wxPayFundFlowResult = new WxPayFundFlowReader(new StringReader(responseContent))
+      .read(wxPayFundFlowBaseResultList::add);
+    if (wxPayFundFlowResult == null) {
+      wxPayFundFlowResult = new WxPayFundFlowResult();
     }
     wxPayFundFlowResult.setWxPayFundFlowBaseResultList(wxPayFundFlowBaseResultList);
-
-    /*
-     * 资金流水总笔数,收入笔数,收入金额,支出笔数,支出金额 `20.0,`17.0,`0.35,`3.0,`0.18
-     * 参考以上格式进行取值
-     */
-    String totalStr = objStr.replaceAll(",", " ");
-    String[] totalTempStr = totalStr.split("`");
-    wxPayFundFlowResult.setTotalRecord(totalTempStr[1]);
-    wxPayFundFlowResult.setIncomeRecord(totalTempStr[2]);
-    wxPayFundFlowResult.setIncomeAmount(totalTempStr[3]);
-    wxPayFundFlowResult.setExpenditureRecord(totalTempStr[4]);
-    wxPayFundFlowResult.setExpenditureAmount(totalTempStr[5]);
-
     return wxPayFundFlowResult;
+  }
+
+  @Override
+  public WxPayFundFlowResult downloadFundFlow(WxPayDownloadFundFlowRequest request,
+                                              Consumer<WxPayFundFlowBaseResult> consumer) throws WxPayException {
+    request.checkAndSign(this.getConfig());
 
+    String url = this.getPayBaseUrl() + "/pay/downloadfundflow";
+    return this.postForStream(url, request.toXML(), true, in -> {
+      try (WxPayFundFlowReader reader = WxPayFundFlowReader.fromStream(this.checkBillStream(in), request.getTarType())) {
+        return reader.read(consumer);
+      }
+    });
   }
 
   @Override
@@ -1048,6 +1155,60 @@ public abstract class BaseWxPayServiceImpl implements WxPayService {
     return this.downloadV3(url);
   }
 
+  @Override
+  public WxPayBillResult downloadTradeBill(String url, String billType, String tarType, Consumer<WxPayBillInfo> consumer)
+    throws WxPayException {
+    if (!WxPayBillReader.supports(billType)) {
+      throw new WxPayException("不支持解析该类型的对账单：" + billType);
+    }
+
+    return this.downloadV3(url, in -> {
+      try (WxPayBillReader reader = WxPayBillReader.fromStream(in, billType, tarType)) {
+        return reader.read(consumer);
+      }
+    });
+  }
+
+  @Override
+  public WxPayFundFlowResult downloadFundFlowBill(String url, String tarType, Consumer<WxPayFundFlowBaseResult> consumer)
+    throws WxPayException {
+    return this.downloadV3(url, in -> {
+      try (WxPayFundFlowReader reader = WxPayFundFlowReader.fromStream(in, tarType)) {
+        return reader.read(consumer);
+      }
+    });
+  }
+
+  /**
+   * 默认将整个响应读入内存后再处理，支持流式读取的http实现应覆盖此方法.
+   */
+  @Override
+  public <T> T postForStream(String url, String requestStr, boolean useKey, WxPayStreamHandler<T> handler)
+    throws WxPayException {
+    try {
+      return handler.handle(new ByteArrayInputStream(this.postForBytes(url, requestStr, useKey)));
+    } catch (IOException e) {
+      throw new WxPayException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * 默认基于 {@link #downloadV3(String)} 实现，支持流式读取的http实现应覆盖此方法.
+   */
+  @Override
+  public <T> T downloadV3(String url, WxPayStreamHandler<T> handler) throws WxPayException {
+    InputStream inputStream = this.downloadV3(url);
+    if (inputStream == null) {
+      throw new WxPayException("当前http实现不支持v3下载");
+    }
+
+    try (InputStream in = inputStream) {
+      return handler.handle(in);
+    } catch (IOException e) {
+      throw new WxPayException(e.getMessage(), e);
+    }
+  }
+
   @Override
   public WxPayMicropayResult micropay(WxPayMicropayRequest request) throws WxPayException {
     request.checkAndSign(this.getConfig());
@@ -1,9 +1,13 @@
 package com.github.binarywang.wxpay.service.impl;
 
 import com.github.binarywang.wxpay.bean.WxPayApiData;
+import com.github.binarywang.wxpay.config.WxPayConfig;
 import com.github.binarywang.wxpay.exception.WxPayException;
+import com.github.binarywang.wxpay.service.WxPayStreamHandler;
+import com.github.binarywang.wxpay.v3.WechatPayDownloadHttpGet;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import me.chanjar.weixin.common.metrics.WxApiCallEvent;
 import me.chanjar.weixin.common.util.json.GsonParser;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpEntity;
@@ -28,6 +32,7 @@ import javax.net.ssl.SSLContext;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <pre>
@@ -41,45 +46,70 @@ public class WxPayServiceApacheHttpImpl extends BaseWxPayServiceImpl {
 
   @Override
   public byte[] postForBytes(String url, String requestStr, boolean useKey) throws WxPayException {
+    WxApiCallEvent event = this.startApiCall(url, requestStr);
     try {
-      HttpClientBuilder httpClientBuilder = createHttpClientBuilder(useKey);
+      CloseableHttpClient httpClient = this.getApiHttpClient(useKey);
       HttpPost httpPost = this.createHttpPost(url, requestStr);
-      try (CloseableHttpClient httpClient = httpClientBuilder.build()) {
-        try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
-          final byte[] bytes = EntityUtils.toByteArray(response.getEntity());
-          final String responseData = Base64.getEncoder().encodeToString(bytes);
-          this.log.info("\n【请求地址】：{}\n【请求数据】：{}\n【响应数据(Base64编码后)】：{}", url, requestStr, responseData);
-          wxApiData.set(new WxPayApiData(url, requestStr, responseData, null));
-          return bytes;
-        }
+      try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
+        final byte[] bytes = EntityUtils.toByteArray(response.getEntity());
+        final String responseData = Base64.getEncoder().encodeToString(bytes);
+        this.log.info("\n【请求地址】：{}\n【请求数据】：{}\n【响应数据(Base64编码后)】：{}", url, requestStr, responseData);
+        wxApiData.set(new WxPayApiData(url, requestStr, responseData, null));
+        this.endApiCall(event, bytes, null);
+        return bytes;
       } finally {
         httpPost.releaseConnection();
       }
     } catch (Exception e) {
+      this.endApiCall(event, null, e);
       this.log.error("\n【请求地址】：{}\n【请求数据】：{}\n【异常信息】：{}", url, requestStr, e.getMessage());
       wxApiData.set(new WxPayApiData(url, requestStr, null, e.getMessage()));
       throw new WxPayException(e.getMessage(), e);
     }
   }
 
+  @Override
+  public <T> T postForStream(String url, String requestStr, boolean useKey, WxPayStreamHandler<T> handler)
+    throws WxPayException {
+    WxApiCallEvent event = this.startApiCall(url, requestStr);
+    try {
+      CloseableHttpClient httpClient = this.getApiHttpClient(useKey);
+      HttpPost httpPost = this.createHttpPost(url, requestStr);
+      try (CloseableHttpResponse response = httpClient.execute(httpPost);
+           InputStream inputStream = response.getEntity().getContent()) {
+        this.log.info("\n【请求地址】：{}\n【请求数据】：{}\n【响应数据】：(流式读取)", url, requestStr);
+        T result = handler.handle(inputStream);
+        this.endApiCall(event, null, null);
+        return result;
+      } finally {
+        httpPost.releaseConnection();
+      }
+    } catch (Exception e) {
+      this.endApiCall(event, null, e);
+      this.log.error("\n【请求地址】：{}\n【请求数据】：{}\n【异常信息】：{}", url, requestStr, e.getMessage());
+      throw (e instanceof WxPayException) ? (WxPayException) e : new WxPayException(e.getMessage(), e);
+    }
+  }
+
   @Override
   public String post(String url, String requestStr, boolean useKey) throws WxPayException {
+    WxApiCallEvent event = this.startApiCall(url, requestStr);
     try {
-      HttpClientBuilder httpClientBuilder = this.createHttpClientBuilder(useKey);
+      CloseableHttpClient httpClient = this.getApiHttpClient(useKey);
       HttpPost httpPost = this.createHttpPost(url, requestStr);
-      try (CloseableHttpClient httpClient = httpClientBuilder.build()) {
-        try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
-          String responseString = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
-          this.log.info("\n【请求地址】：{}\n【请求数据】：{}\n【响应数据】：{}", url, requestStr, responseString);
-          if (this.getConfig().isIfSaveApiData()) {
-            wxApiData.set(new WxPayApiData(url, requestStr, responseString, null));
-          }
-          return responseString;
+      try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
+        String responseString = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+        this.log.info("\n【请求地址】：{}\n【请求数据】：{}\n【响应数据】：{}", url, requestStr, responseString);
+        if (this.getConfig().isIfSaveApiData()) {
+          wxApiData.set(new WxPayApiData(url, requestStr, responseString, null));
         }
+        this.endApiCall(event, responseString, null);
+        return responseString;
       } finally {
         httpPost.releaseConnection();
       }
     } catch (Exception e) {
+      this.endApiCall(event, null, e);
       this.log.error("\n【请求地址】：{}\n【请求数据】：{}\n【异常信息】：{}", url, requestStr, e.getMessage());
       if (this.getConfig().isIfSaveApiData()) {
         wxApiData.set(new WxPayApiData(url, requestStr, null, e.getMessage()));
@@ -90,6 +120,7 @@ public class WxPayServiceApacheHttpImpl extends BaseWxPayServiceImpl {
 
   @Override
   public String postV3(String url, String requestStr) throws WxPayException {
+    WxApiCallEvent event = this.startApiCall(url, requestStr);
     CloseableHttpClient httpClient = this.createApiV3HttpClient();
     HttpPost httpPost = this.createHttpPost(url, requestStr);
     httpPost.addHeader("Accept", "application/json");
@@ -106,6 +137,7 @@ public class WxPayServiceApacheHttpImpl extends BaseWxPayServiceImpl {
       }
       if (HttpStatus.SC_OK == statusCode || HttpStatus.SC_NO_CONTENT == statusCode) {
         this.log.info("\n【请求地址】：{}\n【请求数据】：{}\n【响应数据】：{}", url, requestStr, responseString);
+        this.endApiCall(event, responseString, null);
         return responseString;
       } else {
         //有错误提示信息返回
@@ -113,6 +145,7 @@ public class WxPayServiceApacheHttpImpl extends BaseWxPayServiceImpl {
         throw convertException(jsonObject);
       }
     } catch (Exception e) {
+      this.endApiCall(event, null, e);
       this.log.error("\n【请求地址】：{}\n【请求数据】：{}\n【异常信息】：{}", url, requestStr, e.getMessage());
       throw (e instanceof WxPayException) ? (WxPayException) e : new WxPayException(e.getMessage(), e);
     } finally {
@@ -124,6 +157,7 @@ public class WxPayServiceApacheHttpImpl extends BaseWxPayServiceImpl {
 
   @Override
   public String patchV3(String url, String requestStr) throws WxPayException {
+    WxApiCallEvent event = this.startApiCall(url, requestStr);
     CloseableHttpClient httpClient = this.createApiV3HttpClient();
     HttpPatch httpPatch = new HttpPatch(url);
     httpPatch.setEntity(this.createEntry(requestStr));
@@ -148,6 +182,7 @@ public class WxPayServiceApacheHttpImpl extends BaseWxPayServiceImpl {
       }
       if (HttpStatus.SC_OK == statusCode || HttpStatus.SC_NO_CONTENT == statusCode) {
         this.log.info("\n【请求地址】：{}\n【请求数据】：{}\n【响应数据】：{}", url, requestStr, responseString);
+        this.endApiCall(event, responseString, null);
         return responseString;
       } else {
         //有错误提示信息返回
@@ -155,6 +190,7 @@ public class WxPayServiceApacheHttpImpl extends BaseWxPayServiceImpl {
         throw convertException(jsonObject);
       }
     } catch (Exception e) {
+      this.endApiCall(event, null, e);
       this.log.error("\n【请求地址】：{}\n【请求数据】：{}\n【异常信息】：{}", url, requestStr, e.getMessage());
       throw (e instanceof WxPayException) ? (WxPayException) e : new WxPayException(e.getMessage(), e);
     } finally {
@@ -164,6 +200,7 @@ public class WxPayServiceApacheHttpImpl extends BaseWxPayServiceImpl {
 
   @Override
   public String postV3WithWechatpaySerial(String url, String requestStr) throws WxPayException {
+    WxApiCallEvent event = this.startApiCall(url, requestStr);
     CloseableHttpClient httpClient = this.createApiV3HttpClient();
     HttpPost httpPost = this.createHttpPost(url, requestStr);
     httpPost.addHeader("Accept", "application/json");
@@ -181,6 +218,7 @@ public class WxPayServiceApacheHttpImpl extends BaseWxPayServiceImpl {
 
       if (HttpStatus.SC_OK == statusCode || HttpStatus.SC_NO_CONTENT == statusCode) {
         this.log.info("\n【请求地址】：{}\n【请求数据】：{}\n【响应数据】：{}", url, requestStr, responseString);
+        this.endApiCall(event, responseString, null);
         return responseString;
       } else {
         //有错误提示信息返回
@@ -188,6 +226,7 @@ public class WxPayServiceApacheHttpImpl extends BaseWxPayServiceImpl {
         throw convertException(jsonObject);
       }
     } catch (Exception e) {
+      this.endApiCall(event, null, e);
       this.log.error("\n【请求地址】：{}\n【请求数据】：{}\n【异常信息】：{}", url, requestStr, e.getMessage());
       e.printStackTrace();
       throw (e instanceof WxPayException) ? (WxPayException) e : new WxPayException(e.getMessage(), e);
@@ -203,6 +242,7 @@ public class WxPayServiceApacheHttpImpl extends BaseWxPayServiceImpl {
 
   @Override
   public String requestV3(String url, HttpRequestBase httpRequest) throws WxPayException {
+    WxApiCallEvent event = this.startApiCall(url, null);
     httpRequest.setConfig(RequestConfig.custom()
       .setConnectionRequestTimeout(this.getConfig().getHttpConnectionTimeout())
       .setConnectTimeout(this.getConfig().getHttpConnectionTimeout())
@@ -222,6 +262,7 @@ public class WxPayServiceApacheHttpImpl extends BaseWxPayServiceImpl {
       }
       if (HttpStatus.SC_OK == statusCode || HttpStatus.SC_NO_CONTENT == statusCode) {
         this.log.info("\n【请求地址】：{}\n【响应数据】：{}", url, responseString);
+        this.endApiCall(event, responseString, null);
         return responseString;
       } else {
         //有错误提示信息返回
@@ -229,6 +270,7 @@ public class WxPayServiceApacheHttpImpl extends BaseWxPayServiceImpl {
         throw convertException(jsonObject);
       }
     } catch (Exception e) {
+      this.endApiCall(event, null, e);
       this.log.error("\n【请求地址】：{}\n【异常信息】：{}", url, e.getMessage());
       throw (e instanceof WxPayException) ? (WxPayException) e : new WxPayException(e.getMessage(), e);
     } finally {
@@ -269,6 +311,32 @@ public class WxPayServiceApacheHttpImpl extends BaseWxPayServiceImpl {
     }
   }
 
+  @Override
+  public <T> T downloadV3(String url, WxPayStreamHandler<T> handler) throws WxPayException {
+    CloseableHttpClient httpClient = this.createApiV3HttpClient();
+    HttpGet httpGet = new WechatPayDownloadHttpGet(url);
+    httpGet.addHeader("Accept", ContentType.WILDCARD.getMimeType());
+    try (CloseableHttpResponse response = httpClient.execute(httpGet)) {
+      int statusCode = response.getStatusLine().getStatusCode();
+      if (HttpStatus.SC_OK == statusCode) {
+        this.log.info("\n【请求地址】：{}\n", url);
+        try (InputStream inputStream = response.getEntity().getContent()) {
+          return handler.handle(inputStream);
+        }
+      } else {
+        //有错误提示信息返回
+        String responseString = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+        JsonObject jsonObject = GsonParser.parse(responseString);
+        throw convertException(jsonObject);
+      }
+    } catch (Exception e) {
+      this.log.error("\n【请求地址】：{}\n【异常信息】：{}", url, e.getMessage());
+      throw (e instanceof WxPayException) ? (WxPayException) e : new WxPayException(e.getMessage(), e);
+    } finally {
+      httpGet.releaseConnection();
+    }
+  }
+
   private CloseableHttpClient createApiV3HttpClient() throws WxPayException {
     CloseableHttpClient apiV3HttpClient = this.getConfig().getApiV3HttpClient();
     if (null == apiV3HttpClient) {
@@ -282,8 +350,36 @@ public class WxPayServiceApacheHttpImpl extends BaseWxPayServiceImpl {
     //return new StringEntity(new String(requestStr.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1));
   }
 
+  /**
+   * 获取v2接口使用的http连接池客户端，不存在时按当前配置创建并缓存在配置对象中，以便复用连接及TLS会话.
+   */
+  private CloseableHttpClient getApiHttpClient(boolean useKey) throws WxPayException {
+    WxPayConfig config = this.getConfig();
+    CloseableHttpClient httpClient = useKey ? config.getApiSslHttpClient() : config.getApiHttpClient();
+    if (httpClient != null) {
+      return httpClient;
+    }
+
+    synchronized (config) {
+      httpClient = useKey ? config.getApiSslHttpClient() : config.getApiHttpClient();
+      if (httpClient == null) {
+        httpClient = this.createHttpClientBuilder(useKey).build();
+        if (useKey) {
+          config.setApiSslHttpClient(httpClient);
+        } else {
+          config.setApiHttpClient(httpClient);
+        }
+      }
+      return httpClient;
+    }
+  }
+
   private HttpClientBuilder createHttpClientBuilder(boolean useKey) throws WxPayException {
-    HttpClientBuilder httpClientBuilder = HttpClients.custom();
+    HttpClientBuilder httpClientBuilder = HttpClients.custom()
+      .setMaxConnTotal(this.getConfig().getHttpClientMaxTotal())
+      .setMaxConnPerRoute(this.getConfig().getHttpClientMaxPerRoute())
+      .evictExpiredConnections()
+      .evictIdleConnections(this.getConfig().getHttpClientIdleTimeout(), TimeUnit.MILLISECONDS);
     if (useKey) {
       this.initSSLContext(httpClientBuilder);
     }
@@ -9,6 +9,7 @@ import jodd.http.ProxyInfo;
 import jodd.http.ProxyInfo.ProxyType;
 import jodd.http.net.SSLSocketHttpConnectionProvider;
 import jodd.http.net.SocketHttpConnectionProvider;
+import me.chanjar.weixin.common.metrics.WxApiCallEvent;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
@@ -27,6 +28,7 @@ import java.util.Base64;
 public class WxPayServiceJoddHttpImpl extends BaseWxPayServiceImpl {
   @Override
   public byte[] postForBytes(String url, String requestStr, boolean useKey) throws WxPayException {
+    WxApiCallEvent event = this.startApiCall(url, requestStr);
     try {
       HttpRequest request = this.buildHttpRequest(url, requestStr, useKey);
       byte[] responseBytes = request.send().bodyBytes();
@@ -35,8 +37,10 @@ public class WxPayServiceJoddHttpImpl extends BaseWxPayServiceImpl {
       if (this.getConfig().isIfSaveApiData()) {
         wxApiData.set(new WxPayApiData(url, requestStr, responseString, null));
       }
+      this.endApiCall(event, responseBytes, null);
       return responseBytes;
     } catch (Exception e) {
+      this.endApiCall(event, null, e);
       this.log.error("\n【请求地址】：{}\n【请求数据】：{}\n【异常信息】：{}", url, requestStr, e.getMessage());
       wxApiData.set(new WxPayApiData(url, requestStr, null, e.getMessage()));
       throw new WxPayException(e.getMessage(), e);
@@ -45,6 +49,7 @@ public class WxPayServiceJoddHttpImpl extends BaseWxPayServiceImpl {
 
   @Override
   public String post(String url, String requestStr, boolean useKey) throws WxPayException {
+    WxApiCallEvent event = this.startApiCall(url, requestStr);
     try {
       HttpRequest request = this.buildHttpRequest(url, requestStr, useKey);
       String responseString = this.getResponseString(request.send());
@@ -53,8 +58,10 @@ public class WxPayServiceJoddHttpImpl extends BaseWxPayServiceImpl {
       if (this.getConfig().isIfSaveApiData()) {
         wxApiData.set(new WxPayApiData(url, requestStr, responseString, null));
       }
+      this.endApiCall(event, responseString, null);
       return responseString;
     } catch (Exception e) {
+      this.endApiCall(event, null, e);
       this.log.error("\n【请求地址】：{}\n【请求数据】：{}\n【异常信息】：{}", url, requestStr, e.getMessage());
       wxApiData.set(new WxPayApiData(url, requestStr, null, e.getMessage()));
       throw new WxPayException(e.getMessage(), e);
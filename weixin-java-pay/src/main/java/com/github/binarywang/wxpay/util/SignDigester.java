@@ -0,0 +1,153 @@
+package com.github.binarywang.wxpay.util;
+
+import com.github.binarywang.wxpay.constant.WxPayConstants.SignType;
+import me.chanjar.weixin.common.error.WxRuntimeException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * <pre>
+ * 流式计算签名：参数直接按UTF-8编码写入复用的 MessageDigest/Mac，不再拼接待签名字符串.
+ * 结果与对 "k1=v1&amp;k2=v2&amp;...&amp;key=signKey" 整体计算MD5/HMAC-SHA256后转大写十六进制完全一致.
+ * 实例与线程绑定，通过 {@link #start(String, String)} 获取.
+ * </pre>
+ */
+final class SignDigester {
+  private static final ThreadLocal<SignDigester> DIGESTER_LOCAL = ThreadLocal.withInitial(SignDigester::new);
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  private final MessageDigest md5;
+  private final byte[] buffer = new byte[512];
+  private int position;
+
+  private Mac hmacSha256;
+  private String hmacKey;
+  private boolean hmac;
+
+  private SignDigester() {
+    try {
+      this.md5 = MessageDigest.getInstance("MD5");
+    } catch (GeneralSecurityException e) {
+      throw new WxRuntimeException("当前Java环境不支持MD5", e);
+    }
+  }
+
+  /**
+   * 获取当前线程的实例并开始一次新的签名计算.
+   *
+   * @param signType 签名类型，为HMAC-SHA256时使用HMAC，其他情况使用MD5
+   * @param signKey  签名Key，HMAC-SHA256时同时作为密钥
+   */
+  static SignDigester start(String signType, String signKey) {
+    SignDigester digester = DIGESTER_LOCAL.get();
+    digester.reset(SignType.HMAC_SHA256.equals(signType), signKey);
+    return digester;
+  }
+
+  private void reset(boolean hmac, String signKey) {
+    this.hmac = hmac;
+    this.position = 0;
+    if (!hmac) {
+      this.md5.reset();
+      return;
+    }
+
+    try {
+      if (this.hmacSha256 == null) {
+        this.hmacSha256 = Mac.getInstance("HmacSHA256");
+      }
+      if (!signKey.equals(this.hmacKey)) {
+        this.hmacSha256.init(new SecretKeySpec(signKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        this.hmacKey = signKey;
+      } else {
+        this.hmacSha256.reset();
+      }
+    } catch (GeneralSecurityException e) {
+      this.hmacKey = null;
+      throw new WxRuntimeException("当前Java环境不支持HmacSHA256", e);
+    }
+  }
+
+  /**
+   * 写入一个参数，即 "name=value&amp;".
+   */
+  SignDigester param(String name, String value) {
+    this.append(name);
+    this.append('=');
+    this.append(value);
+    this.append('&');
+    return this;
+  }
+
+  /**
+   * 写入签名Key（即 "keyName=signKey"）并返回大写十六进制的签名.
+   */
+  String finish(String keyName, String signKey) {
+    this.append(keyName);
+    this.append('=');
+    this.append(String.valueOf(signKey));
+    this.flush();
+
+    byte[] digest = this.hmac ? this.hmacSha256.doFinal() : this.md5.digest();
+    char[] hex = new char[digest.length * 2];
+    for (int i = 0; i < digest.length; i++) {
+      hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0x0f];
+      hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0x0f];
+    }
+    return new String(hex);
+  }
+
+  /**
+   * 按UTF-8编码写入，非法的代理字符与 {@link String#getBytes(java.nio.charset.Charset)} 一样替换为'?'.
+   */
+  private void append(String s) {
+    int length = s.length();
+    for (int i = 0; i < length; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        this.append((byte) c);
+      } else if (c < 0x800) {
+        this.append((byte) (0xc0 | (c >> 6)));
+        this.append((byte) (0x80 | (c & 0x3f)));
+      } else if (Character.isSurrogate(c)) {
+        if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+          int codePoint = Character.toCodePoint(c, s.charAt(++i));
+          this.append((byte) (0xf0 | (codePoint >> 18)));
+          this.append((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+          this.append((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+          this.append((byte) (0x80 | (codePoint & 0x3f)));
+        } else {
+          this.append((byte) '?');
+        }
+      } else {
+        this.append((byte) (0xe0 | (c >> 12)));
+        this.append((byte) (0x80 | ((c >> 6) & 0x3f)));
+        this.append((byte) (0x80 | (c & 0x3f)));
+      }
+    }
+  }
+
+  private void append(char c) {
+    this.append((byte) c);
+  }
+
+  private void append(byte b) {
+    if (this.position == this.buffer.length) {
+      this.flush();
+    }
+    this.buffer[this.position++] = b;
+  }
+
+  private void flush() {
+    if (this.hmac) {
+      this.hmacSha256.update(this.buffer, 0, this.position);
+    } else {
+      this.md5.update(this.buffer, 0, this.position);
+    }
+    this.position = 0;
+  }
+}
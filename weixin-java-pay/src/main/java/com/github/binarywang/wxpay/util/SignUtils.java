@@ -1,18 +1,13 @@
 package com.github.binarywang.wxpay.util;
 
 import com.github.binarywang.wxpay.bean.request.BaseWxPayRequest;
-import com.github.binarywang.wxpay.bean.result.BaseWxPayResult;
 import com.github.binarywang.wxpay.constant.WxPayConstants.SignType;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.thoughtworks.xstream.annotations.XStreamAlias;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.*;
 
 /**
@@ -64,18 +59,34 @@ public class SignUtils {
    * @return 签名字符串 string
    */
   public static String createSign(Object xmlBean, String signType, String signKey, String[] ignoredParams) {
-    Map<String, String> map = null;
-
     if (XmlConfig.fastMode) {
       if (xmlBean instanceof BaseWxPayRequest) {
-        map = ((BaseWxPayRequest) xmlBean).getSignParams();
+        return createSign(((BaseWxPayRequest) xmlBean).getSignParams(), signType, signKey, ignoredParams);
       }
     }
-    if (map == null) {
-      map = xmlBean2Map(xmlBean);
+
+    return createBeanSign(xmlBean, signType, signKey, ignoredParams);
+  }
+
+  /**
+   * 按预先排好序的字段直接计算签名，不再生成中间的Map.
+   */
+  private static String createBeanSign(Object xmlBean, String signType, String signKey, String[] ignoredParams) {
+    XmlBeanAccessor accessor = XmlBeanAccessor.of(xmlBean.getClass());
+    SignDigester digester = SignDigester.start(signType, signKey);
+    for (int i = 0; i < accessor.size(); i++) {
+      String key = accessor.name(i);
+      if (NO_SIGN_PARAMS.contains(key) || ArrayUtils.contains(ignoredParams, key)) {
+        continue;
+      }
+
+      String value = accessor.value(xmlBean, i);
+      if (StringUtils.isNotEmpty(value)) {
+        digester.param(key, value);
+      }
     }
 
-    return createSign(map, signType, signKey, ignoredParams);
+    return digester.finish("key", signKey);
   }
 
   /**
@@ -88,26 +99,27 @@ public class SignUtils {
    * @return 签名字符串 string
    */
   public static String createSign(Map<String, String> params, String signType, String signKey, String[] ignoredParams) {
-    StringBuilder toSign = new StringBuilder();
-    for (String key : new TreeMap<>(params).keySet()) {
-      String value = params.get(key);
-      boolean shouldSign = false;
+    SignDigester digester = SignDigester.start(signType, signKey);
+    for (Map.Entry<String, String> entry : sorted(params).entrySet()) {
+      String key = entry.getKey();
+      String value = entry.getValue();
       if (StringUtils.isNotEmpty(value) && !ArrayUtils.contains(ignoredParams, key)
         && !NO_SIGN_PARAMS.contains(key)) {
-        shouldSign = true;
-      }
-
-      if (shouldSign) {
-        toSign.append(key).append("=").append(value).append("&");
+        digester.param(key, value);
       }
     }
 
-    toSign.append("key=").append(signKey);
-    if (SignType.HMAC_SHA256.equals(signType)) {
-      return me.chanjar.weixin.common.util.SignUtils.createHmacSha256Sign(toSign.toString(), signKey);
-    } else {
-      return DigestUtils.md5Hex(toSign.toString()).toUpperCase();
+    return digester.finish("key", signKey);
+  }
+
+  /**
+   * 按参数名的字典序排列，已经是自然排序的SortedMap时直接使用.
+   */
+  private static SortedMap<String, String> sorted(Map<String, String> params) {
+    if (params instanceof SortedMap && ((SortedMap<String, String>) params).comparator() == null) {
+      return (SortedMap<String, String>) params;
     }
+    return new TreeMap<>(params);
   }
 
   /**
@@ -151,27 +163,15 @@ public class SignUtils {
   }
 
   private static String toSignBuilder(Map<String, String> sortedMap, String signKey, String signType) {
-    Iterator<Map.Entry<String, String>> iterator = new TreeMap<>(sortedMap).entrySet().iterator();
-    StringBuilder toSign = new StringBuilder();
-    while (iterator.hasNext()) {
-      Map.Entry<String, String> entry = iterator.next();
+    SignDigester digester = SignDigester.start(signType, signKey);
+    for (Map.Entry<String, String> entry : sorted(sortedMap).entrySet()) {
       String value = entry.getValue();
-      boolean shouldSign = false;
       if (StringUtils.isNotEmpty(value)) {
-        shouldSign = true;
-      }
-
-      if (shouldSign) {
-        toSign.append(entry.getKey()).append("=").append(value).append("&");
+        digester.param(entry.getKey(), value);
       }
     }
     //企业微信这里字段名不一样
-    toSign.append("secret=").append(signKey);
-    if (SignType.HMAC_SHA256.equals(signType)) {
-      return me.chanjar.weixin.common.util.SignUtils.createHmacSha256Sign(toSign.toString(), signKey);
-    } else {
-      return DigestUtils.md5Hex(toSign.toString()).toUpperCase();
-    }
+    return digester.finish("secret", signKey);
   }
 
   /**
@@ -183,7 +183,8 @@ public class SignUtils {
    * @return true - 签名校验成功，false - 签名校验失败
    */
   public static boolean checkSign(Object xmlBean, String signType, String signKey) {
-    return checkSign(xmlBean2Map(xmlBean), signType, signKey);
+    String sign = createBeanSign(xmlBean, signType, signKey, new String[0]);
+    return sign.equals(XmlBeanAccessor.of(xmlBean.getClass()).value(xmlBean, "sign"));
   }
 
   /**
@@ -206,38 +207,13 @@ public class SignUtils {
    * @return map对象 map
    */
   public static Map<String, String> xmlBean2Map(Object bean) {
-    Map<String, String> result = Maps.newHashMap();
-    List<Field> fields = new ArrayList<>(Arrays.asList(bean.getClass().getDeclaredFields()));
-    fields.addAll(Arrays.asList(bean.getClass().getSuperclass().getDeclaredFields()));
-    if (bean.getClass().getSuperclass().getSuperclass() == BaseWxPayRequest.class) {
-      fields.addAll(Arrays.asList(BaseWxPayRequest.class.getDeclaredFields()));
-    }
-
-    if (bean.getClass().getSuperclass().getSuperclass() == BaseWxPayResult.class) {
-      fields.addAll(Arrays.asList(BaseWxPayResult.class.getDeclaredFields()));
-    }
-
-    for (Field field : fields) {
-      try {
-        boolean isAccessible = field.isAccessible();
-        field.setAccessible(true);
-        if (field.get(bean) == null) {
-          field.setAccessible(isAccessible);
-          continue;
-        }
-
-        if (field.isAnnotationPresent(XStreamAlias.class)) {
-          result.put(field.getAnnotation(XStreamAlias.class).value(), field.get(bean).toString());
-        } else if (!Modifier.isStatic(field.getModifiers())) {
-          //忽略掉静态成员变量
-          result.put(field.getName(), field.get(bean).toString());
-        }
-
-        field.setAccessible(isAccessible);
-      } catch (SecurityException | IllegalArgumentException | IllegalAccessException e) {
-        log.error(e.getMessage(), e);
+    XmlBeanAccessor accessor = XmlBeanAccessor.of(bean.getClass());
+    Map<String, String> result = Maps.newHashMapWithExpectedSize(accessor.size());
+    for (int i = 0; i < accessor.size(); i++) {
+      String value = accessor.value(bean, i);
+      if (value != null) {
+        result.put(accessor.name(i), value);
       }
-
     }
 
     return result;
@@ -0,0 +1,147 @@
+package com.github.binarywang.wxpay.util;
+
+import com.github.binarywang.wxpay.bean.request.BaseWxPayRequest;
+import com.github.binarywang.wxpay.bean.result.BaseWxPayResult;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+import me.chanjar.weixin.common.error.WxRuntimeException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ * xml bean 的参数访问表，每个类型只在首次使用时反射一次.
+ * 参数名及取值规则与原先 {@link SignUtils#xmlBean2Map(Object)} 逐次反射时完全一致：
+ * 1. 字段依次取自本类、父类，以及父类的父类为 BaseWxPayRequest/BaseWxPayResult 时的该类；
+ * 2. 有@XStreamAlias的字段以其值为参数名，否则以非静态字段的字段名为参数名，
+ *    同名的字段均保留，取值时以后出现且值不为null的字段为准；
+ * 3. 参数名按字典序预先排好，签名时无需再排序.
+ * </pre>
+ */
+final class XmlBeanAccessor {
+  private static final Map<Class<?>, XmlBeanAccessor> CLASS_2_ACCESSOR = new ConcurrentHashMap<>();
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  /**
+   * 按字典序排列的参数名.
+   */
+  private final String[] names;
+  /**
+   * 与 {@link #names} 一一对应的字段读取方法，按字段出现顺序排列，类型统一为 (Object)Object.
+   */
+  private final MethodHandle[][] getters;
+
+  private XmlBeanAccessor(String[] names, MethodHandle[][] getters) {
+    this.names = names;
+    this.getters = getters;
+  }
+
+  static XmlBeanAccessor of(Class<?> clz) {
+    XmlBeanAccessor accessor = CLASS_2_ACCESSOR.get(clz);
+    if (accessor != null) {
+      return accessor;
+    }
+
+    return CLASS_2_ACCESSOR.computeIfAbsent(clz, XmlBeanAccessor::create);
+  }
+
+  private static XmlBeanAccessor create(Class<?> clz) {
+    List<Field> fields = new ArrayList<>(Arrays.asList(clz.getDeclaredFields()));
+    Class<?> superclass = clz.getSuperclass();
+    if (superclass != null) {
+      fields.addAll(Arrays.asList(superclass.getDeclaredFields()));
+      if (superclass.getSuperclass() == BaseWxPayRequest.class) {
+        fields.addAll(Arrays.asList(BaseWxPayRequest.class.getDeclaredFields()));
+      }
+
+      if (superclass.getSuperclass() == BaseWxPayResult.class) {
+        fields.addAll(Arrays.asList(BaseWxPayResult.class.getDeclaredFields()));
+      }
+    }
+
+    Map<String, List<Field>> name2Fields = new LinkedHashMap<>();
+    for (Field field : fields) {
+      if (field.isAnnotationPresent(XStreamAlias.class)) {
+        name2Fields.computeIfAbsent(field.getAnnotation(XStreamAlias.class).value(), k -> new ArrayList<>()).add(field);
+      } else if (!Modifier.isStatic(field.getModifiers())) {
+        //忽略掉静态成员变量
+        name2Fields.computeIfAbsent(field.getName(), k -> new ArrayList<>()).add(field);
+      }
+    }
+
+    String[] names = name2Fields.keySet().toArray(new String[0]);
+    Arrays.sort(names);
+    MethodHandle[][] getters = new MethodHandle[names.length][];
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    for (int i = 0; i < names.length; i++) {
+      List<Field> candidates = name2Fields.get(names[i]);
+      getters[i] = new MethodHandle[candidates.size()];
+      for (int j = 0; j < candidates.size(); j++) {
+        getters[i][j] = getter(lookup, candidates.get(j));
+      }
+    }
+
+    return new XmlBeanAccessor(names, getters);
+  }
+
+  private static MethodHandle getter(MethodHandles.Lookup lookup, Field field) {
+    try {
+      field.setAccessible(true);
+      MethodHandle getter = lookup.unreflectGetter(field);
+      if (Modifier.isStatic(field.getModifiers())) {
+        getter = MethodHandles.dropArguments(getter, 0, Object.class);
+      }
+      return getter.asType(GETTER_TYPE);
+    } catch (SecurityException | IllegalAccessException e) {
+      throw new WxRuntimeException("无法访问字段" + field, e);
+    }
+  }
+
+  int size() {
+    return this.names.length;
+  }
+
+  String name(int index) {
+    return this.names[index];
+  }
+
+  /**
+   * 读取第index个参数的值，同名字段中取最后一个不为null的值，均为null时返回null.
+   */
+  String value(Object bean, int index) {
+    MethodHandle[] candidates = this.getters[index];
+    for (int i = candidates.length - 1; i >= 0; i--) {
+      Object value;
+      try {
+        value = (Object) candidates[i].invokeExact(bean);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new WxRuntimeException(e);
+      }
+
+      if (value != null) {
+        return value.toString();
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * 读取指定参数的值，不存在该参数或值为null时返回null.
+   */
+  String value(Object bean, String name) {
+    int index = Arrays.binarySearch(this.names, name);
+    return index < 0 ? null : this.value(bean, index);
+  }
+}
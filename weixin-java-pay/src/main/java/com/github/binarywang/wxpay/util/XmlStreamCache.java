@@ -0,0 +1,79 @@
+package com.github.binarywang.wxpay.util;
+
+import com.thoughtworks.xstream.XStream;
+import me.chanjar.weixin.common.util.xml.XStreamInitializer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 按bean类型缓存已初始化好的XStream实例.
+ * <p>
+ * XStream的创建（注册converter、扫描注解、设置安全权限）开销较大，而配置完成后的实例是线程安全的，
+ * 因此每种bean类型只需初始化一次，之后的xml转换都复用该实例.
+ * 如需完全绕开XStream，可开启 {@link XmlConfig#fastMode}.
+ * </p>
+ *
+ * @author <a href="https://github.com/binarywang">binarywang(Binary Wang)</a>
+ */
+public class XmlStreamCache {
+  private static final Map<Class<?>, XStream> CLASS_2_XSTREAM_INSTANCE = new ConcurrentHashMap<>();
+  private static final Map<Class<?>, Map<Consumer<XStream>, XStream>> CLASS_2_CUSTOMIZED_XSTREAM_INSTANCE =
+    new ConcurrentHashMap<>();
+
+  /**
+   * 获取指定类型对应的XStream实例，首次调用时初始化.
+   *
+   * @param clz bean类型
+   * @return 已处理过该类型注解的XStream实例
+   */
+  public static XStream getInstance(Class<?> clz) {
+    return getInstance(CLASS_2_XSTREAM_INSTANCE, clz, clz, null);
+  }
+
+  /**
+   * 获取指定类型对应的、经过额外定制的XStream实例，首次调用时初始化.
+   * 按类型及customizer实例缓存，与 {@link #getInstance(Class)} 分开，同一类型使用不同的customizer会得到不同的实例；
+   * 调用方应复用同一个customizer实例（比如静态常量），否则每次调用都会初始化并缓存新的XStream实例.
+   *
+   * @param clz        bean类型
+   * @param customizer 额外的初始化逻辑，比如注册自定义converter
+   * @return 已处理过该类型注解的XStream实例
+   */
+  public static XStream getInstance(Class<?> clz, Consumer<XStream> customizer) {
+    Map<Consumer<XStream>, XStream> cache = CLASS_2_CUSTOMIZED_XSTREAM_INSTANCE.get(clz);
+    if (cache == null) {
+      cache = CLASS_2_CUSTOMIZED_XSTREAM_INSTANCE.computeIfAbsent(clz, k -> new ConcurrentHashMap<>());
+    }
+    return getInstance(cache, customizer, clz, customizer);
+  }
+
+  /**
+   * 移除指定类型及customizer对应的实例.
+   */
+  static void remove(Class<?> clz, Consumer<XStream> customizer) {
+    Map<Consumer<XStream>, XStream> cache = CLASS_2_CUSTOMIZED_XSTREAM_INSTANCE.get(clz);
+    if (cache != null) {
+      cache.remove(customizer);
+    }
+  }
+
+  private static <K> XStream getInstance(Map<K, XStream> cache, K key, Class<?> clz, Consumer<XStream> customizer) {
+    XStream xstream = cache.get(key);
+    if (xstream != null) {
+      return xstream;
+    }
+
+    return cache.computeIfAbsent(key, k -> {
+      XStream instance = XStreamInitializer.getInstance();
+      instance.setClassLoader(clz.getClassLoader());
+      instance.processAnnotations(clz);
+      if (customizer != null) {
+        customizer.accept(instance);
+      }
+      return instance;
+    });
+  }
+
+}
@@ -15,6 +15,7 @@ import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
 import org.apache.http.impl.execchain.ClientExecChain;
 import org.apache.http.util.EntityUtils;
 
@@ -54,6 +55,15 @@ public class SignatureExec implements ClientExecChain {
     }
   }
 
+  private static boolean isJson(CloseableHttpResponse response) {
+    HttpEntity entity = response.getEntity();
+    if (entity == null || entity.getContentType() == null) {
+      return false;
+    }
+    return ContentType.APPLICATION_JSON.getMimeType()
+      .equals(ContentType.parse(entity.getContentType().getValue()).getMimeType());
+  }
+
   @Override
   public CloseableHttpResponse execute(HttpRoute route, HttpRequestWrapper request,
       HttpClientContext context, HttpExecutionAware execAware) throws IOException, HttpException {
@@ -80,7 +90,10 @@ public class SignatureExec implements ClientExecChain {
     // 对成功应答验签
     StatusLine statusLine = response.getStatusLine();
     if (statusLine.getStatusCode() >= 200 && statusLine.getStatusCode() < 300) {
-      convertToRepeatableResponseEntity(response);
+      // 下载类的文件内容不带签名，不做转换以便流式读取
+      if (!(request.getOriginal() instanceof WechatPayDownloadHttpGet) || isJson(response)) {
+        convertToRepeatableResponseEntity(response);
+      }
       if (!validator.validate(response)) {
         throw new HttpException("应答的微信支付签名验证失败");
       }
@@ -0,0 +1,16 @@
+package com.github.binarywang.wxpay.v3;
+
+import org.apache.http.client.methods.HttpGet;
+
+/**
+ * 下载文件（如账单）使用的GET请求.
+ * 响应内容不是json时不会被整体读入内存用于验签，可以直接以流的方式读取.
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class WechatPayDownloadHttpGet extends HttpGet {
+
+  public WechatPayDownloadHttpGet(String uri) {
+    super(uri);
+  }
+}
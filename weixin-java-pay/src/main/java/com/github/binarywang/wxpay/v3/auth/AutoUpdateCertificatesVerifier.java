@@ -12,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import me.chanjar.weixin.common.error.WxRuntimeException;
 import me.chanjar.weixin.common.util.json.GsonParser;
+import org.apache.commons.io.IOUtils;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.CloseableHttpClient;
@@ -20,6 +21,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
@@ -37,7 +39,7 @@ import java.util.concurrent.locks.ReentrantLock;
  * @author doger.wang
  */
 @Slf4j
-public class AutoUpdateCertificatesVerifier implements Verifier {
+public class AutoUpdateCertificatesVerifier implements Verifier, Closeable {
   /**
    * 证书下载地址
    */
@@ -53,7 +55,17 @@ public class AutoUpdateCertificatesVerifier implements Verifier {
    */
   private final int minutesInterval;
 
-  private CertificatesVerifier verifier;
+  private volatile CertificatesVerifier verifier;
+
+  /**
+   * 下载证书使用的http客户端，只在持有lock时访问
+   */
+  private CloseableHttpClient httpClient;
+
+  /**
+   * 是否已注册到 {@link WxPayCertificateRefresher} 进行后台刷新
+   */
+  volatile boolean scheduled;
 
   private final Credentials credentials;
 
@@ -107,53 +119,133 @@ public class AutoUpdateCertificatesVerifier implements Verifier {
   }
 
   /**
-   * 检查证书是否在有效期内，如果不在有效期内则进行更新
+   * 立即下载并更新平台证书，供后台刷新使用.
+   *
+   * @return 平台证书是否发生了轮换
+   * @throws IOException              请求失败
+   * @throws GeneralSecurityException 证书解密或解析失败
+   */
+  public boolean refresh() throws IOException, GeneralSecurityException {
+    lock.lock();
+    try {
+      boolean rotated = autoUpdateCert();
+      instant = Instant.now();
+      return rotated;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 关闭下载证书使用的http客户端，之后如仍需下载证书会重新创建.
+   * 在 {@link WxPayCertificateRefresher} 取消注册或被新的验签器替换时调用.
+   */
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      IOUtils.closeQuietly(this.httpClient);
+      this.httpClient = null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return 证书更新间隔时间，单位为分钟
+   */
+  public int getMinutesInterval() {
+    return this.minutesInterval;
+  }
+
+  /**
+   * @return 上次成功更新证书的时间
+   */
+  public Instant getLastUpdateTime() {
+    return this.instant;
+  }
+
+  /**
+   * 检查距上次更新是否已超过更新间隔，超过则进行更新.
+   * 已交由 {@link WxPayCertificateRefresher} 后台刷新时不在请求线程中更新.
    */
   private void checkAndAutoUpdateCert() {
-    if (instant == null || instant.plus(minutesInterval, ChronoUnit.MINUTES).compareTo(Instant.now()) >= 0) {
+    if (this.scheduled) {
+      return;
+    }
+
+    if (instant == null || instant.plus(minutesInterval, ChronoUnit.MINUTES).compareTo(Instant.now()) <= 0) {
       if (lock.tryLock()) {
         try {
           autoUpdateCert();
-          //更新时间
-          instant = Instant.now();
         } catch (GeneralSecurityException | IOException e) {
           log.warn("Auto update cert failed, exception = " + e);
         } finally {
+          //失败时同样等到下个间隔再重试，避免每次验签都去请求
+          instant = Instant.now();
           lock.unlock();
         }
       }
     }
   }
 
-  private void autoUpdateCert() throws IOException, GeneralSecurityException {
-    CloseableHttpClient httpClient = WxPayV3HttpClientBuilder.create()
-      .withCredentials(credentials)
-      .withValidator(verifier == null ? new Validator() {
-        @Override
-        public boolean validate(CloseableHttpResponse response) throws IOException {
-          return true;
-        }
-      } : new WxPayValidator(verifier))
-      .build();
-
+  /**
+   * @return 平台证书是否发生了轮换
+   */
+  private boolean autoUpdateCert() throws IOException, GeneralSecurityException {
     HttpGet httpGet = new HttpGet(CERT_DOWNLOAD_PATH);
     httpGet.addHeader("Accept", "application/json");
 
-    CloseableHttpResponse response = httpClient.execute(httpGet);
-    int statusCode = response.getStatusLine().getStatusCode();
-    String body = EntityUtils.toString(response.getEntity());
-    if (statusCode == 200) {
-      List<X509Certificate> newCertList = deserializeToCerts(apiV3Key, body);
-      if (newCertList.isEmpty()) {
-        log.warn("Cert list is empty");
-        return;
+    CloseableHttpClient client = this.getHttpClient();
+    try (CloseableHttpResponse response = client.execute(httpGet)) {
+      int statusCode = response.getStatusLine().getStatusCode();
+      String body = EntityUtils.toString(response.getEntity());
+      if (statusCode == 200) {
+        List<X509Certificate> newCertList = deserializeToCerts(apiV3Key, body);
+        if (newCertList.isEmpty()) {
+          log.warn("Cert list is empty");
+          return false;
+        }
+        if (this.verifier == null) {
+          this.verifier = new CertificatesVerifier(newCertList);
+          return true;
+        }
+        return this.verifier.updateCertificates(newCertList);
+      } else {
+        throw new IOException("Auto update cert failed, statusCode = " + statusCode + ",body = " + body);
+      }
+    } finally {
+      if (client != this.httpClient) {
+        IOUtils.closeQuietly(client);
       }
-      this.verifier = new CertificatesVerifier(newCertList);
-    } else {
-      log.warn("Auto update cert failed, statusCode = " + statusCode + ",body = " + body);
     }
   }
 
+  /**
+   * 首次下载证书时尚无平台证书可用于验签，使用临时客户端；之后复用同一个以本对象验签的客户端.
+   */
+  private CloseableHttpClient getHttpClient() {
+    if (this.verifier == null) {
+      return WxPayV3HttpClientBuilder.create()
+        .withCredentials(credentials)
+        .withValidator(new Validator() {
+          @Override
+          public boolean validate(CloseableHttpResponse response) throws IOException {
+            return true;
+          }
+        })
+        .build();
+    }
+
+    if (this.httpClient == null) {
+      this.httpClient = WxPayV3HttpClientBuilder.create()
+        .withCredentials(credentials)
+        .withValidator(new WxPayValidator(this.verifier))
+        .build();
+    }
+    return this.httpClient;
+  }
+
   /**
    * 反序列化证书并解密
    */
@@ -11,45 +11,77 @@ import java.security.cert.CertificateExpiredException;
 import java.security.cert.CertificateNotYetValidException;
 import java.security.cert.X509Certificate;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
+/**
+ * <pre>
+ * 按证书序列号索引的微信支付平台证书验签器.
+ * 证书索引为不可变Map，更新时整体替换（copy-on-write），验签时无需加锁；
+ * 每个线程复用一个 Signature 对象，证书未变时不再重复 initVerify.
+ * </pre>
+ */
 public class CertificatesVerifier implements Verifier {
-  private final HashMap<BigInteger, X509Certificate> certificates = new HashMap<>();
+  private static final ThreadLocal<SignatureHolder> SIGNATURE_LOCAL = ThreadLocal.withInitial(SignatureHolder::new);
+
+  private volatile Map<BigInteger, X509Certificate> certificates;
 
   public CertificatesVerifier(List<X509Certificate> list) {
+    this.certificates = index(list);
+  }
 
+  /**
+   * 替换当前的平台证书.
+   *
+   * @param list 新的证书列表
+   * @return 证书序列号集合是否发生了变化（即是否发生了证书轮换）
+   */
+  public boolean updateCertificates(List<X509Certificate> list) {
+    Map<BigInteger, X509Certificate> newCertificates = index(list);
+    boolean rotated = !newCertificates.keySet().equals(this.certificates.keySet());
+    this.certificates = newCertificates;
+    return rotated;
+  }
+
+  private static Map<BigInteger, X509Certificate> index(List<X509Certificate> list) {
+    Map<BigInteger, X509Certificate> certificates = new HashMap<>(list.size() * 2);
     for (X509Certificate item : list) {
       certificates.put(item.getSerialNumber(), item);
     }
+    return Collections.unmodifiableMap(certificates);
   }
 
   private boolean verify(X509Certificate certificate, byte[] message, String signature) {
+    byte[] signatureBytes = Base64.getDecoder().decode(signature);
+    SignatureHolder holder = SIGNATURE_LOCAL.get();
     try {
-      Signature sign = Signature.getInstance("SHA256withRSA");
-      sign.initVerify(certificate);
+      Signature sign = holder.init(certificate);
       sign.update(message);
-      return sign.verify(Base64.getDecoder().decode(signature));
+      return sign.verify(signatureBytes);
     } catch (NoSuchAlgorithmException e) {
       throw new WxRuntimeException("当前Java环境不支持SHA256withRSA", e);
     } catch (SignatureException e) {
+      holder.certificate = null;
       throw new WxRuntimeException("签名验证过程发生了错误", e);
     } catch (InvalidKeyException e) {
+      holder.certificate = null;
       throw new WxRuntimeException("无效的证书", e);
     }
   }
 
   @Override
   public boolean verify(String serialNumber, byte[] message, String signature) {
-    BigInteger val = new BigInteger(serialNumber, 16);
-    return certificates.containsKey(val) && verify(certificates.get(val), message, signature);
+    X509Certificate certificate = this.certificates.get(new BigInteger(serialNumber, 16));
+    return certificate != null && verify(certificate, message, signature);
   }
 
 
   @Override
   public X509Certificate getValidCertificate() {
-    for (X509Certificate x509Cert : certificates.values()) {
+    for (X509Certificate x509Cert : this.certificates.values()) {
       try {
         x509Cert.checkValidity();
 
@@ -62,4 +94,24 @@ public class CertificatesVerifier implements Verifier {
     throw new NoSuchElementException("没有有效的微信支付平台证书");
   }
 
+  /**
+   * 线程内复用的 Signature，verify() 完成后会自动重置为 initVerify 之后的状态，同一证书可直接再次使用.
+   */
+  private static class SignatureHolder {
+    private Signature signature;
+    private X509Certificate certificate;
+
+    Signature init(X509Certificate certificate) throws NoSuchAlgorithmException, InvalidKeyException {
+      if (this.signature == null) {
+        this.signature = Signature.getInstance("SHA256withRSA");
+      }
+      if (this.certificate != certificate) {
+        this.certificate = null;
+        this.signature.initVerify(certificate);
+        this.certificate = certificate;
+      }
+      return this.signature;
+    }
+  }
+
 }
@@ -0,0 +1,191 @@
+package com.github.binarywang.wxpay.v3.auth;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * 微信支付平台证书后台刷新器.
+ *
+ * {@link AutoUpdateCertificatesVerifier} 默认在验签的请求线程中检查并下载平台证书.
+ * 注册（{@link #register(AutoUpdateCertificatesVerifier)}）到本刷新器后，改为由后台线程按其更新间隔下载证书，
+ * 请求线程只做验签. 一个刷新器可以被多个商户配置（如 WxPayService 的多商户配置）共用.
+ * 下载失败时每隔 retryIntervalMillis 重试，期间继续使用原有的证书验签.
+ * </pre>
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+@Slf4j
+public class WxPayCertificateRefresher {
+  private final Map<AutoUpdateCertificatesVerifier, TaskHolder> tasks = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService executor;
+
+  /**
+   * 刷新失败后再次尝试的间隔（毫秒）.
+   */
+  @Getter
+  @Setter
+  private long retryIntervalMillis = 60 * 1000L;
+
+  private final LongAdder successCount = new LongAdder();
+  private final LongAdder failureCount = new LongAdder();
+  private final LongAdder rotationCount = new LongAdder();
+
+  public WxPayCertificateRefresher() {
+    this(1);
+  }
+
+  /**
+   * @param poolSize 执行刷新的后台线程数
+   */
+  public WxPayCertificateRefresher(int poolSize) {
+    this.executor = Executors.newScheduledThreadPool(poolSize,
+      new ThreadFactoryBuilder().setNameFormat("WxPayCertificateRefresher-pool-%d").setDaemon(true).build());
+  }
+
+  /**
+   * 注册需要后台刷新的证书验签器，下次刷新时间为其上次更新时间加上更新间隔.
+   *
+   * @param verifier 证书验签器
+   * @return 是否注册成功，已注册过时返回false
+   */
+  public boolean register(AutoUpdateCertificatesVerifier verifier) {
+    TaskHolder holder = new TaskHolder(verifier);
+    if (this.tasks.putIfAbsent(verifier, holder) != null) {
+      return false;
+    }
+
+    verifier.scheduled = true;
+    long delay = TimeUnit.MINUTES.toMillis(verifier.getMinutesInterval());
+    if (verifier.getLastUpdateTime() != null) {
+      delay -= System.currentTimeMillis() - verifier.getLastUpdateTime().toEpochMilli();
+    }
+    this.schedule(holder, delay);
+    return true;
+  }
+
+  /**
+   * 取消后台刷新并关闭其下载证书的http客户端，之后验签器恢复在请求线程中检查更新.
+   *
+   * @param verifier 证书验签器
+   */
+  public void unregister(AutoUpdateCertificatesVerifier verifier) {
+    TaskHolder holder = this.tasks.remove(verifier);
+    if (holder != null) {
+      holder.cancel();
+      verifier.scheduled = false;
+      verifier.close();
+    }
+  }
+
+  /**
+   * 立即在后台刷新指定验签器的证书.
+   *
+   * @param verifier 证书验签器
+   */
+  public void refreshNow(AutoUpdateCertificatesVerifier verifier) {
+    TaskHolder holder = this.tasks.get(verifier);
+    if (holder != null) {
+      this.schedule(holder, 0);
+    }
+  }
+
+  /**
+   * 停止刷新器，已注册的验签器恢复在请求线程中检查更新.
+   */
+  public void shutdown() {
+    this.tasks.keySet().forEach(this::unregister);
+    this.executor.shutdownNow();
+  }
+
+  /**
+   * @return 已注册的验签器数量
+   */
+  public int getRegisteredCount() {
+    return this.tasks.size();
+  }
+
+  /**
+   * @return 已成功刷新的次数
+   */
+  public long getSuccessCount() {
+    return this.successCount.sum();
+  }
+
+  /**
+   * @return 刷新失败的次数
+   */
+  public long getFailureCount() {
+    return this.failureCount.sum();
+  }
+
+  /**
+   * @return 刷新后平台证书发生轮换的次数
+   */
+  public long getRotationCount() {
+    return this.rotationCount.sum();
+  }
+
+  private void schedule(TaskHolder holder, long delayMillis) {
+    if (holder.cancelled || this.executor.isShutdown()) {
+      return;
+    }
+
+    synchronized (holder) {
+      if (holder.future != null) {
+        holder.future.cancel(false);
+      }
+      holder.future = this.executor.schedule(() -> this.run(holder), Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void run(TaskHolder holder) {
+    if (holder.cancelled) {
+      return;
+    }
+
+    AutoUpdateCertificatesVerifier verifier = holder.verifier;
+    long delay;
+    try {
+      if (verifier.refresh()) {
+        this.rotationCount.increment();
+        log.info("微信支付平台证书已轮换");
+      }
+      this.successCount.increment();
+      delay = TimeUnit.MINUTES.toMillis(verifier.getMinutesInterval());
+    } catch (Throwable e) {
+      this.failureCount.increment();
+      log.warn("后台刷新微信支付平台证书失败，{} ms 后重试", this.retryIntervalMillis, e);
+      delay = this.retryIntervalMillis;
+    }
+
+    this.schedule(holder, delay);
+  }
+
+  private static class TaskHolder {
+    private final AutoUpdateCertificatesVerifier verifier;
+    private volatile boolean cancelled;
+    private ScheduledFuture<?> future;
+
+    TaskHolder(AutoUpdateCertificatesVerifier verifier) {
+      this.verifier = verifier;
+    }
+
+    synchronized void cancel() {
+      this.cancelled = true;
+      if (this.future != null) {
+        this.future.cancel(false);
+      }
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package com.github.binarywang.wxpay.bean.result;
+
+import com.github.binarywang.wxpay.constant.WxPayConstants;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.testng.Assert.*;
+
+/**
+ * 对账单流式读取的测试.
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class WxPayBillReaderTest {
+  private static final String BILL_HEADER = "交易时间,公众账号ID,商户号,特约商户号,设备号,微信订单号,商户订单号,用户标识,交易类型,交易状态,付款银行,货币种类,应结订单金额,代金券金额,微信退款单号,商户退款单号,退款金额,充值券退款金额,退款类型,退款状态,商品名称,商户数据包,手续费,费率,订单金额,申请退款金额,费率备注\n";
+  private static final String BILL_ROW = "`2019-07-25 08:35:41,`wx2421b1c4370ec43b,`10000100,`0,`,`4200000001%05d,`out%05d,`openid,`JSAPI,`SUCCESS,`CFT,`CNY,`6.00,`0.00,`0,`0,`0.00,`0.00,`,`,`商品,名称,`,`0.04000,`0.60%%,`6.00,`0.00,`\n";
+  private static final String BILL_SUMMARY = "总交易单数,应结订单总金额,退款总金额,充值券退款总金额,手续费总金额,订单总金额,申请退款总金额\n" +
+    "`%d,`5.76,`1.42,`0.00,`0.01000,`5.76,`1.42\n";
+
+  @Test
+  public void testReadGzipBill() throws Exception {
+    int count = 5000;
+    StringBuilder content = new StringBuilder(BILL_HEADER);
+    for (int i = 0; i < count; i++) {
+      content.append(String.format(BILL_ROW, i, i));
+    }
+    content.append(String.format(BILL_SUMMARY, count));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    List<WxPayBillInfo> rows = new ArrayList<>();
+    WxPayBillResult summary;
+    try (WxPayBillReader reader = WxPayBillReader.fromStream(new ByteArrayInputStream(out.toByteArray()),
+      WxPayConstants.BillType.ALL, WxPayConstants.TarType.GZIP)) {
+      summary = reader.read(rows::add);
+      assertFalse(reader.hasNext());
+    }
+
+    assertEquals(rows.size(), count);
+    assertEquals(summary.getTotalRecord(), String.valueOf(count));
+    assertEquals(summary.getTotalAppliedRefundFee(), "1.42");
+    assertNull(summary.getBillInfoList());
+
+    WxPayBillInfo last = rows.get(count - 1);
+    assertEquals(last.getOutTradeNo(), String.format("out%05d", count - 1));
+    assertEquals(last.getBody(), "商品 名称");
+    assertEquals(last.getPoundageRate(), "0.60%");
+    assertEquals(last.getFeeRemark(), "");
+
+    // 与整体解析的结果一致
+    WxPayBillResult result = WxPayBillResult.fromRawBillResultString(content.toString(), WxPayConstants.BillType.ALL);
+    assertEquals(result.getBillInfoList().size(), count);
+    assertEquals(result.getBillInfoList().get(count - 1), last);
+  }
+
+  @Test
+  public void testReadFundFlow() {
+    String content = "\uFEFF记账时间,微信支付业务单号,资金流水单号,业务名称,业务类型,收支类型,收支金额（元）,账户结余（元）,资金变更提交申请人,备注,业务凭证号\r\n" +
+      "`2018-02-01 04:21:23,`50000305742018020103387128253,`1900009231201802015884652186,`退款,`退款,`支出,`0.02,`0.17,`system,`缺货,`REF4200000068201801293084726067\r\n" +
+      "资金流水总笔数,收入笔数,收入金额,支出笔数,支出金额\r\n" +
+      "`20.0,`17.0,`0.35,`3.0,`0.18";
+
+    WxPayFundFlowReader reader = new WxPayFundFlowReader(new StringReader(content));
+    assertTrue(reader.hasNext());
+    WxPayFundFlowBaseResult row = reader.next();
+    assertEquals(row.getBillingTime(), "2018-02-01 04:21:23");
+    assertEquals(row.getMemo(), "缺货");
+    assertEquals(row.getBizVoucherId(), "REF4200000068201801293084726067");
+    assertFalse(reader.hasNext());
+
+    WxPayFundFlowResult summary = reader.getSummary();
+    assertEquals(summary.getTotalRecord(), "20.0");
+    assertEquals(summary.getExpenditureAmount(), "0.18");
+  }
+}
@@ -1,7 +1,19 @@
 package com.github.binarywang.wxpay.config;
 
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
 import org.testng.annotations.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
 /**
  * <pre>
  *  Created by BinaryWang on 2017/6/18.
@@ -37,4 +49,41 @@ public class WxPayConfigTest {
   public void testHashCode() {
     payConfig.hashCode();
   }
+
+  @Test
+  public void testResetApiHttpClientsClosesLater() {
+    AtomicInteger closed = new AtomicInteger();
+    CloseableHttpClient client = new CloseableHttpClient() {
+      @Override
+      protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request, HttpContext context) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void close() {
+        closed.incrementAndGet();
+      }
+
+      @Override
+      @SuppressWarnings("deprecation")
+      public HttpParams getParams() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      @SuppressWarnings("deprecation")
+      public ClientConnectionManager getConnectionManager() {
+        throw new UnsupportedOperationException();
+      }
+    };
+    payConfig.setApiHttpClient(client);
+    payConfig.setApiSslHttpClient(client);
+
+    payConfig.resetApiHttpClients();
+
+    assertNull(payConfig.getApiHttpClient());
+    assertNull(payConfig.getApiSslHttpClient());
+    // 仍在使用旧客户端的请求不会被中断
+    assertEquals(closed.get(), 0);
+  }
 }
@@ -1,10 +1,26 @@
 package com.github.binarywang.wxpay.util;
 
+import com.github.binarywang.wxpay.bean.entpay.EntPayRedpackResult;
+import com.github.binarywang.wxpay.bean.profitsharing.ProfitSharingReturnResult;
+import com.github.binarywang.wxpay.bean.request.BaseWxPayRequest;
+import com.github.binarywang.wxpay.bean.request.WxPayUnifiedOrderRequest;
+import com.github.binarywang.wxpay.bean.result.BaseWxPayResult;
+import com.github.binarywang.wxpay.constant.WxPayConstants;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
 import org.testng.annotations.*;
 
 import com.google.common.base.Splitter;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import static com.github.binarywang.wxpay.constant.WxPayConstants.SignType.HMAC_SHA256;
+import static com.github.binarywang.wxpay.constant.WxPayConstants.SignType.MD5;
 import static org.testng.Assert.*;
 
 /**
@@ -51,6 +67,104 @@ public class SignUtilsTest {
    */
   @Test
   public void testCheckSign() throws Exception {
+    String signKey = "192006250b4c09247ec02edce69f6a2d";
+    WxPayUnifiedOrderRequest request = this.newRequest();
+    request.setSign(SignUtils.createSign(request, HMAC_SHA256, signKey, null));
+
+    assertTrue(SignUtils.checkSign(request, HMAC_SHA256, signKey));
+    assertFalse(SignUtils.checkSign(request, MD5, signKey));
+    assertTrue(SignUtils.checkSign(SignUtils.xmlBean2Map(request), HMAC_SHA256, signKey));
+  }
+
+  /**
+   * 按字段缓存的取值结果应与原先逐次反射的 xmlBean2Map 完全一致，包括同一参数名对应多个字段的类.
+   */
+  @Test
+  public void testXmlBean2MapMatchesReflection() {
+    String signKey = "192006250b4c09247ec02edce69f6a2d";
+    EntPayRedpackResult redpackResult = BaseWxPayResult.fromXML("<xml>\n" +
+      "<return_code><![CDATA[SUCCESS]]></return_code>\n" +
+      "<return_msg><![CDATA[OK]]></return_msg>\n" +
+      "<result_code><![CDATA[SUCCESS]]></result_code>\n" +
+      "<mch_billno><![CDATA[1900000109201506101234567890]]></mch_billno>\n" +
+      "<mch_id><![CDATA[1900000109]]></mch_id>\n" +
+      "<wxappid><![CDATA[wxd930ea5d5a258f4f]]></wxappid>\n" +
+      "<re_openid><![CDATA[oUpF8uMuAJO_M2pxb1Q9zNjWeS6o]]></re_openid>\n" +
+      "<total_amount>100</total_amount>\n" +
+      "<send_listid><![CDATA[1000041701201506101234567890]]></send_listid>\n" +
+      "<nonce_str><![CDATA[ibuaiVcKdpRxkhJA]]></nonce_str>\n" +
+      "</xml>", EntPayRedpackResult.class);
+    ProfitSharingReturnResult returnResult = new ProfitSharingReturnResult();
+    returnResult.setReturnCode("SUCCESS");
+    returnResult.setErrorCode("ERROR_CODE");
+    returnResult.setMchId("1900000109");
+
+    for (Object bean : new Object[]{this.newRequest(), redpackResult, returnResult}) {
+      Map<String, String> expected = reflectXmlBean2Map(bean);
+      assertEquals(SignUtils.xmlBean2Map(bean), expected, bean.getClass().getSimpleName());
+      assertEquals(SignUtils.createSign(bean, MD5, signKey, null), SignUtils.createSign(expected, MD5, signKey, null));
+      assertEquals(SignUtils.createSign(bean, HMAC_SHA256, signKey, null),
+        SignUtils.createSign(expected, HMAC_SHA256, signKey, null));
+    }
+    assertEquals(SignUtils.xmlBean2Map(redpackResult).get("mch_id"), "1900000109");
+    assertEquals(SignUtils.xmlBean2Map(returnResult).get("error_code"), "ERROR_CODE");
+
+    WxPayUnifiedOrderRequest request = this.newRequest();
+    assertNotEquals(SignUtils.createSign(request, MD5, signKey, new String[]{"body"}),
+      SignUtils.createSign(request, MD5, signKey, null));
+  }
+
+  /**
+   * 原先按字段逐次反射生成参数的实现，用作对照.
+   */
+  private static Map<String, String> reflectXmlBean2Map(Object bean) {
+    Map<String, String> result = new HashMap<>();
+    List<Field> fields = new ArrayList<>(Arrays.asList(bean.getClass().getDeclaredFields()));
+    fields.addAll(Arrays.asList(bean.getClass().getSuperclass().getDeclaredFields()));
+    if (bean.getClass().getSuperclass().getSuperclass() == BaseWxPayRequest.class) {
+      fields.addAll(Arrays.asList(BaseWxPayRequest.class.getDeclaredFields()));
+    }
+
+    if (bean.getClass().getSuperclass().getSuperclass() == BaseWxPayResult.class) {
+      fields.addAll(Arrays.asList(BaseWxPayResult.class.getDeclaredFields()));
+    }
+
+    for (Field field : fields) {
+      try {
+        field.setAccessible(true);
+        Object value = field.get(bean);
+        if (value == null) {
+          continue;
+        }
+
+        if (field.isAnnotationPresent(XStreamAlias.class)) {
+          result.put(field.getAnnotation(XStreamAlias.class).value(), value.toString());
+        } else if (!Modifier.isStatic(field.getModifiers())) {
+          result.put(field.getName(), value.toString());
+        }
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    return result;
+  }
+
+  private WxPayUnifiedOrderRequest newRequest() {
+    WxPayUnifiedOrderRequest request = WxPayUnifiedOrderRequest.newBuilder()
+      .body("腾讯充值中心-QQ会员充值\uD83D\uDE00")
+      .outTradeNo("20150806125346")
+      .totalFee(88)
+      .spbillCreateIp("123.12.12.123")
+      .notifyUrl("http://www.weixin.qq.com/wxpay/pay.php")
+      .tradeType(WxPayConstants.TradeType.JSAPI)
+      .openid("oUpF8uMuAJO_M2pxb1Q9zNjWeS6o")
+      .attach("")
+      .build();
+    request.setAppid("wxd930ea5d5a258f4f");
+    request.setMchId("10000100");
+    request.setNonceStr("ibuaiVcKdpRxkhJA");
+    return request;
   }
 
 }
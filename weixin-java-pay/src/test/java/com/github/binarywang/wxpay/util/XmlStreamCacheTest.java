@@ -0,0 +1,55 @@
+package com.github.binarywang.wxpay.util;
+
+import com.github.binarywang.wxpay.bean.notify.WxPayNotifyResponse;
+import com.github.binarywang.wxpay.bean.notify.WxPayOrderNotifyResult;
+import com.github.binarywang.wxpay.bean.result.BaseWxPayResult;
+import com.thoughtworks.xstream.XStream;
+import org.testng.annotations.Test;
+
+import java.util.function.Consumer;
+
+import static org.testng.Assert.*;
+
+/**
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class XmlStreamCacheTest {
+
+  @Test
+  public void testGetInstance() {
+    XStream xstream = XmlStreamCache.getInstance(WxPayNotifyResponse.class);
+    assertSame(XmlStreamCache.getInstance(WxPayNotifyResponse.class), xstream);
+
+    Consumer<XStream> customizer = x -> {
+    };
+    Consumer<XStream> anotherCustomizer = x -> x.alias("response", WxPayNotifyResponse.class);
+    try {
+      XStream customized = XmlStreamCache.getInstance(WxPayNotifyResponse.class, customizer);
+      assertNotSame(customized, xstream);
+      assertSame(XmlStreamCache.getInstance(WxPayNotifyResponse.class, customizer), customized);
+      // 不同的customizer不会拿到彼此的实例
+      assertNotSame(XmlStreamCache.getInstance(WxPayNotifyResponse.class, anotherCustomizer), customized);
+    } finally {
+      XmlStreamCache.remove(WxPayNotifyResponse.class, customizer);
+      XmlStreamCache.remove(WxPayNotifyResponse.class, anotherCustomizer);
+    }
+  }
+
+  @Test
+  public void testCustomizedAndPlainInstancesDoNotClash() {
+    String xmlString = "<xml>" +
+      "<appid><![CDATA[wx2421b1c4370ec43b]]></appid>" +
+      "<coupon_count>1</coupon_count>" +
+      "<coupon_fee_0>100</coupon_fee_0>" +
+      "<coupon_id_0><![CDATA[10000]]></coupon_id_0>" +
+      "<return_code><![CDATA[SUCCESS]]></return_code>" +
+      "</xml>";
+
+    BaseWxPayResult.fromXML(xmlString, WxPayOrderNotifyResult.class);
+    WxPayOrderNotifyResult result = WxPayOrderNotifyResult.fromXML(xmlString);
+    assertNotNull(result.getCouponList());
+    assertEquals(result.getCouponList().size(), 1);
+    assertEquals(result.getCouponList().get(0).getCouponId(), "10000");
+  }
+
+}
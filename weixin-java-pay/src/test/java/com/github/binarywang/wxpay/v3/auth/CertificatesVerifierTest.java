@@ -0,0 +1,94 @@
+package com.github.binarywang.wxpay.v3.auth;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+/**
+ * 平台证书验签器的测试，证书为测试时生成的自签名证书.
+ *
+ * @author <a href="https://github.com/binarywang">Binary Wang</a>
+ */
+public class CertificatesVerifierTest {
+  private static final byte[] MESSAGE = "1554208460\n593BEC0C930BF1AFEB40B4A08C8FB242\n{}\n".getBytes(StandardCharsets.UTF_8);
+
+  private KeyPair keyPair1;
+  private KeyPair keyPair2;
+  private X509Certificate certificate1;
+  private X509Certificate certificate2;
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    this.keyPair1 = generator.generateKeyPair();
+    this.keyPair2 = generator.generateKeyPair();
+    this.certificate1 = certificate(this.keyPair1, BigInteger.valueOf(0x1001));
+    this.certificate2 = certificate(this.keyPair2, BigInteger.valueOf(0x1002));
+  }
+
+  private static X509Certificate certificate(KeyPair keyPair, BigInteger serial) throws Exception {
+    X500Name name = new X500Name("CN=WxJava Test");
+    Date notBefore = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1));
+    Date notAfter = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+    return new JcaX509CertificateConverter().getCertificate(
+      new JcaX509v3CertificateBuilder(name, serial, notBefore, notAfter, name, keyPair.getPublic())
+        .build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+  }
+
+  private static String sign(KeyPair keyPair, byte[] message) throws Exception {
+    Signature sign = Signature.getInstance("SHA256withRSA");
+    sign.initSign(keyPair.getPrivate());
+    sign.update(message);
+    return Base64.getEncoder().encodeToString(sign.sign());
+  }
+
+  @Test
+  public void testVerify() throws Exception {
+    CertificatesVerifier verifier = new CertificatesVerifier(Arrays.asList(this.certificate1, this.certificate2));
+    String signature1 = sign(this.keyPair1, MESSAGE);
+    String signature2 = sign(this.keyPair2, MESSAGE);
+
+    //同一线程内交替使用不同证书，复用的Signature需要正确地重新初始化
+    for (int i = 0; i < 3; i++) {
+      assertTrue(verifier.verify("1001", MESSAGE, signature1));
+      assertTrue(verifier.verify("1002", MESSAGE, signature2));
+      assertFalse(verifier.verify("1001", MESSAGE, signature2));
+    }
+    assertFalse(verifier.verify("1001", "tampered".getBytes(StandardCharsets.UTF_8), signature1));
+    assertTrue(verifier.verify("1001", MESSAGE, signature1));
+    assertFalse(verifier.verify("1003", MESSAGE, signature1));
+  }
+
+  @Test
+  public void testUpdateCertificates() throws Exception {
+    CertificatesVerifier verifier = new CertificatesVerifier(Collections.singletonList(this.certificate1));
+    String signature2 = sign(this.keyPair2, MESSAGE);
+    assertFalse(verifier.verify("1002", MESSAGE, signature2));
+
+    assertTrue(verifier.updateCertificates(Arrays.asList(this.certificate1, this.certificate2)));
+    assertTrue(verifier.verify("1002", MESSAGE, signature2));
+    assertFalse(verifier.updateCertificates(Arrays.asList(this.certificate2, this.certificate1)));
+
+    assertTrue(verifier.updateCertificates(Collections.singletonList(this.certificate2)));
+    assertFalse(verifier.verify("1001", MESSAGE, sign(this.keyPair1, MESSAGE)));
+    assertEquals(verifier.getValidCertificate(), this.certificate2);
+  }
+}